@@ -22,6 +22,7 @@
 import org.polypheny.db.catalog.entity.CatalogColumn;
 import org.polypheny.db.catalog.entity.CatalogSchema;
 import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.schema.ColumnStatistic;
 
 
 public abstract class StatisticsManager implements PropertyChangeListener {
@@ -62,6 +63,12 @@ public static StatisticsManager getInstance() {
 
     public abstract void updateRowCountPerTable( long tableId, int number, String source );
 
+    /**
+     * Registers rows modified by a committed transaction. Once too many rows of a table have been modified,
+     * the incrementally maintained statistics of the table are reevaluated.
+     */
+    public abstract void addModifiedRows( long tableId, int number );
+
     public abstract void setIndexSize( long tableId, int indexSize );
 
     public abstract void setTableCalls( long tableId, String kind );
@@ -78,6 +85,11 @@ public static StatisticsManager getInstance() {
 
     public abstract Integer rowCountPerTable( long tableId );
 
+    /**
+     * Returns the distinct value estimate and the histogram of a column, or {@code null} if they are not known.
+     */
+    public abstract ColumnStatistic getColumnStatistic( long tableId, String columnName );
+
     public abstract void updateCommitRollback( boolean committed );
 
     public abstract Object getDashboardInformation();
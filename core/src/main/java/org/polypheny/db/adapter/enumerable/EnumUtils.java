@@ -58,6 +58,7 @@
 import org.polypheny.db.algebra.core.JoinAlgType;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.runtime.PolyCollections.PolyDictionary;
 import org.polypheny.db.runtime.PolyCollections.PolyList;
@@ -106,6 +107,40 @@ public static Class javaRowClass( JavaTypeFactory typeFactory, AlgDataType type
     }
 
 
+    /**
+     * Returns whether the given fields can be used as the key of an operation of {@link org.polypheny.db.runtime.hash.PrimitiveHashEnumerables}, i.e.
+     * there are one or two fields of integral types, which can be read directly from rows of the given format.
+     */
+    static boolean isPrimitiveHashKey( AlgDataType rowType, List<Integer> keys, JavaRowFormat format ) {
+        if ( !RuntimeConfig.PRIMITIVE_HASH_TABLES.getBoolean() || keys.isEmpty() || keys.size() > 2 ) {
+            return false;
+        }
+        if ( format != JavaRowFormat.ARRAY && format != JavaRowFormat.SCALAR ) {
+            return false;
+        }
+        for ( int key : keys ) {
+            switch ( rowType.getFieldList().get( key ).getType().getPolyType() ) {
+                case TINYINT:
+                case SMALLINT:
+                case INTEGER:
+                case BIGINT:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Creates an expression for an array containing the given integers.
+     */
+    static Expression intArray( List<Integer> values ) {
+        return Expressions.newArrayInit( int.class, values.stream().map( Expressions::constant ).collect( Collectors.toList() ) );
+    }
+
+
     static List<Type> fieldTypes( final JavaTypeFactory typeFactory, final List<? extends AlgDataType> inputTypes ) {
         return new AbstractList<Type>() {
             @Override
@@ -50,12 +50,14 @@
 import org.apache.calcite.linq4j.tree.Expressions;
 import org.apache.calcite.linq4j.tree.ParameterExpression;
 import org.apache.calcite.linq4j.tree.Types;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.enumerable.impl.AggAddContextImpl;
 import org.polypheny.db.adapter.enumerable.impl.AggResultContextImpl;
 import org.polypheny.db.adapter.java.JavaTypeFactory;
 import org.polypheny.db.algebra.AlgCollations;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.InvalidAlgException;
+import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.core.Aggregate;
 import org.polypheny.db.algebra.core.AggregateCall;
 import org.polypheny.db.algebra.fun.AggFunction;
@@ -67,6 +69,7 @@
 import org.polypheny.db.prepare.JavaTypeFactoryImpl.SyntheticRecordType;
 import org.polypheny.db.rex.RexInputRef;
 import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.runtime.vector.ColumnType;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.ImmutableBitSet;
 import org.polypheny.db.util.Pair;
@@ -176,6 +179,9 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         //     .distinct(equalityComparer);
 
         final PhysType inputPhysType = result.physType;
+        if ( canImplementPrimitive( inputPhysType.getFormat() ) ) {
+            return implementPrimitive( implementor, builder, childExp );
+        }
 
         ParameterExpression parameter = Expressions.parameter( inputPhysType.getJavaRowType(), "a0" );
 
@@ -361,6 +367,37 @@ public RexToLixTranslator rowTranslator() {
         } else {
             final Expression keySelector_ = builder.append( "keySelector", inputPhysType.generateSelector( parameter, groupSet.asList(), keyPhysType.getFormat() ) );
             final Expression resultSelector_ = builder.append( "resultSelector", Expressions.lambda( Function2.class, resultBlock.toBlock(), key_, acc_ ) );
+            final int splitCount = getCluster().getMetadataQuery().splitCount( this );
+            if ( splitCount > 1 ) {
+                builder.add(
+                        Expressions.return_(
+                                null,
+                                Expressions.call(
+                                        BuiltInMethod.PARALLEL_GROUP_BY.method,
+                                        childExp,
+                                        keySelector_,
+                                        Expressions.call( lambdaFactory, BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method ),
+                                        Expressions.call( lambdaFactory, BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method ),
+                                        Expressions.call( lambdaFactory, BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method, resultSelector_ ),
+                                        Util.first( keyPhysType.comparer(), Expressions.constant( null ) ),
+                                        Expressions.constant( splitCount ) ) ) );
+                return implementor.result( physType, builder.toBlock() );
+            }
+            if ( RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() > 0 ) {
+                builder.add(
+                        Expressions.return_(
+                                null,
+                                Expressions.call(
+                                        BuiltInMethod.SPILL_GROUP_BY.method,
+                                        childExp,
+                                        keySelector_,
+                                        Expressions.call( lambdaFactory, BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method ),
+                                        Expressions.call( lambdaFactory, BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method ),
+                                        Expressions.call( lambdaFactory, BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method, resultSelector_ ),
+                                        Util.first( keyPhysType.comparer(), Expressions.constant( null ) ),
+                                        Expressions.call( BuiltInMethod.MEMORY_BUDGET_OF.method, DataContext.ROOT ) ) ) );
+                return implementor.result( physType, builder.toBlock() );
+            }
             builder.add(
                     Expressions.return_(
                             null,
@@ -377,6 +414,79 @@ public RexToLixTranslator rowTranslator() {
     }
 
 
+    /**
+     * Returns whether the aggregation can be computed using primitive hash tables and accumulators. This requires one or
+     * two integral group keys and only {@code COUNT}, {@code SUM}, {@code $SUM0}, {@code MIN} and {@code MAX} calls on
+     * numerical values. Aggregations which are executed in parallel or which may spill use the generic implementation.
+     */
+    private boolean canImplementPrimitive( JavaRowFormat inputFormat ) {
+        if ( indicator || getGroupType() != Group.SIMPLE || aggCalls.isEmpty() ) {
+            return false;
+        }
+        if ( !EnumUtils.isPrimitiveHashKey( getInput().getRowType(), groupSet.asList(), inputFormat ) ) {
+            return false;
+        }
+        if ( RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() > 0 || getCluster().getMetadataQuery().splitCount( this ) > 1 ) {
+            return false;
+        }
+        for ( AggregateCall aggCall : aggCalls ) {
+            if ( aggCall.isDistinct() || aggCall.isApproximate() || aggCall.filterArg >= 0 || ColumnType.of( aggCall.getType() ).storage == ColumnType.Storage.OBJECT ) {
+                return false;
+            }
+            switch ( aggCall.getAggregation().getKind() ) {
+                case COUNT:
+                    if ( aggCall.getArgList().size() > 1 ) {
+                        return false;
+                    }
+                    break;
+                case SUM:
+                case SUM0:
+                case MIN:
+                case MAX:
+                    switch ( getInput().getRowType().getFieldList().get( aggCall.getArgList().get( 0 ) ).getType().getPolyType() ) {
+                        case TINYINT:
+                        case SMALLINT:
+                        case INTEGER:
+                        case BIGINT:
+                        case REAL:
+                        case FLOAT:
+                        case DOUBLE:
+                            break;
+                        default:
+                            return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+
+    private Result implementPrimitive( EnumerableAlgImplementor implementor, BlockBuilder builder, Expression childExp ) {
+        final List<Expression> functions = new ArrayList<>();
+        final List<Integer> arguments = new ArrayList<>();
+        final List<Expression> outputTypes = new ArrayList<>();
+        for ( AggregateCall aggCall : aggCalls ) {
+            functions.add( Expressions.field( null, Kind.class, aggCall.getAggregation().getKind().name() ) );
+            arguments.add( aggCall.getArgList().isEmpty() ? -1 : aggCall.getArgList().get( 0 ) );
+            outputTypes.add( Expressions.field( null, ColumnType.class, ColumnType.of( aggCall.getType() ).name() ) );
+        }
+        builder.add(
+                Expressions.return_(
+                        null,
+                        Expressions.call(
+                                BuiltInMethod.PRIMITIVE_HASH_GROUP_BY.method,
+                                childExp,
+                                EnumUtils.intArray( groupSet.asList() ),
+                                Expressions.newArrayInit( Kind.class, functions ),
+                                EnumUtils.intArray( arguments ),
+                                Expressions.newArrayInit( ColumnType.class, outputTypes ) ) ) );
+        return implementor.result( PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY ), builder.toBlock() );
+    }
+
+
     private static boolean hasOrderedCall( List<AggImpState> aggs ) {
         for ( AggImpState agg : aggs ) {
             if ( !agg.call.collation.equals( AlgCollations.EMPTY ) ) {
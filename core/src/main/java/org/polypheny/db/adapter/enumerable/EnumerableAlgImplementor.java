@@ -66,6 +66,7 @@
 import org.apache.calcite.linq4j.tree.ConstantExpression;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.GotoExpressionKind;
 import org.apache.calcite.linq4j.tree.GotoStatement;
 import org.apache.calcite.linq4j.tree.MemberDeclaration;
 import org.apache.calcite.linq4j.tree.MethodCallExpression;
@@ -78,12 +79,15 @@
 import org.apache.calcite.linq4j.tree.VisitorImpl;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.constant.ConformanceEnum;
+import org.polypheny.db.algebra.metadata.CardinalityFeedback;
 import org.polypheny.db.plan.AlgImplementor;
 import org.polypheny.db.prepare.JavaTypeFactoryImpl.SyntheticRecordType;
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.runtime.Enumerables;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.Conformance;
+import org.polypheny.db.util.Util;
 
 
 /**
@@ -101,10 +105,16 @@ public class EnumerableAlgImplementor extends JavaAlgImplementor {
 
     private int contextCounter = -1;
 
+    /**
+     * Whether the rows produced by the operators are counted in sampled executions, see {@link CardinalityFeedback}.
+     */
+    private final boolean countRows;
+
 
     public EnumerableAlgImplementor( RexBuilder rexBuilder, Map<String, Object> internalParameters ) {
         super( rexBuilder );
         this.map = internalParameters;
+        this.countRows = CardinalityFeedback.INSTANCE.isActive();
     }
 
 
@@ -112,7 +122,43 @@ public EnumerableAlg.Result visitChild( EnumerableAlg parent, int ordinal, Enume
         if ( parent != null ) {
             assert child == parent.getInputs().get( ordinal );
         }
-        return child.implement( this, prefer );
+        return countRows( child, child.implement( this, prefer ) );
+    }
+
+
+    /**
+     * Wraps the output of an operator in a counter of its rows. The counter only counts if the cardinalities of the
+     * execution are collected (see {@link Enumerables#countRows}).
+     */
+    private EnumerableAlg.Result countRows( EnumerableAlg alg, EnumerableAlg.Result result ) {
+        if ( !countRows || result.block.statements.isEmpty() ) {
+            return result;
+        }
+        final Statement last = Util.last( result.block.statements );
+        if ( !(last instanceof GotoStatement) || ((GotoStatement) last).kind != GotoExpressionKind.Return ) {
+            return result;
+        }
+        final Expression expression = ((GotoStatement) last).expression;
+        if ( expression == null || !Enumerable.class.isAssignableFrom( Types.toClass( expression.getType() ) ) ) {
+            return result;
+        }
+        final Double estimated = alg.getCluster().getMetadataQuery().getRowCount( alg );
+        if ( estimated == null ) {
+            return result;
+        }
+        // The counter is not an instance of the class of the wrapped enumerable (e.g. ResultSetEnumerable), the output is
+        // therefore declared as Enumerable
+        final List<Statement> statements = new ArrayList<>( Util.skipLast( result.block.statements ) );
+        statements.add(
+                Expressions.return_(
+                        null,
+                        Expressions.call(
+                                BuiltInMethod.COUNT_ROWS.method,
+                                expression,
+                                DataContext.ROOT,
+                                Expressions.constant( CardinalityFeedback.key( alg ) ),
+                                Expressions.constant( estimated ) ) ) );
+        return new EnumerableAlg.Result( Expressions.block( statements ), result.physType, result.format );
     }
 
 
@@ -122,7 +168,7 @@ public int increaseContext() {
 
 
     public ClassDeclaration implementRoot( EnumerableAlg rootAlg, EnumerableAlg.Prefer prefer ) {
-        EnumerableAlg.Result result = rootAlg.implement( this, prefer );
+        EnumerableAlg.Result result = countRows( rootAlg, rootAlg.implement( this, prefer ) );
         switch ( prefer ) {
             case ARRAY:
                 if ( result.physType.getFormat() == JavaRowFormat.ARRAY && rootAlg.getRowType().getFieldCount() == 1 ) {
@@ -26,7 +26,11 @@
 import org.apache.calcite.linq4j.tree.ParameterExpression;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.Converter;
+import org.polypheny.db.algebra.core.ModifyCollect;
 import org.polypheny.db.algebra.core.common.BatchIterator;
+import org.polypheny.db.algebra.core.common.BulkModify;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.util.BuiltInMethod;
@@ -73,8 +77,24 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                                 EnumUtils.NO_PARAMS,
                                 Blocks.toFunctionBlock( result.block ) ) ) ) ) );
 
-        builder.add( Expressions.return_( null, builder.append( "test", Expressions.call( BuiltInMethod.BATCH.method, Expressions.constant( DataContext.ROOT ), _baz ) ) ) );
+        final boolean bulk = RuntimeConfig.BULK_BATCH_EXECUTION.getBoolean() && isBulk( getInput() );
+        builder.add( Expressions.return_( null, builder.append( "test", Expressions.call( BuiltInMethod.BATCH.method, Expressions.constant( DataContext.ROOT ), _baz, Expressions.constant( bulk ) ) ) ) );
         return implementor.result( result.physType, builder.toBlock() );
     }
 
+
+    /**
+     * Whether the statement only consists of modifies of stores which consume all parameter sets in one execution,
+     * possibly collected from several placements.
+     */
+    private static boolean isBulk( AlgNode alg ) {
+        if ( alg instanceof BulkModify ) {
+            return ((BulkModify) alg).isBulk();
+        }
+        if ( alg instanceof Converter || alg instanceof ModifyCollect ) {
+            return !alg.getInputs().isEmpty() && alg.getInputs().stream().allMatch( EnumerableBatchIterator::isBulk );
+        }
+        return false;
+    }
+
 }
@@ -177,7 +177,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         builder3.add( Expressions.return_( null, physType.record( expressions ) ) );
         BlockStatement currentBody = builder3.toBlock();
 
-        final Expression inputEnumerable = builder.append( builder.newName( "inputEnumerable" + System.nanoTime() ), result.block, false );
+        final Expression inputEnumerable = builder.append( builder.newName( "inputEnumerable" ), result.block, false );
         final Expression body;
         if ( !unwindContext.useUnwind ) {
             body = Expressions.new_(
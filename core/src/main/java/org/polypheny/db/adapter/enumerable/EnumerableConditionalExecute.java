@@ -39,7 +39,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder builder = new BlockBuilder();
         final Result conditionResult = implementor.visitChild( this, 0, (EnumerableAlg) getLeft(), pref );
         Expression call = Expressions.call(
-                builder.append( builder.newName( "condition" + System.nanoTime() ), conditionResult.block ),
+                builder.append( builder.newName( "condition" ), conditionResult.block ),
                 "count" );
 
         Expression conditionExp = null;
@@ -65,6 +65,7 @@
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.plan.ConventionTraitDef;
 import org.polypheny.db.plugins.PolyPluginManager;
+import org.polypheny.db.processing.caching.PersistentImplementationCache;
 import org.polypheny.db.runtime.ArrayBindable;
 import org.polypheny.db.runtime.Bindable;
 import org.polypheny.db.runtime.Hook;
@@ -135,6 +136,9 @@ static ArrayBindable getArrayBindable( ClassDeclaration expr, String s, int fiel
 
 
     static Bindable getBindable( ClassDeclaration expr, String s, int fieldCount ) throws CompileException, IOException {
+        if ( PersistentImplementationCache.INSTANCE.isActive() ) {
+            return PersistentImplementationCache.INSTANCE.getBindable( expr.name, s, fieldCount == 1, PolyPluginManager.getMainClassLoader() );
+        }
         ICompilerFactory compilerFactory;
         try {
             compilerFactory = CompilerFactoryFactory.getDefaultCompilerFactory();
@@ -39,11 +39,14 @@
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Intersect;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.Util;
 
 
 /**
@@ -66,6 +69,7 @@ public EnumerableIntersect copy( AlgTraitSet traitSet, List<AlgNode> inputs, boo
     @Override
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder builder = new BlockBuilder();
+        final boolean spill = RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() > 0;
         Expression intersectExp = null;
         for ( Ord<AlgNode> ord : Ord.zip( inputs ) ) {
             EnumerableAlg input = (EnumerableAlg) ord.e;
@@ -74,6 +78,14 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
 
             if ( intersectExp == null ) {
                 intersectExp = childExp;
+            } else if ( spill ) {
+                intersectExp =
+                        Expressions.call(
+                                BuiltInMethod.SPILL_INTERSECT.method,
+                                intersectExp,
+                                childExp,
+                                Util.first( result.physType.comparer(), Expressions.constant( null ) ),
+                                Expressions.call( BuiltInMethod.MEMORY_BUDGET_OF.method, DataContext.ROOT ) );
             } else {
                 intersectExp =
                         Expressions.call(
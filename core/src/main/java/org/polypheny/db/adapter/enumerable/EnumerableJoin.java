@@ -39,6 +39,7 @@
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgCollationTraitDef;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgNodes;
@@ -49,6 +50,7 @@
 import org.polypheny.db.algebra.core.JoinInfo;
 import org.polypheny.db.algebra.metadata.AlgMdCollation;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgOptPlanner;
@@ -160,11 +162,61 @@ private double addEpsilon( double d ) {
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         BlockBuilder builder = new BlockBuilder();
         final Result leftResult = implementor.visitChild( this, 0, (EnumerableAlg) left, pref );
-        Expression leftExpression = builder.append( "left" + System.nanoTime(), leftResult.block );
+        Expression leftExpression = builder.append( builder.newName( "left" ), leftResult.block );
         final Result rightResult = implementor.visitChild( this, 1, (EnumerableAlg) right, pref );
-        Expression rightExpression = builder.append( "right" + System.nanoTime(), rightResult.block );
+        Expression rightExpression = builder.append( builder.newName( "right" ), rightResult.block );
         final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), pref.preferArray() );
         final PhysType keyPhysType = leftResult.physType.project( leftKeys, JavaRowFormat.LIST );
+        final int splitCount = getCluster().getMetadataQuery().splitCount( this );
+        if ( splitCount > 1 ) {
+            return implementor.result(
+                    physType,
+                    builder.append(
+                                    Expressions.call(
+                                            BuiltInMethod.PARALLEL_JOIN.method,
+                                            leftExpression,
+                                            rightExpression,
+                                            leftResult.physType.generateAccessor( leftKeys ),
+                                            rightResult.physType.generateAccessor( rightKeys ),
+                                            EnumUtils.joinSelector( joinType, physType, ImmutableList.of( leftResult.physType, rightResult.physType ) ),
+                                            Util.first( keyPhysType.comparer(), Expressions.constant( null ) ),
+                                            Expressions.constant( joinType.generatesNullsOnLeft() ),
+                                            Expressions.constant( joinType.generatesNullsOnRight() ),
+                                            Expressions.constant( splitCount ) ) )
+                            .toBlock() );
+        }
+        if ( RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() > 0 ) {
+            return implementor.result(
+                    physType,
+                    builder.append(
+                                    Expressions.call(
+                                            BuiltInMethod.SPILL_JOIN.method,
+                                            leftExpression,
+                                            rightExpression,
+                                            leftResult.physType.generateAccessor( leftKeys ),
+                                            rightResult.physType.generateAccessor( rightKeys ),
+                                            EnumUtils.joinSelector( joinType, physType, ImmutableList.of( leftResult.physType, rightResult.physType ) ),
+                                            Util.first( keyPhysType.comparer(), Expressions.constant( null ) ),
+                                            Expressions.constant( joinType.generatesNullsOnLeft() ),
+                                            Expressions.constant( joinType.generatesNullsOnRight() ),
+                                            Expressions.call( BuiltInMethod.MEMORY_BUDGET_OF.method, DataContext.ROOT ) ) )
+                            .toBlock() );
+        }
+        if ( EnumUtils.isPrimitiveHashKey( left.getRowType(), leftKeys, leftResult.format ) && EnumUtils.isPrimitiveHashKey( right.getRowType(), rightKeys, rightResult.format ) ) {
+            return implementor.result(
+                    physType,
+                    builder.append(
+                                    Expressions.call(
+                                            BuiltInMethod.PRIMITIVE_HASH_JOIN.method,
+                                            leftExpression,
+                                            rightExpression,
+                                            EnumUtils.intArray( leftKeys ),
+                                            EnumUtils.intArray( rightKeys ),
+                                            EnumUtils.joinSelector( joinType, physType, ImmutableList.of( leftResult.physType, rightResult.physType ) ),
+                                            Expressions.constant( joinType.generatesNullsOnLeft() ),
+                                            Expressions.constant( joinType.generatesNullsOnRight() ) ) )
+                            .toBlock() );
+        }
         return implementor.result(
                 physType,
                 builder.append(
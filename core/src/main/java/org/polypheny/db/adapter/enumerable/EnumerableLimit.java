@@ -139,7 +139,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
     }
 
 
-    private static Expression getExpression( RexNode offset ) {
+    static Expression getExpression( RexNode offset ) {
         if ( offset instanceof RexDynamicParam ) {
             final RexDynamicParam param = (RexDynamicParam) offset;
             return Expressions.convert_(
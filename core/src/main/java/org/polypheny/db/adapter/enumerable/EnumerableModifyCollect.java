@@ -17,13 +17,24 @@
 package org.polypheny.db.adapter.enumerable;
 
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Modify;
 import org.polypheny.db.algebra.core.ModifyCollect;
+import org.polypheny.db.algebra.core.common.BatchIterator;
+import org.polypheny.db.algebra.core.common.ConditionalExecute;
+import org.polypheny.db.algebra.core.common.ContextSwitcher;
+import org.polypheny.db.algebra.core.common.Streamer;
+import org.polypheny.db.algebra.core.document.DocumentModify;
+import org.polypheny.db.algebra.core.lpg.LpgModify;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.util.BuiltInMethod;
@@ -48,11 +59,14 @@ public EnumerableModifyCollect copy( AlgTraitSet traitSet, List<AlgNode> inputs,
     @Override
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder builder = new BlockBuilder();
+        final boolean parallel = all && inputs.size() > 1 && RuntimeConfig.PARALLEL_DML.getBoolean() && targetDistinctStores();
+        final List<Expression> childExps = new ArrayList<>();
         Expression unionExp = null;
         for ( Ord<AlgNode> ord : Ord.zip( inputs ) ) {
             EnumerableAlg input = (EnumerableAlg) ord.e;
             final Result result = implementor.visitChild( this, ord.i, input, pref );
             Expression childExp = builder.append( "child" + ord.i, result.block );
+            childExps.add( childExp );
 
             if ( unionExp == null ) {
                 unionExp = childExp;
@@ -62,7 +76,10 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                         : Expressions.call( unionExp, BuiltInMethod.UNION.method, Expressions.list( childExp ).appendIfNotNull( result.physType.comparer() ) );
             }
         }
-        if ( all ) {
+        if ( parallel ) {
+            // Dispatch the modifies on the placements concurrently
+            unionExp = Expressions.call( BuiltInMethod.PARALLEL_MODIFY_COLLECT.method, Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, childExps ) );
+        } else if ( all ) {
             unionExp = Expressions.call( BuiltInMethod.SINGLE_SUM.method, unionExp );
         }
 
@@ -75,5 +92,51 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         return implementor.result( physType, builder.toBlock() );
     }
 
-}
 
+    /**
+     * Checks whether the inputs can be executed concurrently. This is the case if every input only modifies tables and
+     * no two inputs modify tables of the same store, as the modifies on one store share a connection of the transaction.
+     */
+    private boolean targetDistinctStores() {
+        final Set<Integer> stores = new HashSet<>();
+        for ( AlgNode input : inputs ) {
+            final Set<Integer> inputStores = new HashSet<>();
+            if ( !collectStores( input, inputStores ) || inputStores.isEmpty() ) {
+                return false;
+            }
+            for ( int store : inputStores ) {
+                if ( !stores.add( store ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Collects the ids of the stores whose tables are modified by the given node. Returns {@code false} if the node cannot
+     * be executed concurrently with other nodes of the same statement, e.g. because it switches the parameters of the data
+     * context, or if the store of a modified table is unknown.
+     */
+    private static boolean collectStores( AlgNode node, Set<Integer> stores ) {
+        if ( node instanceof ContextSwitcher || node instanceof BatchIterator || node instanceof Streamer || node instanceof ConditionalExecute
+                || node instanceof DocumentModify || node instanceof LpgModify ) {
+            return false;
+        }
+        if ( node instanceof Modify ) {
+            final Integer adapterId = node.getTable() == null || node.getTable().getTable() == null ? null : node.getTable().getTable().getAdapterId();
+            if ( adapterId == null ) {
+                return false;
+            }
+            stores.add( adapterId );
+        }
+        for ( AlgNode input : node.getInputs() ) {
+            if ( !collectStores( input, stores ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -93,6 +93,10 @@ private EnumerableRules() {
 
     public static final EnumerableLimitRule ENUMERABLE_LIMIT_RULE = new EnumerableLimitRule();
 
+    public static final EnumerableTopNRule ENUMERABLE_TOP_N_RULE = new EnumerableTopNRule();
+
+    public static final EnumerableSampleRule ENUMERABLE_SAMPLE_RULE = new EnumerableSampleRule();
+
     public static final EnumerableUnionRule ENUMERABLE_UNION_RULE = new EnumerableUnionRule();
 
     public static final EnumerableModifyCollectRule ENUMERABLE_MODIFY_COLLECT_RULE = new EnumerableModifyCollectRule();
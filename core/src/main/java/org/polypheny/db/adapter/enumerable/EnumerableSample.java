@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.List;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.SingleAlg;
+import org.polypheny.db.algebra.core.Sample;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptSamplingParameters;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Implementation of {@link Sample} in {@link EnumerableConvention enumerable calling convention}.
+ * The sample is drawn while the rows of the input are enumerated (see {@link org.polypheny.db.runtime.Enumerables#sample}).
+ */
+public class EnumerableSample extends SingleAlg implements EnumerableAlg {
+
+    private final AlgOptSamplingParameters params;
+
+
+    public EnumerableSample( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, AlgOptSamplingParameters params ) {
+        super( cluster, traitSet, input );
+        this.params = params;
+        assert getConvention() instanceof EnumerableConvention;
+    }
+
+
+    public AlgOptSamplingParameters getSamplingParameters() {
+        return params;
+    }
+
+
+    @Override
+    public EnumerableSample copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new EnumerableSample( getCluster(), traitSet, sole( inputs ), params );
+    }
+
+
+    @Override
+    public String algCompareString() {
+        return this.getClass().getSimpleName() + "$" +
+                input.algCompareString() + "$" +
+                params.isBernoulli() + "$" +
+                params.getSamplingPercentage() + "$" +
+                (params.isRepeatable() ? params.getRepeatableSeed() : "-") + "&";
+    }
+
+
+    @Override
+    public double estimateRowCount( AlgMetadataQuery mq ) {
+        return mq.getRowCount( input ) * params.getSamplingPercentage();
+    }
+
+
+    @Override
+    public AlgWriter explainTerms( AlgWriter pw ) {
+        return super.explainTerms( pw )
+                .item( "mode", params.isBernoulli() ? "bernoulli" : "system" )
+                .item( "rate", params.getSamplingPercentage() )
+                .item( "repeatableSeed", params.isRepeatable() ? params.getRepeatableSeed() : "-" );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result result = implementor.visitChild( this, 0, (EnumerableAlg) getInput(), pref );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), result.format );
+
+        Expression child = builder.append( "child", result.block );
+        Expression sample = builder.append(
+                "sample",
+                Expressions.call(
+                        BuiltInMethod.SAMPLE.method,
+                        child,
+                        Expressions.constant( params.isBernoulli() ),
+                        Expressions.constant( params.getSamplingPercentage() ),
+                        Expressions.constant( params.isRepeatable() ),
+                        Expressions.constant( params.getRepeatableSeed() ) ) );
+        builder.add( Expressions.return_( null, sample ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
@@ -37,14 +37,17 @@
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgCollation;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.Pair;
+import org.polypheny.db.util.Util;
 
 
 /**
@@ -91,6 +94,32 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         PhysType inputPhysType = result.physType;
         final Pair<Expression, Expression> pair = inputPhysType.generateCollationKey( collation.getFieldCollations() );
 
+        final int splitCount = getCluster().getMetadataQuery().splitCount( this );
+        if ( splitCount > 1 ) {
+            builder.add(
+                    Expressions.return_(
+                            null,
+                            Expressions.call(
+                                    BuiltInMethod.PARALLEL_ORDER_BY.method,
+                                    childExp,
+                                    builder.append( "keySelector", pair.left ),
+                                    Util.first( builder.appendIfNotNull( "comparator", pair.right ), Expressions.constant( null ) ),
+                                    Expressions.constant( splitCount ) ) ) );
+            return implementor.result( physType, builder.toBlock() );
+        }
+        if ( RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() > 0 ) {
+            builder.add(
+                    Expressions.return_(
+                            null,
+                            Expressions.call(
+                                    BuiltInMethod.SPILL_ORDER_BY.method,
+                                    childExp,
+                                    builder.append( "keySelector", pair.left ),
+                                    Util.first( builder.appendIfNotNull( "comparator", pair.right ), Expressions.constant( null ) ),
+                                    Expressions.call( BuiltInMethod.MEMORY_BUDGET_OF.method, DataContext.ROOT ) ) ) );
+            return implementor.result( physType, builder.toBlock() );
+        }
+
         builder.add(
                 Expressions.return_(
                         null,
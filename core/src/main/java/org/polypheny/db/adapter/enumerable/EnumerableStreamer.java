@@ -17,8 +17,13 @@
 package org.polypheny.db.adapter.enumerable;
 
 
+import com.google.common.collect.Multimap;
 import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.function.Function;
@@ -32,11 +37,17 @@
 import org.apache.calcite.linq4j.tree.Types;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Modify;
 import org.polypheny.db.algebra.core.common.Streamer;
+import org.polypheny.db.algebra.core.document.DocumentModify;
+import org.polypheny.db.algebra.core.lpg.LpgModify;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgOptTable;
+import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.util.BuiltInMethod;
 
@@ -77,9 +88,9 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
 
         final Result prepared = implementor.visitChild( this, 1, (EnumerableAlg) getRight(), pref );
 
-        Expression executor = builder.append( builder.newName( "executor" + System.nanoTime() ), prepared.block );
+        Expression executor = builder.append( builder.newName( "executor" ), prepared.block );
 
-        ParameterExpression exp = Expressions.parameter( Types.of( Function0.class, Enumerable.class ), builder.newName( "executor" + System.nanoTime() ) );
+        ParameterExpression exp = Expressions.parameter( Types.of( Function0.class, Enumerable.class ), builder.newName( "executor" ) );
 
         // move executor enumerable into a lambda so parameters get not prematurely  executed with a "wrong" context (e.g. Cottontail)
         FunctionExpression<Function<?>> expCall = Expressions.lambda( Expressions.block( Expressions.return_( null, executor ) ) );
@@ -89,9 +100,10 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         MethodCallExpression transformContext = Expressions.call(
                 BuiltInMethod.STREAM_RIGHT.method,
                 Expressions.constant( DataContext.ROOT ),
-                builder.append( builder.newName( "query" + System.nanoTime() ), query.block ),
+                builder.append( builder.newName( "query" ), query.block ),
                 exp,
-                Expressions.constant( getLeft().getRowType().getFieldList().stream().map( f -> f.getType().getPolyType() ).collect( Collectors.toList() ) ) );
+                Expressions.constant( getLeft().getRowType().getFieldList().stream().map( f -> f.getType().getPolyType() ).collect( Collectors.toList() ) ),
+                Expressions.constant( isChunkable() ? RuntimeConfig.STREAMER_CHUNK_SIZE.getInteger() : 0 ) );
 
         builder.add( Expressions.return_( null, builder.append( "test", transformContext ) ) );
 
@@ -99,6 +111,39 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
     }
 
 
+    /**
+     * Whether the provided values can be passed to the collector in chunks while the provider is still running. This is
+     * not the case if the collector modifies a table which the provider reads, as the provider could see its own changes.
+     * Tables are compared by their logical id, as the provider and the collector can access different placements of the
+     * same table.
+     */
+    private boolean isChunkable() {
+        final Set<Long> read = new HashSet<>();
+        for ( AlgOptTable table : AlgOptUtil.findTables( getLeft() ) ) {
+            if ( table.getTable() == null || table.getTable().getTableId() == null ) {
+                return false;
+            }
+            read.add( table.getTable().getTableId() );
+        }
+        final Multimap<Class<? extends AlgNode>, AlgNode> nodes = getCluster().getMetadataQuery().getNodeTypes( getRight() );
+        for ( Entry<Class<? extends AlgNode>, Collection<AlgNode>> e : nodes.asMap().entrySet() ) {
+            if ( DocumentModify.class.isAssignableFrom( e.getKey() ) || LpgModify.class.isAssignableFrom( e.getKey() ) ) {
+                return false;
+            }
+            if ( Modify.class.isAssignableFrom( e.getKey() ) ) {
+                for ( AlgNode node : e.getValue() ) {
+                    if ( node.getTable() == null || node.getTable().getTable() == null
+                            || node.getTable().getTable().getTableId() == null
+                            || read.contains( node.getTable().getTable().getTableId() ) ) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+
     @Override
     public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
         return new EnumerableStreamer( inputs.get( 0 ).getCluster(), traitSet, inputs.get( 0 ), inputs.get( 1 ) );
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgCollation;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.Pair;
+import org.polypheny.db.util.Util;
+
+
+/**
+ * Implementation of a {@link Sort} with a {@code fetch} and an optional {@code offset} in
+ * {@link EnumerableConvention enumerable calling convention}. Instead of sorting its whole input, it keeps a bounded heap
+ * of the best {@code offset + fetch} rows (see {@link org.polypheny.db.runtime.Enumerables#topN}).
+ *
+ * This also serves nearest neighbour queries, which sort by the distance to a given vector and are only interested in
+ * the {@code k} closest rows.
+ */
+public class EnumerableTopN extends Sort implements EnumerableAlg {
+
+    /**
+     * Creates an EnumerableTopN.
+     *
+     * Use {@link #create} unless you know what you're doing.
+     */
+    public EnumerableTopN( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, AlgCollation collation, RexNode offset, RexNode fetch ) {
+        super( cluster, traitSet, input, collation, offset, fetch );
+        assert getConvention() instanceof EnumerableConvention;
+        assert getConvention() == input.getConvention();
+        assert fetch != null;
+    }
+
+
+    /**
+     * Creates an EnumerableTopN.
+     */
+    public static EnumerableTopN create( AlgNode child, AlgCollation collation, RexNode offset, RexNode fetch ) {
+        final AlgOptCluster cluster = child.getCluster();
+        final AlgTraitSet traitSet = cluster.traitSetOf( EnumerableConvention.INSTANCE ).replace( collation );
+        return new EnumerableTopN( cluster, traitSet, child, collation, offset, fetch );
+    }
+
+
+    @Override
+    public EnumerableTopN copy( AlgTraitSet traitSet, AlgNode newInput, AlgCollation newCollation, RexNode offset, RexNode fetch ) {
+        return new EnumerableTopN( getCluster(), traitSet, newInput, newCollation, offset, fetch );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // Every input row is compared against a heap of offset + fetch rows instead of sorting the whole input.
+        final double inputRowCount = mq.getRowCount( getInput() );
+        final double rowCount = mq.getRowCount( this );
+        double heapSize = rowCount;
+        if ( offset instanceof RexLiteral ) {
+            heapSize += RexLiteral.intValue( offset );
+        }
+        final double bytesPerRow = getRowType().getFieldCount() * 4;
+        final double cpu = inputRowCount * Math.max( Math.log( heapSize ), 1 ) * bytesPerRow;
+        return planner.getCostFactory().makeCost( rowCount, cpu, 0 );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final EnumerableAlg child = (EnumerableAlg) getInput();
+        final Result result = implementor.visitChild( this, 0, child, pref );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), result.format );
+        Expression childExp = builder.append( "child", result.block );
+
+        final Pair<Expression, Expression> pair = result.physType.generateCollationKey( collation.getFieldCollations() );
+        builder.add(
+                Expressions.return_(
+                        null,
+                        Expressions.call(
+                                BuiltInMethod.TOP_N.method,
+                                childExp,
+                                builder.append( "keySelector", pair.left ),
+                                Util.first( builder.appendIfNotNull( "comparator", pair.right ), Expressions.constant( null ) ),
+                                offset == null ? Expressions.constant( 0 ) : builder.append( "offset", EnumerableLimit.getExpression( offset ) ),
+                                builder.append( "fetch", EnumerableLimit.getExpression( fetch ) ) ) ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
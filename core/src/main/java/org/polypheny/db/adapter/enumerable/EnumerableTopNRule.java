@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+
+
+/**
+ * Rule to convert a {@link Sort} that has a collation and a {@code fetch} into an {@link EnumerableTopN}. The planner
+ * chooses between it and the {@link EnumerableLimit} over a full {@link EnumerableSort} created by
+ * {@link EnumerableLimitRule} based on their costs.
+ */
+class EnumerableTopNRule extends AlgOptRule {
+
+    EnumerableTopNRule() {
+        super( operand( Sort.class, any() ), "EnumerableTopNRule" );
+    }
+
+
+    @Override
+    public boolean matches( AlgOptRuleCall call ) {
+        final Sort sort = call.alg( 0 );
+        return !(sort instanceof EnumerableTopN) && sort.fetch != null && !sort.getCollation().getFieldCollations().isEmpty();
+    }
+
+
+    @Override
+    public void onMatch( AlgOptRuleCall call ) {
+        final Sort sort = call.alg( 0 );
+        final AlgNode input = convert( sort.getInput(), sort.getInput().getTraitSet().replace( EnumerableConvention.INSTANCE ) );
+        call.transformTo( EnumerableTopN.create( input, sort.getCollation(), sort.offset, sort.fetch ) );
+    }
+
+}
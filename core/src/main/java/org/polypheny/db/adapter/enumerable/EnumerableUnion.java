@@ -34,6 +34,7 @@
 package org.polypheny.db.adapter.enumerable;
 
 
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
@@ -65,11 +66,14 @@ public EnumerableUnion copy( AlgTraitSet traitSet, List<AlgNode> inputs, boolean
     @Override
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder builder = new BlockBuilder();
+        final boolean gather = all && getCluster().getMetadataQuery().splitCount( this ) > 1;
+        final List<Expression> childExps = new ArrayList<>();
         Expression unionExp = null;
         for ( Ord<AlgNode> ord : Ord.zip( inputs ) ) {
             EnumerableAlg input = (EnumerableAlg) ord.e;
             final Result result = implementor.visitChild( this, ord.i, input, pref );
             Expression childExp = builder.append( "child" + ord.i, result.block );
+            childExps.add( childExp );
 
             if ( unionExp == null ) {
                 unionExp = childExp;
@@ -80,6 +84,10 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
             }
         }
 
+        if ( gather ) {
+            // Enumerate the inputs concurrently
+            unionExp = Expressions.call( BuiltInMethod.PARALLEL_GATHER.method, Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, childExps ) );
+        }
         builder.add( unionExp );
         final PhysType physType =
                 PhysTypeImpl.of(
@@ -52,6 +52,7 @@
 import org.apache.calcite.linq4j.tree.Primitive;
 import org.apache.calcite.linq4j.tree.Statement;
 import org.apache.calcite.linq4j.tree.Types;
+import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.enumerable.impl.WinAggAddContextImpl;
 import org.polypheny.db.adapter.enumerable.impl.WinAggResetContextImpl;
 import org.polypheny.db.adapter.enumerable.impl.WinAggResultContextImpl;
@@ -192,6 +193,10 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder builder = new BlockBuilder();
         final Result result = implementor.visitChild( this, 0, child, pref );
         Expression source_ = builder.append( "source", result.block );
+        if ( RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() > 0 ) {
+            // The window cannot spill, but its input is accounted for while it is materialized
+            source_ = builder.append( "source", Expressions.call( BuiltInMethod.SPILL_RETAIN.method, source_, Expressions.call( BuiltInMethod.MEMORY_BUDGET_OF.method, DataContext.ROOT ), Expressions.constant( "Window" ) ) );
+        }
 
         final List<Expression> translatedConstants = new ArrayList<>( constants.size() );
         for ( RexLiteral constant : constants ) {
@@ -50,9 +50,9 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder builder = new BlockBuilder();
         final Result query = implementor.visitChild( this, 0, (EnumerableAlg) input, pref );
         // tell the implementor that one or many ContextSwitchers are used
-        implementor.increaseContext();
+        final int context = implementor.increaseContext();
 
-        ParameterExpression enumerable = Expressions.parameter( Enumerable.class, "enum" + System.nanoTime() );
+        ParameterExpression enumerable = Expressions.parameter( Enumerable.class, "enum" + context );
 
         builder.add( Expressions.return_( null, Expressions.new_(
                 AbstractEnumerable.class,
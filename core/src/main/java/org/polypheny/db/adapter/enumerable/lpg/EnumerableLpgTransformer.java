@@ -79,7 +79,7 @@ private Result buildInsert( EnumerableAlgImplementor implementor, Prefer pref, B
                 EnumUtils.constantArrayList( operationOrder, PolyType.class ),
                 Expressions.constant( operation ) );
 
-        builder.add( Expressions.return_( null, builder.append( "splitter" + System.nanoTime(), splitter ) ) );
+        builder.add( Expressions.return_( null, builder.append( builder.newName( "splitter" ), splitter ) ) );
 
         return implementor.result( inputs.get( 0 ).physType, builder.toBlock() );
     }
@@ -87,9 +87,9 @@ private Result buildInsert( EnumerableAlgImplementor implementor, Prefer pref, B
 
     private Expression attachLambdaEnumerable( BlockStatement blockStatement ) {
         BlockBuilder builder = new BlockBuilder();
-        Expression executor = builder.append( builder.newName( "executor" + System.nanoTime() ), blockStatement );
+        Expression executor = builder.append( builder.newName( "executor" ), blockStatement );
 
-        ParameterExpression exp = Expressions.parameter( Types.of( Function0.class, Enumerable.class ), builder.newName( "enumerable" + System.nanoTime() ) );
+        ParameterExpression exp = Expressions.parameter( Types.of( Function0.class, Enumerable.class ), builder.newName( "enumerable" ) );
 
         // Move executor enumerable into a lambda so parameters get not prematurely  executed with a "wrong" context (e.g. Cottontail)
         FunctionExpression<Function<?>> expCall = Expressions.lambda( Expressions.block( Expressions.return_( null, executor ) ) );
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg.Prefer;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg.Result;
+import org.polypheny.db.adapter.enumerable.JavaRowFormat;
+import org.polypheny.db.adapter.enumerable.PhysType;
+import org.polypheny.db.adapter.enumerable.PhysTypeImpl;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.ConventionTraitDef;
+import org.polypheny.db.runtime.vector.ColumnType;
+import org.polypheny.db.runtime.vector.RowBatchSource;
+
+
+/**
+ * Converts the rows of an {@link EnumerableAlg} into batches.
+ */
+public class EnumerableToVectorizedConverter extends ConverterImpl implements VectorizedAlg {
+
+    public EnumerableToVectorizedConverter( AlgOptCluster cluster, AlgTraitSet traits, AlgNode input ) {
+        super( cluster, ConventionTraitDef.INSTANCE, traits, input );
+    }
+
+
+    @Override
+    public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new EnumerableToVectorizedConverter( getCluster(), traitSet, sole( inputs ) );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorizedConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( VectorizedAlgImplementor implementor ) {
+        final Result result = implementor.getEnumerableImplementor().visitChild( null, 0, (EnumerableAlg) getInput(), Prefer.ARRAY );
+        Expression rows = implementor.getBuilder().append( "rows", result.block );
+        final PhysType physType = PhysTypeImpl.of( implementor.getEnumerableImplementor().getTypeFactory(), getRowType(), JavaRowFormat.ARRAY );
+        if ( result.physType.getFormat() != physType.getFormat() ) {
+            rows = result.physType.convertTo( rows, physType );
+        }
+        final List<Expression> types = new ArrayList<>();
+        for ( AlgDataTypeField field : getRowType().getFieldList() ) {
+            types.add( VectorProgramCompiler.columnType( field.getType() ) );
+        }
+        return Expressions.new_(
+                RowBatchSource.class,
+                rows,
+                Expressions.newArrayInit( ColumnType.class, types ),
+                Expressions.constant( physType.getFormat() == JavaRowFormat.SCALAR ),
+                Expressions.constant( implementor.getBatchSize() ) );
+    }
+
+}
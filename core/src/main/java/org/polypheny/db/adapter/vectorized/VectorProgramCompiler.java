@@ -0,0 +1,310 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexLocalRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexProgram;
+import org.polypheny.db.runtime.vector.ColumnType;
+import org.polypheny.db.runtime.vector.VectorExpression;
+import org.polypheny.db.runtime.vector.VectorExpressions;
+import org.polypheny.db.runtime.vector.VectorProgram;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * Translates a {@link RexProgram} into the code creating the equivalent {@link VectorProgram}. Every expression of the
+ * program becomes a slot of the vector program.
+ *
+ * Only a subset of the expressions is supported: references, literals and dynamic parameters of primitive, character
+ * and decimal types, arithmetic on primitive numbers, comparisons, boolean logic, null checks and numeric casts.
+ * Division is only supported by non-zero literals, because the operands of a vectorized expression are evaluated for
+ * all rows, even if a surrounding condition would have prevented the evaluation in row-wise execution.
+ */
+public final class VectorProgramCompiler {
+
+    private VectorProgramCompiler() {
+        // Utility class
+    }
+
+
+    /**
+     * Returns whether all expressions of a program can be vectorized.
+     */
+    public static boolean canCompile( RexProgram program ) {
+        final List<RexNode> exprs = program.getExprList();
+        for ( RexNode expr : exprs ) {
+            if ( compile( expr, exprs ) == null ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns the code creating the vectorized form of the given program.
+     */
+    public static Expression compile( RexProgram program ) {
+        final List<RexNode> exprs = program.getExprList();
+        final List<Expression> expressions = new ArrayList<>();
+        for ( RexNode expr : exprs ) {
+            final Expression expression = compile( expr, exprs );
+            if ( expression == null ) {
+                throw new IllegalArgumentException( "Expression cannot be vectorized: " + expr );
+            }
+            expressions.add( expression );
+        }
+        return Expressions.new_( VectorProgram.class, Expressions.newArrayInit( VectorExpression.class, expressions ) );
+    }
+
+
+    private static Expression compile( RexNode expr, List<RexNode> exprs ) {
+        if ( expr instanceof RexInputRef ) {
+            return Expressions.new_( VectorExpressions.InputRef.class, Expressions.constant( ((RexInputRef) expr).getIndex() ) );
+        } else if ( expr instanceof RexLiteral ) {
+            return compileLiteral( (RexLiteral) expr );
+        } else if ( expr instanceof RexDynamicParam ) {
+            if ( !isSupportedParameterType( expr.getType() ) ) {
+                return null;
+            }
+            return Expressions.new_(
+                    VectorExpressions.DynamicParam.class,
+                    columnType( expr.getType() ),
+                    Expressions.constant( ((RexDynamicParam) expr).getIndex() ) );
+        } else if ( expr instanceof RexCall ) {
+            return compileCall( (RexCall) expr, exprs );
+        }
+        return null;
+    }
+
+
+    private static Expression compileLiteral( RexLiteral literal ) {
+        if ( literal.isNull() ) {
+            return Expressions.new_( VectorExpressions.Literal.class, columnType( literal.getType() ), Expressions.constant( null ) );
+        }
+        final Expression value;
+        switch ( literal.getType().getPolyType() ) {
+            case BOOLEAN:
+                value = Expressions.box( Expressions.constant( literal.getValueAs( Boolean.class ) ? 1L : 0L ) );
+                break;
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case TIMESTAMP:
+                value = Expressions.box( Expressions.constant( literal.getValueAs( Long.class ) ) );
+                break;
+            case DATE:
+            case TIME:
+                value = Expressions.box( Expressions.constant( (long) literal.getValueAs( Integer.class ) ) );
+                break;
+            case REAL:
+            case FLOAT:
+            case DOUBLE:
+                value = Expressions.box( Expressions.constant( literal.getValueAs( Double.class ) ) );
+                break;
+            case DECIMAL:
+                value = Expressions.constant( literal.getValueAs( BigDecimal.class ) );
+                break;
+            case CHAR:
+            case VARCHAR:
+                value = Expressions.constant( literal.getValueAs( String.class ) );
+                break;
+            default:
+                return null;
+        }
+        return Expressions.new_( VectorExpressions.Literal.class, columnType( literal.getType() ), value );
+    }
+
+
+    private static Expression compileCall( RexCall call, List<RexNode> exprs ) {
+        final int[] operands = new int[call.getOperands().size()];
+        final List<AlgDataType> types = new ArrayList<>();
+        for ( int i = 0; i < operands.length; i++ ) {
+            final RexNode operand = call.getOperands().get( i );
+            if ( !(operand instanceof RexLocalRef) ) {
+                return null;
+            }
+            operands[i] = ((RexLocalRef) operand).getIndex();
+            types.add( operand.getType() );
+        }
+        switch ( call.getKind() ) {
+            case PLUS:
+            case MINUS:
+            case TIMES:
+                if ( !isNumeric( call.getType() ) || !isNumeric( types.get( 0 ) ) || !isNumeric( types.get( 1 ) ) || !fitsStorage( call.getType(), types ) ) {
+                    return null;
+                }
+                return arithmetic( call, operands );
+            case DIVIDE:
+                if ( !isNumeric( call.getType() ) || !isNumeric( types.get( 0 ) ) || !isNumeric( types.get( 1 ) ) || !fitsStorage( call.getType(), types ) || !isNonZeroLiteral( exprs.get( operands[1] ) ) ) {
+                    return null;
+                }
+                return arithmetic( call, operands );
+            case MINUS_PREFIX:
+                if ( !isNumeric( call.getType() ) || !fitsStorage( call.getType(), types ) ) {
+                    return null;
+                }
+                return Expressions.new_( VectorExpressions.Negate.class, columnType( call.getType() ), Expressions.constant( operands[0] ) );
+            case EQUALS:
+            case NOT_EQUALS:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                if ( !isComparable( types.get( 0 ), types.get( 1 ) ) ) {
+                    return null;
+                }
+                return Expressions.new_(
+                        VectorExpressions.Comparison.class,
+                        Expressions.field( null, Kind.class, call.getKind().name() ),
+                        Expressions.constant( operands[0] ),
+                        Expressions.constant( operands[1] ) );
+            case AND:
+                return Expressions.new_( VectorExpressions.And.class, ints( operands ) );
+            case OR:
+                return Expressions.new_( VectorExpressions.Or.class, ints( operands ) );
+            case NOT:
+                return Expressions.new_( VectorExpressions.Not.class, Expressions.constant( operands[0] ) );
+            case IS_NULL:
+            case IS_NOT_NULL:
+                return Expressions.new_(
+                        VectorExpressions.IsNull.class,
+                        Expressions.constant( operands[0] ),
+                        Expressions.constant( call.getKind() == Kind.IS_NOT_NULL ) );
+            case CAST:
+                if ( !isSupportedCast( types.get( 0 ), call.getType() ) ) {
+                    return null;
+                }
+                return Expressions.new_( VectorExpressions.Cast.class, columnType( call.getType() ), Expressions.constant( operands[0] ) );
+            default:
+                return null;
+        }
+    }
+
+
+    private static Expression arithmetic( RexCall call, int[] operands ) {
+        return Expressions.new_(
+                VectorExpressions.Arithmetic.class,
+                Expressions.field( null, Kind.class, call.getKind().name() ),
+                columnType( call.getType() ),
+                Expressions.constant( operands[0] ),
+                Expressions.constant( operands[1] ) );
+    }
+
+
+    private static Expression ints( int[] values ) {
+        final List<Expression> expressions = new ArrayList<>();
+        for ( int value : values ) {
+            expressions.add( Expressions.constant( value ) );
+        }
+        return Expressions.newArrayInit( int.class, expressions );
+    }
+
+
+    static Expression columnType( AlgDataType type ) {
+        return Expressions.field( null, ColumnType.class, ColumnType.of( type ).name() );
+    }
+
+
+    private static boolean isNumeric( AlgDataType type ) {
+        return PolyType.INT_TYPES.contains( type.getPolyType() ) || PolyType.APPROX_TYPES.contains( type.getPolyType() );
+    }
+
+
+    /**
+     * Integral results can only be computed from integral operands.
+     */
+    private static boolean fitsStorage( AlgDataType result, List<AlgDataType> operands ) {
+        if ( ColumnType.of( result ).storage != ColumnType.Storage.LONG ) {
+            return true;
+        }
+        return operands.stream().allMatch( t -> ColumnType.of( t ).storage == ColumnType.Storage.LONG );
+    }
+
+
+    private static boolean isNonZeroLiteral( RexNode node ) {
+        if ( !(node instanceof RexLiteral) || ((RexLiteral) node).isNull() || !isNumeric( node.getType() ) ) {
+            return false;
+        }
+        return ((RexLiteral) node).getValueAs( Double.class ) != 0;
+    }
+
+
+    private static boolean isComparable( AlgDataType left, AlgDataType right ) {
+        final ColumnType leftType = ColumnType.of( left );
+        final ColumnType rightType = ColumnType.of( right );
+        if ( leftType == ColumnType.OBJECT || rightType == ColumnType.OBJECT ) {
+            return PolyType.CHAR_TYPES.contains( left.getPolyType() ) && PolyType.CHAR_TYPES.contains( right.getPolyType() )
+                    || left.getPolyType() == PolyType.DECIMAL && right.getPolyType() == PolyType.DECIMAL;
+        }
+        return isNumeric( left ) && isNumeric( right ) || left.getPolyType() == right.getPolyType();
+    }
+
+
+    private static boolean isSupportedParameterType( AlgDataType type ) {
+        switch ( type.getPolyType() ) {
+            case BOOLEAN:
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case REAL:
+            case FLOAT:
+            case DOUBLE:
+            case DECIMAL:
+            case CHAR:
+            case VARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * Casts which only change the nullability, widen integers or convert numbers to floating point.
+     */
+    private static boolean isSupportedCast( AlgDataType from, AlgDataType to ) {
+        if ( from.getPolyType() == to.getPolyType()
+                && from.getPrecision() == to.getPrecision()
+                && from.getScale() == to.getScale() ) {
+            return true;
+        }
+        if ( !isNumeric( from ) || !isNumeric( to ) ) {
+            return false;
+        }
+        if ( PolyType.APPROX_TYPES.contains( to.getPolyType() ) ) {
+            return true;
+        }
+        return PolyType.INT_TYPES.contains( from.getPolyType() ) && ColumnType.of( to ).ordinal() >= ColumnType.of( from ).ordinal();
+    }
+
+}
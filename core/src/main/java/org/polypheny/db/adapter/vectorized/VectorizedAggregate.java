@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.AggregateCall;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.runtime.vector.BatchHashAggregate;
+import org.polypheny.db.runtime.vector.ColumnType;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.ImmutableBitSet;
+
+
+/**
+ * Implementation of {@link Aggregate} in {@link VectorizedConvention vectorized calling convention}, which aggregates
+ * by hashing (see {@link BatchHashAggregate}).
+ */
+public class VectorizedAggregate extends Aggregate implements VectorizedAlg {
+
+    public VectorizedAggregate( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode child, boolean indicator, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls ) {
+        super( cluster, traitSet, child, indicator, groupSet, groupSets, aggCalls );
+        assert getConvention() instanceof VectorizedConvention;
+    }
+
+
+    /**
+     * Returns whether an aggregate only uses group keys and aggregate functions supported by {@link BatchHashAggregate}.
+     */
+    static boolean canImplement( Aggregate aggregate ) {
+        if ( aggregate.indicator || aggregate.getGroupType() != Group.SIMPLE ) {
+            return false;
+        }
+        final List<AlgDataType> inputTypes = new ArrayList<>();
+        aggregate.getInput().getRowType().getFieldList().forEach( field -> inputTypes.add( field.getType() ) );
+        for ( AggregateCall aggCall : aggregate.getAggCallList() ) {
+            if ( aggCall.isDistinct() || aggCall.isApproximate() || aggCall.filterArg >= 0 || aggCall.getArgList().size() > 1 ) {
+                return false;
+            }
+            final ColumnType outputType = ColumnType.of( aggCall.getType() );
+            final Kind kind = aggCall.getAggregation().getKind();
+            if ( kind == Kind.COUNT ) {
+                if ( outputType.storage != ColumnType.Storage.LONG ) {
+                    return false;
+                }
+                continue;
+            }
+            if ( aggCall.getArgList().isEmpty() ) {
+                return false;
+            }
+            final AlgDataType argType = inputTypes.get( aggCall.getArgList().get( 0 ) );
+            final ColumnType argColumnType = ColumnType.of( argType );
+            switch ( kind ) {
+                case SUM:
+                case SUM0:
+                    if ( argColumnType.storage == ColumnType.Storage.OBJECT
+                            || argColumnType == ColumnType.BOOLEAN
+                            || argColumnType.storage != outputType.storage ) {
+                        return false;
+                    }
+                    break;
+                case MIN:
+                case MAX:
+                    if ( argColumnType != outputType ) {
+                        return false;
+                    }
+                    if ( argColumnType == ColumnType.OBJECT && !PolyType.CHAR_TYPES.contains( argType.getPolyType() ) && argType.getPolyType() != PolyType.DECIMAL ) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public VectorizedAggregate copy( AlgTraitSet traitSet, AlgNode input, boolean indicator, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls ) {
+        return new VectorizedAggregate( getCluster(), traitSet, input, indicator, groupSet, groupSets, aggCalls );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorizedConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( VectorizedAlgImplementor implementor ) {
+        final List<Expression> groupKeys = new ArrayList<>();
+        for ( int key : groupSet ) {
+            groupKeys.add( Expressions.constant( key ) );
+        }
+        final List<Expression> functions = new ArrayList<>();
+        final List<Expression> arguments = new ArrayList<>();
+        final List<Expression> outputTypes = new ArrayList<>();
+        for ( AggregateCall aggCall : aggCalls ) {
+            functions.add( Expressions.field( null, Kind.class, aggCall.getAggregation().getKind().name() ) );
+            arguments.add( Expressions.constant( aggCall.getArgList().isEmpty() ? -1 : aggCall.getArgList().get( 0 ) ) );
+            outputTypes.add( VectorProgramCompiler.columnType( aggCall.getType() ) );
+        }
+        return Expressions.new_(
+                BatchHashAggregate.class,
+                implementor.visitChild( (VectorizedAlg) getInput() ),
+                Expressions.newArrayInit( int.class, groupKeys ),
+                Expressions.newArrayInit( Kind.class, functions ),
+                Expressions.newArrayInit( int.class, arguments ),
+                Expressions.newArrayInit( ColumnType.class, outputTypes ),
+                Expressions.constant( implementor.getBatchSize() ) );
+    }
+
+}
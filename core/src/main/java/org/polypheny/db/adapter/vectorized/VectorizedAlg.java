@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import org.apache.calcite.linq4j.tree.Expression;
+import org.polypheny.db.algebra.AlgNode;
+
+
+/**
+ * A relational expression of the {@link VectorizedConvention vectorized calling convention}.
+ */
+public interface VectorizedAlg extends AlgNode {
+
+    /**
+     * Returns the code creating the {@link org.polypheny.db.runtime.vector.BatchOperator} which implements this expression.
+     */
+    Expression implement( VectorizedAlgImplementor implementor );
+
+}
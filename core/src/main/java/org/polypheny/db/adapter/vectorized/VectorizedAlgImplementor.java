@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import lombok.Getter;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+
+
+/**
+ * Context for the implementation of a tree of {@link VectorizedAlg}s. The operators are created from constants only,
+ * so that the generated code can be cached like the code of the enumerable calling convention.
+ */
+public class VectorizedAlgImplementor {
+
+    /**
+     * The implementor of the enumerable expressions below the vectorized tree.
+     */
+    @Getter
+    private final EnumerableAlgImplementor enumerableImplementor;
+
+    /**
+     * The block to which the code of the enumerable inputs is added.
+     */
+    @Getter
+    private final BlockBuilder builder;
+
+    @Getter
+    private final int batchSize;
+
+
+    public VectorizedAlgImplementor( EnumerableAlgImplementor enumerableImplementor, BlockBuilder builder, int batchSize ) {
+        this.enumerableImplementor = enumerableImplementor;
+        this.builder = builder;
+        this.batchSize = batchSize;
+    }
+
+
+    public Expression visitChild( VectorizedAlg child ) {
+        return child.implement( this );
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTrait;
+import org.polypheny.db.plan.AlgTraitDef;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.plan.ConventionTraitDef;
+
+
+/**
+ * Calling convention whose operators exchange batches of rows in columnar form (see
+ * {@link org.polypheny.db.runtime.vector.ColumnBatch}) instead of single rows.
+ */
+public enum VectorizedConvention implements Convention {
+    INSTANCE;
+
+    /**
+     * Cost of a vectorized node versus implementing an equivalent node in the enumerable calling convention.
+     */
+    public static final double COST_MULTIPLIER = 0.5d;
+
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+
+    @Override
+    public Class getInterface() {
+        return VectorizedAlg.class;
+    }
+
+
+    @Override
+    public String getName() {
+        return "VECTORIZED";
+    }
+
+
+    @Override
+    public AlgTraitDef getTraitDef() {
+        return ConventionTraitDef.INSTANCE;
+    }
+
+
+    @Override
+    public boolean satisfies( AlgTrait trait ) {
+        return this == trait;
+    }
+
+
+    @Override
+    public void register( AlgOptPlanner planner ) {
+    }
+
+
+    @Override
+    public boolean canConvertConvention( Convention toConvention ) {
+        return false;
+    }
+
+
+    @Override
+    public boolean useAbstractConvertersForConversion( AlgTraitSet fromTraits, AlgTraitSet toTraits ) {
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import com.google.common.collect.ImmutableList;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexProgram;
+import org.polypheny.db.runtime.vector.BatchFilter;
+
+
+/**
+ * Implementation of {@link Filter} in {@link VectorizedConvention vectorized calling convention}.
+ */
+public class VectorizedFilter extends Filter implements VectorizedAlg {
+
+    public VectorizedFilter( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, RexNode condition ) {
+        super( cluster, traitSet, input, condition );
+        assert getConvention() instanceof VectorizedConvention;
+    }
+
+
+    /**
+     * Returns the program computing the condition of a filter.
+     */
+    static RexProgram program( Filter filter ) {
+        return RexProgram.create( filter.getInput().getRowType(), ImmutableList.of(), filter.getCondition(), ImmutableList.of(), filter.getCluster().getRexBuilder() );
+    }
+
+
+    @Override
+    public VectorizedFilter copy( AlgTraitSet traitSet, AlgNode input, RexNode condition ) {
+        return new VectorizedFilter( getCluster(), traitSet, input, condition );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorizedConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( VectorizedAlgImplementor implementor ) {
+        final RexProgram program = program( this );
+        return Expressions.new_(
+                BatchFilter.class,
+                implementor.visitChild( (VectorizedAlg) getInput() ),
+                VectorProgramCompiler.compile( program ),
+                Expressions.constant( program.getCondition().getIndex() ) );
+    }
+
+}
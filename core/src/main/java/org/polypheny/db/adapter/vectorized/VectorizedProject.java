@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexLocalRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexProgram;
+import org.polypheny.db.runtime.vector.BatchProject;
+
+
+/**
+ * Implementation of {@link Project} in {@link VectorizedConvention vectorized calling convention}.
+ */
+public class VectorizedProject extends Project implements VectorizedAlg {
+
+    public VectorizedProject( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, List<? extends RexNode> projects, AlgDataType rowType ) {
+        super( cluster, traitSet, input, projects, rowType );
+        assert getConvention() instanceof VectorizedConvention;
+    }
+
+
+    /**
+     * Returns the program computing the expressions of a project.
+     */
+    static RexProgram program( Project project ) {
+        return RexProgram.create( project.getInput().getRowType(), project.getProjects(), null, project.getRowType(), project.getCluster().getRexBuilder() );
+    }
+
+
+    @Override
+    public VectorizedProject copy( AlgTraitSet traitSet, AlgNode input, List<RexNode> projects, AlgDataType rowType ) {
+        return new VectorizedProject( getCluster(), traitSet, input, projects, rowType );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorizedConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Expression implement( VectorizedAlgImplementor implementor ) {
+        final RexProgram program = program( this );
+        final List<Expression> slots = new ArrayList<>();
+        for ( RexLocalRef ref : program.getProjectList() ) {
+            slots.add( Expressions.constant( ref.getIndex() ) );
+        }
+        return Expressions.new_(
+                BatchProject.class,
+                implementor.visitChild( (VectorizedAlg) getInput() ),
+                VectorProgramCompiler.compile( program ),
+                Expressions.newArrayInit( int.class, slots ) );
+    }
+
+}
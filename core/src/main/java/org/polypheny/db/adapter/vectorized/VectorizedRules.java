@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.polypheny.db.adapter.enumerable.EnumerableConvention;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.logical.relational.LogicalAggregate;
+import org.polypheny.db.algebra.logical.relational.LogicalFilter;
+import org.polypheny.db.algebra.logical.relational.LogicalProject;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rules and relational operators for the {@link VectorizedConvention vectorized calling convention}. Filters, projects
+ * and aggregates are only converted if all their expressions can be vectorized; the inputs and outputs of vectorized
+ * trees are converted from and to the enumerable calling convention.
+ */
+public final class VectorizedRules {
+
+    public static final VectorizedFilterRule VECTORIZED_FILTER_RULE = new VectorizedFilterRule();
+
+    public static final VectorizedProjectRule VECTORIZED_PROJECT_RULE = new VectorizedProjectRule();
+
+    public static final VectorizedAggregateRule VECTORIZED_AGGREGATE_RULE = new VectorizedAggregateRule();
+
+    public static final EnumerableToVectorizedConverterRule ENUMERABLE_TO_VECTORIZED_RULE = new EnumerableToVectorizedConverterRule();
+
+    public static final VectorizedToEnumerableConverterRule VECTORIZED_TO_ENUMERABLE_RULE = new VectorizedToEnumerableConverterRule();
+
+    public static final List<ConverterRule> RULES = ImmutableList.of(
+            VECTORIZED_FILTER_RULE,
+            VECTORIZED_PROJECT_RULE,
+            VECTORIZED_AGGREGATE_RULE,
+            ENUMERABLE_TO_VECTORIZED_RULE,
+            VECTORIZED_TO_ENUMERABLE_RULE );
+
+
+    private VectorizedRules() {
+    }
+
+
+    /**
+     * Rule to convert a {@link LogicalFilter} to a {@link VectorizedFilter}.
+     */
+    public static class VectorizedFilterRule extends ConverterRule {
+
+        VectorizedFilterRule() {
+            super( LogicalFilter.class,
+                    (Predicate<LogicalFilter>) filter -> VectorProgramCompiler.canCompile( VectorizedFilter.program( filter ) ),
+                    Convention.NONE, VectorizedConvention.INSTANCE,
+                    AlgFactories.LOGICAL_BUILDER, "VectorizedFilterRule" );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            final LogicalFilter filter = (LogicalFilter) alg;
+            return new VectorizedFilter(
+                    alg.getCluster(),
+                    alg.getTraitSet().replace( VectorizedConvention.INSTANCE ),
+                    convert( filter.getInput(), filter.getInput().getTraitSet().replace( VectorizedConvention.INSTANCE ) ),
+                    filter.getCondition() );
+        }
+
+    }
+
+
+    /**
+     * Rule to convert a {@link LogicalProject} to a {@link VectorizedProject}.
+     */
+    public static class VectorizedProjectRule extends ConverterRule {
+
+        VectorizedProjectRule() {
+            super( LogicalProject.class,
+                    (Predicate<LogicalProject>) project -> VectorProgramCompiler.canCompile( VectorizedProject.program( project ) ),
+                    Convention.NONE, VectorizedConvention.INSTANCE,
+                    AlgFactories.LOGICAL_BUILDER, "VectorizedProjectRule" );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            final LogicalProject project = (LogicalProject) alg;
+            return new VectorizedProject(
+                    alg.getCluster(),
+                    alg.getTraitSet().replace( VectorizedConvention.INSTANCE ),
+                    convert( project.getInput(), project.getInput().getTraitSet().replace( VectorizedConvention.INSTANCE ) ),
+                    project.getProjects(),
+                    project.getRowType() );
+        }
+
+    }
+
+
+    /**
+     * Rule to convert a {@link LogicalAggregate} to a {@link VectorizedAggregate}.
+     */
+    public static class VectorizedAggregateRule extends ConverterRule {
+
+        VectorizedAggregateRule() {
+            super( LogicalAggregate.class,
+                    (Predicate<LogicalAggregate>) VectorizedAggregate::canImplement,
+                    Convention.NONE, VectorizedConvention.INSTANCE,
+                    AlgFactories.LOGICAL_BUILDER, "VectorizedAggregateRule" );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            final LogicalAggregate agg = (LogicalAggregate) alg;
+            return new VectorizedAggregate(
+                    alg.getCluster(),
+                    agg.getTraitSet().replace( VectorizedConvention.INSTANCE ),
+                    convert( agg.getInput(), VectorizedConvention.INSTANCE ),
+                    agg.indicator,
+                    agg.getGroupSet(),
+                    agg.getGroupSets(),
+                    agg.getAggCallList() );
+        }
+
+    }
+
+
+    /**
+     * Rule to convert an enumerable expression into the input of a vectorized tree.
+     */
+    public static class EnumerableToVectorizedConverterRule extends ConverterRule {
+
+        EnumerableToVectorizedConverterRule() {
+            super( AlgNode.class, (Predicate<AlgNode>) r -> !(r instanceof VectorizedToEnumerableConverter),
+                    EnumerableConvention.INSTANCE, VectorizedConvention.INSTANCE,
+                    AlgFactories.LOGICAL_BUILDER, "EnumerableToVectorizedConverterRule" );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            return new EnumerableToVectorizedConverter( alg.getCluster(), alg.getTraitSet().replace( getOutTrait() ), alg );
+        }
+
+    }
+
+
+    /**
+     * Rule to convert the output of a vectorized tree into an enumerable expression.
+     */
+    public static class VectorizedToEnumerableConverterRule extends ConverterRule {
+
+        VectorizedToEnumerableConverterRule() {
+            super( AlgNode.class, (Predicate<AlgNode>) r -> !(r instanceof EnumerableToVectorizedConverter),
+                    VectorizedConvention.INSTANCE, EnumerableConvention.INSTANCE,
+                    AlgFactories.LOGICAL_BUILDER, "VectorizedToEnumerableConverterRule" );
+        }
+
+
+        @Override
+        public AlgNode convert( AlgNode alg ) {
+            return new VectorizedToEnumerableConverter( alg.getCluster(), alg.getTraitSet().replace( getOutTrait() ), alg );
+        }
+
+    }
+
+}
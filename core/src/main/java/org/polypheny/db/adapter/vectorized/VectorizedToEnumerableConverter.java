@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.vectorized;
+
+
+import java.util.List;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.adapter.enumerable.EnumerableAlg;
+import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
+import org.polypheny.db.adapter.enumerable.JavaRowFormat;
+import org.polypheny.db.adapter.enumerable.PhysType;
+import org.polypheny.db.adapter.enumerable.PhysTypeImpl;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.ConventionTraitDef;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Converts the batches of a {@link VectorizedAlg} into rows, which are returned in the format of the enumerable
+ * calling convention.
+ */
+public class VectorizedToEnumerableConverter extends ConverterImpl implements EnumerableAlg {
+
+    public VectorizedToEnumerableConverter( AlgOptCluster cluster, AlgTraitSet traits, AlgNode input ) {
+        super( cluster, ConventionTraitDef.INSTANCE, traits, input );
+    }
+
+
+    @Override
+    public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        return new VectorizedToEnumerableConverter( getCluster(), traitSet, sole( inputs ) );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        return super.computeSelfCost( planner, mq ).multiplyBy( VectorizedConvention.COST_MULTIPLIER );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final VectorizedAlgImplementor vectorizedImplementor = new VectorizedAlgImplementor( implementor, builder, RuntimeConfig.VECTORIZED_BATCH_SIZE.getInteger() );
+        final Expression operator = builder.append( "operator", vectorizedImplementor.visitChild( (VectorizedAlg) getInput() ) );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY );
+        final Expression rows = Expressions.call( BuiltInMethod.BATCHES_TO_ROWS.method, operator, implementor.getRootExpression() );
+        builder.add(
+                getRowType().getFieldCount() == 1
+                        ? Expressions.call( BuiltInMethod.SLICE0.method, rows )
+                        : rows );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
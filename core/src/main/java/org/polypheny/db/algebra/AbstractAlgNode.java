@@ -84,6 +84,27 @@ public abstract class AbstractAlgNode implements AlgNode {
 
     private static final Logger LOGGER = PolyphenyDbTrace.getPlannerTracer();
 
+    /**
+     * Whether the explain terms of a class of nodes describe all its attributes besides its inputs. This is assumed if
+     * the explain terms are extended by the class or one of its superclasses, and this is not the case for the compare
+     * string only, e.g. because a subclass adds attributes which are only part of the compare string.
+     */
+    private static final ClassValue<Boolean> EXPLAIN_TERMS_COMPLETE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue( Class<?> type ) {
+            try {
+                final Class<?> explaining = type.getMethod( "explainTerms", AlgWriter.class ).getDeclaringClass();
+                final Class<?> comparing = type.getMethod( "algCompareString" ).getDeclaringClass();
+                return explaining != AbstractAlgNode.class
+                        && explaining != SingleAlg.class
+                        && explaining != BiAlg.class
+                        && comparing.isAssignableFrom( explaining );
+            } catch ( NoSuchMethodException e ) {
+                return false;
+            }
+        }
+    };
+
 
     /**
      * Description, consists of id plus digest.
@@ -124,6 +145,11 @@ public abstract class AbstractAlgNode implements AlgNode {
     @Getter
     protected AlgTraitSet traitSet;
 
+    /**
+     * Cached fingerprint of the tree rooted at this node, see {@link #algFingerprint()}.
+     */
+    private transient CachedFingerprint cachedFingerprint;
+
 
     /**
      * Creates an <code>AbstractRelNode</code>.
@@ -434,5 +460,117 @@ protected void explain_( AlgNode alg, List<Pair<String, Object>> values ) {
         return sw.toString();
     }
 
+
+    /**
+     * {@inheritDoc}
+     *
+     * The fingerprint is composed of the local compare string of this node and the fingerprints of its inputs, it is
+     * computed once and cached. As the inputs of a node can be replaced, the cached fingerprint is only reused as long as
+     * the inputs and their fingerprints are the same as at the time it has been computed.
+     */
+    @Override
+    public AlgFingerprint algFingerprint() {
+        final List<AlgNode> inputs = getInputs();
+        final CachedFingerprint cached = cachedFingerprint;
+        if ( cached != null && cached.isValid( inputs ) ) {
+            return cached.fingerprint;
+        }
+        final AlgFingerprint[] inputFingerprints = new AlgFingerprint[inputs.size()];
+        for ( int i = 0; i < inputFingerprints.length; i++ ) {
+            inputFingerprints[i] = inputs.get( i ).algFingerprint();
+        }
+        final AlgFingerprint fingerprint = AlgFingerprint.of( localCompareString( inputs ), inputFingerprints );
+        cachedFingerprint = new CachedFingerprint( fingerprint, inputs.toArray( new AlgNode[0] ), inputFingerprints );
+        return fingerprint;
+    }
+
+
+    /**
+     * Returns the compare string of this node without the compare strings of its inputs. It is composed of the class,
+     * the traits, the row type and the explain terms of this node, in which the inputs are replaced by their ordinals.
+     * If the explain terms of a node do not describe all its attributes (see {@link #EXPLAIN_TERMS_COMPLETE}), its full
+     * compare string is returned, which is still correct, as it only adds information to the fingerprint.
+     */
+    private String localCompareString( List<AlgNode> inputs ) {
+        if ( inputs.isEmpty() || !EXPLAIN_TERMS_COMPLETE.get( getClass() ) ) {
+            return algCompareString();
+        }
+        StringWriter sw = new StringWriter();
+        AlgWriter pw =
+                new AlgWriterImpl( new PrintWriter( sw ), ExplainLevel.DIGEST_ATTRIBUTES, false ) {
+                    @Override
+                    protected void explain_( AlgNode alg, List<Pair<String, Object>> values ) {
+                        pw.write( alg.getClass().getName() );
+
+                        for ( AlgTrait trait : traitSet ) {
+                            pw.write( "." );
+                            pw.write( trait.toString() );
+                        }
+
+                        pw.write( "(" );
+                        int j = 0;
+                        for ( Pair<String, Object> value : values ) {
+                            if ( j++ > 0 ) {
+                                pw.write( "," );
+                            }
+                            pw.write( value.left );
+                            pw.write( "=" );
+                            if ( value.right instanceof AlgNode ) {
+                                pw.write( inputPlaceholder( inputs, (AlgNode) value.right ) );
+                            } else {
+                                pw.write( String.valueOf( value.right ) );
+                            }
+                        }
+                        pw.write( ")" );
+                        pw.write( AbstractAlgNode.this.getRowType().getFullTypeString() );
+                    }
+                };
+        explain( pw );
+        return sw.toString();
+    }
+
+
+    private static String inputPlaceholder( List<AlgNode> inputs, AlgNode input ) {
+        for ( int i = 0; i < inputs.size(); i++ ) {
+            if ( inputs.get( i ) == input ) {
+                return "#" + i;
+            }
+        }
+        return input.algCompareString();
+    }
+
+
+    /**
+     * A fingerprint together with the inputs (and their fingerprints) it has been computed for.
+     */
+    private static class CachedFingerprint {
+
+        private final AlgFingerprint fingerprint;
+        private final AlgNode[] inputs;
+        private final AlgFingerprint[] inputFingerprints;
+
+
+        private CachedFingerprint( AlgFingerprint fingerprint, AlgNode[] inputs, AlgFingerprint[] inputFingerprints ) {
+            this.fingerprint = fingerprint;
+            this.inputs = inputs;
+            this.inputFingerprints = inputFingerprints;
+        }
+
+
+        private boolean isValid( List<AlgNode> currentInputs ) {
+            if ( currentInputs.size() != inputs.length ) {
+                return false;
+            }
+            for ( int i = 0; i < inputs.length; i++ ) {
+                // Identity comparison is intended, the fingerprints of the inputs are cached as well
+                if ( currentInputs.get( i ) != inputs[i] || currentInputs.get( i ).algFingerprint() != inputFingerprints[i] ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
 }
 
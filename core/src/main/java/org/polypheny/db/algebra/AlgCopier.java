@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.polypheny.db.algebra.core.Correlate;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentScan;
+import org.polypheny.db.algebra.logical.lpg.LogicalLpgScan;
+import org.polypheny.db.algebra.logical.relational.LogicalScan;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexUtil.SubQueryFinder;
+import org.polypheny.db.schema.ModelTrait;
+import org.polypheny.db.util.Util;
+
+
+/**
+ * Creates deep copies of algebra expressions which belong to another {@link AlgOptCluster}, e.g., to optimize a plan
+ * with another planner.
+ */
+public class AlgCopier {
+
+    private AlgCopier() {
+    }
+
+
+    /**
+     * Creates an empty cluster for the given planner with the same data model as the original cluster.
+     */
+    public static AlgOptCluster createCluster( AlgOptPlanner planner, RexBuilder rexBuilder, AlgOptCluster original ) {
+        if ( original.traitSet().contains( ModelTrait.GRAPH ) ) {
+            return AlgOptCluster.createGraph( planner, rexBuilder );
+        } else if ( original.traitSet().contains( ModelTrait.DOCUMENT ) ) {
+            return AlgOptCluster.createDocument( planner, rexBuilder );
+        }
+        return AlgOptCluster.create( planner, rexBuilder );
+    }
+
+
+    /**
+     * Creates a deep copy of the provided plan in which every node belongs to the given cluster.
+     *
+     * @return the copy or null if the plan contains nodes which cannot be copied
+     */
+    public static AlgNode copy( AlgNode node, AlgOptCluster cluster ) {
+        return copy( node, cluster, leaf -> null );
+    }
+
+
+    /**
+     * Creates a deep copy of the provided plan in which every node belongs to the given cluster. Every leaf of the plan
+     * is first passed to the substitution, a leaf for which it returns a node is replaced by that node instead of
+     * being copied. The substitutes have to belong to the given cluster already.
+     *
+     * @param leafSubstitution returns the substitute of a leaf or null if the leaf is to be copied
+     * @return the copy or null if the plan contains nodes which cannot be copied
+     */
+    public static AlgNode copy( AlgNode node, AlgOptCluster cluster, Function<AlgNode, AlgNode> leafSubstitution ) {
+        if ( node.getInputs().isEmpty() ) {
+            AlgNode substitute = leafSubstitution.apply( node );
+            if ( substitute != null ) {
+                return substitute;
+            }
+        }
+        if ( node instanceof Correlate || containsSubQuery( node ) ) {
+            return null;
+        }
+        final List<AlgNode> inputs = new ArrayList<>( node.getInputs().size() );
+        for ( AlgNode input : node.getInputs() ) {
+            AlgNode copiedInput = copy( input, cluster, leafSubstitution );
+            if ( copiedInput == null ) {
+                return null;
+            }
+            inputs.add( copiedInput );
+        }
+
+        final AlgNode copied;
+        if ( node instanceof LogicalScan ) {
+            copied = new LogicalScan( cluster, node.getTraitSet(), node.getTable() );
+        } else if ( node instanceof LogicalDocumentScan ) {
+            copied = new LogicalDocumentScan( cluster, node.getTraitSet(), node.getTable() );
+        } else if ( node instanceof LogicalLpgScan ) {
+            copied = new LogicalLpgScan( cluster, node.getTraitSet(), ((LogicalLpgScan) node).getGraph(), node.getRowType() );
+        } else {
+            copied = node.copy( node.getTraitSet(), inputs );
+        }
+
+        // Leaf nodes which do not override the copy method return themselves
+        if ( copied == node || !(copied instanceof AbstractAlgNode) ) {
+            return null;
+        }
+        ((AbstractAlgNode) copied).setCluster( cluster );
+        return copied;
+    }
+
+
+    private static boolean containsSubQuery( AlgNode node ) {
+        try {
+            for ( RexNode rexNode : node.getChildExps() ) {
+                rexNode.accept( SubQueryFinder.INSTANCE );
+            }
+            return false;
+        } catch ( Util.FoundOne e ) {
+            return true;
+        }
+    }
+
+}
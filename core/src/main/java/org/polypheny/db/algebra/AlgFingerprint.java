@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import lombok.Getter;
+
+
+/**
+ * Structural fingerprint of a tree of {@link AlgNode}s, used as key by the plan and implementation caches.
+ *
+ * A fingerprint is composed bottom-up: it consists of a 128-bit hash of the local compare string of the root node
+ * (its compare string without the ones of its inputs) and the fingerprints of its inputs. Two fingerprints are equal if
+ * their hashes are equal and the trees are structurally equal, i.e. the local compare strings and the fingerprints of
+ * the inputs are equal. Since the hashes are compared first, the structural comparison is only required to rule out hash
+ * collisions.
+ */
+public final class AlgFingerprint {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final AlgFingerprint[] NO_INPUTS = new AlgFingerprint[0];
+
+    @Getter
+    private final long high;
+    @Getter
+    private final long low;
+
+    private final String localCompareString;
+    private final AlgFingerprint[] inputs;
+
+
+    private AlgFingerprint( long high, long low, String localCompareString, AlgFingerprint[] inputs ) {
+        this.high = high;
+        this.low = low;
+        this.localCompareString = localCompareString;
+        this.inputs = inputs;
+    }
+
+
+    /**
+     * Creates the fingerprint of a tree without considering its structure, e.g. for a leaf or a node which only provides
+     * the compare string of the whole tree.
+     */
+    public static AlgFingerprint of( String compareString ) {
+        return of( compareString, NO_INPUTS );
+    }
+
+
+    /**
+     * Creates the fingerprint of a node from its local compare string and the fingerprints of its inputs.
+     */
+    public static AlgFingerprint of( String localCompareString, AlgFingerprint[] inputs ) {
+        Hasher hasher = HASH_FUNCTION.newHasher().putString( localCompareString, StandardCharsets.UTF_8 );
+        for ( AlgFingerprint input : inputs ) {
+            hasher.putLong( input.high ).putLong( input.low );
+        }
+        ByteBuffer buffer = ByteBuffer.wrap( hasher.hash().asBytes() );
+        return new AlgFingerprint( buffer.getLong(), buffer.getLong(), localCompareString, inputs.length == 0 ? NO_INPUTS : inputs.clone() );
+    }
+
+
+    @Override
+    public boolean equals( Object o ) {
+        if ( this == o ) {
+            return true;
+        }
+        if ( !(o instanceof AlgFingerprint) ) {
+            return false;
+        }
+        AlgFingerprint that = (AlgFingerprint) o;
+        return high == that.high
+                && low == that.low
+                && localCompareString.equals( that.localCompareString )
+                && Arrays.equals( inputs, that.inputs );
+    }
+
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+
+    @Override
+    public String toString() {
+        return String.format( "%016x%016x", high, low );
+    }
+
+}
@@ -329,6 +329,14 @@ public interface AlgNode extends AlgOptNode, Cloneable {
      */
     String algCompareString();
 
+    /**
+     * Returns the structural fingerprint of the tree rooted at this node. In contrast to {@link #algCompareString()},
+     * implementations may cache the fingerprint, making it cheap to use as key for the plan caches.
+     */
+    default AlgFingerprint algFingerprint() {
+        return AlgFingerprint.of( algCompareString() );
+    }
+
     /**
      * For optimized trees. Returns whether the involved operators support implementation caching. Default is true.
      * Only override if you need to set this to false.
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.core.common;
+
+
+/**
+ * Marks the modify of a store which consumes all parameter sets of the {@link org.polypheny.db.adapter.DataContext} in a
+ * single execution, e.g. as a JDBC batch or a bulk write. A {@link BatchIterator} over such modifies executes them once
+ * for the whole batch instead of once per parameter set.
+ */
+public interface BulkModify {
+
+    /**
+     * Whether this modify consumes all parameter sets in one execution. Stores which only support this for some
+     * operations override it, the batch is then executed once per parameter set.
+     */
+    default boolean isBulk() {
+        return true;
+    }
+
+}
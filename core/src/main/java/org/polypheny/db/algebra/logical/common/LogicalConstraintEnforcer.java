@@ -22,6 +22,7 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
@@ -31,6 +32,8 @@
 import org.polypheny.db.algebra.AlgShuttleImpl;
 import org.polypheny.db.algebra.core.JoinAlgType;
 import org.polypheny.db.algebra.core.Modify;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Values;
 import org.polypheny.db.algebra.core.common.ConstraintEnforcer;
 import org.polypheny.db.algebra.exceptions.ConstraintViolationException;
 import org.polypheny.db.algebra.logical.relational.LogicalFilter;
@@ -54,7 +57,9 @@
 import org.polypheny.db.plan.AlgOptTable;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexDynamicParam;
 import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexLiteral;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.schema.LogicalTable;
 import org.polypheny.db.tools.AlgBuilder;
@@ -66,6 +71,11 @@ public class LogicalConstraintEnforcer extends ConstraintEnforcer {
 
     final static String REF_POSTFIX = "$ref";
 
+    /**
+     * Maximal number of inserted keys for which the control query only reads the matching rows instead of the whole table.
+     */
+    private final static int MAX_FILTERED_KEYS = 1000;
+
 
     /**
      * This class checks if after a DML operation the constraints on the involved
@@ -85,7 +95,7 @@ public LogicalConstraintEnforcer( AlgOptCluster cluster, AlgTraitSet traitSet, A
     }
 
 
-    private static EnforcementInformation getControl( AlgNode node, Statement statement ) {
+    private static EnforcementInformation getControl( AlgNode node, Statement statement, Set<Long> verifiedKeys ) {
         ModifyExtractor extractor = new ModifyExtractor();
         node.accept( extractor );
         Modify modify = extractor.getModify();
@@ -103,13 +113,16 @@ private static EnforcementInformation getControl( AlgNode node, Statement statem
         final List<CatalogConstraint> constraints = new ArrayList<>( Catalog.getInstance().getConstraints( table.id ) )
                 .stream()
                 .filter( f -> f.key.enforcementTime == enforcementTime )
+                .filter( f -> !verifiedKeys.contains( f.keyId ) )
                 .collect( Collectors.toCollection( ArrayList::new ) );
         final List<CatalogForeignKey> foreignKeys = Catalog.getInstance()
                 .getForeignKeys( table.id )
                 .stream()
                 .filter( f -> f.enforcementTime == enforcementTime )
+                .filter( f -> !verifiedKeys.contains( f.id ) )
                 .collect( Collectors.toList() );
-        final List<CatalogForeignKey> exportedKeys = Catalog.getInstance()
+        // Inserted rows cannot be missing for rows of other tables which reference them
+        final List<CatalogForeignKey> exportedKeys = modify.isInsert() ? Collections.emptyList() : Catalog.getInstance()
                 .getExportedKeys( table.id )
                 .stream()
                 .filter( f -> f.enforcementTime == enforcementTime )
@@ -117,7 +130,7 @@ private static EnforcementInformation getControl( AlgNode node, Statement statem
 
         // Turn primary key into an artificial unique constraint
         CatalogPrimaryKey pk = Catalog.getInstance().getPrimaryKey( table.primaryKey );
-        if ( pk.enforcementTime == enforcementTime ) {
+        if ( pk.enforcementTime == enforcementTime && !verifiedKeys.contains( pk.id ) ) {
             final CatalogConstraint pkc = new CatalogConstraint( 0L, pk.id, ConstraintType.UNIQUE, "PRIMARY KEY", pk );
             constraints.add( pkc );
         }
@@ -137,6 +150,11 @@ private static EnforcementInformation getControl( AlgNode node, Statement statem
                 builder.clear();
                 final AlgNode scan = LogicalScan.create( modify.getCluster(), modify.getTable() );
                 builder.push( scan );
+                // Only the inserted keys can be duplicated, which allows stores to use their indexes
+                final List<List<RexNode>> insertedKeys = modify.isInsert() ? getInsertedKeys( modify, constraint.key.getColumnNames(), statement ) : null;
+                if ( insertedKeys != null ) {
+                    builder.filter( keyCondition( builder, constraint.key.getColumnNames(), insertedKeys ) );
+                }
                 // Enforce uniqueness between the already existing values and the new values
                 List<RexInputRef> keys = constraint.key
                         .getColumnNames()
@@ -171,11 +189,19 @@ private static EnforcementInformation getControl( AlgNode node, Statement statem
                 final AlgOptTable refOptTable = algOptSchema.getTableForMember( Collections.singletonList( foreignKey.getReferencedKeyTableName() ) );
                 final AlgNode scan = LogicalScan.create( modify.getCluster(), scanOptTable );
                 final LogicalScan ref = LogicalScan.create( modify.getCluster(), refOptTable );
+                // Only the inserted rows can reference missing keys
+                final List<List<RexNode>> insertedKeys = modify.isInsert() && foreignKey.tableId == table.id ? getInsertedKeys( modify, foreignKey.getColumnNames(), statement ) : null;
 
                 builder.push( scan );
+                if ( insertedKeys != null ) {
+                    builder.filter( keyCondition( builder, foreignKey.getColumnNames(), insertedKeys ) );
+                }
                 builder.project( foreignKey.getColumnNames().stream().map( builder::field ).collect( Collectors.toList() ) );
 
                 builder.push( ref );
+                if ( insertedKeys != null ) {
+                    builder.filter( keyCondition( builder, foreignKey.getReferencedKeyColumnNames(), insertedKeys ) );
+                }
                 builder.project( foreignKey.getReferencedKeyColumnNames().stream().map( builder::field ).collect( Collectors.toList() ) );
 
                 RexNode joinCondition = rexBuilder.makeLiteral( true );
@@ -373,7 +399,20 @@ public static LogicalConstraintEnforcer create( AlgNode modify, AlgNode control,
 
 
     public static AlgNode create( AlgNode node, Statement statement ) {
-        EnforcementInformation information = getControl( node, statement );
+        return create( node, statement, Collections.emptySet() );
+    }
+
+
+    /**
+     * Creates a {@link LogicalConstraintEnforcer} on top of the given modify, which checks all constraints that are enforced
+     * {@code ON QUERY}, except the ones of the given keys.
+     *
+     * @param node the tree containing the modify
+     * @param statement the used statement
+     * @param verifiedKeys the ids of the keys which have already been checked for this statement, e.g. by probing an index
+     */
+    public static AlgNode create( AlgNode node, Statement statement, Set<Long> verifiedKeys ) {
+        EnforcementInformation information = getControl( node, statement, verifiedKeys );
         if ( information.getControl() == null ) {
             // there is no constraint, which is enforced {@code ON QUERY} so we return the original
             return node;
@@ -383,6 +422,73 @@ public static AlgNode create( AlgNode node, Statement statement ) {
     }
 
 
+    /**
+     * Returns the values of the given columns of the rows inserted by a modify, if they are known before the execution,
+     * i.e. if the rows are literals or the parameters of a single parameter set. Otherwise, null is returned.
+     *
+     * @param modify the inserting modify
+     * @param columns the names of the columns
+     * @param statement the used statement
+     * @return a list of literals or dynamic parameters per inserted row, or null
+     */
+    public static List<List<RexNode>> getInsertedKeys( Modify modify, List<String> columns, Statement statement ) {
+        final List<String> fieldNames = modify.getTable().getRowType().getFieldNames();
+        final List<Integer> indexes = new ArrayList<>( columns.size() );
+        for ( String column : columns ) {
+            int index = fieldNames.indexOf( column );
+            if ( index < 0 ) {
+                return null;
+            }
+            indexes.add( index );
+        }
+
+        final AlgNode input = modify.getInput();
+        final List<List<RexNode>> keys = new ArrayList<>();
+        if ( input instanceof Values ) {
+            final List<? extends List<RexLiteral>> tuples = ((Values) input).getTuples();
+            if ( tuples.size() > MAX_FILTERED_KEYS ) {
+                return null;
+            }
+            for ( List<RexLiteral> tuple : tuples ) {
+                keys.add( indexes.stream().map( tuple::get ).collect( Collectors.toList() ) );
+            }
+        } else if ( input instanceof Project && input.getInput( 0 ) instanceof Values && ((Values) input.getInput( 0 )).getTuples().size() == 1 ) {
+            final List<RexNode> projects = ((Project) input).getProjects();
+            final List<RexNode> key = new ArrayList<>( indexes.size() );
+            for ( int index : indexes ) {
+                final RexNode value = projects.get( index );
+                if ( value instanceof RexDynamicParam && statement.getDataContext().getParameterValues().size() > 1 ) {
+                    // The parameters of a batch cannot be referenced by a single filter
+                    return null;
+                } else if ( !(value instanceof RexLiteral) && !(value instanceof RexDynamicParam) ) {
+                    return null;
+                }
+                key.add( value );
+            }
+            keys.add( key );
+        } else {
+            return null;
+        }
+        return keys;
+    }
+
+
+    /**
+     * Creates a condition on the current input of the builder, which matches the rows with one of the given keys.
+     */
+    private static RexNode keyCondition( AlgBuilder builder, List<String> columns, List<List<RexNode>> keys ) {
+        final List<RexNode> conditions = new ArrayList<>( keys.size() );
+        for ( List<RexNode> key : keys ) {
+            final List<RexNode> equalities = new ArrayList<>( columns.size() );
+            for ( int i = 0; i < columns.size(); i++ ) {
+                equalities.add( builder.equals( builder.field( columns.get( i ) ), key.get( i ) ) );
+            }
+            conditions.add( builder.and( equalities ) );
+        }
+        return builder.or( conditions );
+    }
+
+
     public static String getEntityName( Modify root, CatalogSchema schema ) {
         String tableName;
         if ( root.getTable().getQualifiedName().size() == 1 ) { // tableName
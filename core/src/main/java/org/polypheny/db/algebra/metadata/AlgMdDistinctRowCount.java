@@ -42,6 +42,7 @@
 import org.polypheny.db.algebra.core.Filter;
 import org.polypheny.db.algebra.core.Join;
 import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Scan;
 import org.polypheny.db.algebra.core.SemiJoin;
 import org.polypheny.db.algebra.core.Sort;
 import org.polypheny.db.algebra.core.Union;
@@ -49,10 +50,12 @@
 import org.polypheny.db.algebra.operators.OperatorName;
 import org.polypheny.db.languages.OperatorRegistry;
 import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.plan.hep.HepAlgVertex;
 import org.polypheny.db.plan.volcano.AlgSubset;
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.rex.RexUtil;
+import org.polypheny.db.schema.ColumnStatistic;
 import org.polypheny.db.util.Bug;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.ImmutableBitSet;
@@ -92,6 +95,36 @@ public Double getDistinctRowCount( AlgNode alg, AlgMetadataQuery mq, ImmutableBi
     }
 
 
+    /**
+     * Estimates the number of distinct values using the statistics of the columns (see {@link ColumnStatistic}). The
+     * columns are assumed to be independent.
+     */
+    public Double getDistinctRowCount( Scan alg, AlgMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate ) {
+        Double distinctRowCount = getDistinctRowCount( (AlgNode) alg, mq, groupKey, predicate );
+        if ( distinctRowCount != null ) {
+            return distinctRowCount;
+        }
+        Double rowCount = mq.getRowCount( alg );
+        if ( rowCount == null ) {
+            return null;
+        }
+        double distinctValues = 1;
+        for ( int column : groupKey ) {
+            ColumnStatistic statistic = AlgMdUtil.getColumnStatistic( alg, column );
+            if ( statistic == null ) {
+                return null;
+            }
+            distinctValues *= statistic.getDistinctCount();
+        }
+        distinctValues = Math.min( distinctValues, rowCount );
+        Double selectivity = mq.getSelectivity( alg, predicate );
+        if ( selectivity == null ) {
+            return distinctValues;
+        }
+        return AlgMdUtil.numDistinctVals( distinctValues, rowCount * selectivity );
+    }
+
+
     public Double getDistinctRowCount( Union alg, AlgMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate ) {
         double rowCount = 0.0;
         int[] adjustments = new int[alg.getRowType().getFieldCount()];
@@ -264,6 +297,11 @@ public Double getDistinctRowCount( Project alg, AlgMetadataQuery mq, ImmutableBi
     }
 
 
+    public Double getDistinctRowCount( HepAlgVertex alg, AlgMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate ) {
+        return mq.getDistinctRowCount( alg.getCurrentAlg(), groupKey, predicate );
+    }
+
+
     public Double getDistinctRowCount( AlgSubset alg, AlgMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate ) {
         final AlgNode best = alg.getBest();
         if ( best != null ) {
@@ -34,12 +34,19 @@
 package org.polypheny.db.algebra.metadata;
 
 
+import org.polypheny.db.adapter.enumerable.EnumerableAggregate;
+import org.polypheny.db.adapter.enumerable.EnumerableJoin;
+import org.polypheny.db.adapter.enumerable.EnumerableSort;
+import org.polypheny.db.adapter.enumerable.EnumerableUnion;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Aggregate.Group;
 import org.polypheny.db.algebra.core.Exchange;
 import org.polypheny.db.algebra.core.Scan;
 import org.polypheny.db.algebra.core.Values;
 import org.polypheny.db.algebra.metadata.BuiltInMetadata.Parallelism;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.ImmutableBitSet;
 
 
 /**
@@ -104,5 +111,86 @@ public Integer splitCount( AlgNode alg, AlgMetadataQuery mq ) {
         return 1;
     }
 
+
+    /**
+     * Aggregations with a single group set are executed on partitions of their input, which are built by hashing the
+     * group keys.
+     */
+    public Integer splitCount( EnumerableAggregate alg, AlgMetadataQuery mq ) {
+        if ( alg.getGroupType() != Group.SIMPLE || alg.getGroupCount() == 0 ) {
+            return 1;
+        }
+        if ( alg.getAggCallList().isEmpty() && alg.getGroupSet().equals( ImmutableBitSet.range( alg.getInput().getRowType().getFieldCount() ) ) ) {
+            // Implemented as distinct
+            return 1;
+        }
+        return materializingDegree( mq.getRowCount( alg.getInput() ) );
+    }
+
+
+    /**
+     * Hash joins are executed on partitions of both inputs, which are built by hashing the join keys.
+     */
+    public Integer splitCount( EnumerableJoin alg, AlgMetadataQuery mq ) {
+        final Double leftRows = mq.getRowCount( alg.getLeft() );
+        final Double rightRows = mq.getRowCount( alg.getRight() );
+        if ( leftRows == null || rightRows == null ) {
+            return 1;
+        }
+        return materializingDegree( leftRows + rightRows );
+    }
+
+
+    /**
+     * Sorts sort chunks of their input in parallel and merge them.
+     */
+    public Integer splitCount( EnumerableSort alg, AlgMetadataQuery mq ) {
+        return materializingDegree( mq.getRowCount( alg.getInput() ) );
+    }
+
+
+    /**
+     * A {@code UNION ALL} enumerates its inputs concurrently, at most one thread per input.
+     */
+    public Integer splitCount( EnumerableUnion alg, AlgMetadataQuery mq ) {
+        if ( !alg.all || alg.getInputs().size() < 2 ) {
+            return 1;
+        }
+        double rows = 0;
+        for ( AlgNode input : alg.getInputs() ) {
+            final Double inputRows = mq.getRowCount( input );
+            if ( inputRows == null ) {
+                return 1;
+            }
+            rows += inputRows;
+        }
+        return Math.min( degree( rows ), alg.getInputs().size() );
+    }
+
+
+    /**
+     * Returns the degree of parallelism of an operator which holds its whole input in memory. The partitions of the
+     * parallel operators are not accounted to the memory budget of the statement, therefore these operators are executed
+     * sequentially and spill to disk if a budget is configured.
+     */
+    static int materializingDegree( Double rows ) {
+        if ( RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() > 0 ) {
+            return 1;
+        }
+        return degree( rows );
+    }
+
+
+    /**
+     * Returns the configured degree of parallelism if an operator processes enough rows to be executed in parallel.
+     */
+    private static int degree( Double rows ) {
+        final int parallelism = RuntimeConfig.PARALLELISM.getInteger();
+        if ( parallelism <= 1 || rows == null || rows < RuntimeConfig.PARALLELISM_THRESHOLD.getInteger() ) {
+            return 1;
+        }
+        return parallelism;
+    }
+
 }
 
@@ -37,20 +37,28 @@
 import java.util.ArrayList;
 import java.util.List;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.core.Aggregate;
 import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.core.Join;
 import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Scan;
 import org.polypheny.db.algebra.core.SemiJoin;
 import org.polypheny.db.algebra.core.Sort;
 import org.polypheny.db.algebra.core.Union;
 import org.polypheny.db.algebra.operators.OperatorName;
 import org.polypheny.db.languages.OperatorRegistry;
 import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.plan.hep.HepAlgVertex;
+import org.polypheny.db.plan.volcano.AlgSubset;
 import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexInputRef;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.rex.RexUtil;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.ImmutableBitSet;
+import org.polypheny.db.util.Util;
 
 
 /**
@@ -174,6 +182,67 @@ public Double getSelectivity( Project alg, AlgMetadataQuery mq, RexNode predicat
     }
 
 
+    public Double getSelectivity( Scan alg, AlgMetadataQuery mq, RexNode predicate ) {
+        return AlgMdUtil.estimateSelectivity( alg, predicate );
+    }
+
+
+    public Double getSelectivity( Join alg, AlgMetadataQuery mq, RexNode predicate ) {
+        if ( (predicate == null) || predicate.isAlwaysTrue() ) {
+            return 1.0;
+        }
+        double selectivity = 1.0;
+        for ( RexNode pred : AlgOptUtil.conjunctions( predicate ) ) {
+            Double estimate = getEquiJoinSelectivity( alg, mq, pred );
+            selectivity *= estimate == null ? AlgMdUtil.guessSelectivity( pred ) : estimate;
+        }
+        return selectivity;
+    }
+
+
+    /**
+     * Estimates the selectivity of an equality between a column of the left and a column of the right input
+     * as {@code 1 / max(ndv(left), ndv(right))}, assuming that the values of the side with fewer distinct values are
+     * contained in the other side.
+     */
+    private Double getEquiJoinSelectivity( Join alg, AlgMetadataQuery mq, RexNode predicate ) {
+        if ( !predicate.isA( Kind.EQUALS ) ) {
+            return null;
+        }
+        final List<RexNode> operands = ((RexCall) predicate).getOperands();
+        if ( !(operands.get( 0 ) instanceof RexInputRef) || !(operands.get( 1 ) instanceof RexInputRef) ) {
+            return null;
+        }
+        final int leftCount = alg.getLeft().getRowType().getFieldCount();
+        int left = ((RexInputRef) operands.get( 0 )).getIndex();
+        int right = ((RexInputRef) operands.get( 1 )).getIndex();
+        if ( left >= leftCount ) {
+            int swap = left;
+            left = right;
+            right = swap;
+        }
+        if ( left >= leftCount || right < leftCount ) {
+            return null;
+        }
+        Double leftDistinct = mq.getDistinctRowCount( alg.getLeft(), ImmutableBitSet.of( left ), null );
+        Double rightDistinct = mq.getDistinctRowCount( alg.getRight(), ImmutableBitSet.of( right - leftCount ), null );
+        if ( leftDistinct == null || rightDistinct == null ) {
+            return null;
+        }
+        return 1 / Math.max( 1, Math.max( leftDistinct, rightDistinct ) );
+    }
+
+
+    public Double getSelectivity( HepAlgVertex alg, AlgMetadataQuery mq, RexNode predicate ) {
+        return mq.getSelectivity( alg.getCurrentAlg(), predicate );
+    }
+
+
+    public Double getSelectivity( AlgSubset alg, AlgMetadataQuery mq, RexNode predicate ) {
+        return mq.getSelectivity( Util.first( alg.getBest(), alg.getOriginal() ), predicate );
+    }
+
+
     // Catch-all rule when none of the others apply.
     public Double getSelectivity( AlgNode alg, AlgMetadataQuery mq, RexNode predicate ) {
         return AlgMdUtil.guessSelectivity( predicate );
@@ -50,6 +50,7 @@
 import org.polypheny.db.algebra.core.JoinAlgType;
 import org.polypheny.db.algebra.core.Minus;
 import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Scan;
 import org.polypheny.db.algebra.core.SemiJoin;
 import org.polypheny.db.algebra.core.Sort;
 import org.polypheny.db.algebra.core.Union;
@@ -57,6 +58,7 @@
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexDynamicParam;
 import org.polypheny.db.rex.RexInputRef;
 import org.polypheny.db.rex.RexLiteral;
 import org.polypheny.db.rex.RexLocalRef;
@@ -64,6 +66,8 @@
 import org.polypheny.db.rex.RexProgram;
 import org.polypheny.db.rex.RexUtil;
 import org.polypheny.db.rex.RexVisitorImpl;
+import org.polypheny.db.schema.ColumnStatistic;
+import org.polypheny.db.schema.Table;
 import org.polypheny.db.util.ImmutableBitSet;
 import org.polypheny.db.util.ImmutableBitSet.Builder;
 import org.polypheny.db.util.NumberUtil;
@@ -381,6 +385,102 @@ public static double guessSelectivity( RexNode predicate, boolean artificialOnly
     }
 
 
+    /**
+     * Returns the estimated selectivity of a predicate on a scanned table. Comparisons of a column with a literal or a
+     * dynamic parameter are estimated using the statistics of the column (see {@link ColumnStatistic}), all other
+     * predicates and columns without statistics fall back to {@link #guessSelectivity(RexNode)}.
+     *
+     * @param scan the scan of the table
+     * @param predicate predicate for which selectivity will be computed; null means true, so gives selectity of 1.0
+     * @return estimated selectivity
+     */
+    public static double estimateSelectivity( Scan scan, RexNode predicate ) {
+        if ( (predicate == null) || predicate.isAlwaysTrue() ) {
+            return 1.0;
+        }
+        double sel = 1.0;
+        for ( RexNode pred : AlgOptUtil.conjunctions( predicate ) ) {
+            Double estimate = estimateComparisonSelectivity( scan, pred );
+            sel *= estimate == null ? guessSelectivity( pred ) : estimate;
+        }
+        return sel;
+    }
+
+
+    private static Double estimateComparisonSelectivity( Scan scan, RexNode predicate ) {
+        if ( !(predicate instanceof RexCall) || !predicate.isA( Kind.COMPARISON ) || ((RexCall) predicate).getOperands().size() != 2 ) {
+            return null;
+        }
+        Kind kind = predicate.getKind();
+        RexNode column = ((RexCall) predicate).getOperands().get( 0 );
+        RexNode value = ((RexCall) predicate).getOperands().get( 1 );
+        if ( !(column instanceof RexInputRef) ) {
+            column = value;
+            value = ((RexCall) predicate).getOperands().get( 0 );
+            kind = kind.reverse();
+        }
+        if ( !(column instanceof RexInputRef) || !(value instanceof RexLiteral || value instanceof RexDynamicParam) ) {
+            return null;
+        }
+        ColumnStatistic statistic = getColumnStatistic( scan, ((RexInputRef) column).getIndex() );
+        if ( statistic == null ) {
+            return null;
+        }
+        Double numericValue = value instanceof RexLiteral ? toNumericValue( (RexLiteral) value ) : null;
+        if ( numericValue != null ) {
+            return statistic.comparisonSelectivity( kind, numericValue );
+        } else if ( kind == Kind.EQUALS ) {
+            return statistic.equalsSelectivity();
+        } else if ( kind == Kind.NOT_EQUALS ) {
+            return 1 - statistic.equalsSelectivity();
+        }
+        return null;
+    }
+
+
+    /**
+     * Returns the statistics of a column of a scanned table or null if they are not known.
+     */
+    public static ColumnStatistic getColumnStatistic( Scan scan, int column ) {
+        Table table = scan.getTable().getTable();
+        if ( table == null || column >= scan.getRowType().getFieldCount() ) {
+            return null;
+        }
+        return table.getStatistic().getColumnStatistic( scan.getRowType().getFieldNames().get( column ) );
+    }
+
+
+    /**
+     * Converts a literal into the numerical representation used by histograms, i.e. days since epoch for dates and
+     * milliseconds for times and timestamps.
+     *
+     * @return the numerical value or null if the literal is not numerical or temporal
+     */
+    private static Double toNumericValue( RexLiteral literal ) {
+        if ( literal.getValue() == null ) {
+            return null;
+        }
+        switch ( literal.getTypeName() ) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case DECIMAL:
+            case FLOAT:
+            case REAL:
+            case DOUBLE:
+                return literal.getValueAs( Double.class );
+            case DATE:
+            case TIME:
+                return literal.getValueAs( Integer.class ).doubleValue();
+            case TIMESTAMP:
+                return literal.getValueAs( Long.class ).doubleValue();
+            default:
+                return null;
+        }
+    }
+
+
     /**
      * AND's two predicates together, either of which may be null, removing redundant filters.
      *
@@ -51,8 +51,11 @@
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgOptPredicateList;
 import org.polypheny.db.plan.AlgOptTable;
+import org.polypheny.db.plan.hep.HepAlgVertex;
+import org.polypheny.db.plan.volcano.AlgSubset;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.rex.RexTableInputRef.AlgTableRef;
+import org.polypheny.db.runtime.FlatLists;
 import org.polypheny.db.util.ImmutableBitSet;
 
 
@@ -225,6 +228,10 @@ public Multimap<Class<? extends AlgNode>, AlgNode> getNodeTypes( AlgNode alg ) {
      * @return estimated row count, or null if no algiable estimate can be determined
      */
     public Double getRowCount( AlgNode alg ) {
+        final Double observed = getObservedRowCount( alg );
+        if ( observed != null ) {
+            return validateResult( observed );
+        }
         for ( ; ; ) {
             try {
                 Double result = rowCountHandler.getRowCount( alg, this );
@@ -236,6 +243,25 @@ public Double getRowCount( AlgNode alg ) {
     }
 
 
+    /**
+     * Returns the cardinality observed during previous executions of the given operator (see {@link CardinalityFeedback}).
+     * The result is cached, as the lookup requires a traversal of the inputs of the operator.
+     */
+    private Double getObservedRowCount( AlgNode alg ) {
+        if ( alg instanceof AlgSubset || alg instanceof HepAlgVertex ) {
+            // The row count of the wrapped operator is corrected
+            return null;
+        }
+        final List key = FlatLists.of( CardinalityFeedback.class, alg );
+        Object v = map.get( key );
+        if ( v == null ) {
+            v = NullSentinel.mask( (Object) CardinalityFeedback.INSTANCE.getRowCount( alg ) );
+            map.put( key, v );
+        }
+        return v == NullSentinel.INSTANCE ? null : (Double) v;
+    }
+
+
     /**
      * Returns the {@link BuiltInMetadata.MaxRowCount#getMaxRowCount()} statistic.
      *
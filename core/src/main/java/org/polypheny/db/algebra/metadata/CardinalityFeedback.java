@@ -0,0 +1,333 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.metadata;
+
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.polypheny.db.algebra.AlgFingerprint;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgWriter;
+import org.polypheny.db.algebra.constant.ExplainLevel;
+import org.polypheny.db.algebra.convert.Converter;
+import org.polypheny.db.algebra.externalize.AlgWriterImpl;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.plan.hep.HepAlgVertex;
+import org.polypheny.db.plan.volcano.AlgSubset;
+import org.polypheny.db.util.Pair;
+
+
+/**
+ * Keeps the actual cardinalities of operators observed during the execution of queries and uses them to correct the
+ * estimated row counts (see {@link AlgMetadataQuery#getRowCount(AlgNode)}).
+ *
+ * The cardinalities are only collected for a sample of the executions (see {@link #startCollection(Collection)}).
+ * Operators are identified by a key which is independent of the convention of the operators (see {@link #key(AlgNode)}),
+ * so that the cardinalities observed for physical operators are used when planning the corresponding logical operators.
+ * As the plans are parameterized, the key of an operator does not depend on the values of the parameters and the
+ * observed cardinalities are averaged over the executions.
+ *
+ * If the actual cardinality of an operator differs from its estimate by more than the configured factor, the plans
+ * containing the operator are marked as stale and are planned again on their next execution (see {@link #pollStale(AlgFingerprint)}).
+ */
+public class CardinalityFeedback {
+
+    public static final CardinalityFeedback INSTANCE = new CardinalityFeedback();
+
+    /**
+     * Name of the variable of the {@link org.polypheny.db.adapter.DataContext} which holds the {@link Collector} of a
+     * sampled execution.
+     */
+    public static final String COLLECTOR_VARIABLE = "_cardinalityFeedback";
+
+    /**
+     * Weight of the latest execution in the average of the observed cardinalities.
+     */
+    private static final double SMOOTHING = 0.3;
+
+    /**
+     * Memoized fingerprints of operators, see {@link #fingerprint(AlgNode)}.
+     */
+    private static final Cache<AlgNode, AlgFingerprint> FINGERPRINTS = CacheBuilder.newBuilder().weakKeys().build();
+
+    private final Cache<String, Observation> observations;
+    private final Set<AlgFingerprint> stalePlans = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong sampledCounter = new AtomicLong(); // Number of executions for which cardinalities have been collected
+    private final AtomicLong misestimatedCounter = new AtomicLong(); // Number of observations exceeding the re-planning threshold
+    private final AtomicLong replannedCounter = new AtomicLong(); // Number of cached plans evicted because of misestimates
+
+
+    private CardinalityFeedback() {
+        RuntimeConfig.CARDINALITY_FEEDBACK_SIZE.setRequiresRestart( true );
+        observations = CacheBuilder.newBuilder()
+                .maximumSize( RuntimeConfig.CARDINALITY_FEEDBACK_SIZE.getInteger() )
+                .build();
+        registerMonitoringPage();
+    }
+
+
+    public boolean isActive() {
+        return RuntimeConfig.CARDINALITY_FEEDBACK.getBoolean();
+    }
+
+
+    /**
+     * Decides whether the cardinalities of an execution are collected.
+     *
+     * @param plans the fingerprints of the plans which are possibly executed
+     * @return the collector or {@code null} if the execution has not been sampled
+     */
+    public Collector startCollection( Collection<AlgFingerprint> plans ) {
+        if ( !isActive() || ThreadLocalRandom.current().nextDouble() >= RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.getDouble() ) {
+            return null;
+        }
+        sampledCounter.incrementAndGet();
+        return new Collector( plans );
+    }
+
+
+    /**
+     * Returns the average cardinality observed for the given operator.
+     *
+     * @return the cardinality or {@code null} if no cardinality has been observed
+     */
+    public Double getRowCount( AlgNode alg ) {
+        if ( observations.size() == 0 || !isActive() ) {
+            return null;
+        }
+        final Observation observation = observations.getIfPresent( key( alg ) );
+        return observation == null ? null : observation.getActualRowCount();
+    }
+
+
+    /**
+     * Returns the number of operators for which cardinalities have been observed.
+     */
+    public long getObservedOperators() {
+        return observations.size();
+    }
+
+
+    /**
+     * Removes the mark of a plan whose estimates turned out to be badly wrong.
+     *
+     * @return whether the plan has been marked as stale
+     */
+    public boolean pollStale( AlgFingerprint plan ) {
+        if ( !stalePlans.isEmpty() && stalePlans.remove( plan ) ) {
+            replannedCounter.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+
+    public void reset() {
+        observations.invalidateAll();
+        stalePlans.clear();
+        sampledCounter.set( 0 );
+        misestimatedCounter.set( 0 );
+        replannedCounter.set( 0 );
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Cardinality Feedback" );
+        im.addPage( page );
+
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            generalKv.putPair( "Status", isActive() ? "Active" : "Disabled" );
+            generalKv.putPair( "Observed Operators", getObservedOperators() + "" );
+            generalKv.putPair( "Maximum Observed Operators", RuntimeConfig.CARDINALITY_FEEDBACK_SIZE.getInteger() + "" );
+            generalKv.putPair( "Sampled Executions", sampledCounter.longValue() + "" );
+            generalKv.putPair( "Misestimated Operators", misestimatedCounter.longValue() + "" );
+            generalKv.putPair( "Re-planned Queries", replannedCounter.longValue() + "" );
+        } );
+    }
+
+
+    /**
+     * Returns the key identifying an operator. The key is the hex string of a fingerprint which is composed bottom-up
+     * from the attributes of the operator and the fingerprints of its inputs (see {@link AlgFingerprint}). Instead of the
+     * class of an operator, the class of the core operator it implements is used (e.g. {@code Filter} for both
+     * {@code LogicalFilter} and {@code EnumerableFilter}), and converters have the key of their input.
+     */
+    public static String key( AlgNode alg ) {
+        return fingerprint( alg ).left.toString();
+    }
+
+
+    /**
+     * Computes the fingerprint of an operator. The fingerprints of operators whose inputs do not change are computed
+     * only once. This does not hold for operators in a {@link org.polypheny.db.plan.hep.HepPlanner}, whose vertices are
+     * replaced by the rules. A set of equivalent operators in the Volcano planner is represented by the operator which
+     * has been registered first, as the best operator of the set changes during the planning.
+     *
+     * @return the fingerprint and whether it has been memoized
+     */
+    private static Pair<AlgFingerprint, Boolean> fingerprint( AlgNode alg ) {
+        if ( alg instanceof HepAlgVertex ) {
+            return Pair.of( fingerprint( ((HepAlgVertex) alg).getCurrentAlg() ).left, false );
+        } else if ( alg instanceof AlgSubset ) {
+            return fingerprint( ((AlgSubset) alg).getOriginal() );
+        } else if ( alg instanceof Converter ) {
+            return fingerprint( alg.getInput( 0 ) );
+        }
+        final AlgFingerprint memoized = FINGERPRINTS.getIfPresent( alg );
+        if ( memoized != null ) {
+            return Pair.of( memoized, true );
+        }
+        final List<AlgNode> inputs = alg.getInputs();
+        final AlgFingerprint[] inputFingerprints = new AlgFingerprint[inputs.size()];
+        boolean stable = true;
+        for ( int i = 0; i < inputs.size(); i++ ) {
+            final Pair<AlgFingerprint, Boolean> input = fingerprint( inputs.get( i ) );
+            inputFingerprints[i] = input.left;
+            stable &= input.right;
+        }
+        final AlgFingerprint fingerprint = AlgFingerprint.of( describe( alg ), inputFingerprints );
+        if ( stable ) {
+            FINGERPRINTS.put( alg, fingerprint );
+        }
+        return Pair.of( fingerprint, stable );
+    }
+
+
+    /**
+     * Describes the attributes of an operator without its inputs.
+     */
+    private static String describe( AlgNode alg ) {
+        final StringWriter sw = new StringWriter();
+        final AlgWriter writer = new AlgWriterImpl( new PrintWriter( sw ), ExplainLevel.DIGEST_ATTRIBUTES, false ) {
+            @Override
+            protected void explain_( AlgNode node, List<Pair<String, Object>> values ) {
+                pw.write( coreClass( node.getClass() ).getSimpleName() );
+                pw.write( "(" );
+                for ( Pair<String, Object> value : values ) {
+                    if ( value.right instanceof AlgNode ) {
+                        continue;
+                    }
+                    pw.write( value.left );
+                    pw.write( "=" );
+                    pw.write( String.valueOf( value.right ) );
+                    pw.write( "," );
+                }
+                pw.write( ")" );
+            }
+        };
+        alg.explain( writer );
+        return sw.toString();
+    }
+
+
+    /**
+     * Returns the first class in the hierarchy of the given operator class which belongs to the core operators.
+     */
+    private static Class<?> coreClass( Class<?> clazz ) {
+        for ( Class<?> c = clazz; c != null; c = c.getSuperclass() ) {
+            if ( c.getPackage() != null && c.getPackage().getName().equals( "org.polypheny.db.algebra.core" ) ) {
+                return c;
+            }
+        }
+        return clazz;
+    }
+
+
+    /**
+     * Returns the factor by which an estimate differs from the actual value.
+     */
+    static double qError( double estimated, double actual ) {
+        final double e = Math.max( 1, estimated );
+        final double a = Math.max( 1, actual );
+        return Math.max( e, a ) / Math.min( e, a );
+    }
+
+
+    /**
+     * Collects the cardinalities of the operators of a sampled execution.
+     */
+    public class Collector {
+
+        private final ImmutableSet<AlgFingerprint> plans;
+
+
+        private Collector( Collection<AlgFingerprint> plans ) {
+            this.plans = ImmutableSet.copyOf( plans );
+        }
+
+
+        /**
+         * Records the number of rows an operator has produced until it has been exhausted.
+         */
+        public void record( String key, double estimated, long actual ) {
+            Observation observation = observations.asMap().computeIfAbsent( key, k -> new Observation() );
+            observation.add( actual );
+            if ( qError( estimated, actual ) > RuntimeConfig.CARDINALITY_FEEDBACK_REPLAN_THRESHOLD.getDouble() ) {
+                misestimatedCounter.incrementAndGet();
+                stalePlans.addAll( plans );
+            }
+        }
+
+    }
+
+
+    /**
+     * The cardinalities observed for an operator.
+     */
+    private static class Observation {
+
+        private long executions;
+        private double actualRowCount;
+
+
+        synchronized void add( long actual ) {
+            if ( executions++ == 0 ) {
+                actualRowCount = actual;
+            } else {
+                actualRowCount += SMOOTHING * (actual - actualRowCount);
+            }
+        }
+
+
+        synchronized double getActualRowCount() {
+            return actualRowCount;
+        }
+
+    }
+
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.rules;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.algebra.core.Scan;
+import org.polypheny.db.algebra.metadata.AlgMdUtil;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.rules.LoptMultiJoin.Edge;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+import org.polypheny.db.plan.hep.HepAlgVertex;
+import org.polypheny.db.plan.volcano.AlgSubset;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexPermuteInputsShuttle;
+import org.polypheny.db.rex.RexUtil;
+import org.polypheny.db.tools.AlgBuilder;
+import org.polypheny.db.tools.AlgBuilderFactory;
+import org.polypheny.db.util.ImmutableBitSet;
+import org.polypheny.db.util.Pair;
+import org.polypheny.db.util.Util;
+import org.polypheny.db.util.mapping.Mappings;
+import org.polypheny.db.util.mapping.Mappings.TargetMapping;
+
+
+/**
+ * Planner rule that finds the cheapest order of the inner joins of a {@link MultiJoin} based on the estimated cardinalities
+ * of the inputs and the join conditions.
+ *
+ * If the multi-join has at most {@link RuntimeConfig#JOIN_ORDER_DP_LIMIT} inputs, all bushy join trees without cross
+ * products are enumerated using dynamic programming over the subsets of the inputs. Larger multi-joins are ordered
+ * greedily by repeatedly joining the two sub-trees whose join is the cheapest. Cross products are only used if the join
+ * graph is not connected.
+ *
+ * The cost of a join tree is the sum of the cardinalities of its joins plus the number of rows which have to be
+ * transferred from an adapter to the engine. A join of two sub-trees which only read tables of the same adapter can be
+ * pushed down to that adapter, so no rows have to be transferred for its inputs. Therefore, for every subset of the
+ * inputs, the cheapest tree per location is kept.
+ *
+ * Multi-joins with outer joins are handed to {@link LoptOptimizeJoinRule}.
+ */
+public class MultiJoinOptimizeDpRule extends AlgOptRule {
+
+    public static final MultiJoinOptimizeDpRule INSTANCE = new MultiJoinOptimizeDpRule( AlgFactories.LOGICAL_BUILDER );
+
+
+    /**
+     * Creates a MultiJoinOptimizeDpRule.
+     */
+    public MultiJoinOptimizeDpRule( AlgBuilderFactory algBuilderFactory ) {
+        super( operand( MultiJoin.class, any() ), algBuilderFactory, null );
+    }
+
+
+    @Override
+    public void onMatch( AlgOptRuleCall call ) {
+        final MultiJoin multiJoinAlg = call.alg( 0 );
+        if ( !isInnerJoin( multiJoinAlg ) ) {
+            LoptOptimizeJoinRule.INSTANCE.onMatch( call );
+            return;
+        }
+        final RexBuilder rexBuilder = multiJoinAlg.getCluster().getRexBuilder();
+        final AlgBuilder algBuilder = call.builder();
+        final AlgMetadataQuery mq = call.getMetadataQuery();
+        final LoptMultiJoin multiJoin = new LoptMultiJoin( multiJoinAlg );
+        final int factorCount = multiJoin.getNumJoinFactors();
+
+        // Conditions which reference a single input are applied to that input, conditions without input references on top
+        final List<Edge> edges = new ArrayList<>();
+        final List<List<RexNode>> factorConditions = new ArrayList<>();
+        for ( int i = 0; i < factorCount; i++ ) {
+            factorConditions.add( new ArrayList<>() );
+        }
+        final List<RexNode> topConditions = new ArrayList<>();
+        for ( RexNode condition : multiJoin.getJoinFilters() ) {
+            final Edge edge = multiJoin.createEdge( condition );
+            if ( edge.factors.isEmpty() ) {
+                topConditions.add( condition );
+            } else if ( edge.factors.cardinality() == 1 ) {
+                factorConditions.get( edge.factors.nextSetBit( 0 ) ).add( condition );
+            } else {
+                edges.add( edge );
+            }
+        }
+        if ( multiJoinAlg.getPostJoinFilter() != null ) {
+            topConditions.add( multiJoinAlg.getPostJoinFilter() );
+        }
+
+        final double[] selectivities = new double[edges.size()];
+        for ( int i = 0; i < edges.size(); i++ ) {
+            selectivities[i] = estimateSelectivity( edges.get( i ), multiJoin, mq );
+        }
+        final JoinGraph graph = new JoinGraph( edges, selectivities );
+
+        final List<JoinPlan> leaves = new ArrayList<>();
+        for ( int i = 0; i < factorCount; i++ ) {
+            final AlgNode factor = multiJoin.getJoinFactor( i );
+            double rows = Util.first( mq.getRowCount( factor ), 1d );
+            for ( RexNode condition : factorConditions.get( i ) ) {
+                rows *= AlgMdUtil.guessSelectivity( condition );
+            }
+            leaves.add( new JoinPlan( i, Math.max( 1, rows ), getLocation( factor ) ) );
+        }
+
+        final JoinPlan best = optimize( leaves, graph, RuntimeConfig.JOIN_ORDER_DP_LIMIT.getInteger() );
+
+        final Pair<AlgNode, TargetMapping> top = build( best, multiJoin, graph, factorConditions, algBuilder, rexBuilder );
+        algBuilder.push( top.left ).project( algBuilder.fields( top.right ) );
+        if ( !topConditions.isEmpty() ) {
+            algBuilder.filter( topConditions );
+        }
+        call.transformTo( algBuilder.build() );
+    }
+
+
+    /**
+     * Finds the cheapest join tree of the given leaves. All join trees are enumerated if there are at most
+     * {@code dpLimit} leaves, otherwise the tree is built greedily.
+     */
+    static JoinPlan optimize( List<JoinPlan> leaves, JoinGraph graph, int dpLimit ) {
+        JoinPlan best = null;
+        if ( leaves.size() <= dpLimit ) {
+            best = enumerate( leaves, graph, false );
+            if ( best == null ) {
+                // The join graph is not connected
+                best = enumerate( leaves, graph, true );
+            }
+        }
+        if ( best == null ) {
+            best = greedy( leaves, graph );
+        }
+        return best;
+    }
+
+
+    private static boolean isInnerJoin( MultiJoin multiJoin ) {
+        if ( multiJoin.isFullOuterJoin() ) {
+            return false;
+        }
+        for ( int i = 0; i < multiJoin.getInputs().size(); i++ ) {
+            if ( multiJoin.getJoinTypes().get( i ) != JoinAlgType.INNER || multiJoin.getOuterJoinConditions().get( i ) != null ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Estimates the selectivity of a join condition. The selectivity of an equi-join condition is estimated using the
+     * number of distinct values of the joined columns, assuming that the values of the side with fewer distinct values
+     * are contained in the other side.
+     */
+    private static double estimateSelectivity( Edge edge, LoptMultiJoin multiJoin, AlgMetadataQuery mq ) {
+        if ( edge.condition.isA( Kind.EQUALS ) ) {
+            final List<RexNode> operands = ((RexCall) edge.condition).getOperands();
+            if ( operands.get( 0 ) instanceof RexInputRef && operands.get( 1 ) instanceof RexInputRef ) {
+                final Double distinct0 = getDistinctCount( ((RexInputRef) operands.get( 0 )).getIndex(), multiJoin, mq );
+                final Double distinct1 = getDistinctCount( ((RexInputRef) operands.get( 1 )).getIndex(), multiJoin, mq );
+                if ( distinct0 != null && distinct1 != null ) {
+                    return 1 / Math.max( 1, Math.max( distinct0, distinct1 ) );
+                }
+            }
+        }
+        return AlgMdUtil.guessSelectivity( edge.condition );
+    }
+
+
+    private static Double getDistinctCount( int field, LoptMultiJoin multiJoin, AlgMetadataQuery mq ) {
+        final int factor = multiJoin.findRef( field );
+        return mq.getDistinctRowCount(
+                multiJoin.getJoinFactor( factor ),
+                ImmutableBitSet.of( field - multiJoin.getJoinStart( factor ) ),
+                null );
+    }
+
+
+    /**
+     * Returns the location of an input of the join, i.e. the schema of the tables it reads. As every adapter exposes its
+     * tables in schemas of its own, inputs with the same location can be joined by the adapter.
+     *
+     * @return the name of the schema or {@code null} if the input reads tables of several schemas or no tables at all
+     */
+    static String getLocation( AlgNode alg ) {
+        final Set<String> locations = new HashSet<>();
+        collectLocations( alg, locations );
+        return locations.size() == 1 ? locations.iterator().next() : null;
+    }
+
+
+    private static void collectLocations( AlgNode alg, Set<String> locations ) {
+        if ( alg instanceof HepAlgVertex ) {
+            collectLocations( ((HepAlgVertex) alg).getCurrentAlg(), locations );
+        } else if ( alg instanceof AlgSubset ) {
+            collectLocations( Util.first( ((AlgSubset) alg).getBest(), ((AlgSubset) alg).getOriginal() ), locations );
+        } else if ( alg instanceof Scan && alg.getTable() != null ) {
+            locations.add( alg.getTable().getQualifiedName().get( 0 ) );
+        } else if ( alg.getInputs().isEmpty() ) {
+            // Values and other leaves are evaluated by the engine
+            locations.add( null );
+        } else {
+            for ( AlgNode input : alg.getInputs() ) {
+                collectLocations( input, locations );
+            }
+        }
+    }
+
+
+    /**
+     * Finds the cheapest join tree of all leaves by enumerating the subsets of the leaves in increasing order. For every
+     * subset, the cheapest tree per location is derived from the cheapest trees of all of its splits into two subsets.
+     *
+     * @param crossProducts whether sub-trees which are not connected by a join condition may be joined
+     * @return the cheapest join tree or {@code null} if no tree without cross products exists
+     */
+    private static JoinPlan enumerate( List<JoinPlan> leaves, JoinGraph graph, boolean crossProducts ) {
+        final int n = leaves.size();
+        final List<Map<String, JoinPlan>> best = new ArrayList<>( 1 << n );
+        for ( int set = 0; set < 1 << n; set++ ) {
+            best.add( null );
+        }
+        for ( int i = 0; i < n; i++ ) {
+            final Map<String, JoinPlan> plans = new HashMap<>();
+            plans.put( leaves.get( i ).location, leaves.get( i ) );
+            best.set( 1 << i, plans );
+        }
+
+        for ( int set = 1; set < 1 << n; set++ ) {
+            if ( Integer.bitCount( set ) < 2 ) {
+                continue;
+            }
+            final Map<String, JoinPlan> plans = new HashMap<>();
+            // Visit every split into two non-empty subsets once
+            for ( int left = (set - 1) & set; left > 0; left = (left - 1) & set ) {
+                final int right = set ^ left;
+                if ( left < right || best.get( left ) == null || best.get( right ) == null ) {
+                    continue;
+                }
+                for ( JoinPlan leftPlan : best.get( left ).values() ) {
+                    for ( JoinPlan rightPlan : best.get( right ).values() ) {
+                        final JoinPlan plan = graph.join( leftPlan, rightPlan, crossProducts );
+                        if ( plan != null ) {
+                            plans.merge( plan.location, plan, ( p0, p1 ) -> p0.cost <= p1.cost ? p0 : p1 );
+                        }
+                    }
+                }
+            }
+            if ( !plans.isEmpty() ) {
+                best.set( set, plans );
+            }
+        }
+
+        final Map<String, JoinPlan> plans = best.get( (1 << n) - 1 );
+        if ( plans == null ) {
+            return null;
+        }
+        JoinPlan cheapest = null;
+        for ( JoinPlan plan : plans.values() ) {
+            if ( cheapest == null || plan.getTotalCost() < cheapest.getTotalCost() ) {
+                cheapest = plan;
+            }
+        }
+        return cheapest;
+    }
+
+
+    /**
+     * Builds a join tree by repeatedly joining the two sub-trees whose join is the cheapest, preferring sub-trees which
+     * are connected by a join condition.
+     */
+    private static JoinPlan greedy( List<JoinPlan> leaves, JoinGraph graph ) {
+        final List<JoinPlan> trees = new ArrayList<>( leaves );
+        while ( trees.size() > 1 ) {
+            JoinPlan best = null;
+            int bestLeft = -1;
+            int bestRight = -1;
+            for ( boolean crossProducts : new boolean[]{ false, true } ) {
+                for ( int i = 0; i < trees.size(); i++ ) {
+                    for ( int j = i + 1; j < trees.size(); j++ ) {
+                        final JoinPlan plan = graph.join( trees.get( i ), trees.get( j ), crossProducts );
+                        if ( plan != null && (best == null || plan.getTotalCost() < best.getTotalCost()) ) {
+                            best = plan;
+                            bestLeft = i;
+                            bestRight = j;
+                        }
+                    }
+                }
+                if ( best != null ) {
+                    break;
+                }
+            }
+            trees.remove( bestRight );
+            trees.remove( bestLeft );
+            trees.add( best );
+        }
+        return trees.get( 0 );
+    }
+
+
+    /**
+     * Creates the algebra of a join tree.
+     *
+     * @return the algebra and the mapping of the fields of the multi-join to the fields of the algebra
+     */
+    private static Pair<AlgNode, TargetMapping> build( JoinPlan plan, LoptMultiJoin multiJoin, JoinGraph graph, List<List<RexNode>> factorConditions, AlgBuilder algBuilder, RexBuilder rexBuilder ) {
+        if ( plan.isLeaf() ) {
+            final AlgNode factor = multiJoin.getJoinFactor( plan.factor );
+            final TargetMapping mapping = Mappings.offsetSource(
+                    Mappings.createIdentity( factor.getRowType().getFieldCount() ),
+                    multiJoin.getJoinStart( plan.factor ),
+                    multiJoin.getNumTotalFields() );
+            algBuilder.push( factor );
+            final List<RexNode> conditions = factorConditions.get( plan.factor );
+            if ( !conditions.isEmpty() ) {
+                final RexNode condition = RexUtil.composeConjunction( rexBuilder, conditions );
+                algBuilder.filter( condition.accept( new RexPermuteInputsShuttle( mapping, factor ) ) );
+            }
+            return Pair.of( algBuilder.build(), mapping );
+        }
+
+        final Pair<AlgNode, TargetMapping> left = build( plan.left, multiJoin, graph, factorConditions, algBuilder, rexBuilder );
+        final Pair<AlgNode, TargetMapping> right = build( plan.right, multiJoin, graph, factorConditions, algBuilder, rexBuilder );
+        final TargetMapping mapping = Mappings.merge( left.right, Mappings.offsetTarget( right.right, left.left.getRowType().getFieldCount() ) );
+        final RexNode condition = RexUtil.composeConjunction( rexBuilder, graph.getConditions( plan.left, plan.right ) );
+        final AlgNode join = algBuilder.push( left.left )
+                .push( right.left )
+                .join( JoinAlgType.INNER, condition.accept( new RexPermuteInputsShuttle( mapping, left.left, right.left ) ) )
+                .build();
+        return Pair.of( join, mapping );
+    }
+
+
+    /**
+     * The join conditions between the inputs of a multi-join, which reference at least two inputs each.
+     */
+    static class JoinGraph {
+
+        private final List<Edge> edges;
+        private final double[] selectivities;
+
+
+        JoinGraph( List<Edge> edges, double[] selectivities ) {
+            this.edges = edges;
+            this.selectivities = selectivities;
+        }
+
+
+        /**
+         * Joins two sub-trees. The larger sub-tree becomes the left input, as the right input is used to build hash tables.
+         *
+         * @param crossProducts whether the sub-trees may be joined if no join condition connects them
+         * @return the join or {@code null} if cross products are not allowed and the sub-trees are not connected
+         */
+        JoinPlan join( JoinPlan a, JoinPlan b, boolean crossProducts ) {
+            final ImmutableBitSet factors = a.factors.union( b.factors );
+            double selectivity = 1;
+            boolean connected = false;
+            for ( int i = 0; i < edges.size(); i++ ) {
+                if ( connects( edges.get( i ), factors, a, b ) ) {
+                    selectivity *= selectivities[i];
+                    connected = true;
+                }
+            }
+            if ( !connected && !crossProducts ) {
+                return null;
+            }
+            final JoinPlan left = a.rows >= b.rows ? a : b;
+            final JoinPlan right = left == a ? b : a;
+            final double rows = Math.max( 1, a.rows * b.rows * selectivity );
+            final String location = a.location != null && a.location.equals( b.location ) ? a.location : null;
+            double cost = a.cost + b.cost + rows;
+            if ( location == null ) {
+                cost += a.getTransferCost() + b.getTransferCost();
+            }
+            return new JoinPlan( left, right, factors, rows, cost, location );
+        }
+
+
+        /**
+         * Returns the join conditions which are applied by the join of the two sub-trees.
+         */
+        List<RexNode> getConditions( JoinPlan a, JoinPlan b ) {
+            final ImmutableBitSet factors = a.factors.union( b.factors );
+            final List<RexNode> conditions = new ArrayList<>();
+            for ( Edge edge : edges ) {
+                if ( connects( edge, factors, a, b ) ) {
+                    conditions.add( edge.condition );
+                }
+            }
+            return conditions;
+        }
+
+
+        private static boolean connects( Edge edge, ImmutableBitSet factors, JoinPlan a, JoinPlan b ) {
+            return factors.contains( edge.factors ) && !a.factors.contains( edge.factors ) && !b.factors.contains( edge.factors );
+        }
+
+    }
+
+
+    /**
+     * A join tree over a subset of the inputs of a multi-join.
+     */
+    static class JoinPlan {
+
+        final ImmutableBitSet factors;
+        final double rows;
+        final double cost;
+        /**
+         * The schema of the tables read by the tree if the whole tree can be executed by one adapter, {@code null} otherwise.
+         */
+        final String location;
+        final int factor;
+        final JoinPlan left;
+        final JoinPlan right;
+
+
+        /**
+         * Creates a leaf.
+         */
+        JoinPlan( int factor, double rows, String location ) {
+            this.factors = ImmutableBitSet.of( factor );
+            this.rows = rows;
+            this.cost = 0;
+            this.location = location;
+            this.factor = factor;
+            this.left = null;
+            this.right = null;
+        }
+
+
+        /**
+         * Creates a join.
+         */
+        JoinPlan( JoinPlan left, JoinPlan right, ImmutableBitSet factors, double rows, double cost, String location ) {
+            this.factors = factors;
+            this.rows = rows;
+            this.cost = cost;
+            this.location = location;
+            this.factor = -1;
+            this.left = Objects.requireNonNull( left );
+            this.right = Objects.requireNonNull( right );
+        }
+
+
+        boolean isLeaf() {
+            return left == null;
+        }
+
+
+        /**
+         * Returns the number of rows which have to be transferred to the engine if the result is not processed by the
+         * adapter.
+         */
+        double getTransferCost() {
+            return location != null ? rows : 0;
+        }
+
+
+        /**
+         * Returns the cost including the transfer of the result to the engine.
+         */
+        double getTotalCost() {
+            return cost + getTransferCost();
+        }
+
+
+        @Override
+        public String toString() {
+            return isLeaf()
+                    ? "JoinPlan(factor: " + factor + ", rows: " + Util.human( rows ) + ")"
+                    : "JoinPlan(" + left + ", " + right + ", rows: " + Util.human( rows ) + ", cost: " + Util.human( cost ) + ")";
+        }
+
+    }
+
+}
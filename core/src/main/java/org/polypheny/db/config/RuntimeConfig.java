@@ -102,6 +102,83 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "processingExecutionGroup" ),
 
+    VECTORIZED_EXECUTION(
+            "runtime/vectorizedExecution",
+            "Execute supported filters, projections and aggregations on batches of columns instead of single rows.",
+            false,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    VECTORIZED_BATCH_SIZE(
+            "runtime/vectorizedBatchSize",
+            "Number of rows per batch in the vectorized execution.",
+            1024,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLELISM(
+            "runtime/parallelism",
+            "Number of partitions which are processed in parallel by aggregations, joins, sorts and unions of a query. Aggregations, joins and sorts are executed sequentially if a statement memory budget is set. 1 disables intra-query parallelism.",
+            1,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLELISM_THRESHOLD(
+            "runtime/parallelismThreshold",
+            "Minimum estimated number of input rows of an operator for it to be executed in parallel.",
+            10000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    STATEMENT_MEMORY_BUDGET(
+            "runtime/statementMemoryBudget",
+            "Memory in MB which the sorts, aggregations, joins and set operations of a statement may use before they spill to disk. 0 means unlimited.",
+            0,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PRIMITIVE_HASH_TABLES(
+            "runtime/primitiveHashTables",
+            "Use hash tables of primitive values for joins and aggregations on one or two integral keys.",
+            true,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    BULK_BATCH_EXECUTION(
+            "runtime/bulkBatchExecution",
+            "Execute a batch of parameter sets in one round trip if all stores involved support it, instead of once per parameter set.",
+            true,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    STREAMER_CHUNK_SIZE(
+            "runtime/streamerChunkSize",
+            "Number of rows of the source of a DML statement which are bound and written together. 0 means that the whole source is read first.",
+            10000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    PARALLEL_DML(
+            "runtime/parallelDml",
+            "Execute the modifies of a DML statement on the placements of an entity concurrently if they target different stores.",
+            true,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    PARALLEL_COMMIT(
+            "runtime/parallelCommit",
+            "Prepare and commit the adapters involved in a transaction concurrently.",
+            true,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    GROUP_COMMIT_WINDOW(
+            "runtime/groupCommitWindow",
+            "Time in microseconds a committing transaction waits for concurrent transactions to commit together with them. The commits of a group are only dispatched to the stores at the same time, every store still commits each transaction on its own, so whether they share a log flush depends on the store. Every commit is delayed by up to this time. 0 disables group commit.",
+            0,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
     DEFAULT_COLLATION(
             "runtime/defaultCollation",
             "Collation to use if no collation is specified",
@@ -141,6 +218,83 @@ public enum RuntimeConfig {
             ConfigType.BOOLEAN,
             "planningGroup" ),
 
+    JOIN_ORDER_ENUMERATION(
+            "runtime/joinOrderEnumeration",
+            "Reorder inner joins based on the estimated cardinalities before the physical planning.",
+            false,
+            ConfigType.BOOLEAN,
+            "planningGroup" ),
+
+    JOIN_ORDER_DP_LIMIT(
+            "runtime/joinOrderDpLimit",
+            "Maximum number of joined relations for which all join orders are enumerated. Larger joins are ordered greedily.",
+            10,
+            ConfigType.INTEGER,
+            "planningGroup" ),
+
+    PLANNING_BUDGET(
+            "runtime/planningBudget",
+            "Maximum time in milliseconds spent on the cost-based optimization of a statement. If exceeded, the cheapest plan found so far is used. 0 disables the budget.",
+            0,
+            ConfigType.INTEGER,
+            "planningGroup" ),
+
+    PARALLEL_PLANNING(
+            "runtime/parallelPlanning",
+            "Optimize and implement the proposed routing plans of a statement in parallel, each with its own planner.",
+            false,
+            ConfigType.BOOLEAN,
+            "planningGroup" ),
+
+    PARALLEL_PLANNING_THREADS(
+            "runtime/parallelPlanningThreads",
+            "Number of threads shared by all statements for the parallel optimization and implementation of routing plans.",
+            4,
+            ConfigType.INTEGER,
+            "planningGroup" ),
+
+    MATERIALIZED_VIEW_REWRITE(
+            "runtime/materializedViewRewrite",
+            "Rewrite queries to use materialized views whose definitions compute (parts of) the query.",
+            false,
+            ConfigType.BOOLEAN,
+            "planningGroup" ),
+
+    MATERIALIZED_VIEW_REWRITE_STALENESS(
+            "runtime/materializedViewRewriteStaleness",
+            "Tolerated age (in milliseconds) of changes of the underlying tables which are not yet reflected by a materialized view used to rewrite a query. With 0, only up-to-date materialized views are used.",
+            0,
+            ConfigType.INTEGER,
+            "planningGroup" ),
+
+    CARDINALITY_FEEDBACK(
+            "runtime/cardinalityFeedback",
+            "Collect the actual cardinalities of the operators for a sample of the executions and use them to correct the estimates of the optimizer.",
+            false,
+            ConfigType.BOOLEAN,
+            "planningGroup" ),
+
+    CARDINALITY_FEEDBACK_SAMPLE_RATE(
+            "runtime/cardinalityFeedbackSampleRate",
+            "Fraction of the executions for which the actual cardinalities of the operators are collected.",
+            0.01,
+            ConfigType.DOUBLE,
+            "planningGroup" ),
+
+    CARDINALITY_FEEDBACK_REPLAN_THRESHOLD(
+            "runtime/cardinalityFeedbackReplanThreshold",
+            "Factor by which the actual cardinality of an operator has to differ from its estimate for the cached plan to be planned again.",
+            10.0,
+            ConfigType.DOUBLE,
+            "planningGroup" ),
+
+    CARDINALITY_FEEDBACK_SIZE(
+            "runtime/cardinalityFeedbackSize",
+            "Maximum number of operators for which the observed cardinalities are kept. If the limit is reached, the least recently used entry is removed.",
+            10000,
+            ConfigType.INTEGER,
+            "planningGroup" ),
+
     VALIDATE_MM_CONTENT_TYPE(
             "validation/validateMultimediaContentType",
             "Validate multimedia data by checking its content-type.",
@@ -198,6 +352,48 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "statisticSettingsGroup" ),
 
+    STATISTIC_COLUMN_SKETCHES(
+            "statistics/columnSketches",
+            "Maintain distinct value sketches and histograms per column and use them for the cardinality estimation of the optimizer.",
+            true,
+            ConfigType.BOOLEAN,
+            "statisticSettingsGroup" ),
+
+    STATISTIC_HISTOGRAM_BUCKETS(
+            "statistics/histogramBuckets",
+            "Number of buckets of the equi-depth histograms of numerical and temporal columns.",
+            32,
+            ConfigType.INTEGER,
+            "statisticSettingsGroup" ),
+
+    STATISTIC_SKETCH_ROWS(
+            "statistics/sketchMaxRows",
+            "Number of rows of a table which are sampled to build the statistics of its columns. The sample is drawn from a full scan of the table.",
+            100000,
+            ConfigType.INTEGER,
+            "statisticSettingsGroup" ),
+
+    STATISTIC_BLOCK_SAMPLING(
+            "statistics/blockSampling",
+            "Sample blocks of consecutive rows instead of individual rows (Bernoulli sampling) when building the statistics of large tables.",
+            false,
+            ConfigType.BOOLEAN,
+            "statisticSettingsGroup" ),
+
+    STATISTIC_REEVALUATION_THREADS(
+            "statistics/reevaluationThreads",
+            "Maximum number of tables whose statistics are reevaluated concurrently.",
+            4,
+            ConfigType.INTEGER,
+            "statisticSettingsGroup" ),
+
+    STATISTIC_REEVALUATION_THRESHOLD(
+            "statistics/reevaluationThreshold",
+            "Percentage of the rows of a table which have to be modified before the statistics of the table are reevaluated. Until then, the statistics are maintained incrementally.",
+            20,
+            ConfigType.INTEGER,
+            "statisticSettingsGroup" ),
+
     STATISTIC_RATE(
             "statistics/passiveTrackingRate",
             "Rate of passive tracking of statistics.",
@@ -210,6 +406,18 @@ public enum RuntimeConfig {
             TaskSchedulingType.EVERY_SECOND_FIXED,
             ConfigType.ENUM ),
 
+    MATERIALIZED_VIEW_INCREMENTAL(
+            "materializedView/incrementalMaintenance",
+            "Update materialized views by applying the changes of their underlying tables instead of recomputing them. Only supported for select-project-join views and aggregations of them.",
+            false,
+            ConfigType.BOOLEAN ),
+
+    MATERIALIZED_VIEW_INCREMENTAL_MAX_DELTA(
+            "materializedView/incrementalMaintenanceMaxDelta",
+            "Maximal number of changed rows of the underlying tables which are kept for the incremental update of a materialized view. If exceeded, the materialized view is recomputed on its next update.",
+            10000,
+            ConfigType.INTEGER ),
+
     EXPLORE_BY_EXAMPLE_TO_SQL(
             "exploreByExample/classificationToSQL",
             "Build SQL query from classification.",
@@ -262,6 +470,27 @@ public enum RuntimeConfig {
             true,
             ConfigType.BOOLEAN ),
 
+    TRANSLATION_CACHING(
+            "runtime/translationCaching",
+            "Cache parsed, validated and translated logical query plans by query text.",
+            true,
+            ConfigType.BOOLEAN,
+            "translationCachingGroup" ),
+
+    TRANSLATION_CACHING_DML(
+            "runtime/translationCachingDml",
+            "Cache translated logical query plans of DML queries.",
+            false,
+            ConfigType.BOOLEAN,
+            "translationCachingGroup" ),
+
+    TRANSLATION_CACHING_SIZE(
+            "runtime/translationCachingSize",
+            "Size of the translation cache. If the limit is reached, the least recently used entry is removed.",
+            1000,
+            ConfigType.INTEGER,
+            "translationCachingGroup" ),
+
     QUERY_PLAN_CACHING(
             "runtime/queryPlanCaching",
             "Cache planned and optimized query plans.",
@@ -304,6 +533,69 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "implementationCachingGroup" ),
 
+    IMPLEMENTATION_CACHING_PERSISTENT(
+            "runtime/implementationCachingPersistent",
+            "Store the bytecode of compiled query plans on disk and reuse it after a restart.",
+            false,
+            ConfigType.BOOLEAN,
+            "implementationCachingGroup" ),
+
+    IMPLEMENTATION_CACHING_PERSISTENT_SIZE(
+            "runtime/implementationCachingPersistentSize",
+            "Maximum number of compiled query plans stored on disk. If the limit is reached, the least used entries are removed.",
+            5000,
+            ConfigType.INTEGER,
+            "implementationCachingGroup" ),
+
+    IMPLEMENTATION_CACHING_PERSISTENT_PRELOAD(
+            "runtime/implementationCachingPersistentPreload",
+            "Number of the most frequently used compiled query plans which are loaded into memory in the background at startup.",
+            500,
+            ConfigType.INTEGER,
+            "implementationCachingGroup" ),
+
+    IMPLEMENTATION_CACHING_ASYNC_COMPILATION(
+            "runtime/implementationCachingAsyncCompilation",
+            "Compile the generated code of new query plans in the background and interpret the plans until the compiled implementation is available. Only applies to queries the interpreter supports.",
+            false,
+            ConfigType.BOOLEAN,
+            "implementationCachingGroup" ),
+
+    IMPLEMENTATION_CACHING_COMPILATION_THREADS(
+            "runtime/implementationCachingCompilationThreads",
+            "Number of threads compiling query plans in the background.",
+            2,
+            ConfigType.INTEGER,
+            "implementationCachingGroup" ),
+
+    IMPLEMENTATION_CACHING_COMPILATION_QUEUE_SIZE(
+            "runtime/implementationCachingCompilationQueueSize",
+            "Maximum number of query plans waiting for their compilation in the background. If the queue is full, further plans are not compiled until they are executed again.",
+            100,
+            ConfigType.INTEGER,
+            "implementationCachingGroup" ),
+
+    RESULT_CACHING(
+            "runtime/resultCaching",
+            "Cache the results of deterministic queries. Cached results are invalidated when a transaction modifying one of the accessed entities commits.",
+            false,
+            ConfigType.BOOLEAN,
+            "resultCachingGroup" ),
+
+    RESULT_CACHING_SIZE(
+            "runtime/resultCachingSize",
+            "Estimated memory (in MB) the cached query results may occupy. If the limit is reached, the least recently used results are removed.",
+            64,
+            ConfigType.INTEGER,
+            "resultCachingGroup" ),
+
+    RESULT_CACHING_MAX_ROWS(
+            "runtime/resultCachingMaxRows",
+            "Maximum number of rows of a query result to be cached. Larger results are not cached.",
+            10000,
+            ConfigType.INTEGER,
+            "resultCachingGroup" ),
+
     ROUTING_PLAN_CACHING(
             "runtime/routingPlanCaching",
             "Caching of routing plans.",
@@ -496,8 +788,12 @@ public enum RuntimeConfig {
         planningGroup.withTitle( "Query Planning" );
         final WebUiGroup parsingGroup = new WebUiGroup( "parsingGroup", processingPage.getId() );
         parsingGroup.withTitle( "Query Parsing" );
+        final WebUiGroup translationCachingGroup = new WebUiGroup( "translationCachingGroup", processingPage.getId() );
+        translationCachingGroup.withTitle( "Translation Caching" );
         final WebUiGroup implementationCachingGroup = new WebUiGroup( "implementationCachingGroup", processingPage.getId() );
         implementationCachingGroup.withTitle( "Implementation Caching" );
+        final WebUiGroup resultCachingGroup = new WebUiGroup( "resultCachingGroup", processingPage.getId() );
+        resultCachingGroup.withTitle( "Result Caching" );
         final WebUiGroup queryParameterizationGroup = new WebUiGroup( "queryParameterizationGroup", processingPage.getId() );
         queryParameterizationGroup.withTitle( "Query Parameterization" );
         final WebUiGroup constraintEnforcementGroup = new WebUiGroup( "constraintEnforcementGroup", processingPage.getId() );
@@ -511,7 +807,9 @@ public enum RuntimeConfig {
         configManager.registerWebUiPage( processingPage );
         configManager.registerWebUiGroup( parsingGroup );
         configManager.registerWebUiGroup( planningGroup );
+        configManager.registerWebUiGroup( translationCachingGroup );
         configManager.registerWebUiGroup( implementationCachingGroup );
+        configManager.registerWebUiGroup( resultCachingGroup );
         configManager.registerWebUiGroup( queryParameterizationGroup );
         configManager.registerWebUiGroup( constraintEnforcementGroup );
         configManager.registerWebUiGroup( polystoreIndexGroup );
@@ -34,11 +34,31 @@
 package org.polypheny.db.interpreter;
 
 
+import java.lang.reflect.Type;
 import org.apache.calcite.linq4j.Enumerable;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.AggregateCall;
+import org.polypheny.db.algebra.core.Calc;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.core.Join;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.algebra.core.Project;
+import org.polypheny.db.algebra.core.Scan;
+import org.polypheny.db.algebra.core.SemiJoin;
+import org.polypheny.db.algebra.core.Sort;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.operators.OperatorName;
+import org.polypheny.db.plan.AlgOptTable;
 import org.polypheny.db.runtime.ArrayBindable;
 import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.runtime.Typed;
+import org.polypheny.db.schema.FilterableTable;
+import org.polypheny.db.schema.ProjectableFilterableTable;
+import org.polypheny.db.schema.QueryableTable;
+import org.polypheny.db.schema.ScannableTable;
 
 
 /**
@@ -72,5 +92,104 @@ public Class<Object[]> getElementType() {
         };
     }
 
+
+    /**
+     * Creates a {@link Bindable} that interprets a given relational expression with exactly one field. Like the code
+     * generated for such expressions, the bindable returns the values of the field instead of arrays.
+     */
+    public static Bindable<Object> scalarBindable( final AlgNode alg ) {
+        assert alg.getRowType().getFieldCount() == 1;
+        return new ScalarBindable() {
+            @Override
+            public Enumerable<Object> bind( DataContext dataContext ) {
+                return new Interpreter( dataContext, alg ).select( row -> row[0] );
+            }
+
+
+            @Override
+            public Type getElementType() {
+                return Object.class;
+            }
+        };
+    }
+
+
+    /**
+     * Whether the {@link Interpreter} is able to execute the given relational expression and all its inputs with the
+     * same results as the generated code.
+     *
+     * Converters from the convention of a store, e.g. the JDBC stores, are not interpretable: their generated code
+     * executes the pushed down part of the plan on the store within the transaction of the statement, which the
+     * interpreter is not able to do. Plans on such stores are therefore always compiled.
+     */
+    public static boolean isInterpretable( AlgNode alg ) {
+        if ( alg instanceof InterpretableRel ) {
+            // Implements itself
+        } else if ( alg instanceof SemiJoin ) {
+            return false;
+        } else if ( alg instanceof Join ) {
+            if ( ((Join) alg).getJoinType() != JoinAlgType.INNER ) {
+                return false;
+            }
+        } else if ( alg instanceof Aggregate ) {
+            for ( AggregateCall call : ((Aggregate) alg).getAggCallList() ) {
+                if ( call.isDistinct() || !isInterpretable( call.getAggregation().getOperatorName() ) ) {
+                    return false;
+                }
+            }
+        } else if ( alg instanceof Scan ) {
+            if ( !isScannable( alg.getTable() ) ) {
+                return false;
+            }
+        } else if ( !(alg instanceof Filter
+                || alg instanceof Project
+                || alg instanceof Calc
+                || alg instanceof Values
+                || alg instanceof Sort
+                || alg instanceof Union) ) {
+            return false;
+        }
+        for ( AlgNode input : alg.getInputs() ) {
+            if ( !isInterpretable( input ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean isInterpretable( OperatorName aggregation ) {
+        switch ( aggregation ) {
+            case COUNT:
+            case SUM:
+            case SUM0:
+            case MIN:
+            case MAX:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * Mirrors the table SPIs supported by {@link ScanNode}.
+     */
+    private static boolean isScannable( AlgOptTable table ) {
+        return table != null && (table.unwrap( ProjectableFilterableTable.class ) != null
+                || table.unwrap( FilterableTable.class ) != null
+                || table.unwrap( ScannableTable.class ) != null
+                || table.unwrap( Enumerable.class ) != null
+                || table.unwrap( QueryableTable.class ) != null);
+    }
+
+
+    /**
+     * A bindable returning scalar values.
+     */
+    private interface ScalarBindable extends Bindable<Object>, Typed {
+
+    }
+
 }
 
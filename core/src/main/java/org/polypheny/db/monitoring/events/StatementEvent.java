@@ -17,6 +17,7 @@
 package org.polypheny.db.monitoring.events;
 
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,6 +29,7 @@
 import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Value;
 import org.polypheny.db.PolyImplementation;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.routing.LogicalQueryInformation;
@@ -60,6 +62,8 @@ public abstract class StatementEvent extends BaseEvent {
     protected String physicalQueryClass;
     protected final HashMap<Long, List<Object>> changedValues = new HashMap<>();
     protected Integer indexSize = null;
+    // Chunks in which the rows of a DML with a query as source have been written
+    protected final List<Chunk> chunks = Collections.synchronizedList( new ArrayList<>() );
     // Only used for ddl events
     protected long tableId;
     // Only used for ddl events
@@ -113,4 +117,27 @@ public void updateAccessedPartitions( Map<Long, Set<Long>> updatedPartitionsList
         }
     }
 
+
+    /**
+     * Records a chunk of rows which has been written as one batch of parameters.
+     *
+     * @param rowCount the number of rows of the chunk
+     * @param executionTime the time in nanoseconds which the chunk took to be written
+     */
+    public void addChunk( int rowCount, long executionTime ) {
+        chunks.add( new Chunk( rowCount, executionTime ) );
+    }
+
+
+    /**
+     * A chunk of rows which has been written as one batch of parameters.
+     */
+    @Value
+    public static class Chunk {
+
+        int rowCount;
+        long executionTime;
+
+    }
+
 }
@@ -57,6 +57,7 @@
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.avatica.util.Spaces;
 import org.apache.calcite.linq4j.tree.Expressions;
@@ -76,6 +77,7 @@
 import org.polypheny.db.algebra.rules.FilterJoinRule;
 import org.polypheny.db.algebra.rules.JoinAssociateRule;
 import org.polypheny.db.algebra.rules.JoinCommuteRule;
+import org.polypheny.db.algebra.rules.JoinPushThroughJoinRule;
 import org.polypheny.db.algebra.rules.LpgToEnumerableRule;
 import org.polypheny.db.algebra.rules.SemiJoinRules;
 import org.polypheny.db.algebra.rules.SortRemoveRule;
@@ -232,6 +234,20 @@ public class VolcanoPlanner extends AbstractRelOptPlanner {
      */
     private final SetMultimap<String, Class<?>> ruleNames = LinkedHashMultimap.create();
 
+    /**
+     * Point in time (as returned by {@link System#nanoTime()}) after which the planner stops optimizing and returns the
+     * cheapest plan found so far, or {@link #NO_DEADLINE}.
+     */
+    private long deadline = NO_DEADLINE;
+
+    /**
+     * How the last call of {@link #findBestExp()} has terminated.
+     */
+    @Getter
+    private PlanningOutcome outcome = PlanningOutcome.COMPLETED;
+
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
 
     /**
      * Creates a uninitialized <code>VolcanoPlanner</code>. To fully initialize it, the caller must register the
@@ -506,6 +522,7 @@ public AlgOptPlanner chooseDelegate() {
     @Override
     public AlgNode findBestExp() {
         ensureRootConverters();
+        outcome = PlanningOutcome.COMPLETED;
         int cumulativeTicks = 0;
         for ( VolcanoPlannerPhase phase : VolcanoPlannerPhase.values() ) {
             setInitialImportance();
@@ -519,6 +536,13 @@ public AlgNode findBestExp() {
             while ( true ) {
                 ++tick;
                 ++cumulativeTicks;
+                if ( outcome == PlanningOutcome.COMPLETED && deadline != NO_DEADLINE && System.nanoTime() - deadline > 0 ) {
+                    // Out of time. If there is no implementable plan yet, stop exploring join orders and take the first one.
+                    outcome = root.bestCost.isInfinite() ? PlanningOutcome.JOIN_ORDER_FALLBACK : PlanningOutcome.BUDGET_EXHAUSTED;
+                }
+                if ( outcome != PlanningOutcome.COMPLETED && !root.bestCost.isInfinite() ) {
+                    break;
+                }
                 if ( root.bestCost.isLe( targetCost ) ) {
                     if ( firstFiniteTick < 0 ) {
                         firstFiniteTick = cumulativeTicks;
@@ -554,6 +578,9 @@ public AlgNode findBestExp() {
                 if ( match == null ) {
                     break;
                 }
+                if ( outcome == PlanningOutcome.JOIN_ORDER_FALLBACK && isJoinReorderRule( match.getRule() ) ) {
+                    continue;
+                }
 
                 assert match.getRule().matches( match );
                 match.onMatch();
@@ -580,6 +607,28 @@ public AlgNode findBestExp() {
     }
 
 
+    /**
+     * Sets the point in time (as returned by {@link System#nanoTime()}) after which {@link #findBestExp()} stops
+     * optimizing. If an implementable plan has been found by then, the cheapest plan found so far is returned.
+     * Otherwise, the rules exploring join orders are no longer fired and the first implementable plan is returned.
+     *
+     * @param deadline the deadline or {@link #NO_DEADLINE}
+     */
+    public void setDeadline( long deadline ) {
+        this.deadline = deadline;
+    }
+
+
+    /**
+     * Whether the rule only permutes joins. These rules are responsible for the exhaustive search over join orders.
+     */
+    private static boolean isJoinReorderRule( AlgOptRule rule ) {
+        return rule instanceof JoinCommuteRule
+                || rule instanceof JoinAssociateRule
+                || rule instanceof JoinPushThroughJoinRule;
+    }
+
+
     /**
      * Informs {@link JaninoRelMetadataProvider} about the different kinds of {@link AlgNode} that we will be dealing with.
      * It will reduce the number of times that we need to re-generate the provider.
@@ -1692,5 +1741,32 @@ static class RuleProvenance extends Provenance {
 
     }
 
-}
 
+    /**
+     * How a call of {@link #findBestExp()} has terminated.
+     */
+    public enum PlanningOutcome {
+        /**
+         * The planner has terminated regularly.
+         */
+        COMPLETED( "Completed" ),
+        /**
+         * The deadline has passed; the cheapest plan found until then has been returned.
+         */
+        BUDGET_EXHAUSTED( "Budget exhausted, cheapest plan found so far" ),
+        /**
+         * The deadline has passed before an implementable plan has been found; the first implementable plan found
+         * without further exploring join orders has been returned.
+         */
+        JOIN_ORDER_FALLBACK( "Budget exhausted, join order of the query kept" );
+
+        @Getter
+        private final String label;
+
+
+        PlanningOutcome( String label ) {
+            this.label = label;
+        }
+    }
+
+}
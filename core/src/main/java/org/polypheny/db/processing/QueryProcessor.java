@@ -21,6 +21,7 @@
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.processing.caching.CacheInvalidation;
 import org.polypheny.db.transaction.Statement;
 
 
@@ -61,6 +62,12 @@ public interface QueryProcessor {
      */
     void resetCaches();
 
+    /**
+     * Evicts only the entries of the Translation, Implementation, QueryPlan and RoutingPlan caches which depend on
+     * the entity, placement or partitions affected by a change of the catalog. Router caches are reset.
+     */
+    void invalidateCaches( CacheInvalidation invalidation );
+
     /**
      * To acquire a global shared lock for a statement.
      * This method is used before the statistics are updated to make sure nothing changes during the updating process.
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import lombok.Getter;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.document.DocumentModify;
+import org.polypheny.db.algebra.core.document.DocumentScan;
+import org.polypheny.db.algebra.core.lpg.LpgModify;
+import org.polypheny.db.algebra.core.lpg.LpgScan;
+import org.polypheny.db.plan.AlgOptTable;
+import org.polypheny.db.routing.RoutingPlan;
+import org.polypheny.db.schema.Table;
+import org.polypheny.db.util.Pair;
+
+
+/**
+ * The catalog objects a cache entry depends on. If one of them changes, the entry is evicted (see {@link CacheInvalidation}).
+ */
+@Getter
+public class CacheDependencies {
+
+    public static final CacheDependencies NONE = new CacheDependencies( ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of() );
+
+    private final ImmutableSet<Long> entityIds;
+    private final ImmutableSet<Long> partitionIds;
+    private final ImmutableSet<Integer> adapterIds;
+
+
+    public CacheDependencies( Collection<Long> entityIds, Collection<Long> partitionIds, Collection<Integer> adapterIds ) {
+        this.entityIds = ImmutableSet.copyOf( entityIds );
+        this.partitionIds = ImmutableSet.copyOf( partitionIds );
+        this.adapterIds = ImmutableSet.copyOf( adapterIds );
+    }
+
+
+    /**
+     * Collects the entities accessed by a logical plan.
+     */
+    public static CacheDependencies of( AlgNode logicalNode ) {
+        Set<Long> entityIds = new HashSet<>();
+        collectEntities( logicalNode, entityIds );
+        return new CacheDependencies( entityIds, ImmutableSet.of(), ImmutableSet.of() );
+    }
+
+
+    /**
+     * Returns a copy of these dependencies extended by the partitions and placements (adapters) used by the given
+     * routing plan.
+     */
+    public CacheDependencies withRoutingPlan( RoutingPlan routingPlan ) {
+        if ( routingPlan == null || routingPlan.getPhysicalPlacementsOfPartitions() == null ) {
+            return this;
+        }
+        Set<Long> partitionIds = new HashSet<>( this.partitionIds );
+        Set<Integer> adapterIds = new HashSet<>( this.adapterIds );
+        for ( Entry<Long, List<Pair<Integer, Long>>> entry : routingPlan.getPhysicalPlacementsOfPartitions().entrySet() ) {
+            partitionIds.add( entry.getKey() );
+            entry.getValue().forEach( placement -> adapterIds.add( placement.left ) );
+        }
+        return new CacheDependencies( entityIds, partitionIds, adapterIds );
+    }
+
+
+    private static void collectEntities( AlgNode node, Set<Long> entityIds ) {
+        if ( node instanceof LpgScan ) {
+            entityIds.add( ((LpgScan) node).getGraph().getId() );
+        } else if ( node instanceof LpgModify ) {
+            entityIds.add( ((LpgModify) node).graph.getId() );
+        }
+        AlgOptTable table = node.getTable();
+        if ( node instanceof DocumentScan ) {
+            table = ((DocumentScan) node).getCollection();
+        } else if ( node instanceof DocumentModify ) {
+            table = ((DocumentModify) node).getCollection();
+        }
+        Long entityId = getEntityId( table );
+        if ( entityId != null ) {
+            entityIds.add( entityId );
+        }
+        for ( AlgNode input : node.getInputs() ) {
+            collectEntities( input, entityIds );
+        }
+    }
+
+
+    /**
+     * Returns the id of the entity backing the given table or {@code null} if the table does not belong to an entity of the catalog.
+     */
+    public static Long getEntityId( AlgOptTable table ) {
+        if ( table == null ) {
+            return null;
+        }
+        Table unwrapped = table.getTable();
+        return unwrapped == null ? null : unwrapped.getTableId();
+    }
+
+}
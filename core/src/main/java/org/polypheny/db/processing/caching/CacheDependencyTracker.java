@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.information.InformationTable;
+
+
+/**
+ * Keeps track of the {@link CacheDependencies} of the entries of a cache, allowing to only evict the entries which are
+ * affected by a change of the catalog. The tracker needs to be registered as removal listener of the cache
+ * (see {@link #removalListener()}) and counts the evictions per {@link InvalidationCause}.
+ *
+ * @param <K> the key type of the tracked cache
+ * @param <V> the value type of the tracked cache
+ */
+public class CacheDependencyTracker<K, V> {
+
+    private final Map<K, CacheDependencies> dependencies = new ConcurrentHashMap<>();
+    private final Map<Long, Set<K>> keysPerEntity = new ConcurrentHashMap<>();
+
+    private final Map<InvalidationCause, AtomicLong> evictionCounters = new EnumMap<>( InvalidationCause.class );
+
+
+    public CacheDependencyTracker() {
+        for ( InvalidationCause cause : InvalidationCause.values() ) {
+            evictionCounters.put( cause, new AtomicLong() );
+        }
+    }
+
+
+    /**
+     * Records the dependencies of a cache entry. Has to be called whenever an entry is added to the cache.
+     */
+    public void register( K key, CacheDependencies entryDependencies ) {
+        dependencies.put( key, entryDependencies );
+        for ( Long entityId : entryDependencies.getEntityIds() ) {
+            keysPerEntity.computeIfAbsent( entityId, id -> ConcurrentHashMap.newKeySet() ).add( key );
+        }
+    }
+
+
+    /**
+     * Evicts all entries of the cache whose dependencies match the given predicate.
+     *
+     * @return the number of evicted entries
+     */
+    public int invalidate( Cache<K, V> cache, CacheInvalidation invalidation, Predicate<CacheDependencies> affected ) {
+        Set<K> candidates = keysPerEntity.get( invalidation.getEntityId() );
+        if ( candidates == null ) {
+            return 0;
+        }
+        List<K> evicted = new ArrayList<>();
+        for ( K key : candidates ) {
+            CacheDependencies entryDependencies = dependencies.get( key );
+            if ( entryDependencies == null ) {
+                // Entry has already been removed from the cache
+                candidates.remove( key );
+            } else if ( affected.test( entryDependencies ) ) {
+                evicted.add( key );
+            }
+        }
+        for ( K key : evicted ) {
+            dependencies.remove( key );
+            candidates.remove( key );
+        }
+        cache.invalidateAll( evicted );
+        evictionCounters.get( invalidation.getCause() ).addAndGet( evicted.size() );
+        return evicted.size();
+    }
+
+
+    /**
+     * Evicts a single entry of the cache.
+     *
+     * @return whether the entry has been tracked
+     */
+    public boolean invalidate( Cache<K, V> cache, K key, InvalidationCause cause ) {
+        if ( !forget( key ) ) {
+            return false;
+        }
+        cache.invalidate( key );
+        evictionCounters.get( cause ).incrementAndGet();
+        return true;
+    }
+
+
+    /**
+     * Removes all tracked dependencies. Has to be called whenever the whole cache is invalidated.
+     */
+    public void reset( long evictedEntries ) {
+        dependencies.clear();
+        keysPerEntity.clear();
+        evictionCounters.get( InvalidationCause.RESET ).addAndGet( evictedEntries );
+    }
+
+
+    /**
+     * Returns a listener which removes the dependencies of entries evicted by the cache itself (e.g. because the maximum
+     * size has been reached).
+     */
+    public RemovalListener<K, V> removalListener() {
+        return notification -> {
+            if ( notification.getCause() == RemovalCause.SIZE || notification.getCause() == RemovalCause.EXPIRED || notification.getCause() == RemovalCause.COLLECTED ) {
+                forget( notification.getKey() );
+                evictionCounters.get( InvalidationCause.CAPACITY ).incrementAndGet();
+            }
+        };
+    }
+
+
+    private boolean forget( K key ) {
+        CacheDependencies removed = dependencies.remove( key );
+        if ( removed == null ) {
+            return false;
+        }
+        for ( Long entityId : removed.getEntityIds() ) {
+            Set<K> keys = keysPerEntity.get( entityId );
+            if ( keys != null ) {
+                keys.remove( key );
+            }
+        }
+        return true;
+    }
+
+
+    public long getEvictions( InvalidationCause cause ) {
+        return evictionCounters.get( cause ).longValue();
+    }
+
+
+    /**
+     * Adds a group listing the number of evicted entries per cause to the monitoring page of a cache.
+     */
+    public InformationGroup registerEvictionGroup( InformationPage page, int order ) {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationGroup evictionGroup = new InformationGroup( page, "Evictions" ).setOrder( order );
+        im.addGroup( evictionGroup );
+
+        InformationTable evictionTable = new InformationTable(
+                evictionGroup,
+                Arrays.asList( "Cause", "Evicted Entries" )
+        );
+        im.registerInformation( evictionTable );
+
+        evictionGroup.setRefreshFunction( () -> {
+            evictionTable.reset();
+            for ( InvalidationCause cause : InvalidationCause.values() ) {
+                evictionTable.addRow( cause.getLabel(), getEvictions( cause ) );
+            }
+        } );
+        return evictionGroup;
+    }
+
+}
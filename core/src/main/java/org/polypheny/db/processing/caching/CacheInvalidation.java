@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.Collections;
+import lombok.Getter;
+
+
+/**
+ * Describes a change of the catalog which requires the eviction of the cache entries depending on it.
+ *
+ * <ul>
+ * <li>A schema change of an entity invalidates all cached logical plans, routing plans, physical plans and implementations accessing it.</li>
+ * <li>A placement change invalidates the routing plans of the entity and the physical plans and implementations using the adapter.</li>
+ * <li>A partition change invalidates the routing plans of the entity and the physical plans and implementations accessing the partitions.</li>
+ * <li>A data change only invalidates the cached query results accessing the entity.</li>
+ * </ul>
+ */
+@Getter
+public class CacheInvalidation {
+
+    private final InvalidationCause cause;
+    private final long entityId;
+    private final int adapterId;
+    private final ImmutableSet<Long> partitionIds;
+
+
+    private CacheInvalidation( InvalidationCause cause, long entityId, int adapterId, Collection<Long> partitionIds ) {
+        this.cause = cause;
+        this.entityId = entityId;
+        this.adapterId = adapterId;
+        this.partitionIds = ImmutableSet.copyOf( partitionIds );
+    }
+
+
+    /**
+     * The definition of an entity (e.g. its columns, name or constraints) has changed or the entity has been dropped.
+     */
+    public static CacheInvalidation schemaChange( long entityId ) {
+        return new CacheInvalidation( InvalidationCause.SCHEMA_CHANGE, entityId, -1, Collections.emptyList() );
+    }
+
+
+    /**
+     * A placement of an entity on the given adapter has been added, modified or removed.
+     */
+    public static CacheInvalidation placementChange( long entityId, int adapterId ) {
+        return new CacheInvalidation( InvalidationCause.PLACEMENT_CHANGE, entityId, adapterId, Collections.emptyList() );
+    }
+
+
+    /**
+     * The given partitions of an entity have been redistributed or replaced.
+     */
+    public static CacheInvalidation partitionChange( long entityId, Collection<Long> partitionIds ) {
+        return new CacheInvalidation( InvalidationCause.PARTITION_CHANGE, entityId, -1, partitionIds );
+    }
+
+
+    /**
+     * A transaction which has modified the data of an entity has been committed.
+     */
+    public static CacheInvalidation dataChange( long entityId ) {
+        return new CacheInvalidation( InvalidationCause.DATA_CHANGE, entityId, -1, Collections.emptyList() );
+    }
+
+
+    /**
+     * Whether a cached logical plan with the given dependencies is affected. The logical plan does not depend on
+     * placements and partitions.
+     */
+    public boolean affectsLogicalPlan( CacheDependencies dependencies ) {
+        return cause == InvalidationCause.SCHEMA_CHANGE && dependencies.getEntityIds().contains( entityId );
+    }
+
+
+    /**
+     * Whether a cached routing plan with the given dependencies is affected.
+     */
+    public boolean affectsRoutingPlan( CacheDependencies dependencies ) {
+        return dependencies.getEntityIds().contains( entityId );
+    }
+
+
+    /**
+     * Whether a cached physical plan or implementation with the given dependencies is affected. Entries for which
+     * the used placements or partitions are unknown are always considered affected.
+     */
+    public boolean affectsPhysicalPlan( CacheDependencies dependencies ) {
+        if ( !dependencies.getEntityIds().contains( entityId ) ) {
+            return false;
+        }
+        switch ( cause ) {
+            case PLACEMENT_CHANGE:
+                return dependencies.getAdapterIds().isEmpty() || dependencies.getAdapterIds().contains( adapterId );
+            case PARTITION_CHANGE:
+                return partitionIds.isEmpty() || dependencies.getPartitionIds().isEmpty() || !Collections.disjoint( partitionIds, dependencies.getPartitionIds() );
+            default:
+                return true;
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        return cause.getLabel() + " (entity " + entityId + ")";
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import lombok.Getter;
+
+
+/**
+ * The reasons for which entries are removed from the query processing caches.
+ */
+public enum InvalidationCause {
+    SCHEMA_CHANGE( "Schema Change" ),
+    PLACEMENT_CHANGE( "Placement Change" ),
+    PARTITION_CHANGE( "Partition Change" ),
+    DATA_CHANGE( "Data Change" ),
+    CAPACITY( "Capacity" ),
+    CARDINALITY_FEEDBACK( "Cardinality Feedback" ),
+    RESET( "Reset" );
+
+    @Getter
+    private final String label;
+
+
+    InvalidationCause( String label ) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.codehaus.commons.compiler.CompileException;
+import org.codehaus.janino.ByteArrayClassLoader;
+import org.codehaus.janino.ClassLoaderIClassLoader;
+import org.codehaus.janino.Java.CompilationUnit;
+import org.codehaus.janino.Parser;
+import org.codehaus.janino.Scanner;
+import org.codehaus.janino.UnitCompiler;
+import org.codehaus.janino.util.ClassFile;
+import org.pf4j.PluginWrapper;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.plugins.PolyPluginManager;
+import org.polypheny.db.runtime.ArrayBindable;
+import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.runtime.Typed;
+import org.polypheny.db.runtime.Utilities;
+import org.polypheny.db.util.PolyphenyHomeDirManager;
+
+
+/**
+ * Persistent tier of the implementation cache. It stores the bytecode of the classes generated for query plans on disk,
+ * so that the compilation of the generated code can be skipped after a restart of Polypheny-DB.
+ *
+ * Entries are identified by a hash of the generated source code. The bytecode is only reused if it has been produced
+ * by the same builds of Polypheny-DB and of the loaded plugins; otherwise all stored entries are discarded at startup.
+ * The number of uses of every entry is recorded, the most frequently used entries are loaded into memory in the
+ * background at startup.
+ */
+@Slf4j
+public class PersistentImplementationCache {
+
+    public static final PersistentImplementationCache INSTANCE = new PersistentImplementationCache();
+
+    private static final String FOLDER = "cache/implementations";
+    private static final String INDEX_FILE = "index.properties";
+    private static final String VERSION_FILE = "version";
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    private final Cache<String, Map<String, byte[]>> bytecodeCache;
+    private final Map<String, AtomicLong> uses = new ConcurrentHashMap<>(); // Number of uses per stored entry
+
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor( r -> {
+        Thread thread = new Thread( r, "PersistentImplementationCache" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    private final AtomicLong hitsCounter = new AtomicLong(); // Number of compilations which have been skipped
+    private final AtomicLong missesCounter = new AtomicLong(); // Number of classes which had to be compiled
+    private final AtomicLong preloadedCounter = new AtomicLong(); // Number of entries loaded into memory at startup
+    private final AtomicLong rejectedCounter = new AtomicLong(); // Number of entries discarded because of a version change
+    private final AtomicLong usesSinceIndexWrite = new AtomicLong();
+
+    private volatile File folder;
+
+
+    public PersistentImplementationCache() {
+        RuntimeConfig.IMPLEMENTATION_CACHING_PERSISTENT.setRequiresRestart( true );
+        RuntimeConfig.IMPLEMENTATION_CACHING_PERSISTENT_PRELOAD.setRequiresRestart( true );
+        bytecodeCache = CacheBuilder.newBuilder()
+                .maximumSize( RuntimeConfig.IMPLEMENTATION_CACHING_SIZE.getInteger() )
+                .build();
+    }
+
+
+    /**
+     * Opens the cache folder, discards the stored entries if they have been produced by other versions and starts
+     * preloading the most frequently used entries in the background. Has to be called after the plugins have been loaded.
+     */
+    public void init() {
+        if ( !RuntimeConfig.IMPLEMENTATION_CACHING_PERSISTENT.getBoolean() ) {
+            return;
+        }
+        String version = getVersionStamp();
+        if ( version == null ) {
+            // Without a version, bytecode produced by an older build could not be told apart
+            log.info( "Unable to determine the build of Polypheny-DB or of a plugin, the persistent implementation cache is disabled." );
+            return;
+        }
+        if ( open( PolyphenyHomeDirManager.getInstance().registerNewFolder( FOLDER ), version ) ) {
+            ioExecutor.submit( this::preload );
+            registerMonitoringPage();
+        }
+    }
+
+
+    /**
+     * Opens the given cache folder and discards the stored entries if they have been produced by another version.
+     *
+     * @return whether the cache folder could be opened
+     */
+    boolean open( File cacheFolder, String version ) {
+        try {
+            File versionFile = new File( cacheFolder, VERSION_FILE );
+            if ( !versionFile.exists() || !version.equals( Files.readString( versionFile.toPath() ) ) ) {
+                File[] entries = cacheFolder.listFiles();
+                if ( entries != null ) {
+                    for ( File entry : entries ) {
+                        if ( entry.getName().endsWith( ENTRY_SUFFIX ) ) {
+                            rejectedCounter.incrementAndGet();
+                        }
+                        Files.delete( entry.toPath() );
+                    }
+                }
+                Files.writeString( versionFile.toPath(), version );
+            } else {
+                readIndex( cacheFolder );
+            }
+        } catch ( IOException e ) {
+            log.warn( "Unable to open the persistent implementation cache, the cache is disabled.", e );
+            return false;
+        }
+        folder = cacheFolder;
+        return true;
+    }
+
+
+    /**
+     * Waits until all pending writes to the cache folder have been completed.
+     */
+    void flush() throws InterruptedException, ExecutionException {
+        ioExecutor.submit( () -> {
+        } ).get();
+    }
+
+
+    public boolean isActive() {
+        return folder != null;
+    }
+
+
+    /**
+     * Returns an instance of the class generated for a query plan. If the class has already been compiled (possibly
+     * before a restart), the stored bytecode is used. Otherwise, the class is compiled and the bytecode is stored.
+     *
+     * @param className the name of the generated class
+     * @param classBody the generated members of the class
+     * @param scalar whether the class produces scalar values ({@link Bindable} and {@link Typed}) or arrays ({@link ArrayBindable})
+     * @param parentClassLoader the class loader used to resolve the classes referenced by the generated code
+     */
+    public Bindable<?> getBindable( String className, String classBody, boolean scalar, ClassLoader parentClassLoader ) throws CompileException, IOException {
+        final String key = Hashing.sha256().newHasher()
+                .putString( className, StandardCharsets.UTF_8 )
+                .putBoolean( scalar )
+                .putString( classBody, StandardCharsets.UTF_8 )
+                .hash()
+                .toString();
+
+        Map<String, byte[]> classes = bytecodeCache.getIfPresent( key );
+        if ( classes == null && uses.containsKey( key ) ) {
+            classes = readEntry( key );
+            if ( classes != null ) {
+                bytecodeCache.put( key, classes );
+            }
+        }
+
+        if ( classes != null ) {
+            hitsCounter.incrementAndGet();
+            uses.computeIfAbsent( key, k -> new AtomicLong() ).incrementAndGet();
+            if ( usesSinceIndexWrite.incrementAndGet() % 100 == 0 ) {
+                ioExecutor.submit( this::writeIndex );
+            }
+        } else {
+            missesCounter.incrementAndGet();
+            classes = compile( className, classBody, scalar, parentClassLoader );
+            bytecodeCache.put( key, classes );
+            final Map<String, byte[]> toStore = classes;
+            ioExecutor.submit( () -> writeEntry( key, toStore ) );
+        }
+
+        try {
+            ClassLoader classLoader = new ByteArrayClassLoader( classes, parentClassLoader );
+            return (Bindable<?>) classLoader.loadClass( className ).getDeclaredConstructor().newInstance();
+        } catch ( ReflectiveOperationException e ) {
+            throw new IllegalStateException( "Unable to instantiate generated class " + className, e );
+        }
+    }
+
+
+    private Map<String, byte[]> compile( String className, String classBody, boolean scalar, ClassLoader parentClassLoader ) throws CompileException, IOException {
+        final String implemented = scalar
+                ? Bindable.class.getName() + ", " + Typed.class.getName()
+                : ArrayBindable.class.getName();
+        final String source = "public class " + className + " extends " + Utilities.class.getName() + " implements " + implemented + " {\n"
+                + classBody
+                + "\n}\n";
+
+        CompilationUnit compilationUnit = new Parser( new Scanner( null, new StringReader( source ) ) ).parseCompilationUnit();
+        boolean debug = RuntimeConfig.DEBUG.getBoolean();
+        ClassFile[] classFiles = new UnitCompiler( compilationUnit, new ClassLoaderIClassLoader( parentClassLoader ) ).compileUnit( debug, debug, debug );
+
+        Map<String, byte[]> classes = new HashMap<>();
+        for ( ClassFile classFile : classFiles ) {
+            classes.put( classFile.getThisClassName(), classFile.toByteArray() );
+        }
+        return classes;
+    }
+
+
+    /**
+     * Returns a stamp identifying the build of Polypheny-DB and of the loaded plugins. Besides the versions, it contains
+     * the size and modification time of the jar files, so that rebuilds of the same version are told apart.
+     *
+     * @return the stamp or {@code null} if a build cannot be identified, e.g. in development builds which are not packaged
+     */
+    String getVersionStamp() {
+        final String version = PersistentImplementationCache.class.getPackage().getImplementationVersion();
+        final String build = getBuildStamp( getCodeSource( PersistentImplementationCache.class ) );
+        if ( version == null || build == null ) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "polypheny=" ).append( version ).append( '@' ).append( build ).append( '\n' );
+        final List<String> plugins = new ArrayList<>();
+        for ( PluginWrapper plugin : PolyPluginManager.PLUGINS.values() ) {
+            final String pluginBuild = getBuildStamp( plugin.getPluginPath() );
+            if ( pluginBuild == null ) {
+                return null;
+            }
+            plugins.add( plugin.getDescriptor().getPluginId() + "=" + plugin.getDescriptor().getVersion() + "@" + pluginBuild );
+        }
+        plugins.stream().sorted().forEach( p -> sb.append( p ).append( '\n' ) );
+        return sb.toString();
+    }
+
+
+    private static Path getCodeSource( Class<?> clazz ) {
+        try {
+            final CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+            return codeSource == null ? null : Paths.get( codeSource.getLocation().toURI() );
+        } catch ( URISyntaxException | RuntimeException e ) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Returns the size and modification time of a jar file, or {@code null} if the classes are not loaded from a jar file.
+     */
+    private static String getBuildStamp( Path path ) {
+        if ( path == null || !Files.isRegularFile( path ) ) {
+            return null;
+        }
+        try {
+            return Files.size( path ) + ":" + Files.getLastModifiedTime( path ).toMillis();
+        } catch ( IOException e ) {
+            return null;
+        }
+    }
+
+
+    private void preload() {
+        List<String> mostUsed = uses.entrySet().stream()
+                .sorted( Comparator.comparingLong( ( Entry<String, AtomicLong> e ) -> e.getValue().get() ).reversed() )
+                .limit( RuntimeConfig.IMPLEMENTATION_CACHING_PERSISTENT_PRELOAD.getInteger() )
+                .map( Entry::getKey )
+                .collect( Collectors.toList() );
+        for ( String key : mostUsed ) {
+            Map<String, byte[]> classes = readEntry( key );
+            if ( classes != null ) {
+                bytecodeCache.put( key, classes );
+                preloadedCounter.incrementAndGet();
+            }
+        }
+        log.debug( "Preloaded {} compiled query plans.", preloadedCounter.get() );
+    }
+
+
+    private Map<String, byte[]> readEntry( String key ) {
+        File file = new File( folder, key + ENTRY_SUFFIX );
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+            int count = in.readInt();
+            Map<String, byte[]> classes = new HashMap<>();
+            for ( int i = 0; i < count; i++ ) {
+                String name = in.readUTF();
+                byte[] bytecode = new byte[in.readInt()];
+                in.readFully( bytecode );
+                classes.put( name, bytecode );
+            }
+            return classes;
+        } catch ( IOException e ) {
+            log.warn( "Unable to read stored implementation {}, removing it.", key, e );
+            uses.remove( key );
+            return null;
+        }
+    }
+
+
+    private void writeEntry( String key, Map<String, byte[]> classes ) {
+        File file = new File( folder, key + ENTRY_SUFFIX );
+        try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) ) ) {
+            out.writeInt( classes.size() );
+            for ( Entry<String, byte[]> entry : classes.entrySet() ) {
+                out.writeUTF( entry.getKey() );
+                out.writeInt( entry.getValue().length );
+                out.write( entry.getValue() );
+            }
+        } catch ( IOException e ) {
+            log.warn( "Unable to store implementation {}.", key, e );
+            return;
+        }
+        uses.computeIfAbsent( key, k -> new AtomicLong() ).incrementAndGet();
+        evictIfNecessary();
+        writeIndex();
+    }
+
+
+    /**
+     * Removes the least used entries if there are more entries stored than configured.
+     */
+    private void evictIfNecessary() {
+        int exceeding = uses.size() - RuntimeConfig.IMPLEMENTATION_CACHING_PERSISTENT_SIZE.getInteger();
+        if ( exceeding <= 0 ) {
+            return;
+        }
+        List<String> leastUsed = uses.entrySet().stream()
+                .sorted( Comparator.comparingLong( e -> e.getValue().get() ) )
+                .limit( exceeding )
+                .map( Entry::getKey )
+                .collect( Collectors.toList() );
+        for ( String key : leastUsed ) {
+            uses.remove( key );
+            bytecodeCache.invalidate( key );
+            try {
+                Files.deleteIfExists( new File( folder, key + ENTRY_SUFFIX ).toPath() );
+            } catch ( IOException e ) {
+                log.warn( "Unable to remove stored implementation {}.", key, e );
+            }
+        }
+    }
+
+
+    private void readIndex( File cacheFolder ) throws IOException {
+        File indexFile = new File( cacheFolder, INDEX_FILE );
+        if ( !indexFile.exists() ) {
+            return;
+        }
+        Properties index = new Properties();
+        try ( InputStream in = new FileInputStream( indexFile ) ) {
+            index.load( in );
+        }
+        for ( String key : index.stringPropertyNames() ) {
+            if ( new File( cacheFolder, key + ENTRY_SUFFIX ).exists() ) {
+                uses.put( key, new AtomicLong( Long.parseLong( index.getProperty( key ) ) ) );
+            }
+        }
+    }
+
+
+    private void writeIndex() {
+        Properties index = new Properties();
+        uses.forEach( ( key, count ) -> index.setProperty( key, Long.toString( count.get() ) ) );
+        try ( OutputStream out = new FileOutputStream( new File( folder, INDEX_FILE ) ) ) {
+            index.store( out, "Number of uses per stored implementation" );
+        } catch ( IOException e ) {
+            log.warn( "Unable to write the index of the persistent implementation cache.", e );
+        }
+    }
+
+
+    long getHits() {
+        return hitsCounter.get();
+    }
+
+
+    long getMisses() {
+        return missesCounter.get();
+    }
+
+
+    long getRejected() {
+        return rejectedCounter.get();
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Persistent Implementation Cache" );
+        im.addPage( page );
+
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            generalKv.putPair( "Stored Entries", uses.size() + "" );
+            generalKv.putPair( "Maximum Stored Entries", RuntimeConfig.IMPLEMENTATION_CACHING_PERSISTENT_SIZE.getInteger() + "" );
+            generalKv.putPair( "Entries in Memory", bytecodeCache.size() + "" );
+            generalKv.putPair( "Preloaded Entries", preloadedCounter.get() + "" );
+            generalKv.putPair( "Rejected Entries (Version Change)", rejectedCounter.get() + "" );
+            generalKv.putPair( "Skipped Compilations", hitsCounter.get() + "" );
+            generalKv.putPair( "Compilations", missesCounter.get() + "" );
+        } );
+    }
+
+}
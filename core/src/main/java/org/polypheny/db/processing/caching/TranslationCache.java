@@ -0,0 +1,319 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.polypheny.db.algebra.AlgCopier;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationAction;
+import org.polypheny.db.information.InformationGraph;
+import org.polypheny.db.information.InformationGraph.GraphData;
+import org.polypheny.db.information.InformationGraph.GraphType;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.information.InformationText;
+import org.polypheny.db.languages.QueryLanguage;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.util.Pair;
+
+
+/**
+ * Caches the logical query plans produced by parsing, validating and translating a query. The cache is keyed by
+ * the normalized query text, the query language and the namespace the query has been issued against. On a hit,
+ * the front-end of the query language is skipped entirely and a copy of the cached plan, which is attached to the
+ * cluster of the requesting statement, is handed to the query processor.
+ *
+ * Entries are evicted if the schema of an entity accessed by the plan changes
+ * (see {@link org.polypheny.db.processing.QueryProcessor#invalidateCaches(CacheInvalidation)}).
+ */
+public class TranslationCache {
+
+    public static final TranslationCache INSTANCE = new TranslationCache();
+
+    private final Cache<CacheKey, Pair<AlgRoot, AlgDataType>> translationCache;
+
+    private final CacheDependencyTracker<CacheKey, Pair<AlgRoot, AlgDataType>> dependencyTracker = new CacheDependencyTracker<>();
+
+    private final AtomicLong hitsCounter = new AtomicLong(); // Number of requests for which the cache contained the value
+    private final AtomicLong missesCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained the value
+    private final AtomicLong uncacheableCounter = new AtomicLong(); // Number of translated plans which could not be cached
+
+
+    public TranslationCache() {
+        RuntimeConfig.TRANSLATION_CACHING_SIZE.setRequiresRestart( true );
+        translationCache = CacheBuilder.newBuilder()
+                .maximumSize( RuntimeConfig.TRANSLATION_CACHING_SIZE.getInteger() )
+                .removalListener( dependencyTracker.removalListener() )
+                .build();
+        registerMonitoringPage();
+    }
+
+
+    /**
+     * Whether the translation cache should be used for the given statement.
+     */
+    public boolean isActive( Statement statement ) {
+        return RuntimeConfig.TRANSLATION_CACHING.getBoolean() && statement.getTransaction().getUseCache();
+    }
+
+
+    /**
+     * Returns the cached logical plan and parameter row type for the given query, if present. The returned plan is a
+     * copy of the cached one and belongs to a new cluster of the provided statement.
+     *
+     * @param statement the statement for which the plan is requested
+     * @param language the language of the query
+     * @param namespace the namespace (or default schema) against which the query is executed
+     * @param query the query text
+     * @return the logical plan and the parameter row type, or null if the query is not cached
+     */
+    public Pair<AlgRoot, AlgDataType> getIfPresent( Statement statement, QueryLanguage language, String namespace, String query ) {
+        Pair<AlgRoot, AlgDataType> cached = translationCache.getIfPresent( CacheKey.of( language.getSerializedName(), namespace, query ) );
+        if ( cached == null ) {
+            missesCounter.incrementAndGet();
+            return null;
+        }
+
+        AlgOptCluster cluster = AlgCopier.createCluster(
+                statement.getQueryProcessor().getPlanner(),
+                new RexBuilder( statement.getTransaction().getTypeFactory() ),
+                cached.left.alg.getCluster() );
+        AlgNode copy = AlgCopier.copy( cached.left.alg, cluster );
+        if ( copy == null ) {
+            // Should not happen, since the plan has already been copied once when it was added
+            missesCounter.incrementAndGet();
+            return null;
+        }
+        hitsCounter.incrementAndGet();
+        return new Pair<>( cached.left.withAlg( copy ), cached.right );
+    }
+
+
+    /**
+     * Adds the translated logical plan of a query to the cache. Plans which cannot be safely reused by other
+     * statements (e.g. DDLs, plans containing views, sub-queries or correlations) are not cached.
+     *
+     * @param parameterRowType the row type of the dynamic parameters, or null if the query has none
+     */
+    public void put( QueryLanguage language, String namespace, String query, AlgRoot logicalRoot, AlgDataType parameterRowType ) {
+        if ( !isCacheable( logicalRoot.kind ) || logicalRoot.alg.hasView() ) {
+            uncacheableCounter.incrementAndGet();
+            return;
+        }
+        // Store a detached copy, the original plan is handed on to the query processor
+        AlgNode copy = AlgCopier.copy( logicalRoot.alg, logicalRoot.alg.getCluster() );
+        if ( copy == null ) {
+            uncacheableCounter.incrementAndGet();
+            return;
+        }
+        if ( parameterRowType == null ) {
+            parameterRowType = logicalRoot.alg.getCluster().getTypeFactory().builder().build();
+        }
+        CacheKey key = CacheKey.of( language.getSerializedName(), namespace, query );
+        dependencyTracker.register( key, CacheDependencies.of( copy ) );
+        translationCache.put( key, new Pair<>( logicalRoot.withAlg( copy ), parameterRowType ) );
+    }
+
+
+    /**
+     * Whether plans of queries of the given kind are cached. DDLs are never cached, DMLs only if enabled.
+     */
+    static boolean isCacheable( Kind kind ) {
+        return !kind.belongsTo( Kind.DDL ) && (!kind.belongsTo( Kind.DML ) || RuntimeConfig.TRANSLATION_CACHING_DML.getBoolean());
+    }
+
+
+    /**
+     * Evicts all cached plans which are affected by the given change of the catalog.
+     */
+    public void invalidate( CacheInvalidation invalidation ) {
+        dependencyTracker.invalidate( translationCache, invalidation, invalidation::affectsLogicalPlan );
+    }
+
+
+    public void reset() {
+        dependencyTracker.reset( translationCache.size() );
+        translationCache.invalidateAll();
+        hitsCounter.set( 0 );
+        missesCounter.set( 0 );
+        uncacheableCounter.set( 0 );
+    }
+
+
+    /**
+     * Removes leading and trailing whitespace and collapses all other whitespace outside of quoted literals
+     * and identifiers. As line comments end at a line break, the rest of the query starting with the first comment
+     * ({@code --}, {@code //} or {@code /*}) is kept as it is.
+     */
+    static String normalize( String query ) {
+        final String trimmed = query.trim();
+        final StringBuilder sb = new StringBuilder( trimmed.length() );
+        char quote = 0;
+        boolean whitespace = false;
+        for ( int i = 0; i < trimmed.length(); i++ ) {
+            char c = trimmed.charAt( i );
+            if ( quote == 0 && isCommentStart( trimmed, i ) ) {
+                if ( whitespace ) {
+                    sb.append( ' ' );
+                }
+                sb.append( trimmed, i, trimmed.length() );
+                break;
+            } else if ( quote != 0 ) {
+                sb.append( c );
+                if ( c == quote ) {
+                    quote = 0;
+                }
+            } else if ( Character.isWhitespace( c ) ) {
+                whitespace = true;
+            } else {
+                if ( whitespace ) {
+                    sb.append( ' ' );
+                    whitespace = false;
+                }
+                if ( c == '\'' || c == '"' || c == '`' ) {
+                    quote = c;
+                }
+                sb.append( c );
+            }
+        }
+        return sb.toString();
+    }
+
+
+    private static boolean isCommentStart( String query, int i ) {
+        if ( i + 1 >= query.length() ) {
+            return false;
+        }
+        final char c = query.charAt( i );
+        final char next = query.charAt( i + 1 );
+        return (c == '-' && next == '-') || (c == '/' && (next == '/' || next == '*'));
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Translation Cache" );
+        im.addPage( page );
+
+        // General
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            generalKv.putPair( "Status", RuntimeConfig.TRANSLATION_CACHING.getBoolean() ? "Active" : "Disabled" );
+            generalKv.putPair( "Current Cache Size", translationCache.size() + "" );
+            generalKv.putPair( "Maximum Cache Size", RuntimeConfig.TRANSLATION_CACHING_SIZE.getInteger() + "" );
+        } );
+
+        // Hit ratio
+        InformationGroup hitRatioGroup = new InformationGroup( page, "Hit Ratio" ).setOrder( 2 );
+        im.addGroup( hitRatioGroup );
+
+        InformationGraph hitInfoGraph = new InformationGraph(
+                hitRatioGroup,
+                GraphType.DOUGHNUT,
+                new String[]{ "Hits", "Misses" }
+        );
+        hitInfoGraph.setOrder( 1 );
+        im.registerInformation( hitInfoGraph );
+
+        InformationTable hitInfoTable = new InformationTable(
+                hitRatioGroup,
+                Arrays.asList( "Attribute", "Percent", "Absolute" )
+        );
+        hitInfoTable.setOrder( 2 );
+        im.registerInformation( hitInfoTable );
+
+        hitRatioGroup.setRefreshFunction( () -> {
+            long hits = hitsCounter.longValue();
+            long misses = missesCounter.longValue();
+            long total = hits + misses;
+            double hitPercent = (double) hits / total;
+            double missesPercent = 1.0 - hitPercent;
+
+            hitInfoGraph.updateGraph(
+                    new String[]{ "Misses", "Hits" },
+                    new GraphData<>( "heap-data", new Long[]{ misses, hits } )
+            );
+
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+            symbols.setDecimalSeparator( '.' );
+            DecimalFormat df = new DecimalFormat( "0.0", symbols );
+            hitInfoTable.reset();
+            hitInfoTable.addRow( "Hits", df.format( total == 0 ? 0 : (hitPercent * 100) ) + " %", hits );
+            hitInfoTable.addRow( "Misses", df.format( total == 0 ? 0 : (missesPercent * 100) ) + " %", misses );
+            hitInfoTable.addRow( "Uncacheable", "-", uncacheableCounter.longValue() );
+        } );
+
+        // Evictions
+        InformationGroup evictionGroup = dependencyTracker.registerEvictionGroup( page, 3 );
+
+        // Invalidate cache
+        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 4 );
+        im.addGroup( invalidateGroup );
+
+        InformationText invalidateText = new InformationText( invalidateGroup, "Invalidate the translation cache including the hit and miss counters." );
+        invalidateText.setOrder( 1 );
+        im.registerInformation( invalidateText );
+
+        InformationAction invalidateAction = new InformationAction( invalidateGroup, "Invalidate", parameters -> {
+            reset();
+            generalGroup.refresh();
+            hitRatioGroup.refresh();
+            evictionGroup.refresh();
+            return "Successfully invalidated the translation cache!";
+        } );
+        invalidateAction.setOrder( 2 );
+        im.registerInformation( invalidateAction );
+    }
+
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    static class CacheKey {
+
+        private final String language;
+        private final String namespace;
+        private final String query;
+
+
+        static CacheKey of( String language, String namespace, String query ) {
+            return new CacheKey( language, namespace, normalize( query ) );
+        }
+
+    }
+
+}
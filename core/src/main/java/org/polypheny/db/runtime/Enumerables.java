@@ -34,9 +34,20 @@
 package org.polypheny.db.runtime;
 
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
 import java.util.function.Supplier;
+import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.linq4j.function.Function1;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.algebra.metadata.CardinalityFeedback;
+import org.polypheny.db.algebra.metadata.CardinalityFeedback.Collector;
 import org.polypheny.db.interpreter.Row;
 
 
@@ -47,6 +58,12 @@
  */
 public class Enumerables {
 
+    /**
+     * Number of consecutive rows which are either all included in or all excluded from a system sample.
+     */
+    public static final int SAMPLE_BLOCK_SIZE = 1024;
+
+
     private Enumerables() {
     }
 
@@ -74,5 +91,209 @@ public static Supplier<Enumerable<Row>> toRow( final Supplier<Enumerable<Object[
         return () -> toRow( supplier.get() );
     }
 
-}
 
+    /**
+     * Returns a sample of an {@link Enumerable}. With Bernoulli sampling, every element is included independently with the
+     * given probability. With system sampling, blocks of {@link #SAMPLE_BLOCK_SIZE} consecutive elements are included or
+     * excluded together, which requires far fewer random numbers but is less accurate if the order of the elements
+     * correlates with their values.
+     *
+     * @param enumerable the input
+     * @param bernoulli whether Bernoulli or system sampling is performed
+     * @param rate the probability that an element is included, between 0 and 1
+     * @param repeatable whether the seed is used, which makes the sample repeatable
+     * @param seed the seed of the random number generator
+     */
+    public static <E> Enumerable<E> sample( final Enumerable<E> enumerable, final boolean bernoulli, final float rate, final boolean repeatable, final int seed ) {
+        return new AbstractEnumerable<E>() {
+            @Override
+            public Enumerator<E> enumerator() {
+                final Enumerator<E> input = enumerable.enumerator();
+                final Random random = repeatable ? new Random( seed ) : new Random();
+                return new Enumerator<E>() {
+                    private long position = 0;
+                    private boolean included;
+
+
+                    @Override
+                    public E current() {
+                        return input.current();
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        while ( input.moveNext() ) {
+                            if ( bernoulli ) {
+                                included = random.nextFloat() < rate;
+                            } else if ( position % SAMPLE_BLOCK_SIZE == 0 ) {
+                                included = random.nextFloat() < rate;
+                            }
+                            position++;
+                            if ( included ) {
+                                return true;
+                            }
+                        }
+                        return false;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        input.reset();
+                        position = 0;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        input.close();
+                    }
+                };
+            }
+        };
+    }
+
+
+    /**
+     * Counts the elements of an {@link Enumerable} if the cardinalities of the current execution are collected (see
+     * {@link CardinalityFeedback}). Otherwise, the enumerable is returned unchanged. The count is only recorded if the
+     * enumerable is exhausted, as e.g. a limit stops the enumeration early.
+     *
+     * @param enumerable the output of an operator
+     * @param root the context of the execution
+     * @param key the key of the operator (see {@link CardinalityFeedback#key})
+     * @param estimated the estimated number of elements
+     */
+    public static <E> Enumerable<E> countRows( final Enumerable<E> enumerable, final DataContext root, final String key, final double estimated ) {
+        final Object collector = root.get( CardinalityFeedback.COLLECTOR_VARIABLE );
+        if ( !(collector instanceof Collector) ) {
+            return enumerable;
+        }
+        return new AbstractEnumerable<E>() {
+            @Override
+            public Enumerator<E> enumerator() {
+                final Enumerator<E> input = enumerable.enumerator();
+                return new Enumerator<E>() {
+                    private long count = 0;
+                    private boolean recorded = false;
+
+
+                    @Override
+                    public E current() {
+                        return input.current();
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        if ( input.moveNext() ) {
+                            count++;
+                            return true;
+                        }
+                        if ( !recorded ) {
+                            recorded = true;
+                            ((Collector) collector).record( key, estimated, count );
+                        }
+                        return false;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        input.reset();
+                        count = 0;
+                        recorded = false;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        input.close();
+                    }
+                };
+            }
+        };
+    }
+
+
+    /**
+     * Returns the rows at positions {@code offset} to {@code offset + fetch} of an {@link Enumerable} sorted by the given
+     * key, without sorting the whole input. A bounded heap keeps the best {@code offset + fetch} rows seen so far, so the
+     * memory is proportional to that number and not to the size of the input. Like
+     * {@link org.apache.calcite.linq4j.ExtendedEnumerable#orderBy}, the sort is stable: rows with equal keys are returned in
+     * the order of the input.
+     *
+     * @param enumerable the input
+     * @param keySelector extracts the sort key of a row
+     * @param comparator compares the sort keys, or null if the keys are compared by their natural order
+     * @param offset the number of rows to skip
+     * @param fetch the maximum number of rows to return
+     */
+    public static <E, K> Enumerable<E> topN( final Enumerable<E> enumerable, final Function1<E, K> keySelector, final Comparator<K> comparator, final int offset, final int fetch ) {
+        return new AbstractEnumerable<E>() {
+            @Override
+            public Enumerator<E> enumerator() {
+                if ( fetch <= 0 ) {
+                    return Linq4j.emptyEnumerator();
+                }
+                return Linq4j.enumerator( topNList( enumerable, keySelector, comparator, Math.max( offset, 0 ), fetch ) );
+            }
+        };
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static <E, K> List<E> topNList( Enumerable<E> enumerable, Function1<E, K> keySelector, Comparator<K> comparator, int offset, int fetch ) {
+        final long limit = (long) offset + fetch;
+        final Comparator<K> keyComparator = comparator != null ? comparator : (Comparator<K>) Comparator.naturalOrder();
+        final Comparator<TopNEntry<E, K>> entryComparator = ( a, b ) -> {
+            final int c = keyComparator.compare( a.key, b.key );
+            return c != 0 ? c : Long.compare( a.sequence, b.sequence );
+        };
+        // The root of the heap is the row that is dropped first
+        final PriorityQueue<TopNEntry<E, K>> heap = new PriorityQueue<>( (int) Math.min( limit, 1024 ), entryComparator.reversed() );
+        long sequence = 0;
+        try ( Enumerator<E> input = enumerable.enumerator() ) {
+            while ( input.moveNext() ) {
+                final E row = input.current();
+                final K key = keySelector.apply( row );
+                if ( heap.size() < limit ) {
+                    heap.add( new TopNEntry<>( key, row, sequence ) );
+                } else if ( keyComparator.compare( key, heap.peek().key ) < 0 ) {
+                    // Rows with a key equal to the root come later in the input and therefore lose
+                    heap.poll();
+                    heap.add( new TopNEntry<>( key, row, sequence ) );
+                }
+                sequence++;
+            }
+        }
+        final List<TopNEntry<E, K>> entries = new ArrayList<>( heap );
+        entries.sort( entryComparator );
+        final List<E> rows = new ArrayList<>( Math.max( entries.size() - offset, 0 ) );
+        for ( int i = offset; i < entries.size(); i++ ) {
+            rows.add( entries.get( i ).row );
+        }
+        return rows;
+    }
+
+
+    /**
+     * A row kept by {@link #topN}, together with its sort key and its position in the input.
+     */
+    private static final class TopNEntry<E, K> {
+
+        final K key;
+        final E row;
+        final long sequence;
+
+
+        TopNEntry( K key, E row, long sequence ) {
+            this.key = key;
+            this.row = row;
+            this.sequence = sequence;
+        }
+
+    }
+
+}
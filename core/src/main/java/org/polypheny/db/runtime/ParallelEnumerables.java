@@ -0,0 +1,567 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.EqualityComparer;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.function.Function2;
+import org.polypheny.db.plugins.PolyPluginManager;
+
+
+/**
+ * Partition-parallel variants of {@link Enumerable} operations, which are executed on a shared {@link ForkJoinPool}.
+ *
+ * The input of an operation is consumed by the calling thread and distributed over partitions by hashing the keys of the
+ * rows (an exchange). The partitions are processed in parallel using the sequential operations of linq4j. Only the
+ * generated functions, e.g. key selectors and aggregate functions, are called by the threads of the pool.
+ *
+ * {@link #gather(List)} is the exception: it enumerates its inputs concurrently and returns their rows in arbitrary order.
+ * Its inputs and the inputs of {@link #modifyCollect(List)} usually block on stores, they are therefore executed by a
+ * separate executor (see {@link #getBlockingExecutor()}) instead of the pool.
+ */
+public final class ParallelEnumerables {
+
+    /**
+     * Maximum number of rows which are buffered by {@link #gather(List)}.
+     */
+    private static final int GATHER_QUEUE_SIZE = 4096;
+
+    private static final Object END = new Object();
+    private static final Object NULL = new Object();
+
+    private static volatile ForkJoinPool pool;
+    private static volatile ExecutorService blockingExecutor;
+
+
+    private ParallelEnumerables() {
+    }
+
+
+    /**
+     * Returns the pool which executes the parallel operations of all queries.
+     */
+    public static ForkJoinPool getPool() {
+        if ( pool == null ) {
+            synchronized ( ParallelEnumerables.class ) {
+                if ( pool == null ) {
+                    pool = new ForkJoinPool(
+                            Runtime.getRuntime().availableProcessors(),
+                            p -> {
+                                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread( p );
+                                thread.setName( "parallel-query-" + thread.getPoolIndex() );
+                                setClassLoader( thread );
+                                return thread;
+                            },
+                            null,
+                            false );
+                }
+            }
+        }
+        return pool;
+    }
+
+
+    /**
+     * Returns the executor which enumerates inputs that block on stores, e.g. the modifies of a modify collect. Unlike the
+     * pool, it is not limited to the number of processors, so waiting for a store does not occupy the threads of the
+     * CPU-bound operations.
+     */
+    public static ExecutorService getBlockingExecutor() {
+        if ( blockingExecutor == null ) {
+            synchronized ( ParallelEnumerables.class ) {
+                if ( blockingExecutor == null ) {
+                    final AtomicInteger threadCounter = new AtomicInteger();
+                    blockingExecutor = Executors.newCachedThreadPool( runnable -> {
+                        final Thread thread = new Thread( runnable, "parallel-io-" + threadCounter.getAndIncrement() );
+                        thread.setDaemon( true );
+                        setClassLoader( thread );
+                        return thread;
+                    } );
+                }
+            }
+        }
+        return blockingExecutor;
+    }
+
+
+    /**
+     * The generated code and the adapters are loaded by the class loader of the plugins, which is therefore used as the
+     * context class loader of the threads executing them.
+     */
+    private static void setClassLoader( Thread thread ) {
+        final ClassLoader classLoader = PolyPluginManager.getMainClassLoader();
+        if ( classLoader != null ) {
+            thread.setContextClassLoader( classLoader );
+        }
+    }
+
+
+    /**
+     * Returns the rows of all inputs, which are enumerated concurrently. The order of the rows is not defined.
+     */
+    public static <T> Enumerable<T> gather( final List<Enumerable<T>> inputs ) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new GatherEnumerator<>( inputs );
+            }
+        };
+    }
+
+
+    /**
+     * Parallel variant of {@link org.polypheny.db.runtime.functions.Functions#singleSum(Enumerable)} for the inputs of a
+     * modify collect: every input, usually a modify on one placement, is executed to completion by the blocking executor and their
+     * row counts are summed up. All inputs are executed within the transaction of the statement, a failure of one of them
+     * is rethrown once all of them have finished and rolls back the whole transaction.
+     */
+    public static Enumerable<?> modifyCollect( final List<Enumerable<?>> inputs ) {
+        return new AbstractEnumerable<Integer>() {
+            @Override
+            public Enumerator<Integer> enumerator() {
+                final List<Callable<Integer>> tasks = new ArrayList<>( inputs.size() );
+                for ( Enumerable<?> input : inputs ) {
+                    tasks.add( () -> {
+                        int amount = 0;
+                        for ( Object result : input ) {
+                            amount += ((Number) result).intValue();
+                        }
+                        return amount;
+                    } );
+                }
+                int amount = 0;
+                for ( int result : invokeAll( tasks, getBlockingExecutor() ) ) {
+                    amount += result;
+                }
+                return Linq4j.singletonEnumerator( amount );
+            }
+        };
+    }
+
+
+    /**
+     * Parallel variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#groupBy(Function1, Function0, Function2, Function2, EqualityComparer)}.
+     * Rows with equal keys end up in the same partition, so each partition can be aggregated independently.
+     *
+     * @param comparer the comparer of the keys or {@code null} to use {@link Object#equals(Object)}
+     */
+    public static <T, K, A, R> Enumerable<R> groupBy(
+            final Enumerable<T> input,
+            final Function1<T, K> keySelector,
+            final Function0<A> accumulatorInitializer,
+            final Function2<A, T, A> accumulatorAdder,
+            final Function2<K, A, R> resultSelector,
+            final EqualityComparer<K> comparer,
+            final int partitions ) {
+        return new AbstractEnumerable<R>() {
+            @Override
+            public Enumerator<R> enumerator() {
+                final List<List<T>> parts = partition( input, keySelector, comparer, partitions );
+                final List<Callable<List<R>>> tasks = new ArrayList<>();
+                for ( List<T> part : parts ) {
+                    tasks.add( () -> {
+                        final Enumerable<T> rows = Linq4j.asEnumerable( part );
+                        return comparer == null
+                                ? rows.groupBy( keySelector, accumulatorInitializer, accumulatorAdder, resultSelector ).toList()
+                                : rows.groupBy( keySelector, accumulatorInitializer, accumulatorAdder, resultSelector, comparer ).toList();
+                    } );
+                }
+                return concat( invokeAll( tasks ) ).enumerator();
+            }
+        };
+    }
+
+
+    /**
+     * Parallel variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#join(Enumerable, Function1, Function1, Function2, EqualityComparer, boolean, boolean)}.
+     * Both inputs are partitioned by their keys, so that matching rows end up in the partitions with the same index. The
+     * hash table of the inner input is built per partition.
+     *
+     * @param comparer the comparer of the keys or {@code null} to use {@link Object#equals(Object)}
+     */
+    public static <L, R, K, T> Enumerable<T> join(
+            final Enumerable<L> outer,
+            final Enumerable<R> inner,
+            final Function1<L, K> outerKeySelector,
+            final Function1<R, K> innerKeySelector,
+            final Function2<L, R, T> resultSelector,
+            final EqualityComparer<K> comparer,
+            final boolean generateNullsOnLeft,
+            final boolean generateNullsOnRight,
+            final int partitions ) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                final List<List<L>> outerParts = partition( outer, outerKeySelector, comparer, partitions );
+                final List<List<R>> innerParts = partition( inner, innerKeySelector, comparer, partitions );
+                final List<Callable<List<T>>> tasks = new ArrayList<>();
+                for ( int i = 0; i < partitions; i++ ) {
+                    final List<L> outerPart = outerParts.get( i );
+                    final List<R> innerPart = innerParts.get( i );
+                    if ( outerPart.isEmpty() && (innerPart.isEmpty() || !generateNullsOnLeft) ) {
+                        continue;
+                    }
+                    tasks.add( () -> Linq4j.asEnumerable( outerPart )
+                            .join(
+                                    Linq4j.asEnumerable( innerPart ),
+                                    outerKeySelector,
+                                    innerKeySelector,
+                                    resultSelector,
+                                    comparer,
+                                    generateNullsOnLeft,
+                                    generateNullsOnRight )
+                            .toList() );
+                }
+                return concat( invokeAll( tasks ) ).enumerator();
+            }
+        };
+    }
+
+
+    /**
+     * Parallel variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#orderBy(Function1, Comparator)}. The input
+     * is split into contiguous chunks, which are sorted in parallel and then merged. Like the sequential variant, the
+     * sort is stable.
+     *
+     * @param comparator the comparator of the keys or {@code null} to use their natural order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K> Enumerable<T> orderBy(
+            final Enumerable<T> input,
+            final Function1<T, K> keySelector,
+            final Comparator<K> comparator,
+            final int partitions ) {
+        final Comparator<K> keyComparator = comparator != null ? comparator : (Comparator<K>) Comparator.naturalOrder();
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                final List<T> rows = input.toList();
+                final int chunkSize = Math.max( 1, (rows.size() + partitions - 1) / partitions );
+                final List<Callable<List<Keyed<K, T>>>> tasks = new ArrayList<>();
+                for ( int start = 0; start < rows.size(); start += chunkSize ) {
+                    final List<T> chunk = rows.subList( start, Math.min( rows.size(), start + chunkSize ) );
+                    tasks.add( () -> {
+                        final List<Keyed<K, T>> keyed = new ArrayList<>( chunk.size() );
+                        for ( T row : chunk ) {
+                            keyed.add( new Keyed<>( keySelector.apply( row ), row ) );
+                        }
+                        // List.sort is stable
+                        keyed.sort( ( a, b ) -> keyComparator.compare( a.key, b.key ) );
+                        return keyed;
+                    } );
+                }
+                return Linq4j.enumerator( merge( invokeAll( tasks ), keyComparator ) );
+            }
+        };
+    }
+
+
+    /**
+     * Merges sorted chunks. Rows with equal keys are returned in the order of their chunks.
+     */
+    private static <K, T> List<T> merge( List<List<Keyed<K, T>>> chunks, Comparator<K> comparator ) {
+        final PriorityQueue<int[]> heads = new PriorityQueue<>( Math.max( 1, chunks.size() ), ( a, b ) -> {
+            final int c = comparator.compare( chunks.get( a[0] ).get( a[1] ).key, chunks.get( b[0] ).get( b[1] ).key );
+            return c != 0 ? c : Integer.compare( a[0], b[0] );
+        } );
+        int size = 0;
+        for ( int i = 0; i < chunks.size(); i++ ) {
+            size += chunks.get( i ).size();
+            if ( !chunks.get( i ).isEmpty() ) {
+                heads.add( new int[]{ i, 0 } );
+            }
+        }
+        final List<T> result = new ArrayList<>( size );
+        while ( !heads.isEmpty() ) {
+            final int[] head = heads.poll();
+            final List<Keyed<K, T>> chunk = chunks.get( head[0] );
+            result.add( chunk.get( head[1] ).row );
+            if ( ++head[1] < chunk.size() ) {
+                heads.add( head );
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Distributes the rows of an input over the given number of partitions by the hash of their keys.
+     */
+    static <T, K> List<List<T>> partition( Enumerable<T> input, Function1<T, K> keySelector, EqualityComparer<K> comparer, int partitions ) {
+        final List<List<T>> parts = new ArrayList<>( partitions );
+        for ( int i = 0; i < partitions; i++ ) {
+            parts.add( new ArrayList<>() );
+        }
+        try ( Enumerator<T> enumerator = input.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                final T row = enumerator.current();
+                final K key = keySelector.apply( row );
+                int hash = comparer == null ? Objects.hashCode( key ) : (key == null ? 0 : comparer.hashCode( key ));
+                hash ^= hash >>> 16;
+                parts.get( Math.floorMod( hash, partitions ) ).add( row );
+            }
+        }
+        return parts;
+    }
+
+
+    /**
+     * Executes tasks on the shared pool and returns their results in the order of the tasks.
+     */
+    static <R> List<R> invokeAll( List<? extends Callable<R>> tasks ) {
+        return invokeAll( tasks, getPool() );
+    }
+
+
+    /**
+     * Executes tasks on the given executor and returns their results in the order of the tasks. A single task is
+     * executed by the calling thread.
+     */
+    static <R> List<R> invokeAll( List<? extends Callable<R>> tasks, ExecutorService executor ) {
+        final List<R> results = new ArrayList<>( tasks.size() );
+        if ( tasks.size() == 1 ) {
+            try {
+                results.add( tasks.get( 0 ).call() );
+            } catch ( RuntimeException e ) {
+                throw e;
+            } catch ( Exception e ) {
+                throw new RuntimeException( e );
+            }
+            return results;
+        }
+        final List<Future<R>> futures;
+        try {
+            futures = executor.invokeAll( tasks );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        }
+        for ( Future<R> future : futures ) {
+            try {
+                results.add( future.get() );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( e );
+            } catch ( ExecutionException e ) {
+                if ( e.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException( e.getCause() );
+            }
+        }
+        return results;
+    }
+
+
+    private static <T> Enumerable<T> concat( List<List<T>> lists ) {
+        final List<T> result = new ArrayList<>( lists.stream().mapToInt( List::size ).sum() );
+        lists.forEach( result::addAll );
+        return Linq4j.asEnumerable( result );
+    }
+
+
+    /**
+     * A row together with its sort key.
+     */
+    private static class Keyed<K, T> {
+
+        final K key;
+        final T row;
+
+
+        Keyed( K key, T row ) {
+            this.key = key;
+            this.row = row;
+        }
+
+    }
+
+
+    /**
+     * Enumerates the inputs on the threads of the blocking executor and hands their rows over through a bounded queue.
+     */
+    private static class GatherEnumerator<T> implements Enumerator<T> {
+
+        private final List<Enumerable<T>> inputs;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>( GATHER_QUEUE_SIZE );
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean closed;
+        private boolean started;
+        private int running;
+        private T current;
+
+
+        GatherEnumerator( List<Enumerable<T>> inputs ) {
+            this.inputs = inputs;
+        }
+
+
+        private void start() {
+            started = true;
+            running = inputs.size();
+            for ( Enumerable<T> input : inputs ) {
+                getBlockingExecutor().execute( () -> {
+                    try ( Enumerator<T> enumerator = input.enumerator() ) {
+                        while ( !closed && enumerator.moveNext() ) {
+                            final T row = enumerator.current();
+                            put( row == null ? NULL : row );
+                        }
+                    } catch ( Throwable t ) {
+                        failure.compareAndSet( null, t );
+                    } finally {
+                        try {
+                            put( END );
+                        } catch ( InterruptedException e ) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                } );
+            }
+        }
+
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean moveNext() {
+            if ( !started ) {
+                start();
+            }
+            try {
+                while ( running > 0 ) {
+                    final Object item = take();
+                    if ( item == END ) {
+                        running--;
+                        checkFailure();
+                    } else {
+                        current = item == NULL ? null : (T) item;
+                        return true;
+                    }
+                }
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( e );
+            }
+            checkFailure();
+            return false;
+        }
+
+
+        private void checkFailure() {
+            final Throwable t = failure.get();
+            if ( t != null ) {
+                close();
+                if ( t instanceof RuntimeException ) {
+                    throw (RuntimeException) t;
+                }
+                throw new RuntimeException( t );
+            }
+        }
+
+
+        /**
+         * Adds an item to the queue. If the consumer has been closed, the item is dropped.
+         */
+        private void put( Object item ) throws InterruptedException {
+            ForkJoinPool.managedBlock( new ManagedBlocker() {
+                boolean done;
+
+
+                @Override
+                public boolean block() throws InterruptedException {
+                    while ( !done ) {
+                        done = closed || queue.offer( item, 10, TimeUnit.MILLISECONDS );
+                    }
+                    return true;
+                }
+
+
+                @Override
+                public boolean isReleasable() {
+                    return done || (done = closed || queue.offer( item ));
+                }
+            } );
+        }
+
+
+        private Object take() throws InterruptedException {
+            final Object[] item = new Object[1];
+            ForkJoinPool.managedBlock( new ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    if ( item[0] == null ) {
+                        item[0] = queue.take();
+                    }
+                    return true;
+                }
+
+
+                @Override
+                public boolean isReleasable() {
+                    return item[0] != null || (item[0] = queue.poll()) != null;
+                }
+            } );
+            return item[0];
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void close() {
+            if ( !closed ) {
+                closed = true;
+                queue.clear();
+            }
+        }
+
+    }
+
+}
@@ -279,8 +279,16 @@ public static String meta( final Object mm, final String dirName, final String t
     }
 
 
+    /**
+     * Executes a statement once for every parameter set of the context.
+     *
+     * @param context the context holding the parameter sets
+     * @param baz the statement
+     * @param bulk whether all stores of the statement consume all parameter sets in one execution
+     * (see {@link org.polypheny.db.algebra.core.common.BulkModify}), in which case it is only executed once
+     */
     @SuppressWarnings("unused")
-    public static Enumerable<?> batch( final DataContext context, final Enumerable<Object> baz ) {
+    public static Enumerable<?> batch( final DataContext context, final Enumerable<Object> baz, final boolean bulk ) {
         List<Object> results = new ArrayList<>();
 
         List<Map<Long, Object>> values = new ArrayList<>( context.getParameterValues() );
@@ -289,6 +297,14 @@ public static Enumerable<?> batch( final DataContext context, final Enumerable<O
             return baz;
         }
 
+        if ( bulk ) {
+            // The stores receive the whole parameter matrix at once
+            for ( Object result : baz ) {
+                results.add( result );
+            }
+            return Linq4j.asEnumerable( results );
+        }
+
         Set<Long> keys = values.get( 0 ).keySet();
         // due to the fact that the standard collector Collectors.toMap crashes with null values,
         // we use the old school way here
@@ -306,43 +322,82 @@ public static Enumerable<?> batch( final DataContext context, final Enumerable<O
     }
 
 
+    /**
+     * Executes the collector of a {@link org.polypheny.db.algebra.core.common.Streamer} with the rows of the provider as
+     * parameters. The rows are passed in chunks, so that only one chunk has to be held in memory at a time.
+     *
+     * @param context the context which is used to pass the rows as parameters
+     * @param baz the provider
+     * @param executorCall creates the collector
+     * @param polyTypes the types of the columns of the provider
+     * @param chunkSize the maximal number of rows of a chunk, or 0 if all rows are passed at once
+     */
     @SuppressWarnings("unused")
-    public static <T> Enumerable<Object> streamRight( final DataContext context, final Enumerable<Object> baz, final Function0<Enumerable<Object>> executorCall, final List<PolyType> polyTypes ) {
+    public static <T> Enumerable<Object> streamRight( final DataContext context, final Enumerable<Object> baz, final Function0<Enumerable<Object>> executorCall, final List<PolyType> polyTypes, final int chunkSize ) {
         PolyTypeFactoryImpl factory = new PolyTypeFactoryImpl( AlgDataTypeSystem.DEFAULT );
         List<AlgDataType> algDataTypes = polyTypes.stream().map( factory::createPolyType ).collect( Collectors.toList() );
 
         boolean single = polyTypes.size() == 1;
 
-        List<Object[]> values = new ArrayList<>();
-        for ( Object o : baz ) {
-            if ( single ) {
-                values.add( new Object[]{ o } );
-            } else {
-                values.add( (Object[]) o );
+        List<Map<Long, Object>> valuesBackup = context.getParameterValues();
+        Map<Long, AlgDataType> typesBackup = context.getParameterTypes();
+
+        List<Object> results = new ArrayList<>();
+        List<List<Object>> columns = newColumns( polyTypes.size() );
+        int rowCount = 0;
+        boolean executed = false;
+        try ( Enumerator<Object> enumerator = baz.enumerator() ) {
+            boolean hasNext = enumerator.moveNext();
+            while ( hasNext ) {
+                Object o = enumerator.current();
+                if ( single ) {
+                    columns.get( 0 ).add( o );
+                } else {
+                    int i = 0;
+                    for ( Object o1 : (Object[]) o ) {
+                        columns.get( i ).add( o1 );
+                        i++;
+                    }
+                }
+                rowCount++;
+                hasNext = enumerator.moveNext();
+                if ( rowCount == chunkSize || !hasNext ) {
+                    // the provider might depend on the parameters of the context, which are therefore only replaced while the chunk is written
+                    try {
+                        mergeResults( results, executeChunk( context, executorCall, algDataTypes, columns, rowCount ) );
+                    } finally {
+                        context.setParameterTypes( typesBackup );
+                        context.setParameterValues( valuesBackup );
+                    }
+                    executed = true;
+                    columns = newColumns( polyTypes.size() );
+                    rowCount = 0;
+                }
             }
         }
-        if ( values.isEmpty() ) {
+
+        if ( !executed ) {
             // there are no updates to make, we don't execute the right executor
             return Linq4j.asEnumerable( List.of( 0 ) );
         }
+        return Linq4j.asEnumerable( results );
+    }
 
-        List<Map<Long, Object>> valuesBackup = context.getParameterValues();
-        Map<Long, AlgDataType> typesBackup = context.getParameterTypes();
 
-        context.resetParameterValues();
-        Map<Integer, List<Object>> vals = new HashMap<>();
-        for ( int i = 0; i < values.get( 0 ).length; i++ ) {
-            vals.put( i, new ArrayList<>() );
-        }
-        for ( Object[] value : values ) {
-            int i = 0;
-            for ( Object o1 : value ) {
-                vals.get( i ).add( o1 );
-                i++;
-            }
+    private static List<List<Object>> newColumns( int columnCount ) {
+        List<List<Object>> columns = new ArrayList<>( columnCount );
+        for ( int i = 0; i < columnCount; i++ ) {
+            columns.add( new ArrayList<>() );
         }
-        for ( int i = 0; i < values.get( 0 ).length; i++ ) {
-            context.addParameterValues( i, algDataTypes.get( i ), vals.get( i ) );
+        return columns;
+    }
+
+
+    private static List<Object> executeChunk( DataContext context, Function0<Enumerable<Object>> executorCall, List<AlgDataType> algDataTypes, List<List<Object>> columns, int rowCount ) {
+        final long start = System.nanoTime();
+        context.resetParameterValues();
+        for ( int i = 0; i < columns.size(); i++ ) {
+            context.addParameterValues( i, algDataTypes.get( i ), columns.get( i ) );
         }
 
         List<Object> results = new ArrayList<>();
@@ -350,13 +405,43 @@ public static <T> Enumerable<Object> streamRight( final DataContext context, fin
         for ( Object o : executor ) {
             results.add( o );
         }
-
         context.resetParameterValues();
 
-        context.setParameterTypes( typesBackup );
-        context.setParameterValues( valuesBackup );
+        if ( context.getStatement() != null && context.getStatement().getMonitoringEvent() != null ) {
+            context.getStatement().getMonitoringEvent().addChunk( rowCount, System.nanoTime() - start );
+        }
+        return results;
+    }
 
-        return Linq4j.asEnumerable( results );
+
+    /**
+     * Adds the results of a chunk to the results of the previous chunks. If both consist of a single number of changed
+     * rows, the numbers are added up.
+     */
+    private static void mergeResults( List<Object> results, List<Object> chunkResults ) {
+        if ( results.size() == 1 && chunkResults.size() == 1 ) {
+            Object previous = results.get( 0 );
+            Object current = chunkResults.get( 0 );
+            if ( previous instanceof Number && current instanceof Number ) {
+                results.set( 0, addCounts( (Number) previous, (Number) current ) );
+                return;
+            }
+            if ( previous instanceof Object[] && current instanceof Object[]
+                    && ((Object[]) previous).length == 1 && ((Object[]) current).length == 1
+                    && ((Object[]) previous)[0] instanceof Number && ((Object[]) current)[0] instanceof Number ) {
+                results.set( 0, new Object[]{ addCounts( (Number) ((Object[]) previous)[0], (Number) ((Object[]) current)[0] ) } );
+                return;
+            }
+        }
+        results.addAll( chunkResults );
+    }
+
+
+    private static Number addCounts( Number a, Number b ) {
+        if ( a instanceof Integer && b instanceof Integer ) {
+            return a.intValue() + b.intValue();
+        }
+        return a.longValue() + b.longValue();
     }
 
 
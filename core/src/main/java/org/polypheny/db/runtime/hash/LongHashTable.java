@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.hash;
+
+
+import java.util.Arrays;
+
+
+/**
+ * An open-addressing hash table which maps keys consisting of one or two {@code long} values to non-negative ids.
+ * Keys are stored in primitive arrays, so neither lookups nor insertions allocate objects.
+ */
+public class LongHashTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int arity;
+    private long[] keys;
+    private int[] ids;
+    private int size;
+
+
+    /**
+     * @param arity the number of values of a key, either one or two
+     */
+    public LongHashTable( int arity ) {
+        if ( arity < 1 || arity > 2 ) {
+            throw new IllegalArgumentException( "Keys of a LongHashTable consist of one or two values." );
+        }
+        this.arity = arity;
+        this.keys = new long[INITIAL_CAPACITY * arity];
+        this.ids = new int[INITIAL_CAPACITY];
+        Arrays.fill( ids, -1 );
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Returns the id of a key consisting of one value or {@code -1} if the key is not contained.
+     */
+    public int get( long key ) {
+        return get( key, 0 );
+    }
+
+
+    /**
+     * Returns the id of a key or {@code -1} if the key is not contained. The second value is ignored for keys
+     * consisting of one value.
+     */
+    public int get( long key0, long key1 ) {
+        final int mask = ids.length - 1;
+        for ( int slot = hash( key0, key1 ) & mask; ; slot = (slot + 1) & mask ) {
+            if ( ids[slot] < 0 ) {
+                return -1;
+            }
+            if ( matches( slot, key0, key1 ) ) {
+                return ids[slot];
+            }
+        }
+    }
+
+
+    public void put( long key, int id ) {
+        put( key, 0, id );
+    }
+
+
+    /**
+     * Adds a key which is not contained in the table.
+     */
+    public void put( long key0, long key1, int id ) {
+        if ( 2 * (size + 1) > ids.length ) {
+            rehash();
+        }
+        insert( key0, key1, id );
+        size++;
+    }
+
+
+    private boolean matches( int slot, long key0, long key1 ) {
+        if ( arity == 1 ) {
+            return keys[slot] == key0;
+        }
+        return keys[2 * slot] == key0 && keys[2 * slot + 1] == key1;
+    }
+
+
+    private void insert( long key0, long key1, int id ) {
+        final int mask = ids.length - 1;
+        int slot = hash( key0, key1 ) & mask;
+        while ( ids[slot] >= 0 ) {
+            slot = (slot + 1) & mask;
+        }
+        if ( arity == 1 ) {
+            keys[slot] = key0;
+        } else {
+            keys[2 * slot] = key0;
+            keys[2 * slot + 1] = key1;
+        }
+        ids[slot] = id;
+    }
+
+
+    private void rehash() {
+        final long[] oldKeys = keys;
+        final int[] oldIds = ids;
+        keys = new long[oldKeys.length * 2];
+        ids = new int[oldIds.length * 2];
+        Arrays.fill( ids, -1 );
+        for ( int slot = 0; slot < oldIds.length; slot++ ) {
+            if ( oldIds[slot] >= 0 ) {
+                if ( arity == 1 ) {
+                    insert( oldKeys[slot], 0, oldIds[slot] );
+                } else {
+                    insert( oldKeys[2 * slot], oldKeys[2 * slot + 1], oldIds[slot] );
+                }
+            }
+        }
+    }
+
+
+    private int hash( long key0, long key1 ) {
+        long h = key0 * 0x9E3779B97F4A7C15L;
+        if ( arity == 2 ) {
+            h = (h ^ (h >>> 29) ^ key1) * 0xBF58476D1CE4E5B9L;
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.hash;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function2;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.runtime.vector.ColumnType;
+
+
+/**
+ * Hash joins and hash aggregations on one or two integral keys, which use a {@link LongHashTable} instead of hash
+ * maps keyed by boxed values or lists. The keys are read directly from the fields of the rows, which are either arrays
+ * or, for rows with a single field, the value itself.
+ *
+ * Like in SQL, keys containing {@code null} never match. Groups with {@code null} keys are aggregated separately.
+ */
+public final class PrimitiveHashEnumerables {
+
+    private PrimitiveHashEnumerables() {
+    }
+
+
+    /**
+     * Equi-join of two inputs on integral keys. The hash table is built from the inner input.
+     *
+     * @param outerKeys the fields of the key of the outer rows
+     * @param innerKeys the fields of the key of the inner rows
+     */
+    public static <L, R, T> Enumerable<T> join(
+            final Enumerable<L> outer,
+            final Enumerable<R> inner,
+            final int[] outerKeys,
+            final int[] innerKeys,
+            final Function2<L, R, T> resultSelector,
+            final boolean generateNullsOnLeft,
+            final boolean generateNullsOnRight ) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new JoinEnumerator<>( outer, inner, outerKeys, innerKeys, resultSelector, generateNullsOnLeft, generateNullsOnRight );
+            }
+        };
+    }
+
+
+    /**
+     * Groups the input by integral keys and computes {@code COUNT}, {@code SUM}, {@code $SUM0}, {@code MIN} and
+     * {@code MAX} using primitive accumulators. The result rows consist of the keys followed by the aggregated values.
+     *
+     * @param groupKeys the fields of the key
+     * @param functions the aggregate functions
+     * @param arguments the field aggregated by each function or {@code -1} for {@code COUNT(*)}
+     * @param outputTypes the result type of each function, which must not be {@link ColumnType#OBJECT}
+     */
+    public static Enumerable<Object[]> groupBy(
+            final Enumerable<?> input,
+            final int[] groupKeys,
+            final Kind[] functions,
+            final int[] arguments,
+            final ColumnType[] outputTypes ) {
+        return new AbstractEnumerable<Object[]>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return Linq4j.enumerator( aggregate( input, groupKeys, functions, arguments, outputTypes ) );
+            }
+        };
+    }
+
+
+    private static List<Object[]> aggregate( Enumerable<?> input, int[] groupKeys, Kind[] functions, int[] arguments, ColumnType[] outputTypes ) {
+        final LongHashTable table = new LongHashTable( groupKeys.length );
+        final Map<List<Object>, Integer> nullGroups = new HashMap<>();
+        final Accumulator[] accumulators = new Accumulator[functions.length];
+        for ( int j = 0; j < functions.length; j++ ) {
+            accumulators[j] = new Accumulator( functions[j], outputTypes[j] );
+        }
+        final List<Object[]> groups = new ArrayList<>();
+        try ( Enumerator<?> enumerator = input.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                final Object row = enumerator.current();
+                int group;
+                if ( hasNullKey( row, groupKeys ) ) {
+                    final List<Object> key = new ArrayList<>( groupKeys.length );
+                    for ( int groupKey : groupKeys ) {
+                        key.add( field( row, groupKey ) );
+                    }
+                    group = nullGroups.getOrDefault( key, -1 );
+                    if ( group < 0 ) {
+                        group = addGroup( groups, row, groupKeys, accumulators );
+                        nullGroups.put( key, group );
+                    }
+                } else {
+                    final long key0 = longField( row, groupKeys[0] );
+                    final long key1 = groupKeys.length > 1 ? longField( row, groupKeys[1] ) : 0;
+                    group = table.get( key0, key1 );
+                    if ( group < 0 ) {
+                        group = addGroup( groups, row, groupKeys, accumulators );
+                        table.put( key0, key1, group );
+                    }
+                }
+                for ( int j = 0; j < accumulators.length; j++ ) {
+                    accumulators[j].add( group, arguments[j] < 0 ? Boolean.TRUE : field( row, arguments[j] ) );
+                }
+            }
+        }
+        for ( int group = 0; group < groups.size(); group++ ) {
+            final Object[] result = groups.get( group );
+            for ( int j = 0; j < accumulators.length; j++ ) {
+                result[groupKeys.length + j] = accumulators[j].result( group );
+            }
+        }
+        return groups;
+    }
+
+
+    private static int addGroup( List<Object[]> groups, Object row, int[] groupKeys, Accumulator[] accumulators ) {
+        final Object[] result = new Object[groupKeys.length + accumulators.length];
+        for ( int c = 0; c < groupKeys.length; c++ ) {
+            result[c] = field( row, groupKeys[c] );
+        }
+        groups.add( result );
+        for ( Accumulator accumulator : accumulators ) {
+            accumulator.ensureCapacity( groups.size() );
+        }
+        return groups.size() - 1;
+    }
+
+
+    private static Object field( Object row, int field ) {
+        return row instanceof Object[] ? ((Object[]) row)[field] : row;
+    }
+
+
+    private static long longField( Object row, int field ) {
+        return ColumnType.unboxLong( field( row, field ) );
+    }
+
+
+    private static boolean hasNullKey( Object row, int[] keys ) {
+        for ( int key : keys ) {
+            if ( field( row, key ) == null ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * The states of an aggregate function for all groups. Sums, minima and maxima are stored as {@code long} or
+     * {@code double} depending on the result type. Counting the values of each group also tells whether the result
+     * of a group is {@code null}.
+     */
+    private static class Accumulator {
+
+        private final Kind kind;
+        private final ColumnType type;
+        private final boolean floating;
+        private long[] counts = new long[16];
+        private long[] longs;
+        private double[] doubles;
+
+
+        Accumulator( Kind kind, ColumnType type ) {
+            this.kind = kind;
+            this.type = type;
+            this.floating = type.storage == ColumnType.Storage.DOUBLE;
+            if ( kind != Kind.COUNT ) {
+                if ( floating ) {
+                    doubles = new double[16];
+                } else {
+                    longs = new long[16];
+                }
+            }
+        }
+
+
+        void ensureCapacity( int groups ) {
+            if ( groups > counts.length ) {
+                final int capacity = Math.max( groups, 2 * counts.length );
+                counts = Arrays.copyOf( counts, capacity );
+                if ( longs != null ) {
+                    longs = Arrays.copyOf( longs, capacity );
+                }
+                if ( doubles != null ) {
+                    doubles = Arrays.copyOf( doubles, capacity );
+                }
+            }
+        }
+
+
+        void add( int group, Object value ) {
+            if ( value == null ) {
+                return;
+            }
+            final long count = counts[group]++;
+            if ( kind == Kind.COUNT ) {
+                return;
+            }
+            if ( floating ) {
+                final double v = ((Number) value).doubleValue();
+                if ( count == 0 ) {
+                    doubles[group] = v;
+                } else if ( kind == Kind.SUM || kind == Kind.SUM0 ) {
+                    doubles[group] += v;
+                } else if ( kind == Kind.MIN ? v < doubles[group] : v > doubles[group] ) {
+                    doubles[group] = v;
+                }
+            } else {
+                final long v = ((Number) value).longValue();
+                if ( count == 0 ) {
+                    longs[group] = v;
+                } else if ( kind == Kind.SUM || kind == Kind.SUM0 ) {
+                    longs[group] += v;
+                } else if ( kind == Kind.MIN ? v < longs[group] : v > longs[group] ) {
+                    longs[group] = v;
+                }
+            }
+        }
+
+
+        Object result( int group ) {
+            if ( kind == Kind.COUNT ) {
+                return type.box( counts[group] );
+            }
+            if ( counts[group] == 0 ) {
+                return kind == Kind.SUM0 ? (floating ? type.box( 0.0 ) : type.box( 0L )) : null;
+            }
+            return floating ? type.box( type.narrow( doubles[group] ) ) : type.box( type.narrow( longs[group] ) );
+        }
+
+    }
+
+
+    /**
+     * Builds a hash table from the inner input and probes it with the rows of the outer input. The inner rows with the
+     * same key are chained by their index, so that they are returned in the order of the inner input.
+     */
+    private static class JoinEnumerator<L, R, T> implements Enumerator<T> {
+
+        private final Enumerable<L> outer;
+        private final Enumerable<R> inner;
+        private final int[] outerKeys;
+        private final int[] innerKeys;
+        private final Function2<L, R, T> resultSelector;
+        private final boolean generateNullsOnLeft;
+        private final boolean generateNullsOnRight;
+
+        private LongHashTable table;
+        private final List<R> innerRows = new ArrayList<>();
+        private int[] first = new int[16];
+        private int[] last = new int[16];
+        private int[] next = new int[16];
+        private boolean[] matched;
+        private final List<R> nullKeyRows = new ArrayList<>();
+
+        private Enumerator<L> outerEnumerator;
+        private L outerRow;
+        private int match = -1;
+        private int unmatched = -1;
+        private T current;
+
+
+        JoinEnumerator(
+                Enumerable<L> outer,
+                Enumerable<R> inner,
+                int[] outerKeys,
+                int[] innerKeys,
+                Function2<L, R, T> resultSelector,
+                boolean generateNullsOnLeft,
+                boolean generateNullsOnRight ) {
+            this.outer = outer;
+            this.inner = inner;
+            this.outerKeys = outerKeys;
+            this.innerKeys = innerKeys;
+            this.resultSelector = resultSelector;
+            this.generateNullsOnLeft = generateNullsOnLeft;
+            this.generateNullsOnRight = generateNullsOnRight;
+        }
+
+
+        private void build() {
+            table = new LongHashTable( innerKeys.length );
+            try ( Enumerator<R> enumerator = inner.enumerator() ) {
+                while ( enumerator.moveNext() ) {
+                    final R row = enumerator.current();
+                    if ( hasNullKey( row, innerKeys ) ) {
+                        if ( generateNullsOnLeft ) {
+                            nullKeyRows.add( row );
+                        }
+                        continue;
+                    }
+                    final int index = innerRows.size();
+                    innerRows.add( row );
+                    if ( index >= next.length ) {
+                        next = Arrays.copyOf( next, 2 * next.length );
+                    }
+                    next[index] = -1;
+                    final long key0 = longField( row, innerKeys[0] );
+                    final long key1 = innerKeys.length > 1 ? longField( row, innerKeys[1] ) : 0;
+                    final int id = table.get( key0, key1 );
+                    if ( id < 0 ) {
+                        final int newId = table.size();
+                        if ( newId >= first.length ) {
+                            first = Arrays.copyOf( first, 2 * first.length );
+                            last = Arrays.copyOf( last, 2 * last.length );
+                        }
+                        first[newId] = index;
+                        last[newId] = index;
+                        table.put( key0, key1, newId );
+                    } else {
+                        next[last[id]] = index;
+                        last[id] = index;
+                    }
+                }
+            }
+            if ( generateNullsOnLeft ) {
+                matched = new boolean[table.size()];
+            }
+            outerEnumerator = outer.enumerator();
+        }
+
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            if ( table == null ) {
+                build();
+            }
+            while ( true ) {
+                if ( match >= 0 ) {
+                    current = resultSelector.apply( outerRow, innerRows.get( match ) );
+                    match = next[match];
+                    return true;
+                }
+                if ( outerEnumerator != null ) {
+                    if ( outerEnumerator.moveNext() ) {
+                        outerRow = outerEnumerator.current();
+                        final int id = probe( outerRow );
+                        if ( id >= 0 ) {
+                            if ( matched != null ) {
+                                matched[id] = true;
+                            }
+                            match = first[id];
+                        } else if ( generateNullsOnRight ) {
+                            current = resultSelector.apply( outerRow, null );
+                            return true;
+                        }
+                        continue;
+                    }
+                    outerEnumerator.close();
+                    outerEnumerator = null;
+                }
+                // The outer input is exhausted, return the inner rows without a match
+                if ( !generateNullsOnLeft ) {
+                    return false;
+                }
+                while ( ++unmatched < innerRows.size() + nullKeyRows.size() ) {
+                    if ( unmatched >= innerRows.size() ) {
+                        current = resultSelector.apply( null, nullKeyRows.get( unmatched - innerRows.size() ) );
+                        return true;
+                    }
+                    final R row = innerRows.get( unmatched );
+                    final long key0 = longField( row, innerKeys[0] );
+                    final long key1 = innerKeys.length > 1 ? longField( row, innerKeys[1] ) : 0;
+                    if ( !matched[table.get( key0, key1 )] ) {
+                        current = resultSelector.apply( null, row );
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+
+
+        private int probe( L row ) {
+            if ( hasNullKey( row, outerKeys ) ) {
+                return -1;
+            }
+            final long key0 = longField( row, outerKeys[0] );
+            final long key1 = outerKeys.length > 1 ? longField( row, outerKeys[1] ) : 0;
+            return table.get( key0, key1 );
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void close() {
+            if ( outerEnumerator != null ) {
+                outerEnumerator.close();
+                outerEnumerator = null;
+            }
+        }
+
+    }
+
+}
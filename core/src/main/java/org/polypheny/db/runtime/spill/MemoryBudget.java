@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.util.PolyphenyHomeDirManager;
+
+
+/**
+ * The memory budget of a statement, which is shared by all memory-intensive operators of the statement. Operators
+ * reserve memory for the rows they hold through a {@link MemoryTracker}. Operators which can spill write their rows to
+ * disk if a reservation fails, the others fail with a {@link MemoryBudgetExceededException}.
+ */
+public class MemoryBudget {
+
+    private static File defaultSpillFolder;
+
+    /**
+     * The number of bytes which can be reserved or a value smaller than one if the budget is unlimited.
+     */
+    @Getter
+    private final long limit;
+    private final AtomicLong reserved = new AtomicLong();
+    private final Statement statement;
+    private final File spillFolder;
+
+    private InformationTable informationTable;
+
+
+    public MemoryBudget( Statement statement ) {
+        this( statement, RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger() * 1024L * 1024L, null );
+    }
+
+
+    MemoryBudget( long limit, File spillFolder ) {
+        this( null, limit, spillFolder );
+    }
+
+
+    private MemoryBudget( Statement statement, long limit, File spillFolder ) {
+        this.statement = statement;
+        this.limit = limit;
+        this.spillFolder = spillFolder;
+    }
+
+
+    /**
+     * Returns the budget of the statement of the given context or a new budget if the context has no statement.
+     */
+    public static MemoryBudget of( DataContext root ) {
+        if ( root != null && root.getStatement() != null ) {
+            return root.getStatement().getMemoryBudget();
+        }
+        return new MemoryBudget( null );
+    }
+
+
+    /**
+     * Returns the folder in which the operators of the statement store their spill files.
+     */
+    File getSpillFolder() {
+        if ( spillFolder != null ) {
+            return spillFolder;
+        }
+        synchronized ( MemoryBudget.class ) {
+            if ( defaultSpillFolder == null ) {
+                defaultSpillFolder = PolyphenyHomeDirManager.getInstance().registerNewFolder( "tmp/spill" );
+            }
+            return defaultSpillFolder;
+        }
+    }
+
+
+    public MemoryTracker createTracker( String operator ) {
+        return new MemoryTracker( this, operator );
+    }
+
+
+    public long getReserved() {
+        return reserved.get();
+    }
+
+
+    boolean tryReserve( long bytes ) {
+        if ( limit < 1 ) {
+            reserved.addAndGet( bytes );
+            return true;
+        }
+        long current;
+        do {
+            current = reserved.get();
+            if ( current + bytes > limit ) {
+                return false;
+            }
+        } while ( !reserved.compareAndSet( current, current + bytes ) );
+        return true;
+    }
+
+
+    void forceReserve( long bytes ) {
+        reserved.addAndGet( bytes );
+    }
+
+
+    void release( long bytes ) {
+        reserved.addAndGet( -bytes );
+    }
+
+
+    /**
+     * Adds the memory statistics of an operator to the query analyzer of the statement.
+     */
+    synchronized void report( MemoryTracker tracker ) {
+        if ( statement == null || !statement.getTransaction().isAnalyze() ) {
+            return;
+        }
+        if ( informationTable == null ) {
+            InformationManager queryAnalyzer = statement.getTransaction().getQueryAnalyzer();
+            InformationPage page = new InformationPage( "Memory", "Memory usage of the operators" );
+            InformationGroup group = new InformationGroup( page, "Operators" );
+            queryAnalyzer.addPage( page );
+            queryAnalyzer.addGroup( group );
+            informationTable = new InformationTable( group, Arrays.asList( "Operator", "Peak Memory", "Spilled", "Spill Files" ) );
+            queryAnalyzer.registerInformation( informationTable );
+        }
+        informationTable.addRow(
+                tracker.getOperator(),
+                formatBytes( tracker.getPeak() ),
+                formatBytes( tracker.getSpilledBytes() ),
+                tracker.getSpillFileCount() );
+    }
+
+
+    private static String formatBytes( long bytes ) {
+        if ( bytes < 1024 ) {
+            return bytes + " B";
+        } else if ( bytes < 1024 * 1024 ) {
+            return String.format( "%.1f KB", bytes / 1024.0 );
+        }
+        return String.format( "%.1f MB", bytes / (1024.0 * 1024.0) );
+    }
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import org.polypheny.db.runtime.PolyphenyDbException;
+
+
+/**
+ * Thrown if an operator which cannot spill to disk exceeds the memory budget of its statement.
+ */
+public class MemoryBudgetExceededException extends PolyphenyDbException {
+
+    public MemoryBudgetExceededException( String operator, long limit ) {
+        super( "The operator " + operator + " exceeded the memory budget of " + limit / (1024 * 1024) + " MB of the statement." );
+    }
+
+}
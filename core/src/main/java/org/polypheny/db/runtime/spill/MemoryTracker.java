@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+
+/**
+ * Accounts for the memory held by one operator and owns the spill files written by it. Closing the tracker releases its
+ * reservations, deletes its spill files and reports its statistics to the query analyzer.
+ */
+public class MemoryTracker implements AutoCloseable {
+
+    private final MemoryBudget budget;
+
+    @Getter
+    private final String operator;
+    private final List<SpillFile> spillFiles = new ArrayList<>();
+
+    private long reserved;
+    @Getter
+    private long peak;
+    @Getter
+    private long spilledBytes;
+    private boolean closed;
+
+
+    MemoryTracker( MemoryBudget budget, String operator ) {
+        this.budget = budget;
+        this.operator = operator;
+    }
+
+
+    /**
+     * Tries to reserve memory for a row.
+     *
+     * @return {@code false} if the budget of the statement is exhausted, the operator should spill
+     */
+    public boolean tryReserve( long bytes ) {
+        if ( !budget.tryReserve( bytes ) ) {
+            return false;
+        }
+        add( bytes );
+        return true;
+    }
+
+
+    /**
+     * Reserves memory for a row, even if the budget is exhausted. This is used to make progress if an operator holds
+     * less than the minimum number of rows it needs.
+     */
+    public void forceReserve( long bytes ) {
+        budget.forceReserve( bytes );
+        add( bytes );
+    }
+
+
+    /**
+     * Reserves memory for a row held by an operator which cannot spill.
+     *
+     * @throws MemoryBudgetExceededException if the budget of the statement is exhausted
+     */
+    public void reserve( long bytes ) {
+        if ( !tryReserve( bytes ) ) {
+            throw new MemoryBudgetExceededException( operator, budget.getLimit() );
+        }
+    }
+
+
+    /**
+     * Releases all memory reserved by this tracker.
+     */
+    public void releaseAll() {
+        budget.release( reserved );
+        reserved = 0;
+    }
+
+
+    /**
+     * Creates a new spill file, which is deleted when this tracker is closed.
+     */
+    public SpillFile createSpillFile() {
+        try {
+            SpillFile file = new SpillFile( this, File.createTempFile( "spill-", ".bin", budget.getSpillFolder() ) );
+            spillFiles.add( file );
+            return file;
+        } catch ( IOException e ) {
+            throw new RuntimeException( "Unable to create spill file", e );
+        }
+    }
+
+
+    public int getSpillFileCount() {
+        return spillFiles.size();
+    }
+
+
+    void spilled( long bytes ) {
+        spilledBytes += bytes;
+    }
+
+
+    private void add( long bytes ) {
+        reserved += bytes;
+        peak = Math.max( peak, reserved );
+    }
+
+
+    @Override
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        releaseAll();
+        spillFiles.forEach( SpillFile::delete );
+        budget.report( this );
+    }
+
+}
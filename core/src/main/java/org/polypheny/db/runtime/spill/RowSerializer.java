@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.apache.calcite.avatica.util.ByteString;
+import org.polypheny.db.runtime.FlatLists;
+import org.polypheny.db.runtime.FlatLists.ComparableList;
+
+
+/**
+ * Writes rows to and reads rows from spill files in a compact binary format. Every value is prefixed by a one byte tag
+ * denoting its type. Values of types without a dedicated tag are written using Java serialization.
+ */
+final class RowSerializer {
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte FLOAT = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte STRING = 10;
+    private static final byte BIG_DECIMAL = 11;
+    private static final byte BYTE_STRING = 12;
+    private static final byte ARRAY = 13;
+    private static final byte LIST = 14;
+    private static final byte COMPARABLE_LIST = 15;
+    private static final byte MAP = 16;
+    private static final byte SERIALIZED = 17;
+
+
+    private RowSerializer() {
+    }
+
+
+    static void write( DataOutput out, Object value ) throws IOException {
+        if ( value == null ) {
+            out.writeByte( NULL );
+        } else if ( value instanceof Boolean ) {
+            out.writeByte( (Boolean) value ? TRUE : FALSE );
+        } else if ( value instanceof Integer ) {
+            out.writeByte( INTEGER );
+            out.writeInt( (Integer) value );
+        } else if ( value instanceof Long ) {
+            out.writeByte( LONG );
+            out.writeLong( (Long) value );
+        } else if ( value instanceof Short ) {
+            out.writeByte( SHORT );
+            out.writeShort( (Short) value );
+        } else if ( value instanceof Byte ) {
+            out.writeByte( BYTE );
+            out.writeByte( (Byte) value );
+        } else if ( value instanceof Double ) {
+            out.writeByte( DOUBLE );
+            out.writeDouble( (Double) value );
+        } else if ( value instanceof Float ) {
+            out.writeByte( FLOAT );
+            out.writeFloat( (Float) value );
+        } else if ( value instanceof Character ) {
+            out.writeByte( CHARACTER );
+            out.writeChar( (Character) value );
+        } else if ( value instanceof String ) {
+            out.writeByte( STRING );
+            writeBytes( out, ((String) value).getBytes( StandardCharsets.UTF_8 ) );
+        } else if ( value instanceof BigDecimal ) {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeByte( BIG_DECIMAL );
+            out.writeInt( decimal.scale() );
+            writeBytes( out, decimal.unscaledValue().toByteArray() );
+        } else if ( value instanceof ByteString ) {
+            out.writeByte( BYTE_STRING );
+            writeBytes( out, ((ByteString) value).getBytes() );
+        } else if ( value instanceof Object[] ) {
+            Object[] array = (Object[]) value;
+            out.writeByte( ARRAY );
+            out.writeInt( array.length );
+            for ( Object o : array ) {
+                write( out, o );
+            }
+        } else if ( value instanceof List ) {
+            List<?> list = (List<?>) value;
+            out.writeByte( value instanceof ComparableList ? COMPARABLE_LIST : LIST );
+            out.writeInt( list.size() );
+            for ( Object o : list ) {
+                write( out, o );
+            }
+        } else if ( value instanceof Map && !(value instanceof Collection) ) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte( MAP );
+            out.writeInt( map.size() );
+            for ( Entry<?, ?> entry : map.entrySet() ) {
+                write( out, entry.getKey() );
+                write( out, entry.getValue() );
+            }
+        } else if ( value instanceof Serializable ) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try ( ObjectOutputStream objectOut = new ObjectOutputStream( bytes ) ) {
+                objectOut.writeObject( value );
+            }
+            out.writeByte( SERIALIZED );
+            writeBytes( out, bytes.toByteArray() );
+        } else {
+            throw new IOException( "Unable to spill value of type " + value.getClass().getName() );
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    static Object read( DataInput in ) throws IOException {
+        byte tag = in.readByte();
+        switch ( tag ) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case CHARACTER:
+                return in.readChar();
+            case STRING:
+                return new String( readBytes( in ), StandardCharsets.UTF_8 );
+            case BIG_DECIMAL:
+                int scale = in.readInt();
+                return new BigDecimal( new BigInteger( readBytes( in ) ), scale );
+            case BYTE_STRING:
+                return new ByteString( readBytes( in ) );
+            case ARRAY:
+                Object[] array = new Object[in.readInt()];
+                for ( int i = 0; i < array.length; i++ ) {
+                    array[i] = read( in );
+                }
+                return array;
+            case LIST:
+            case COMPARABLE_LIST:
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>( size );
+                for ( int i = 0; i < size; i++ ) {
+                    list.add( read( in ) );
+                }
+                return tag == COMPARABLE_LIST ? FlatLists.ofComparable( (List) list ) : list;
+            case MAP:
+                int entries = in.readInt();
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for ( int i = 0; i < entries; i++ ) {
+                    map.put( read( in ), read( in ) );
+                }
+                return map;
+            case SERIALIZED:
+                try ( ObjectInputStream objectIn = new ObjectInputStream( new ByteArrayInputStream( readBytes( in ) ) ) ) {
+                    return objectIn.readObject();
+                } catch ( ClassNotFoundException e ) {
+                    throw new IOException( e );
+                }
+            default:
+                throw new IOException( "Unknown tag " + tag + " in spill file" );
+        }
+    }
+
+
+    private static void writeBytes( DataOutput out, byte[] bytes ) throws IOException {
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+
+    private static byte[] readBytes( DataInput in ) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully( bytes );
+        return bytes;
+    }
+
+}
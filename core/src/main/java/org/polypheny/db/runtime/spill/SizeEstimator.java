@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.apache.calcite.avatica.util.ByteString;
+
+
+/**
+ * Estimates the heap size of rows. The estimates are rough approximations for a 64-bit JVM with compressed references,
+ * they only need to be accurate enough to bound the memory held by an operator.
+ */
+public final class SizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+
+    private SizeEstimator() {
+    }
+
+
+    /**
+     * Returns the estimated number of bytes of a value including the reference to it.
+     */
+    public static long estimate( Object value ) {
+        if ( value == null ) {
+            return REFERENCE;
+        } else if ( value instanceof Object[] ) {
+            Object[] array = (Object[]) value;
+            long size = OBJECT_HEADER + REFERENCE;
+            for ( Object o : array ) {
+                size += estimate( o );
+            }
+            return size;
+        } else if ( value instanceof String ) {
+            // The string object and its byte array
+            return REFERENCE + 2 * OBJECT_HEADER + 8 + ((String) value).length();
+        } else if ( value instanceof Number || value instanceof Boolean || value instanceof Character ) {
+            return value instanceof BigDecimal ? REFERENCE + 2 * OBJECT_HEADER + 32 : REFERENCE + OBJECT_HEADER + 8;
+        } else if ( value instanceof ByteString ) {
+            return REFERENCE + 2 * OBJECT_HEADER + ((ByteString) value).length();
+        } else if ( value instanceof Collection ) {
+            long size = REFERENCE + 2 * OBJECT_HEADER;
+            for ( Object o : (Collection<?>) value ) {
+                size += estimate( o );
+            }
+            return size;
+        } else if ( value instanceof Map ) {
+            long size = REFERENCE + 2 * OBJECT_HEADER;
+            for ( Entry<?, ?> entry : ((Map<?, ?>) value).entrySet() ) {
+                size += OBJECT_HEADER + estimate( entry.getKey() ) + estimate( entry.getValue() );
+            }
+            return size;
+        }
+        return REFERENCE + 4 * OBJECT_HEADER;
+    }
+
+}
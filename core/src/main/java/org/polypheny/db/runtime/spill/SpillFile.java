@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import lombok.Getter;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+
+
+/**
+ * A temporary file containing rows spilled by an operator. The rows are appended using {@link #write(Object)} and
+ * can be read any number of times after {@link #finish()} has been called.
+ */
+public class SpillFile {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MemoryTracker tracker;
+    private final File file;
+
+    private DataOutputStream out;
+    @Getter
+    private long rowCount;
+
+
+    SpillFile( MemoryTracker tracker, File file ) {
+        this.tracker = tracker;
+        this.file = file;
+    }
+
+
+    public void write( Object row ) {
+        try {
+            if ( out == null ) {
+                out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ), BUFFER_SIZE ) );
+            }
+            RowSerializer.write( out, row );
+            rowCount++;
+        } catch ( IOException e ) {
+            throw new RuntimeException( "Unable to write to spill file", e );
+        }
+    }
+
+
+    /**
+     * Flushes and closes the file for writing.
+     */
+    public void finish() {
+        if ( out == null ) {
+            return;
+        }
+        try {
+            out.close();
+            tracker.spilled( out.size() );
+            out = null;
+        } catch ( IOException e ) {
+            throw new RuntimeException( "Unable to write to spill file", e );
+        }
+    }
+
+
+    public <T> Enumerable<T> read() {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                return new SpillFileEnumerator<>();
+            }
+        };
+    }
+
+
+    void delete() {
+        if ( out != null ) {
+            try {
+                out.close();
+            } catch ( IOException e ) {
+                // ignore
+            }
+        }
+        file.delete();
+    }
+
+
+    /**
+     * Reads the rows of the file.
+     */
+    private class SpillFileEnumerator<T> implements Enumerator<T> {
+
+        private DataInputStream in;
+        private long position;
+        private T current;
+
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean moveNext() {
+            if ( position >= rowCount ) {
+                return false;
+            }
+            try {
+                if ( in == null ) {
+                    in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ), BUFFER_SIZE ) );
+                }
+                current = (T) RowSerializer.read( in );
+                position++;
+                return true;
+            } catch ( IOException e ) {
+                throw new RuntimeException( "Unable to read from spill file", e );
+            }
+        }
+
+
+        @Override
+        public void reset() {
+            close();
+            position = 0;
+            current = null;
+        }
+
+
+        @Override
+        public void close() {
+            if ( in != null ) {
+                try {
+                    in.close();
+                } catch ( IOException e ) {
+                    // ignore
+                }
+                in = null;
+            }
+        }
+
+    }
+
+}
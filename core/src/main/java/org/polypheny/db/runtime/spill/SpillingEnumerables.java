@@ -0,0 +1,805 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.EqualityComparer;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.function.Function2;
+
+
+/**
+ * Variants of memory-intensive {@link Enumerable} operations, which account for the rows they hold in a
+ * {@link MemoryBudget} and spill rows to disk if the budget is exhausted:
+ *
+ * <ul>
+ * <li>{@link #orderBy} is an external merge sort: sorted runs are written to disk and merged.</li>
+ * <li>{@link #groupBy} is a hybrid hash aggregation: groups which do not fit into memory are partitioned to disk by
+ * hashing their keys and aggregated one partition at a time.</li>
+ * <li>{@link #join} is a grace hash join: if the inner input does not fit into memory, both inputs are partitioned to
+ * disk by hashing their keys and the partitions are joined pairwise.</li>
+ * <li>{@link #except} and {@link #intersect} partition both inputs like the join.</li>
+ * </ul>
+ *
+ * Partitions which still do not fit into memory are partitioned again using a different hash function, up to a fixed
+ * depth. As long as the budget is not exhausted, the operations behave like their counterparts in linq4j.
+ */
+public final class SpillingEnumerables {
+
+    /**
+     * Number of partitions an input is split into if it does not fit into memory.
+     */
+    private static final int PARTITIONS = 16;
+
+    /**
+     * Maximum number of times a partition is split again. Beyond this depth, the memory budget is ignored.
+     */
+    private static final int MAX_DEPTH = 4;
+
+    /**
+     * Estimated size of the entry holding a row in a hash table or sort buffer.
+     */
+    private static final int ENTRY_OVERHEAD = 32;
+
+
+    private SpillingEnumerables() {
+    }
+
+
+    /**
+     * Memory-bounded variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#orderBy(Function1, Comparator)}.
+     * The sort is stable.
+     *
+     * @param comparator the comparator of the keys or {@code null} to use their natural order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K> Enumerable<T> orderBy(
+            final Enumerable<T> input,
+            final Function1<T, K> keySelector,
+            final Comparator<K> comparator,
+            final MemoryBudget budget ) {
+        final Comparator<K> keyComparator = comparator != null ? comparator : (Comparator<K>) Comparator.naturalOrder();
+        final Comparator<Keyed<K, T>> keyedComparator = ( a, b ) -> keyComparator.compare( a.key, b.key );
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                final MemoryTracker tracker = budget.createTracker( "Sort" );
+                try {
+                    final List<Keyed<K, T>> buffer = new ArrayList<>();
+                    final List<SpillFile> runs = new ArrayList<>();
+                    try ( Enumerator<T> enumerator = input.enumerator() ) {
+                        while ( enumerator.moveNext() ) {
+                            final T row = enumerator.current();
+                            final long size = SizeEstimator.estimate( row ) + ENTRY_OVERHEAD;
+                            if ( !tracker.tryReserve( size ) ) {
+                                if ( !buffer.isEmpty() ) {
+                                    runs.add( writeRun( tracker, buffer, keyedComparator ) );
+                                    tracker.releaseAll();
+                                }
+                                if ( !tracker.tryReserve( size ) ) {
+                                    tracker.forceReserve( size );
+                                }
+                            }
+                            buffer.add( new Keyed<>( keySelector.apply( row ), row ) );
+                        }
+                    }
+                    if ( runs.isEmpty() ) {
+                        // List.sort is stable
+                        buffer.sort( keyedComparator );
+                        return new TrackedEnumerator<>( Linq4j.transform( Linq4j.enumerator( buffer ), keyed -> keyed.row ), tracker );
+                    }
+                    if ( !buffer.isEmpty() ) {
+                        runs.add( writeRun( tracker, buffer, keyedComparator ) );
+                    }
+                    tracker.releaseAll();
+                    return new TrackedEnumerator<>( new MergeEnumerator<>( runs, keySelector, keyComparator ), tracker );
+                } catch ( RuntimeException e ) {
+                    tracker.close();
+                    throw e;
+                }
+            }
+        };
+    }
+
+
+    /**
+     * Memory-bounded variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#groupBy(Function1, Function0, Function2, Function2, EqualityComparer)}.
+     *
+     * @param comparer the comparer of the keys or {@code null} to use {@link Object#equals(Object)}
+     */
+    public static <T, K, A, R> Enumerable<R> groupBy(
+            final Enumerable<T> input,
+            final Function1<T, K> keySelector,
+            final Function0<A> accumulatorInitializer,
+            final Function2<A, T, A> accumulatorAdder,
+            final Function2<K, A, R> resultSelector,
+            final EqualityComparer<K> comparer,
+            final MemoryBudget budget ) {
+        return new AbstractEnumerable<R>() {
+            @Override
+            public Enumerator<R> enumerator() {
+                final MemoryTracker tracker = budget.createTracker( "Aggregate" );
+                return new TrackedEnumerator<>(
+                        new GroupByEnumerator<>( input, keySelector, accumulatorInitializer, accumulatorAdder, resultSelector, comparer, tracker ),
+                        tracker );
+            }
+        };
+    }
+
+
+    /**
+     * Memory-bounded variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#join(Enumerable, Function1, Function1, Function2, EqualityComparer, boolean, boolean)}.
+     * Only the inner input is held in memory.
+     *
+     * @param comparer the comparer of the keys or {@code null} to use {@link Object#equals(Object)}
+     */
+    public static <L, R, K, T> Enumerable<T> join(
+            final Enumerable<L> outer,
+            final Enumerable<R> inner,
+            final Function1<L, K> outerKeySelector,
+            final Function1<R, K> innerKeySelector,
+            final Function2<L, R, T> resultSelector,
+            final EqualityComparer<K> comparer,
+            final boolean generateNullsOnLeft,
+            final boolean generateNullsOnRight,
+            final MemoryBudget budget ) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                final MemoryTracker tracker = budget.createTracker( "Join" );
+                try {
+                    return new TrackedEnumerator<>(
+                            graceJoin( outer, inner, outerKeySelector, innerKeySelector, resultSelector, comparer, generateNullsOnLeft, generateNullsOnRight, tracker, 0 ).enumerator(),
+                            tracker );
+                } catch ( RuntimeException e ) {
+                    tracker.close();
+                    throw e;
+                }
+            }
+        };
+    }
+
+
+    /**
+     * Memory-bounded variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#except(Enumerable, EqualityComparer)}.
+     * Only the distinct rows of the first input are held in memory.
+     *
+     * @param comparer the comparer of the rows or {@code null} to use {@link Object#equals(Object)}
+     */
+    public static <T> Enumerable<T> except( final Enumerable<T> source0, final Enumerable<T> source1, final EqualityComparer<T> comparer, final MemoryBudget budget ) {
+        return setOperation( source0, source1, comparer, true, budget, "Minus" );
+    }
+
+
+    /**
+     * Memory-bounded variant of {@link org.apache.calcite.linq4j.ExtendedEnumerable#intersect(Enumerable, EqualityComparer)}.
+     * Only the distinct rows of the second input are held in memory.
+     *
+     * @param comparer the comparer of the rows or {@code null} to use {@link Object#equals(Object)}
+     */
+    public static <T> Enumerable<T> intersect( final Enumerable<T> source0, final Enumerable<T> source1, final EqualityComparer<T> comparer, final MemoryBudget budget ) {
+        return setOperation( source1, source0, comparer, false, budget, "Intersect" );
+    }
+
+
+    /**
+     * Accounts for the rows of an input, which are retained by an operator that cannot spill. The rows are accounted
+     * for until the input is closed, i.e. while the operator materializes it.
+     *
+     * @throws MemoryBudgetExceededException if the rows exceed the memory budget of the statement
+     */
+    public static <T> Enumerable<T> retain( final Enumerable<T> input, final MemoryBudget budget, final String operator ) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                final MemoryTracker tracker = budget.createTracker( operator );
+                final Enumerator<T> enumerator = input.enumerator();
+                return new TrackedEnumerator<T>( enumerator, tracker ) {
+                    @Override
+                    public boolean moveNext() {
+                        if ( !enumerator.moveNext() ) {
+                            return false;
+                        }
+                        tracker.reserve( SizeEstimator.estimate( enumerator.current() ) + ENTRY_OVERHEAD );
+                        return true;
+                    }
+                };
+            }
+        };
+    }
+
+
+    private static <T, K> SpillFile writeRun( MemoryTracker tracker, List<Keyed<K, T>> buffer, Comparator<Keyed<K, T>> comparator ) {
+        buffer.sort( comparator );
+        final SpillFile run = tracker.createSpillFile();
+        for ( Keyed<K, T> keyed : buffer ) {
+            run.write( keyed.row );
+        }
+        run.finish();
+        buffer.clear();
+        return run;
+    }
+
+
+    private static <L, R, K, T> Enumerable<T> graceJoin(
+            final Enumerable<L> outer,
+            final Enumerable<R> inner,
+            final Function1<L, K> outerKeySelector,
+            final Function1<R, K> innerKeySelector,
+            final Function2<L, R, T> resultSelector,
+            final EqualityComparer<K> comparer,
+            final boolean generateNullsOnLeft,
+            final boolean generateNullsOnRight,
+            final MemoryTracker tracker,
+            final int depth ) {
+        final List<R> buffer = new ArrayList<>();
+        SpillFile[] innerPartitions = null;
+        try ( Enumerator<R> enumerator = inner.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                final R row = enumerator.current();
+                if ( innerPartitions == null ) {
+                    final long size = SizeEstimator.estimate( row ) + ENTRY_OVERHEAD;
+                    if ( tracker.tryReserve( size ) ) {
+                        buffer.add( row );
+                        continue;
+                    } else if ( depth >= MAX_DEPTH ) {
+                        tracker.forceReserve( size );
+                        buffer.add( row );
+                        continue;
+                    }
+                    innerPartitions = new SpillFile[PARTITIONS];
+                    for ( R buffered : buffer ) {
+                        write( innerPartitions, partition( innerKeySelector.apply( buffered ), comparer, depth ), buffered, tracker );
+                    }
+                    buffer.clear();
+                    tracker.releaseAll();
+                }
+                write( innerPartitions, partition( innerKeySelector.apply( row ), comparer, depth ), row, tracker );
+            }
+        }
+        if ( innerPartitions == null ) {
+            return outer.join( Linq4j.asEnumerable( buffer ), outerKeySelector, innerKeySelector, resultSelector, comparer, generateNullsOnLeft, generateNullsOnRight );
+        }
+
+        final SpillFile[] outerPartitions = new SpillFile[PARTITIONS];
+        try ( Enumerator<L> enumerator = outer.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                final L row = enumerator.current();
+                write( outerPartitions, partition( outerKeySelector.apply( row ), comparer, depth ), row, tracker );
+            }
+        }
+        finish( innerPartitions );
+        finish( outerPartitions );
+
+        final List<Enumerable<T>> results = new ArrayList<>();
+        for ( int i = 0; i < PARTITIONS; i++ ) {
+            final SpillFile outerPartition = outerPartitions[i];
+            final SpillFile innerPartition = innerPartitions[i];
+            if ( outerPartition == null && (innerPartition == null || !generateNullsOnLeft) ) {
+                continue;
+            }
+            if ( innerPartition == null && !generateNullsOnRight ) {
+                continue;
+            }
+            results.add( new AbstractEnumerable<T>() {
+                @Override
+                public Enumerator<T> enumerator() {
+                    // The previous partition has been joined completely
+                    tracker.releaseAll();
+                    return graceJoin(
+                            read( outerPartition ),
+                            read( innerPartition ),
+                            outerKeySelector,
+                            innerKeySelector,
+                            resultSelector,
+                            comparer,
+                            generateNullsOnLeft,
+                            generateNullsOnRight,
+                            tracker,
+                            depth + 1 ).enumerator();
+                }
+            } );
+        }
+        return Linq4j.concat( results );
+    }
+
+
+    private static <T> Enumerable<T> setOperation(
+            final Enumerable<T> build,
+            final Enumerable<T> probe,
+            final EqualityComparer<T> comparer,
+            final boolean except,
+            final MemoryBudget budget,
+            final String operator ) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                final MemoryTracker tracker = budget.createTracker( operator );
+                try {
+                    return new TrackedEnumerator<>( setOperation( build, probe, comparer, except, tracker, 0 ).enumerator(), tracker );
+                } catch ( RuntimeException e ) {
+                    tracker.close();
+                    throw e;
+                }
+            }
+        };
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static <T> Enumerable<T> setOperation(
+            final Enumerable<T> build,
+            final Enumerable<T> probe,
+            final EqualityComparer<T> comparer,
+            final boolean except,
+            final MemoryTracker tracker,
+            final int depth ) {
+        final Set<Object> set = new LinkedHashSet<>();
+        SpillFile[] buildPartitions = null;
+        try ( Enumerator<T> enumerator = build.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                final T row = enumerator.current();
+                if ( buildPartitions == null ) {
+                    final Object wrapped = wrap( row, comparer );
+                    if ( set.contains( wrapped ) ) {
+                        continue;
+                    }
+                    final long size = SizeEstimator.estimate( row ) + ENTRY_OVERHEAD;
+                    if ( tracker.tryReserve( size ) ) {
+                        set.add( wrapped );
+                        continue;
+                    } else if ( depth >= MAX_DEPTH ) {
+                        tracker.forceReserve( size );
+                        set.add( wrapped );
+                        continue;
+                    }
+                    buildPartitions = new SpillFile[PARTITIONS];
+                    for ( Object buffered : set ) {
+                        final T bufferedRow = (T) unwrap( buffered );
+                        write( buildPartitions, partition( bufferedRow, comparer, depth ), bufferedRow, tracker );
+                    }
+                    set.clear();
+                    tracker.releaseAll();
+                }
+                write( buildPartitions, partition( row, comparer, depth ), row, tracker );
+            }
+        }
+
+        if ( buildPartitions == null ) {
+            final List<T> result = new ArrayList<>();
+            try ( Enumerator<T> enumerator = probe.enumerator() ) {
+                while ( enumerator.moveNext() ) {
+                    final T row = enumerator.current();
+                    if ( set.remove( wrap( row, comparer ) ) && !except ) {
+                        result.add( row );
+                    }
+                }
+            }
+            if ( except ) {
+                for ( Object wrapped : set ) {
+                    result.add( (T) unwrap( wrapped ) );
+                }
+            }
+            return Linq4j.asEnumerable( result );
+        }
+
+        final SpillFile[] probePartitions = new SpillFile[PARTITIONS];
+        try ( Enumerator<T> enumerator = probe.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                final T row = enumerator.current();
+                final int partition = partition( row, comparer, depth );
+                // Rows without a counterpart in the build input do not contribute to the result
+                if ( buildPartitions[partition] != null ) {
+                    write( probePartitions, partition, row, tracker );
+                }
+            }
+        }
+        finish( buildPartitions );
+        finish( probePartitions );
+
+        final List<Enumerable<T>> results = new ArrayList<>();
+        for ( int i = 0; i < PARTITIONS; i++ ) {
+            final SpillFile buildPartition = buildPartitions[i];
+            final SpillFile probePartition = probePartitions[i];
+            if ( buildPartition == null || (probePartition == null && !except) ) {
+                continue;
+            }
+            results.add( new AbstractEnumerable<T>() {
+                @Override
+                public Enumerator<T> enumerator() {
+                    tracker.releaseAll();
+                    return setOperation( SpillingEnumerables.<T>read( buildPartition ), read( probePartition ), comparer, except, tracker, depth + 1 ).enumerator();
+                }
+            } );
+        }
+        return Linq4j.concat( results );
+    }
+
+
+    private static void write( SpillFile[] partitions, int partition, Object row, MemoryTracker tracker ) {
+        if ( partitions[partition] == null ) {
+            partitions[partition] = tracker.createSpillFile();
+        }
+        partitions[partition].write( row );
+    }
+
+
+    private static void finish( SpillFile[] partitions ) {
+        for ( SpillFile partition : partitions ) {
+            if ( partition != null ) {
+                partition.finish();
+            }
+        }
+    }
+
+
+    private static <T> Enumerable<T> read( SpillFile file ) {
+        return file == null ? Linq4j.emptyEnumerable() : file.read();
+    }
+
+
+    /**
+     * Returns the partition of a key. Every depth uses a different hash function, so that a partition which does not fit
+     * into memory is split when it is partitioned again.
+     */
+    private static <K> int partition( K key, EqualityComparer<K> comparer, int depth ) {
+        int hash = key == null ? 0 : (comparer == null ? key.hashCode() : comparer.hashCode( key ));
+        hash ^= (depth + 1) * 0x9E3779B9;
+        // Finalization step of MurmurHash3
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return Math.floorMod( hash, PARTITIONS );
+    }
+
+
+    private static <K> Object wrap( K key, EqualityComparer<K> comparer ) {
+        return comparer == null ? key : new Wrapped<>( key, comparer );
+    }
+
+
+    private static Object unwrap( Object wrapped ) {
+        return wrapped instanceof Wrapped ? ((Wrapped<?>) wrapped).key : wrapped;
+    }
+
+
+    /**
+     * Aggregates groups in memory as long as they fit into the budget. The rows of groups which do not fit are
+     * partitioned to disk and aggregated after the groups in memory have been returned.
+     */
+    private static class GroupByEnumerator<T, K, A, R> implements Enumerator<R> {
+
+        private final Function1<T, K> keySelector;
+        private final Function0<A> accumulatorInitializer;
+        private final Function2<A, T, A> accumulatorAdder;
+        private final Function2<K, A, R> resultSelector;
+        private final EqualityComparer<K> comparer;
+        private final MemoryTracker tracker;
+
+        private final Deque<Partition<T>> pending = new ArrayDeque<>();
+        private Iterator<Entry<Object, A>> groups;
+        private R current;
+
+
+        GroupByEnumerator(
+                Enumerable<T> input,
+                Function1<T, K> keySelector,
+                Function0<A> accumulatorInitializer,
+                Function2<A, T, A> accumulatorAdder,
+                Function2<K, A, R> resultSelector,
+                EqualityComparer<K> comparer,
+                MemoryTracker tracker ) {
+            this.keySelector = keySelector;
+            this.accumulatorInitializer = accumulatorInitializer;
+            this.accumulatorAdder = accumulatorAdder;
+            this.resultSelector = resultSelector;
+            this.comparer = comparer;
+            this.tracker = tracker;
+            pending.push( new Partition<>( input, 0 ) );
+        }
+
+
+        @Override
+        public R current() {
+            return current;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean moveNext() {
+            while ( groups == null || !groups.hasNext() ) {
+                groups = null;
+                tracker.releaseAll();
+                if ( pending.isEmpty() ) {
+                    return false;
+                }
+                groups = aggregate( pending.pop() );
+            }
+            final Entry<Object, A> group = groups.next();
+            current = resultSelector.apply( (K) unwrap( group.getKey() ), group.getValue() );
+            return true;
+        }
+
+
+        private Iterator<Entry<Object, A>> aggregate( Partition<T> source ) {
+            final Map<Object, A> map = new LinkedHashMap<>();
+            SpillFile[] partitions = null;
+            try ( Enumerator<T> enumerator = source.rows.enumerator() ) {
+                while ( enumerator.moveNext() ) {
+                    final T row = enumerator.current();
+                    final K key = keySelector.apply( row );
+                    final Object wrapped = wrap( key, comparer );
+                    A accumulator = map.get( wrapped );
+                    if ( accumulator == null && !map.containsKey( wrapped ) ) {
+                        if ( partitions == null ) {
+                            final long size = SizeEstimator.estimate( key ) + 2 * ENTRY_OVERHEAD;
+                            if ( !tracker.tryReserve( size ) ) {
+                                if ( map.isEmpty() || source.depth >= MAX_DEPTH ) {
+                                    tracker.forceReserve( size );
+                                } else {
+                                    partitions = new SpillFile[PARTITIONS];
+                                }
+                            }
+                        }
+                        if ( partitions != null ) {
+                            // The groups in memory are still updated, rows of new groups are aggregated later
+                            write( partitions, partition( key, comparer, source.depth ), row, tracker );
+                            continue;
+                        }
+                        accumulator = accumulatorInitializer.apply();
+                    }
+                    map.put( wrapped, accumulatorAdder.apply( accumulator, row ) );
+                }
+            }
+            if ( partitions != null ) {
+                finish( partitions );
+                for ( SpillFile file : partitions ) {
+                    if ( file != null ) {
+                        pending.push( new Partition<>( file.read(), source.depth + 1 ) );
+                    }
+                }
+            }
+            return map.entrySet().iterator();
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void close() {
+            groups = null;
+            pending.clear();
+        }
+
+    }
+
+
+    /**
+     * Merges sorted runs. Rows with equal keys are returned in the order of their runs, which keeps the sort stable.
+     */
+    private static class MergeEnumerator<T, K> implements Enumerator<T> {
+
+        private final List<Enumerator<T>> runs = new ArrayList<>();
+        private final Function1<T, K> keySelector;
+        private final PriorityQueue<Head<K, T>> queue;
+        private T current;
+
+
+        MergeEnumerator( List<SpillFile> files, Function1<T, K> keySelector, Comparator<K> comparator ) {
+            this.keySelector = keySelector;
+            this.queue = new PriorityQueue<>( files.size(), ( a, b ) -> {
+                final int c = comparator.compare( a.key, b.key );
+                return c != 0 ? c : Integer.compare( a.run, b.run );
+            } );
+            for ( int i = 0; i < files.size(); i++ ) {
+                final Enumerator<T> run = files.get( i ).<T>read().enumerator();
+                runs.add( run );
+                advance( run, i );
+            }
+        }
+
+
+        private void advance( Enumerator<T> run, int index ) {
+            if ( run.moveNext() ) {
+                final T row = run.current();
+                queue.add( new Head<>( keySelector.apply( row ), row, index ) );
+            }
+        }
+
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            final Head<K, T> head = queue.poll();
+            if ( head == null ) {
+                return false;
+            }
+            current = head.row;
+            advance( runs.get( head.run ), head.run );
+            return true;
+        }
+
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void close() {
+            runs.forEach( Enumerator::close );
+            queue.clear();
+        }
+
+    }
+
+
+    /**
+     * Closes the {@link MemoryTracker} of an operation together with the enumerator of its result.
+     */
+    private static class TrackedEnumerator<T> implements Enumerator<T> {
+
+        private final Enumerator<T> delegate;
+        private final MemoryTracker tracker;
+
+
+        TrackedEnumerator( Enumerator<T> delegate, MemoryTracker tracker ) {
+            this.delegate = delegate;
+            this.tracker = tracker;
+        }
+
+
+        @Override
+        public T current() {
+            return delegate.current();
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            return delegate.moveNext();
+        }
+
+
+        @Override
+        public void reset() {
+            delegate.reset();
+        }
+
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                tracker.close();
+            }
+        }
+
+    }
+
+
+    private static class Partition<T> {
+
+        private final Enumerable<T> rows;
+        private final int depth;
+
+
+        Partition( Enumerable<T> rows, int depth ) {
+            this.rows = rows;
+            this.depth = depth;
+        }
+
+    }
+
+
+    private static class Keyed<K, T> {
+
+        private final K key;
+        private final T row;
+
+
+        Keyed( K key, T row ) {
+            this.key = key;
+            this.row = row;
+        }
+
+    }
+
+
+    private static class Head<K, T> {
+
+        private final K key;
+        private final T row;
+        private final int run;
+
+
+        Head( K key, T row, int run ) {
+            this.key = key;
+            this.row = row;
+            this.run = run;
+        }
+
+    }
+
+
+    /**
+     * Wraps a key, so that it is compared using an {@link EqualityComparer} in hash-based collections.
+     */
+    private static class Wrapped<K> {
+
+        private final K key;
+        private final EqualityComparer<K> comparer;
+
+
+        Wrapped( K key, EqualityComparer<K> comparer ) {
+            this.key = key;
+            this.comparer = comparer;
+        }
+
+
+        @Override
+        public boolean equals( Object obj ) {
+            if ( !(obj instanceof Wrapped) ) {
+                return false;
+            }
+            @SuppressWarnings("unchecked") final K other = ((Wrapped<K>) obj).key;
+            if ( key == null || other == null ) {
+                return key == other;
+            }
+            return comparer.equal( key, other );
+        }
+
+
+        @Override
+        public int hashCode() {
+            return key == null ? 0 : comparer.hashCode( key );
+        }
+
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+/**
+ * Iterates over the batches produced by a {@link BatchOperator}.
+ */
+public interface BatchCursor extends AutoCloseable {
+
+    /**
+     * Returns the next batch or {@code null} if there are no more rows. The returned batch contains at least one
+     * selected row and is only valid until the next call.
+     */
+    ColumnBatch next();
+
+    @Override
+    void close();
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * Filters the rows of its input by narrowing the selection vector of the batches. The columns are passed on unchanged.
+ */
+public class BatchFilter implements BatchOperator {
+
+    private final BatchOperator input;
+    private final VectorProgram program;
+    private final int condition;
+
+
+    /**
+     * Creates a BatchFilter.
+     *
+     * @param input the input operator
+     * @param program the program computing the condition
+     * @param condition the slot of the program holding the condition
+     */
+    public BatchFilter( BatchOperator input, VectorProgram program, int condition ) {
+        this.input = input;
+        this.program = program;
+        this.condition = condition;
+    }
+
+
+    @Override
+    public BatchCursor open( DataContext root ) {
+        final BatchCursor cursor = input.open( root );
+        return new BatchCursor() {
+            final ColumnVector[] slots = program.createSlots();
+            int[] selection = new int[0];
+
+
+            @Override
+            public ColumnBatch next() {
+                ColumnBatch batch;
+                while ( (batch = cursor.next()) != null ) {
+                    program.evaluate( batch, slots, root );
+                    final ColumnVector result = slots[condition];
+                    if ( selection.length < batch.size ) {
+                        selection = new int[batch.size];
+                    }
+                    int count = 0;
+                    for ( int k = 0; k < batch.count; k++ ) {
+                        final int i = batch.position( k );
+                        if ( VectorExpressions.isTrue( result, i ) ) {
+                            selection[count++] = i;
+                        }
+                    }
+                    if ( count == batch.size ) {
+                        return batch;
+                    } else if ( count > 0 ) {
+                        return new ColumnBatch( batch.columns, batch.size, selection, count );
+                    }
+                }
+                return null;
+            }
+
+
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        };
+    }
+
+}
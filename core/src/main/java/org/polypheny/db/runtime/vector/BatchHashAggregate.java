@@ -0,0 +1,312 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.runtime.hash.LongHashTable;
+
+
+/**
+ * Groups the rows of its input by hashing and computes {@code COUNT}, {@code SUM}, {@code $SUM0}, {@code MIN} and
+ * {@code MAX} for each group. The keys and the states of the aggregate functions are stored in column vectors, which
+ * are indexed by the id of the group. Groups on a single integral column are looked up in a primitive hash table.
+ */
+public class BatchHashAggregate implements BatchOperator {
+
+    private final BatchOperator input;
+    private final int[] groupKeys;
+    private final Kind[] functions;
+    private final int[] arguments;
+    private final ColumnType[] outputTypes;
+    private final int batchSize;
+
+
+    /**
+     * Creates a BatchHashAggregate.
+     *
+     * @param input the input operator
+     * @param groupKeys the input columns to group by
+     * @param functions the kinds of the aggregate functions
+     * @param arguments the input column of each aggregate function or {@code -1} for {@code COUNT(*)}
+     * @param outputTypes the result type of each aggregate function
+     * @param batchSize the maximum number of rows of an output batch
+     */
+    public BatchHashAggregate( BatchOperator input, int[] groupKeys, Kind[] functions, int[] arguments, ColumnType[] outputTypes, int batchSize ) {
+        this.input = input;
+        this.groupKeys = groupKeys;
+        this.functions = functions;
+        this.arguments = arguments;
+        this.outputTypes = outputTypes;
+        this.batchSize = batchSize;
+    }
+
+
+    @Override
+    public BatchCursor open( DataContext root ) {
+        return new Cursor( input.open( root ) );
+    }
+
+
+    /**
+     * Consumes the whole input on the first call of {@link #next()} and then returns the groups batch by batch.
+     */
+    private class Cursor implements BatchCursor {
+
+        private final BatchCursor input;
+        private final Accumulator[] accumulators;
+        private ColumnVector[] keys;
+        private int groupCount;
+        private int emitted;
+        private boolean consumed;
+
+        private LongHashTable longGroups;
+        private int nullGroup = -1;
+        private Map<Object, Integer> groups;
+        private int[] groupIds = new int[0];
+
+
+        Cursor( BatchCursor input ) {
+            this.input = input;
+            this.accumulators = new Accumulator[functions.length];
+            for ( int j = 0; j < functions.length; j++ ) {
+                accumulators[j] = new Accumulator( functions[j], arguments[j], outputTypes[j], batchSize );
+            }
+            if ( groupKeys.length == 0 ) {
+                // Without group keys, there is exactly one group, even if the input is empty
+                addGroup( null, 0 );
+            }
+        }
+
+
+        @Override
+        public ColumnBatch next() {
+            if ( !consumed ) {
+                ColumnBatch batch;
+                while ( (batch = input.next()) != null ) {
+                    add( batch );
+                }
+                consumed = true;
+            }
+            if ( emitted >= groupCount ) {
+                return null;
+            }
+            final int from = emitted;
+            final int to = Math.min( groupCount, from + batchSize );
+            final ColumnVector[] columns = new ColumnVector[groupKeys.length + accumulators.length];
+            for ( int c = 0; c < groupKeys.length; c++ ) {
+                columns[c] = keys[c].copyRange( from, to );
+            }
+            for ( int j = 0; j < accumulators.length; j++ ) {
+                columns[groupKeys.length + j] = accumulators[j].values.copyRange( from, to );
+            }
+            emitted = to;
+            return new ColumnBatch( columns, to - from );
+        }
+
+
+        private void add( ColumnBatch batch ) {
+            if ( groupIds.length < batch.size ) {
+                groupIds = new int[batch.size];
+            }
+            if ( groupKeys.length == 0 ) {
+                Arrays.fill( groupIds, 0, batch.size, 0 );
+            } else {
+                if ( keys == null ) {
+                    keys = new ColumnVector[groupKeys.length];
+                    for ( int c = 0; c < groupKeys.length; c++ ) {
+                        keys[c] = new ColumnVector( batch.columns[groupKeys[c]].type, batchSize );
+                    }
+                    if ( groupKeys.length == 1 && keys[0].type.storage == ColumnType.Storage.LONG ) {
+                        longGroups = new LongHashTable( 1 );
+                    } else {
+                        groups = new HashMap<>();
+                    }
+                }
+                if ( longGroups != null ) {
+                    findLongGroups( batch );
+                } else {
+                    findGroups( batch );
+                }
+            }
+            for ( Accumulator accumulator : accumulators ) {
+                accumulator.add( batch, groupIds );
+            }
+        }
+
+
+        private void findLongGroups( ColumnBatch batch ) {
+            final ColumnVector column = batch.columns[groupKeys[0]];
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                if ( column.isNull( i ) ) {
+                    if ( nullGroup < 0 ) {
+                        nullGroup = addGroup( batch, i );
+                    }
+                    groupIds[i] = nullGroup;
+                } else {
+                    final long key = column.longs[i];
+                    int group = longGroups.get( key );
+                    if ( group < 0 ) {
+                        group = addGroup( batch, i );
+                        longGroups.put( key, group );
+                    }
+                    groupIds[i] = group;
+                }
+            }
+        }
+
+
+        private void findGroups( ColumnBatch batch ) {
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                final Object key;
+                if ( groupKeys.length == 1 ) {
+                    key = batch.columns[groupKeys[0]].get( i );
+                } else {
+                    final Object[] values = new Object[groupKeys.length];
+                    for ( int c = 0; c < groupKeys.length; c++ ) {
+                        values[c] = batch.columns[groupKeys[c]].get( i );
+                    }
+                    key = Arrays.asList( values );
+                }
+                Integer group = groups.get( key );
+                if ( group == null ) {
+                    group = addGroup( batch, i );
+                    groups.put( key, group );
+                }
+                groupIds[i] = group;
+            }
+        }
+
+
+        /**
+         * Adds a group with the keys of the given row and initializes its aggregate functions.
+         */
+        private int addGroup( ColumnBatch batch, int i ) {
+            final int group = groupCount++;
+            for ( int c = 0; c < groupKeys.length; c++ ) {
+                keys[c].ensureCapacity( groupCount );
+                keys[c].setFrom( group, batch.columns[groupKeys[c]], i );
+            }
+            for ( Accumulator accumulator : accumulators ) {
+                accumulator.init( group );
+            }
+            return group;
+        }
+
+
+        @Override
+        public void close() {
+            input.close();
+        }
+
+    }
+
+
+    /**
+     * The states of an aggregate function for all groups. Sums are computed in the storage type and truncated to the
+     * output type when the groups are emitted, which matches the overflow behavior of Java arithmetic.
+     */
+    private static class Accumulator {
+
+        private final Kind kind;
+        private final int argument;
+        private final ColumnVector values;
+
+
+        Accumulator( Kind kind, int argument, ColumnType type, int capacity ) {
+            this.kind = kind;
+            this.argument = argument;
+            this.values = new ColumnVector( type, capacity );
+        }
+
+
+        void init( int group ) {
+            values.ensureCapacity( group + 1 );
+            switch ( kind ) {
+                case COUNT:
+                case SUM0:
+                    values.set( group, 0L );
+                    break;
+                default:
+                    values.setNull( group );
+            }
+        }
+
+
+        void add( ColumnBatch batch, int[] groupIds ) {
+            if ( argument < 0 ) {
+                for ( int k = 0; k < batch.count; k++ ) {
+                    values.longs[groupIds[batch.position( k )]]++;
+                }
+                return;
+            }
+            final ColumnVector column = batch.columns[argument];
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                if ( column.isNull( i ) ) {
+                    continue;
+                }
+                final int group = groupIds[i];
+                switch ( kind ) {
+                    case COUNT:
+                        values.longs[group]++;
+                        break;
+                    case SUM:
+                    case SUM0:
+                        if ( values.isNull( group ) ) {
+                            values.setFrom( group, column, i );
+                        } else if ( values.longs != null ) {
+                            values.longs[group] += column.longs[i];
+                        } else {
+                            values.doubles[group] = values.type.narrow( values.doubles[group] + column.doubles[i] );
+                        }
+                        break;
+                    case MIN:
+                    case MAX:
+                        if ( values.isNull( group ) || isBetter( column, i, group ) ) {
+                            values.setFrom( group, column, i );
+                        }
+                        break;
+                    default:
+                        throw new AssertionError( kind );
+                }
+            }
+        }
+
+
+        @SuppressWarnings("unchecked")
+        private boolean isBetter( ColumnVector column, int i, int group ) {
+            final int c;
+            if ( values.longs != null ) {
+                c = Long.compare( column.longs[i], values.longs[group] );
+            } else if ( values.doubles != null ) {
+                c = Double.compare( column.doubles[i], values.doubles[group] );
+            } else {
+                c = ((Comparable<Object>) column.objects[i]).compareTo( values.objects[group] );
+            }
+            return kind == Kind.MIN ? c < 0 : c > 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * Computes the columns of its output from the columns of its input. The selection vector is passed on unchanged.
+ */
+public class BatchProject implements BatchOperator {
+
+    private final BatchOperator input;
+    private final VectorProgram program;
+    private final int[] projects;
+
+
+    /**
+     * Creates a BatchProject.
+     *
+     * @param input the input operator
+     * @param program the program computing the columns
+     * @param projects the slots of the program holding the output columns
+     */
+    public BatchProject( BatchOperator input, VectorProgram program, int[] projects ) {
+        this.input = input;
+        this.program = program;
+        this.projects = projects;
+    }
+
+
+    @Override
+    public BatchCursor open( DataContext root ) {
+        final BatchCursor cursor = input.open( root );
+        return new BatchCursor() {
+            final ColumnVector[] slots = program.createSlots();
+
+
+            @Override
+            public ColumnBatch next() {
+                final ColumnBatch batch = cursor.next();
+                if ( batch == null ) {
+                    return null;
+                }
+                program.evaluate( batch, slots, root );
+                final ColumnVector[] columns = new ColumnVector[projects.length];
+                for ( int c = 0; c < projects.length; c++ ) {
+                    columns[c] = slots[projects[c]];
+                }
+                return new ColumnBatch( columns, batch.size, batch.selection, batch.count );
+            }
+
+
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * Utilities for the vectorized calling convention which are called by generated code.
+ */
+public final class Batches {
+
+    private Batches() {
+        // Utility class
+    }
+
+
+    /**
+     * Converts the batches produced by an operator into rows.
+     */
+    public static Enumerable<Object[]> toRows( final BatchOperator operator, final DataContext root ) {
+        return new AbstractEnumerable<Object[]>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return new Enumerator<Object[]>() {
+                    private BatchCursor cursor;
+                    private ColumnBatch batch;
+                    private int k;
+                    private boolean done;
+                    private Object[] current;
+
+
+                    @Override
+                    public Object[] current() {
+                        return current;
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        if ( done ) {
+                            return false;
+                        }
+                        if ( cursor == null ) {
+                            cursor = operator.open( root );
+                        }
+                        while ( batch == null || k >= batch.count ) {
+                            batch = cursor.next();
+                            k = 0;
+                            if ( batch == null ) {
+                                done = true;
+                                return false;
+                            }
+                        }
+                        final int i = batch.position( k++ );
+                        final Object[] row = new Object[batch.columns.length];
+                        for ( int c = 0; c < row.length; c++ ) {
+                            row[c] = batch.columns[c].get( i );
+                        }
+                        current = row;
+                        return true;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        close();
+                        batch = null;
+                        done = false;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        if ( cursor != null ) {
+                            cursor.close();
+                            cursor = null;
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+}
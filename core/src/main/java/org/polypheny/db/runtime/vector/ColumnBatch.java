@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+/**
+ * A batch of rows in columnar form. The rows of the batch are the positions {@code 0} to {@code size - 1} of the column
+ * vectors. If a selection vector is present, only the positions it contains are part of the batch, the other positions
+ * have been filtered out.
+ *
+ * A batch and its vectors are only valid until the next batch is requested from the {@link BatchCursor} which produced it.
+ */
+public final class ColumnBatch {
+
+    public final ColumnVector[] columns;
+    public final int size;
+
+    /**
+     * The ascending positions of the selected rows or {@code null} if all rows are selected.
+     */
+    public final int[] selection;
+
+    /**
+     * The number of selected rows.
+     */
+    public final int count;
+
+
+    public ColumnBatch( ColumnVector[] columns, int size ) {
+        this( columns, size, null, size );
+    }
+
+
+    public ColumnBatch( ColumnVector[] columns, int size, int[] selection, int count ) {
+        this.columns = columns;
+        this.size = size;
+        this.selection = selection;
+        this.count = count;
+    }
+
+
+    /**
+     * Returns the position of the {@code k}-th selected row.
+     */
+    public int position( int k ) {
+        return selection == null ? k : selection[k];
+    }
+
+}
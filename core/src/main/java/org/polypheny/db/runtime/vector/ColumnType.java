@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.math.BigDecimal;
+import org.polypheny.db.algebra.type.AlgDataType;
+
+
+/**
+ * The physical type of a {@link ColumnVector}. Integral, boolean and temporal values are stored in a {@code long[]},
+ * floating point values in a {@code double[]} and all other values as objects.
+ */
+public enum ColumnType {
+    BOOLEAN( Storage.LONG ),
+    BYTE( Storage.LONG ),
+    SHORT( Storage.LONG ),
+    INT( Storage.LONG ),
+    LONG( Storage.LONG ),
+    FLOAT( Storage.DOUBLE ),
+    DOUBLE( Storage.DOUBLE ),
+    OBJECT( Storage.OBJECT );
+
+    public final Storage storage;
+
+
+    ColumnType( Storage storage ) {
+        this.storage = storage;
+    }
+
+
+    /**
+     * Returns the column type for values of the given type. The values are represented like in the rows of the
+     * Enumerable convention, e.g. dates as days since epoch.
+     */
+    public static ColumnType of( AlgDataType type ) {
+        switch ( type.getPolyType() ) {
+            case BOOLEAN:
+                return BOOLEAN;
+            case TINYINT:
+                return BYTE;
+            case SMALLINT:
+                return SHORT;
+            case INTEGER:
+            case DATE:
+            case TIME:
+                return INT;
+            case BIGINT:
+            case TIMESTAMP:
+                return LONG;
+            case REAL:
+                return FLOAT;
+            case FLOAT:
+            case DOUBLE:
+                return DOUBLE;
+            default:
+                return OBJECT;
+        }
+    }
+
+
+    /**
+     * Truncates a value to the range of this type, like a cast in Java.
+     */
+    public long narrow( long value ) {
+        switch ( this ) {
+            case BOOLEAN:
+                return value != 0 ? 1 : 0;
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+
+    /**
+     * Rounds a value to the precision of this type.
+     */
+    public double narrow( double value ) {
+        return this == FLOAT ? (float) value : value;
+    }
+
+
+    public Object box( long value ) {
+        switch ( this ) {
+            case BOOLEAN:
+                return value != 0;
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+
+    public Object box( double value ) {
+        return this == FLOAT ? (Object) (float) value : (Object) value;
+    }
+
+
+    public static long unboxLong( Object value ) {
+        if ( value instanceof Boolean ) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return ((Number) value).longValue();
+    }
+
+
+    public static double unboxDouble( Object value ) {
+        return ((Number) value).doubleValue();
+    }
+
+
+    /**
+     * Converts numbers of other types to {@link BigDecimal}, so that they can be compared with the values of a decimal column.
+     */
+    public static Object toComparable( Object value ) {
+        if ( value instanceof Number && !(value instanceof BigDecimal) ) {
+            return new BigDecimal( value.toString() );
+        }
+        return value;
+    }
+
+
+    /**
+     * The kind of array a {@link ColumnVector} uses to store its values.
+     */
+    public enum Storage {
+        LONG, DOUBLE, OBJECT
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+
+
+/**
+ * The values of a column for the rows of a {@link ColumnBatch}. Depending on the {@link ColumnType}, the values are
+ * stored in a primitive array or in an array of objects. Nulls are tracked in a bitmap, which is only allocated once
+ * the first null is set. The value stored at the position of a null is undefined.
+ */
+public final class ColumnVector {
+
+    public final ColumnType type;
+
+    public long[] longs;
+    public double[] doubles;
+    public Object[] objects;
+
+    private long[] nulls;
+    private int capacity;
+
+
+    public ColumnVector( ColumnType type, int capacity ) {
+        this.type = type;
+        this.capacity = capacity;
+        switch ( type.storage ) {
+            case LONG:
+                longs = new long[capacity];
+                break;
+            case DOUBLE:
+                doubles = new double[capacity];
+                break;
+            default:
+                objects = new Object[capacity];
+        }
+    }
+
+
+    /**
+     * Returns the given vector after clearing its nulls if it has the requested type and capacity, otherwise a new vector.
+     */
+    public static ColumnVector reuse( ColumnVector previous, ColumnType type, int capacity ) {
+        if ( previous == null || previous.type != type || previous.capacity < capacity ) {
+            return new ColumnVector( type, capacity );
+        }
+        if ( previous.nulls != null ) {
+            Arrays.fill( previous.nulls, 0 );
+        }
+        return previous;
+    }
+
+
+    public int capacity() {
+        return capacity;
+    }
+
+
+    /**
+     * Grows the arrays of this vector such that it can hold at least the given number of values.
+     */
+    public void ensureCapacity( int minCapacity ) {
+        if ( minCapacity <= capacity ) {
+            return;
+        }
+        int newCapacity = Math.max( minCapacity, capacity * 2 );
+        switch ( type.storage ) {
+            case LONG:
+                longs = Arrays.copyOf( longs, newCapacity );
+                break;
+            case DOUBLE:
+                doubles = Arrays.copyOf( doubles, newCapacity );
+                break;
+            default:
+                objects = Arrays.copyOf( objects, newCapacity );
+        }
+        if ( nulls != null ) {
+            nulls = Arrays.copyOf( nulls, words( newCapacity ) );
+        }
+        capacity = newCapacity;
+    }
+
+
+    public boolean mayHaveNulls() {
+        return nulls != null;
+    }
+
+
+    public boolean isNull( int i ) {
+        return nulls != null && (nulls[i >>> 6] & (1L << i)) != 0;
+    }
+
+
+    public void setNull( int i ) {
+        if ( nulls == null ) {
+            nulls = new long[words( capacity )];
+        }
+        nulls[i >>> 6] |= 1L << i;
+        if ( objects != null ) {
+            objects[i] = null;
+        }
+    }
+
+
+    public void setNotNull( int i ) {
+        if ( nulls != null ) {
+            nulls[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+
+    /**
+     * Sets a value, given in its boxed representation.
+     */
+    public void set( int i, Object value ) {
+        if ( value == null ) {
+            setNull( i );
+            return;
+        }
+        setNotNull( i );
+        switch ( type.storage ) {
+            case LONG:
+                longs[i] = ColumnType.unboxLong( value );
+                break;
+            case DOUBLE:
+                doubles[i] = ColumnType.unboxDouble( value );
+                break;
+            default:
+                objects[i] = value;
+        }
+    }
+
+
+    /**
+     * Returns a value in its boxed representation.
+     */
+    public Object get( int i ) {
+        if ( isNull( i ) ) {
+            return null;
+        }
+        switch ( type.storage ) {
+            case LONG:
+                return type.box( longs[i] );
+            case DOUBLE:
+                return type.box( doubles[i] );
+            default:
+                return objects[i];
+        }
+    }
+
+
+    /**
+     * Returns a numerical value as double. Must only be called for vectors with primitive storage.
+     */
+    public double getDouble( int i ) {
+        return longs != null ? longs[i] : doubles[i];
+    }
+
+
+    /**
+     * Copies a value of another vector with the same storage.
+     */
+    public void setFrom( int i, ColumnVector source, int j ) {
+        if ( source.isNull( j ) ) {
+            setNull( i );
+            return;
+        }
+        setNotNull( i );
+        switch ( type.storage ) {
+            case LONG:
+                longs[i] = source.longs[j];
+                break;
+            case DOUBLE:
+                doubles[i] = source.doubles[j];
+                break;
+            default:
+                objects[i] = source.objects[j];
+        }
+    }
+
+
+    /**
+     * Returns a new vector containing the values between {@code from} (inclusive) and {@code to} (exclusive), truncated
+     * to the range of the type of this vector.
+     */
+    public ColumnVector copyRange( int from, int to ) {
+        final ColumnVector copy = new ColumnVector( type, to - from );
+        switch ( type.storage ) {
+            case LONG:
+                for ( int i = from; i < to; i++ ) {
+                    copy.longs[i - from] = type.narrow( longs[i] );
+                }
+                break;
+            case DOUBLE:
+                for ( int i = from; i < to; i++ ) {
+                    copy.doubles[i - from] = type.narrow( doubles[i] );
+                }
+                break;
+            default:
+                System.arraycopy( objects, from, copy.objects, 0, to - from );
+        }
+        if ( nulls != null ) {
+            for ( int i = from; i < to; i++ ) {
+                if ( isNull( i ) ) {
+                    copy.setNull( i - from );
+                }
+            }
+        }
+        return copy;
+    }
+
+
+    private static int words( int capacity ) {
+        return (capacity + 63) >>> 6;
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * Converts the rows of an {@link Enumerable} into batches.
+ */
+public class RowBatchSource implements BatchOperator {
+
+    private final Enumerable<?> input;
+    private final ColumnType[] types;
+    private final boolean scalar;
+    private final int batchSize;
+
+
+    /**
+     * Creates a RowBatchSource.
+     *
+     * @param input the rows
+     * @param types the types of the columns
+     * @param scalar whether the rows are single values instead of arrays
+     * @param batchSize the maximum number of rows of a batch
+     */
+    public RowBatchSource( Enumerable<?> input, ColumnType[] types, boolean scalar, int batchSize ) {
+        this.input = input;
+        this.types = types;
+        this.scalar = scalar;
+        this.batchSize = batchSize;
+    }
+
+
+    @Override
+    public BatchCursor open( DataContext root ) {
+        final Enumerator<?> enumerator = input.enumerator();
+        return new BatchCursor() {
+            final ColumnVector[] columns = new ColumnVector[types.length];
+            boolean done;
+
+
+            @Override
+            public ColumnBatch next() {
+                if ( done ) {
+                    return null;
+                }
+                for ( int c = 0; c < types.length; c++ ) {
+                    columns[c] = ColumnVector.reuse( columns[c], types[c], batchSize );
+                }
+                int size = 0;
+                while ( size < batchSize && enumerator.moveNext() ) {
+                    final Object current = enumerator.current();
+                    if ( scalar ) {
+                        columns[0].set( size, current );
+                    } else {
+                        final Object[] row = (Object[]) current;
+                        for ( int c = 0; c < types.length; c++ ) {
+                            columns[c].set( size, row[c] );
+                        }
+                    }
+                    size++;
+                }
+                if ( size < batchSize ) {
+                    done = true;
+                }
+                return size == 0 ? null : new ColumnBatch( columns, size );
+            }
+
+
+            @Override
+            public void close() {
+                enumerator.close();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * An expression which is evaluated for all selected rows of a batch at once.
+ *
+ * @see VectorProgram
+ */
+public interface VectorExpression {
+
+    /**
+     * Evaluates this expression for the selected rows of a batch. The values at the positions of the rows which are not
+     * selected are undefined.
+     *
+     * @param batch the input batch
+     * @param slots the results of the expressions of the program which have already been evaluated
+     * @param previous the result of this expression for the previous batch, which may be reused
+     * @param root the data context of the query
+     * @return a vector with at least {@code batch.size} values
+     */
+    ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root );
+
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.algebra.constant.Kind;
+
+
+/**
+ * Implementations of {@link VectorExpression}. The operands of an expression are referenced by the index of the slot
+ * holding their result (see {@link VectorProgram}).
+ */
+public final class VectorExpressions {
+
+    private VectorExpressions() {
+        // Utility class
+    }
+
+
+    /**
+     * Sets the given value for all selected rows.
+     */
+    static void fill( ColumnVector out, ColumnBatch batch, Object value ) {
+        if ( value == null ) {
+            for ( int k = 0; k < batch.count; k++ ) {
+                out.setNull( batch.position( k ) );
+            }
+            return;
+        }
+        switch ( out.type.storage ) {
+            case LONG:
+                final long longValue = out.type.narrow( ColumnType.unboxLong( value ) );
+                for ( int k = 0; k < batch.count; k++ ) {
+                    out.longs[batch.position( k )] = longValue;
+                }
+                break;
+            case DOUBLE:
+                final double doubleValue = out.type.narrow( ColumnType.unboxDouble( value ) );
+                for ( int k = 0; k < batch.count; k++ ) {
+                    out.doubles[batch.position( k )] = doubleValue;
+                }
+                break;
+            default:
+                for ( int k = 0; k < batch.count; k++ ) {
+                    out.objects[batch.position( k )] = value;
+                }
+        }
+    }
+
+
+    static boolean isTrue( ColumnVector vector, int i ) {
+        return vector.longs[i] != 0 && !vector.isNull( i );
+    }
+
+
+    /**
+     * Reference to a column of the input batch.
+     */
+    public static class InputRef implements VectorExpression {
+
+        private final int index;
+
+
+        public InputRef( int index ) {
+            this.index = index;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            return batch.columns[index];
+        }
+
+    }
+
+
+    /**
+     * A constant value.
+     */
+    public static class Literal implements VectorExpression {
+
+        private final ColumnType type;
+        private final Object value;
+
+
+        public Literal( ColumnType type, Object value ) {
+            this.type = type;
+            this.value = value;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector out = ColumnVector.reuse( previous, type, batch.size );
+            fill( out, batch, value );
+            return out;
+        }
+
+    }
+
+
+    /**
+     * The value of a dynamic parameter, which is looked up once per batch.
+     */
+    public static class DynamicParam implements VectorExpression {
+
+        private final ColumnType type;
+        private final long index;
+
+
+        public DynamicParam( ColumnType type, long index ) {
+            this.type = type;
+            this.index = index;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector out = ColumnVector.reuse( previous, type, batch.size );
+            Object value = root.getParameterValue( index );
+            if ( type == ColumnType.OBJECT ) {
+                value = ColumnType.toComparable( value );
+            }
+            fill( out, batch, value );
+            return out;
+        }
+
+    }
+
+
+    /**
+     * Addition, subtraction, multiplication or division of two numbers. The result is null if one of the operands is null.
+     */
+    public static class Arithmetic implements VectorExpression {
+
+        private final Kind kind;
+        private final ColumnType type;
+        private final int left;
+        private final int right;
+
+
+        public Arithmetic( Kind kind, ColumnType type, int left, int right ) {
+            this.kind = kind;
+            this.type = type;
+            this.left = left;
+            this.right = right;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector a = slots[left];
+            final ColumnVector b = slots[right];
+            final ColumnVector out = ColumnVector.reuse( previous, type, batch.size );
+            final boolean nullable = a.mayHaveNulls() || b.mayHaveNulls();
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                if ( nullable && (a.isNull( i ) || b.isNull( i )) ) {
+                    out.setNull( i );
+                } else if ( type.storage == ColumnType.Storage.LONG ) {
+                    out.longs[i] = type.narrow( apply( a.longs[i], b.longs[i] ) );
+                } else {
+                    out.doubles[i] = type.narrow( apply( a.getDouble( i ), b.getDouble( i ) ) );
+                }
+            }
+            return out;
+        }
+
+
+        private long apply( long x, long y ) {
+            switch ( kind ) {
+                case PLUS:
+                    return x + y;
+                case MINUS:
+                    return x - y;
+                case TIMES:
+                    return x * y;
+                case DIVIDE:
+                    return x / y;
+                default:
+                    throw new AssertionError( kind );
+            }
+        }
+
+
+        private double apply( double x, double y ) {
+            switch ( kind ) {
+                case PLUS:
+                    return x + y;
+                case MINUS:
+                    return x - y;
+                case TIMES:
+                    return x * y;
+                case DIVIDE:
+                    return x / y;
+                default:
+                    throw new AssertionError( kind );
+            }
+        }
+
+    }
+
+
+    /**
+     * Arithmetic negation of a number.
+     */
+    public static class Negate implements VectorExpression {
+
+        private final ColumnType type;
+        private final int operand;
+
+
+        public Negate( ColumnType type, int operand ) {
+            this.type = type;
+            this.operand = operand;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector a = slots[operand];
+            final ColumnVector out = ColumnVector.reuse( previous, type, batch.size );
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                if ( a.isNull( i ) ) {
+                    out.setNull( i );
+                } else if ( type.storage == ColumnType.Storage.LONG ) {
+                    out.longs[i] = type.narrow( -a.longs[i] );
+                } else {
+                    out.doubles[i] = type.narrow( -a.getDouble( i ) );
+                }
+            }
+            return out;
+        }
+
+    }
+
+
+    /**
+     * Comparison of two values. Primitive values are compared numerically, all other values have to be {@link Comparable}.
+     */
+    public static class Comparison implements VectorExpression {
+
+        private final Kind kind;
+        private final int left;
+        private final int right;
+
+
+        public Comparison( Kind kind, int left, int right ) {
+            this.kind = kind;
+            this.left = left;
+            this.right = right;
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector a = slots[left];
+            final ColumnVector b = slots[right];
+            final ColumnVector out = ColumnVector.reuse( previous, ColumnType.BOOLEAN, batch.size );
+            final boolean nullable = a.mayHaveNulls() || b.mayHaveNulls();
+            final boolean longs = a.longs != null && b.longs != null;
+            final boolean objects = a.objects != null;
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                if ( nullable && (a.isNull( i ) || b.isNull( i )) ) {
+                    out.setNull( i );
+                    continue;
+                }
+                final boolean result;
+                if ( longs ) {
+                    result = test( Long.compare( a.longs[i], b.longs[i] ) );
+                } else if ( objects ) {
+                    result = test( ((Comparable<Object>) a.objects[i]).compareTo( b.objects[i] ) );
+                } else {
+                    result = test( a.getDouble( i ), b.getDouble( i ) );
+                }
+                out.longs[i] = result ? 1 : 0;
+            }
+            return out;
+        }
+
+
+        private boolean test( int c ) {
+            switch ( kind ) {
+                case EQUALS:
+                    return c == 0;
+                case NOT_EQUALS:
+                    return c != 0;
+                case LESS_THAN:
+                    return c < 0;
+                case LESS_THAN_OR_EQUAL:
+                    return c <= 0;
+                case GREATER_THAN:
+                    return c > 0;
+                case GREATER_THAN_OR_EQUAL:
+                    return c >= 0;
+                default:
+                    throw new AssertionError( kind );
+            }
+        }
+
+
+        private boolean test( double x, double y ) {
+            switch ( kind ) {
+                case EQUALS:
+                    return x == y;
+                case NOT_EQUALS:
+                    return x != y;
+                case LESS_THAN:
+                    return x < y;
+                case LESS_THAN_OR_EQUAL:
+                    return x <= y;
+                case GREATER_THAN:
+                    return x > y;
+                case GREATER_THAN_OR_EQUAL:
+                    return x >= y;
+                default:
+                    throw new AssertionError( kind );
+            }
+        }
+
+    }
+
+
+    /**
+     * Conjunction with three-valued logic: false if an operand is false, otherwise null if an operand is null.
+     */
+    public static class And implements VectorExpression {
+
+        private final int[] operands;
+
+
+        public And( int[] operands ) {
+            this.operands = operands;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            return combine( batch, slots, previous, operands, false );
+        }
+
+    }
+
+
+    /**
+     * Disjunction with three-valued logic: true if an operand is true, otherwise null if an operand is null.
+     */
+    public static class Or implements VectorExpression {
+
+        private final int[] operands;
+
+
+        public Or( int[] operands ) {
+            this.operands = operands;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            return combine( batch, slots, previous, operands, true );
+        }
+
+    }
+
+
+    /**
+     * Evaluates a conjunction or disjunction. The {@code dominant} value decides the result as soon as one operand has it.
+     */
+    private static ColumnVector combine( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, int[] operands, boolean dominant ) {
+        final ColumnVector out = ColumnVector.reuse( previous, ColumnType.BOOLEAN, batch.size );
+        final long dominantValue = dominant ? 1 : 0;
+        for ( int k = 0; k < batch.count; k++ ) {
+            final int i = batch.position( k );
+            boolean unknown = false;
+            boolean decided = false;
+            for ( int operand : operands ) {
+                final ColumnVector vector = slots[operand];
+                if ( vector.isNull( i ) ) {
+                    unknown = true;
+                } else if ( vector.longs[i] == dominantValue ) {
+                    decided = true;
+                    break;
+                }
+            }
+            if ( decided ) {
+                out.longs[i] = dominantValue;
+            } else if ( unknown ) {
+                out.setNull( i );
+            } else {
+                out.longs[i] = 1 - dominantValue;
+            }
+        }
+        return out;
+    }
+
+
+    /**
+     * Logical negation, null stays null.
+     */
+    public static class Not implements VectorExpression {
+
+        private final int operand;
+
+
+        public Not( int operand ) {
+            this.operand = operand;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector a = slots[operand];
+            final ColumnVector out = ColumnVector.reuse( previous, ColumnType.BOOLEAN, batch.size );
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                if ( a.isNull( i ) ) {
+                    out.setNull( i );
+                } else {
+                    out.longs[i] = a.longs[i] == 0 ? 1 : 0;
+                }
+            }
+            return out;
+        }
+
+    }
+
+
+    /**
+     * {@code IS NULL} or, if negated, {@code IS NOT NULL}.
+     */
+    public static class IsNull implements VectorExpression {
+
+        private final int operand;
+        private final boolean negated;
+
+
+        public IsNull( int operand, boolean negated ) {
+            this.operand = operand;
+            this.negated = negated;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector a = slots[operand];
+            final ColumnVector out = ColumnVector.reuse( previous, ColumnType.BOOLEAN, batch.size );
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                out.longs[i] = a.isNull( i ) != negated ? 1 : 0;
+            }
+            return out;
+        }
+
+    }
+
+
+    /**
+     * Conversion of a number to another numerical type. Casts which only change the nullability return the operand.
+     */
+    public static class Cast implements VectorExpression {
+
+        private final ColumnType type;
+        private final int operand;
+
+
+        public Cast( ColumnType type, int operand ) {
+            this.type = type;
+            this.operand = operand;
+        }
+
+
+        @Override
+        public ColumnVector evaluate( ColumnBatch batch, ColumnVector[] slots, ColumnVector previous, DataContext root ) {
+            final ColumnVector a = slots[operand];
+            if ( a.type == type ) {
+                return a;
+            }
+            final ColumnVector out = ColumnVector.reuse( previous, type, batch.size );
+            for ( int k = 0; k < batch.count; k++ ) {
+                final int i = batch.position( k );
+                if ( a.isNull( i ) ) {
+                    out.setNull( i );
+                } else if ( type.storage == ColumnType.Storage.LONG ) {
+                    out.longs[i] = type.narrow( a.longs[i] );
+                } else {
+                    out.doubles[i] = type.narrow( a.getDouble( i ) );
+                }
+            }
+            return out;
+        }
+
+    }
+
+}
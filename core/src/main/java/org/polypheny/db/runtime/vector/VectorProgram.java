@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import org.polypheny.db.adapter.DataContext;
+
+
+/**
+ * The vectorized form of a {@link org.polypheny.db.rex.RexProgram}. The expressions are evaluated in order, each
+ * expression may refer to the results of the preceding expressions.
+ */
+public class VectorProgram {
+
+    private final VectorExpression[] expressions;
+
+
+    public VectorProgram( VectorExpression[] expressions ) {
+        this.expressions = expressions;
+    }
+
+
+    /**
+     * Creates the array which holds the results of the expressions. The same array should be used for all batches of
+     * a cursor, so that the vectors can be reused.
+     */
+    public ColumnVector[] createSlots() {
+        return new ColumnVector[expressions.length];
+    }
+
+
+    public void evaluate( ColumnBatch batch, ColumnVector[] slots, DataContext root ) {
+        for ( int i = 0; i < expressions.length; i++ ) {
+            slots[i] = expressions[i].evaluate( batch, slots, slots[i], root );
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.schema;
+
+
+import lombok.Getter;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.util.EquiDepthHistogram;
+
+
+/**
+ * Statistics about a column of a {@link Table}, which are used by the optimizer to estimate the selectivity of predicates.
+ *
+ * @see Statistic#getColumnStatistic(String)
+ */
+public class ColumnStatistic {
+
+    /**
+     * The estimated number of distinct non-null values.
+     */
+    @Getter
+    private final double distinctCount;
+
+    /**
+     * The distribution of the values or {@code null} if the type of the column does not support histograms.
+     */
+    @Getter
+    private final EquiDepthHistogram histogram;
+
+
+    public ColumnStatistic( double distinctCount, EquiDepthHistogram histogram ) {
+        this.distinctCount = Math.max( 1, distinctCount );
+        this.histogram = histogram;
+    }
+
+
+    /**
+     * Returns the estimated fraction of rows which are equal to an unknown value, e.g. a dynamic parameter.
+     */
+    public double equalsSelectivity() {
+        return 1 / distinctCount;
+    }
+
+
+    /**
+     * Returns the estimated selectivity of the comparison of this column with a value.
+     *
+     * @param kind the kind of the comparison with the column on the left side
+     * @param value the numerical representation of the value
+     * @return the selectivity or {@code null} if it cannot be estimated
+     */
+    public Double comparisonSelectivity( Kind kind, double value ) {
+        if ( histogram == null ) {
+            switch ( kind ) {
+                case EQUALS:
+                    return equalsSelectivity();
+                case NOT_EQUALS:
+                    return 1 - equalsSelectivity();
+                default:
+                    return null;
+            }
+        }
+        switch ( kind ) {
+            case EQUALS:
+                return histogram.equalsSelectivity( value );
+            case NOT_EQUALS:
+                return 1 - histogram.equalsSelectivity( value );
+            case LESS_THAN:
+                return histogram.lessThanSelectivity( value, false );
+            case LESS_THAN_OR_EQUAL:
+                return histogram.lessThanSelectivity( value, true );
+            case GREATER_THAN:
+                return histogram.greaterThanSelectivity( value, false );
+            case GREATER_THAN_OR_EQUAL:
+                return histogram.greaterThanSelectivity( value, true );
+            default:
+                return null;
+        }
+    }
+
+}
@@ -75,5 +75,12 @@ public interface Statistic {
      */
     AlgDistribution getDistribution();
 
+    /**
+     * Returns the statistics of the column with the given name.
+     */
+    default ColumnStatistic getColumnStatistic( String columnName ) {
+        return null;
+    }
+
 }
 
@@ -36,6 +36,7 @@
 
 import com.google.common.collect.ImmutableList;
 import java.util.List;
+import java.util.function.Function;
 import org.polypheny.db.algebra.AlgCollation;
 import org.polypheny.db.algebra.AlgDistribution;
 import org.polypheny.db.algebra.AlgDistributionTraitDef;
@@ -112,6 +113,50 @@ public static Statistic of( final Double rowCount, final List<ImmutableBitSet> k
     }
 
 
+    /**
+     * Returns a statistic with a given row count, set of unique keys and statistics of the columns.
+     */
+    public static Statistic of( final Double rowCount, final List<ImmutableBitSet> keys, final Function<String, ColumnStatistic> columnStatistics ) {
+        final Statistic statistic = of( rowCount, keys );
+        return new Statistic() {
+            @Override
+            public Double getRowCount() {
+                return statistic.getRowCount();
+            }
+
+
+            @Override
+            public boolean isKey( ImmutableBitSet columns ) {
+                return statistic.isKey( columns );
+            }
+
+
+            @Override
+            public List<AlgReferentialConstraint> getReferentialConstraints() {
+                return statistic.getReferentialConstraints();
+            }
+
+
+            @Override
+            public List<AlgCollation> getCollations() {
+                return statistic.getCollations();
+            }
+
+
+            @Override
+            public AlgDistribution getDistribution() {
+                return statistic.getDistribution();
+            }
+
+
+            @Override
+            public ColumnStatistic getColumnStatistic( String columnName ) {
+                return columnStatistics.apply( columnName );
+            }
+        };
+    }
+
+
     /**
      * Returns a statistic with a given row count, set of unique keys, referential constraints, and collations.
      */
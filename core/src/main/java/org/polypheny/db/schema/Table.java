@@ -85,6 +85,13 @@ default AlgDataTypeFactory getTypeFactory() {
      */
     Long getTableId();
 
+    /**
+     * Returns the id of the adapter which holds this table, if it is the physical table of a placement.
+     */
+    default Integer getAdapterId() {
+        return null;
+    }
+
     /**
      * Type of table.
      */
@@ -36,6 +36,7 @@
 
 import com.google.common.collect.ImmutableList;
 import lombok.Getter;
+import lombok.Setter;
 import org.polypheny.db.StatisticsManager;
 import org.polypheny.db.nodes.Call;
 import org.polypheny.db.nodes.Node;
@@ -60,6 +61,9 @@ public abstract class AbstractTable implements Table, Wrapper {
 
     @Getter
     protected Long tableId;
+    @Getter
+    @Setter
+    protected Integer adapterId;
     protected Statistic statistic = Statistics.UNKNOWN;
 
 
@@ -99,12 +103,14 @@ public Statistic getStatistic() {
         if ( tableId == null ) {
             return Statistics.UNKNOWN;
         }
-        Integer rowCount = StatisticsManager.getInstance().rowCountPerTable( tableId );
+        final StatisticsManager statisticsManager = StatisticsManager.getInstance();
+        Integer rowCount = statisticsManager.rowCountPerTable( tableId );
 
         if ( rowCount == null ) {
             return Statistics.UNKNOWN;
         } else {
-            return Statistics.of( Double.valueOf( rowCount ), ImmutableList.of() );
+            final long id = tableId;
+            return Statistics.of( Double.valueOf( rowCount ), ImmutableList.of(), columnName -> statisticsManager.getColumnStatistic( id, columnName ) );
         }
     }
 
@@ -66,6 +66,7 @@
 import org.polypheny.db.algebra.rules.LoptOptimizeJoinRule;
 import org.polypheny.db.algebra.rules.MultiJoin;
 import org.polypheny.db.algebra.rules.MultiJoinOptimizeBushyRule;
+import org.polypheny.db.algebra.rules.MultiJoinOptimizeDpRule;
 import org.polypheny.db.algebra.rules.ProjectCalcMergeRule;
 import org.polypheny.db.algebra.rules.ProjectMergeRule;
 import org.polypheny.db.algebra.rules.ProjectToCalcRule;
@@ -138,6 +139,7 @@ public class Programs {
                     EnumerableRules.ENUMERABLE_AGGREGATE_RULE,
                     EnumerableRules.ENUMERABLE_SORT_RULE,
                     EnumerableRules.ENUMERABLE_LIMIT_RULE,
+                    EnumerableRules.ENUMERABLE_TOP_N_RULE,
                     EnumerableRules.ENUMERABLE_UNION_RULE,
                     EnumerableRules.ENUMERABLE_MODIFY_COLLECT_RULE,
                     EnumerableRules.ENUMERABLE_INTERSECT_RULE,
@@ -298,6 +300,28 @@ public static Program heuristicJoinOrder( final Iterable<? extends AlgOptRule> r
     }
 
 
+    /**
+     * Creates a program that reorders the inner joins of a plan with at least three relations by their estimated cost
+     * (via {@link JoinToMultiJoinRule}, {@link MultiJoin} and {@link MultiJoinOptimizeDpRule}).
+     */
+    public static Program joinOrder( AlgMetadataProvider metadataProvider ) {
+        return ( planner, alg, requiredOutputTraits ) -> {
+            if ( !RuntimeConfig.JOIN_ORDER_ENUMERATION.getBoolean() || AlgOptUtil.countJoins( alg ) < 2 ) {
+                return alg;
+            }
+            final HepProgram hep = new HepProgramBuilder()
+                    .addRuleInstance( FilterJoinRule.FILTER_ON_JOIN )
+                    .addMatchOrder( HepMatchOrder.BOTTOM_UP )
+                    .addRuleInstance( JoinToMultiJoinRule.INSTANCE )
+                    .build();
+            final Program program = sequence(
+                    of( hep, false, metadataProvider ),
+                    hep( ImmutableList.of( MultiJoinOptimizeDpRule.INSTANCE ), false, metadataProvider ) );
+            return program.run( planner, alg, requiredOutputTraits );
+        };
+    }
+
+
     public static Program calc( AlgMetadataProvider metadataProvider ) {
         return hep( CALC_RULES, true, metadataProvider );
     }
@@ -352,6 +376,7 @@ public static Program standard( AlgMetadataProvider metadataProvider ) {
                 subQuery( metadataProvider ),
                 new DecorrelateProgram(),
                 new TrimFieldsProgram(),
+                joinOrder( metadataProvider ),
                 program1,
 
                 // Second planner pass to do physical "tweaks". This the first time that EnumerableCalcRel is introduced.
@@ -21,6 +21,7 @@
 import org.polypheny.db.prepare.Context;
 import org.polypheny.db.monitoring.events.StatementEvent;
 import org.polypheny.db.processing.QueryProcessor;
+import org.polypheny.db.runtime.spill.MemoryBudget;
 import org.polypheny.db.util.FileInputHandle;
 
 public interface Statement {
@@ -43,6 +44,8 @@ public interface Statement {
 
     void setMonitoringEvent( StatementEvent event );
 
+    MemoryBudget getMemoryBudget();
+
     void close();
 
     void registerFileInputHandle( FileInputHandle fileInputHandle );
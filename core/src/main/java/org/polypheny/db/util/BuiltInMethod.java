@@ -47,6 +47,7 @@
 import org.polypheny.db.adapter.enumerable.lpg.EnumerableLpgMatch.MatchEnumerable;
 import org.polypheny.db.adapter.java.ReflectiveSchema;
 import org.polypheny.db.algebra.constant.ExplainLevel;
+import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.core.Modify.Operation;
 import org.polypheny.db.algebra.json.JsonConstructorNullClause;
 import org.polypheny.db.algebra.json.JsonQueryEmptyOrErrorBehavior;
@@ -65,6 +66,12 @@
 import org.polypheny.db.runtime.functions.Functions;
 import org.polypheny.db.runtime.functions.Functions.FlatProductInputType;
 import org.polypheny.db.runtime.functions.MqlFunctions;
+import org.polypheny.db.runtime.hash.PrimitiveHashEnumerables;
+import org.polypheny.db.runtime.spill.MemoryBudget;
+import org.polypheny.db.runtime.spill.SpillingEnumerables;
+import org.polypheny.db.runtime.vector.BatchOperator;
+import org.polypheny.db.runtime.vector.Batches;
+import org.polypheny.db.runtime.vector.ColumnType;
 import org.polypheny.db.schema.*;
 import org.polypheny.db.schema.graph.*;
 import org.polypheny.db.type.PolyType;
@@ -83,8 +90,8 @@
  */
 public enum BuiltInMethod {
     SWITCH_CONTEXT( DataContext.class, "switchContext" ),
-    BATCH( Functions.class, "batch", DataContext.class, Enumerable.class ),
-    STREAM_RIGHT( Functions.class, "streamRight", DataContext.class, Enumerable.class, Function0.class, List.class ),
+    BATCH( Functions.class, "batch", DataContext.class, Enumerable.class, boolean.class ),
+    STREAM_RIGHT( Functions.class, "streamRight", DataContext.class, Enumerable.class, Function0.class, List.class, int.class ),
     ENFORCE_CONSTRAINT( Functions.class, "enforceConstraint", Function0.class, Enumerable.class, List.class, List.class ),
     TO_NODE( CypherFunctions.class, "toNode", Enumerable.class ),
     TO_EDGE( CypherFunctions.class, "toEdge", Enumerable.class ),
@@ -116,6 +123,24 @@ public enum BuiltInMethod {
     JOIN( ExtendedEnumerable.class, "join", Enumerable.class, Function1.class, Function1.class, Function2.class ),
     MERGE_JOIN( EnumerableDefaults.class, "mergeJoin", Enumerable.class, Enumerable.class, Function1.class, Function1.class, Function2.class, boolean.class, boolean.class ),
     SLICE0( Enumerables.class, "slice0", Enumerable.class ),
+    SAMPLE( Enumerables.class, "sample", Enumerable.class, boolean.class, float.class, boolean.class, int.class ),
+    COUNT_ROWS( Enumerables.class, "countRows", Enumerable.class, DataContext.class, String.class, double.class ),
+    TOP_N( Enumerables.class, "topN", Enumerable.class, Function1.class, Comparator.class, int.class, int.class ),
+    BATCHES_TO_ROWS( Batches.class, "toRows", BatchOperator.class, DataContext.class ),
+    PARALLEL_GATHER( ParallelEnumerables.class, "gather", List.class ),
+    PARALLEL_GROUP_BY( ParallelEnumerables.class, "groupBy", Enumerable.class, Function1.class, Function0.class, Function2.class, Function2.class, EqualityComparer.class, int.class ),
+    PARALLEL_MODIFY_COLLECT( ParallelEnumerables.class, "modifyCollect", List.class ),
+    PARALLEL_JOIN( ParallelEnumerables.class, "join", Enumerable.class, Enumerable.class, Function1.class, Function1.class, Function2.class, EqualityComparer.class, boolean.class, boolean.class, int.class ),
+    PARALLEL_ORDER_BY( ParallelEnumerables.class, "orderBy", Enumerable.class, Function1.class, Comparator.class, int.class ),
+    MEMORY_BUDGET_OF( MemoryBudget.class, "of", DataContext.class ),
+    SPILL_ORDER_BY( SpillingEnumerables.class, "orderBy", Enumerable.class, Function1.class, Comparator.class, MemoryBudget.class ),
+    SPILL_GROUP_BY( SpillingEnumerables.class, "groupBy", Enumerable.class, Function1.class, Function0.class, Function2.class, Function2.class, EqualityComparer.class, MemoryBudget.class ),
+    SPILL_JOIN( SpillingEnumerables.class, "join", Enumerable.class, Enumerable.class, Function1.class, Function1.class, Function2.class, EqualityComparer.class, boolean.class, boolean.class, MemoryBudget.class ),
+    SPILL_EXCEPT( SpillingEnumerables.class, "except", Enumerable.class, Enumerable.class, EqualityComparer.class, MemoryBudget.class ),
+    SPILL_INTERSECT( SpillingEnumerables.class, "intersect", Enumerable.class, Enumerable.class, EqualityComparer.class, MemoryBudget.class ),
+    SPILL_RETAIN( SpillingEnumerables.class, "retain", Enumerable.class, MemoryBudget.class, String.class ),
+    PRIMITIVE_HASH_JOIN( PrimitiveHashEnumerables.class, "join", Enumerable.class, Enumerable.class, int[].class, int[].class, Function2.class, boolean.class, boolean.class ),
+    PRIMITIVE_HASH_GROUP_BY( PrimitiveHashEnumerables.class, "groupBy", Enumerable.class, int[].class, Kind[].class, int[].class, ColumnType[].class ),
     SEMI_JOIN( EnumerableDefaults.class, "semiJoin", Enumerable.class, Enumerable.class, Function1.class, Function1.class ),
     THETA_JOIN( EnumerableDefaults.class, "thetaJoin", Enumerable.class, Enumerable.class, Predicate2.class, Function2.class, boolean.class, boolean.class ),
     SINGLE_SUM( Functions.class, "singleSum", Enumerable.class ),
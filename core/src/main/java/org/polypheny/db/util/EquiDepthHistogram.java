@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.util;
+
+
+import java.util.Arrays;
+
+
+/**
+ * An equi-depth histogram over the non-null values of a numerical or temporal column. All buckets contain roughly the
+ * same number of values. A value never spans multiple buckets, so frequent values end up in buckets of their own,
+ * which allows estimating the selectivity of predicates on skewed columns. Within a bucket, the values are assumed to be
+ * distributed uniformly.
+ *
+ * Values can be added to an existing histogram (see {@link #add(double)}). As the buckets are not rebalanced, the
+ * accuracy degrades with the number of added values until the histogram is rebuilt.
+ *
+ * Temporal values are represented by their numerical value, i.e. days since epoch for dates and milliseconds for
+ * times and timestamps.
+ */
+public class EquiDepthHistogram {
+
+    private final double[] lowerBounds;
+    private final double[] upperBounds;
+    private final long[] counts;
+    private final long[] distinctCounts;
+
+    private long totalCount;
+
+
+    private EquiDepthHistogram( double[] lowerBounds, double[] upperBounds, long[] counts, long[] distinctCounts, long totalCount ) {
+        this.lowerBounds = lowerBounds;
+        this.upperBounds = upperBounds;
+        this.counts = counts;
+        this.distinctCounts = distinctCounts;
+        this.totalCount = totalCount;
+    }
+
+
+    /**
+     * Builds a histogram over the given values.
+     *
+     * @param values the non-null values, the array is sorted in place
+     * @param buckets the maximum number of buckets
+     * @return the histogram or {@code null} if there are no values
+     */
+    public static EquiDepthHistogram create( double[] values, int buckets ) {
+        if ( values.length == 0 || buckets < 1 ) {
+            return null;
+        }
+        Arrays.sort( values );
+        final int n = values.length;
+
+        double[] lower = new double[buckets];
+        double[] upper = new double[buckets];
+        long[] counts = new long[buckets];
+        long[] distinct = new long[buckets];
+        int bucket = 0;
+        int start = 0;
+        while ( start < n ) {
+            // Spread the remaining values evenly over the remaining buckets
+            int remainingBuckets = buckets - bucket;
+            int end = remainingBuckets == 1 ? n : Math.min( n, start + Math.max( 1, (int) Math.round( (double) (n - start) / remainingBuckets ) ) );
+            if ( end < n && values[end] == values[end - 1] ) {
+                // A value never spans two buckets, either end the bucket before the run of equal values or include the whole run
+                int runStart = end - 1;
+                while ( runStart > start && values[runStart - 1] == values[end] ) {
+                    runStart--;
+                }
+                if ( runStart > start ) {
+                    end = runStart;
+                } else {
+                    while ( end < n && values[end] == values[end - 1] ) {
+                        end++;
+                    }
+                }
+            }
+            long distinctValues = 1;
+            for ( int i = start + 1; i < end; i++ ) {
+                if ( values[i] != values[i - 1] ) {
+                    distinctValues++;
+                }
+            }
+            lower[bucket] = values[start];
+            upper[bucket] = values[end - 1];
+            counts[bucket] = end - start;
+            distinct[bucket] = distinctValues;
+            bucket++;
+            start = end;
+        }
+        return new EquiDepthHistogram(
+                Arrays.copyOf( lower, bucket ),
+                Arrays.copyOf( upper, bucket ),
+                Arrays.copyOf( counts, bucket ),
+                Arrays.copyOf( distinct, bucket ),
+                n );
+    }
+
+
+    /**
+     * Adds a value to the bucket containing it. Values outside the range of the histogram extend the first or the last bucket.
+     */
+    public synchronized void add( double value ) {
+        int bucket = 0;
+        while ( bucket < counts.length - 1 && value > upperBounds[bucket] && value >= lowerBounds[bucket + 1] ) {
+            bucket++;
+        }
+        if ( value < lowerBounds[bucket] ) {
+            lowerBounds[bucket] = value;
+            distinctCounts[bucket]++;
+        } else if ( value > upperBounds[bucket] ) {
+            upperBounds[bucket] = value;
+            distinctCounts[bucket]++;
+        }
+        counts[bucket]++;
+        totalCount++;
+    }
+
+
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+
+    public synchronized double getMin() {
+        return lowerBounds[0];
+    }
+
+
+    public synchronized double getMax() {
+        return upperBounds[upperBounds.length - 1];
+    }
+
+
+    /**
+     * Returns the estimated fraction of values which are equal to the given value.
+     */
+    public synchronized double equalsSelectivity( double value ) {
+        int bucket = findBucket( value );
+        if ( bucket < 0 ) {
+            return 0;
+        }
+        return (double) counts[bucket] / distinctCounts[bucket] / totalCount;
+    }
+
+
+    /**
+     * Returns the estimated fraction of values which are smaller than (or equal to) the given value.
+     */
+    public synchronized double lessThanSelectivity( double value, boolean inclusive ) {
+        double count = 0;
+        for ( int i = 0; i < counts.length; i++ ) {
+            if ( upperBounds[i] < value ) {
+                count += counts[i];
+            } else if ( lowerBounds[i] <= value ) {
+                double frequency = (double) counts[i] / distinctCounts[i];
+                double smaller = 0;
+                if ( upperBounds[i] > lowerBounds[i] ) {
+                    // Assume a uniform distribution within the bucket
+                    smaller = Math.max( 0, (counts[i] - frequency) * (value - lowerBounds[i]) / (upperBounds[i] - lowerBounds[i]) );
+                }
+                count += Math.min( counts[i], inclusive ? smaller + frequency : smaller );
+                break;
+            } else {
+                break;
+            }
+        }
+        return Math.min( 1, count / totalCount );
+    }
+
+
+    /**
+     * Returns the estimated fraction of values which are greater than (or equal to) the given value.
+     */
+    public double greaterThanSelectivity( double value, boolean inclusive ) {
+        return Math.max( 0, 1 - lessThanSelectivity( value, !inclusive ) );
+    }
+
+
+    private int findBucket( double value ) {
+        for ( int i = 0; i < counts.length; i++ ) {
+            if ( value < lowerBounds[i] ) {
+                return -1;
+            }
+            if ( value <= upperBounds[i] ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.util;
+
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import lombok.Getter;
+
+
+/**
+ * A HyperLogLog sketch, which estimates the number of distinct values of a stream of values using a fixed amount of
+ * memory. With the default precision of 12 bits, the sketch uses 4096 registers and has a standard error of about 1.6%.
+ *
+ * Numbers are hashed by their value, independently of their Java type, so that e.g. an {@link Integer} and a
+ * {@link Long} with the same value are counted once. {@code null} values are ignored.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    @Getter
+    private final int precision;
+    private final byte[] registers;
+
+
+    public HyperLogLog() {
+        this( DEFAULT_PRECISION );
+    }
+
+
+    public HyperLogLog( int precision ) {
+        if ( precision < 4 || precision > 18 ) {
+            throw new IllegalArgumentException( "The precision of a HyperLogLog sketch has to be between 4 and 18." );
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+
+    /**
+     * Adds a value to the sketch.
+     */
+    public void add( Object value ) {
+        if ( value != null ) {
+            addHash( hash( value ) );
+        }
+    }
+
+
+    /**
+     * Adds a 64-bit hash of a value to the sketch. The hash has to be uniformly distributed.
+     */
+    public synchronized void addHash( long hash ) {
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit limits the rank to 64 - precision + 1
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros( remaining ) + 1);
+        if ( rank > registers[index] ) {
+            registers[index] = rank;
+        }
+    }
+
+
+    /**
+     * Merges another sketch into this sketch. Afterwards, this sketch estimates the distinct values of both streams.
+     */
+    public synchronized void merge( HyperLogLog other ) {
+        if ( other.precision != precision ) {
+            throw new IllegalArgumentException( "Only sketches with the same precision can be merged." );
+        }
+        for ( int i = 0; i < registers.length; i++ ) {
+            registers[i] = (byte) Math.max( registers[i], other.registers[i] );
+        }
+    }
+
+
+    /**
+     * Returns the estimated number of distinct values added to this sketch.
+     */
+    public synchronized long estimate() {
+        final int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for ( byte register : registers ) {
+            sum += 1.0 / (1L << register);
+            if ( register == 0 ) {
+                zeros++;
+            }
+        }
+        double estimate = alpha( m ) * m * m / sum;
+        if ( estimate <= 2.5 * m && zeros > 0 ) {
+            // Linear counting is more accurate for small cardinalities
+            estimate = m * Math.log( (double) m / zeros );
+        }
+        return Math.round( estimate );
+    }
+
+
+    public synchronized boolean isEmpty() {
+        for ( byte register : registers ) {
+            if ( register != 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static double alpha( int m ) {
+        switch ( m ) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+
+    static long hash( Object value ) {
+        if ( value instanceof Number ) {
+            Number number = (Number) value;
+            if ( value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ) {
+                return HASH_FUNCTION.hashLong( number.longValue() ).asLong();
+            }
+            BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : BigDecimal.valueOf( number.doubleValue() );
+            decimal = decimal.stripTrailingZeros();
+            if ( decimal.scale() <= 0 && decimal.precision() - decimal.scale() < 19 ) {
+                return HASH_FUNCTION.hashLong( decimal.longValue() ).asLong();
+            }
+            return HASH_FUNCTION.hashString( decimal.toPlainString(), StandardCharsets.UTF_8 ).asLong();
+        }
+        return HASH_FUNCTION.hashString( value.toString(), StandardCharsets.UTF_8 ).asLong();
+    }
+
+}
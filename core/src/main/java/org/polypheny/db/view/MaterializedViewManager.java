@@ -19,6 +19,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 import org.polypheny.db.adapter.DataStore;
 import org.polypheny.db.algebra.AlgNode;
@@ -78,6 +79,54 @@ public abstract void addData(
 
     public abstract void addMaterializedInfo( Long materializedId, MaterializedCriteria matViewCriteria );
 
+    /**
+     * Returns the ids of all registered materialized views.
+     */
+    public abstract Set<Long> getMaterializedViewIds();
+
+    /**
+     * Checks whether a materialized view can answer queries of a transaction instead of its underlying tables.
+     * This is the case if it reflects all changes of the underlying tables which have been committed more than
+     * {@code maxStaleness} milliseconds ago and the transaction itself has not modified the underlying tables.
+     *
+     * @param transaction the transaction of the query
+     * @param materializedId id of the materialized view
+     * @param maxStaleness tolerated age of the changes of the underlying tables not reflected by the view (in milliseconds)
+     */
+    public abstract boolean isFresh( Transaction transaction, Long materializedId, long maxStaleness );
+
+    /**
+     * Checks whether the changes of a table have to be captured for the incremental update of materialized views.
+     *
+     * @param tableId id of the modified table
+     */
+    public abstract boolean requiresDelta( Long tableId );
+
+    /**
+     * Records rows inserted into and deleted from a table by a transaction. The changes are applied to the materialized
+     * views of the table once the transaction has committed.
+     *
+     * @param transaction the modifying transaction
+     * @param tableId id of the modified table
+     * @param inserted the inserted rows or null if the changes are unknown
+     * @param deleted the deleted rows or null if the changes are unknown
+     */
+    public abstract void addDelta( Transaction transaction, Long tableId, List<List<Object>> inserted, List<List<Object>> deleted );
+
+    /**
+     * Hands over the changes of a committing transaction. Has to be called before the locks of the transaction are released.
+     *
+     * @param xid of the committing transaction
+     */
+    public abstract void publishDeltas( PolyXid xid );
+
+    /**
+     * Discards the changes of a transaction which has been rolled back.
+     *
+     * @param xid of the rolled back transaction
+     */
+    public abstract void updateRolledBackXid( PolyXid xid );
+
 
     /**
      * to trek updates on tables for materialized views with update freshness
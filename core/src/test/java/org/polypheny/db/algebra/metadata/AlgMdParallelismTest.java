@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.metadata;
+
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+public class AlgMdParallelismTest {
+
+    private int parallelism;
+    private int threshold;
+    private int budget;
+
+
+    @Before
+    public void saveConfig() {
+        parallelism = RuntimeConfig.PARALLELISM.getInteger();
+        threshold = RuntimeConfig.PARALLELISM_THRESHOLD.getInteger();
+        budget = RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger();
+    }
+
+
+    @After
+    public void restoreConfig() {
+        RuntimeConfig.PARALLELISM.setInteger( parallelism );
+        RuntimeConfig.PARALLELISM_THRESHOLD.setInteger( threshold );
+        RuntimeConfig.STATEMENT_MEMORY_BUDGET.setInteger( budget );
+    }
+
+
+    @Test
+    public void testMaterializingDegree() {
+        RuntimeConfig.PARALLELISM.setInteger( 4 );
+        RuntimeConfig.PARALLELISM_THRESHOLD.setInteger( 100 );
+        RuntimeConfig.STATEMENT_MEMORY_BUDGET.setInteger( 0 );
+        assertEquals( 4, AlgMdParallelism.materializingDegree( 1000d ) );
+        assertEquals( 1, AlgMdParallelism.materializingDegree( 10d ) );
+        assertEquals( 1, AlgMdParallelism.materializingDegree( null ) );
+    }
+
+
+    @Test
+    public void testMaterializingDegreeWithBudget() {
+        // The partitions of parallel operators are not accounted to the budget, so they are not used
+        RuntimeConfig.PARALLELISM.setInteger( 4 );
+        RuntimeConfig.PARALLELISM_THRESHOLD.setInteger( 100 );
+        RuntimeConfig.STATEMENT_MEMORY_BUDGET.setInteger( 1 );
+        assertEquals( 1, AlgMdParallelism.materializingDegree( 1000d ) );
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.metadata;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.DataContext.SlimDataContext;
+import org.polypheny.db.algebra.AlgFingerprint;
+import org.polypheny.db.algebra.metadata.CardinalityFeedback.Collector;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.runtime.Enumerables;
+
+
+/**
+ * Tests the collection of actual cardinalities by {@link CardinalityFeedback} and {@link Enumerables#countRows}.
+ */
+public class CardinalityFeedbackTest {
+
+    private static final List<Integer> ROWS = Arrays.asList( 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20 );
+
+    private boolean previousActive;
+    private double previousSampleRate;
+
+
+    @Before
+    public void enable() {
+        previousActive = RuntimeConfig.CARDINALITY_FEEDBACK.getBoolean();
+        previousSampleRate = RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.getDouble();
+        RuntimeConfig.CARDINALITY_FEEDBACK.setBoolean( true );
+        RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.setDouble( 1 );
+        CardinalityFeedback.INSTANCE.reset();
+    }
+
+
+    @After
+    public void restore() {
+        CardinalityFeedback.INSTANCE.reset();
+        RuntimeConfig.CARDINALITY_FEEDBACK.setBoolean( previousActive );
+        RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.setDouble( previousSampleRate );
+    }
+
+
+    @Test
+    public void testQError() {
+        assertEquals( 1, CardinalityFeedback.qError( 10, 10 ), 0 );
+        assertEquals( 10, CardinalityFeedback.qError( 10, 100 ), 0 );
+        assertEquals( 10, CardinalityFeedback.qError( 100, 10 ), 0 );
+        // Cardinalities below one are treated as one
+        assertEquals( 5, CardinalityFeedback.qError( 0, 5 ), 0 );
+    }
+
+
+    @Test
+    public void testNotSampled() {
+        Enumerable<Integer> input = Linq4j.asEnumerable( ROWS );
+        assertSame( input, Enumerables.countRows( input, new SlimDataContext(), "key", 20 ) );
+
+        RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.setDouble( 0 );
+        assertNull( CardinalityFeedback.INSTANCE.startCollection( Collections.emptyList() ) );
+    }
+
+
+    @Test
+    public void testMisestimateMarksPlanAsStale() {
+        AlgFingerprint plan = AlgFingerprint.of( "plan" );
+        Collector collector = CardinalityFeedback.INSTANCE.startCollection( Collections.singletonList( plan ) );
+        assertNotNull( collector );
+
+        // The estimate is within the re-planning threshold
+        assertEquals( ROWS, Enumerables.countRows( Linq4j.asEnumerable( ROWS ), context( collector ), "key", 10 ).toList() );
+        assertFalse( CardinalityFeedback.INSTANCE.pollStale( plan ) );
+
+        // The estimate is off by more than the re-planning threshold
+        assertEquals( ROWS, Enumerables.countRows( Linq4j.asEnumerable( ROWS ), context( collector ), "key", 1 ).toList() );
+        assertTrue( CardinalityFeedback.INSTANCE.pollStale( plan ) );
+        assertFalse( CardinalityFeedback.INSTANCE.pollStale( plan ) );
+    }
+
+
+    @Test
+    public void testIncompleteEnumerationIsNotRecorded() {
+        AlgFingerprint plan = AlgFingerprint.of( "plan" );
+        Collector collector = CardinalityFeedback.INSTANCE.startCollection( Collections.singletonList( plan ) );
+
+        // A limit stops the enumeration before the input is exhausted, the count is therefore not the cardinality
+        assertEquals( 2, Enumerables.countRows( Linq4j.asEnumerable( ROWS ), context( collector ), "key", 1 ).take( 2 ).count() );
+        assertFalse( CardinalityFeedback.INSTANCE.pollStale( plan ) );
+    }
+
+
+    private static DataContext context( Collector collector ) {
+        return new SlimDataContext() {
+            @Override
+            public Object get( String name ) {
+                return CardinalityFeedback.COLLECTOR_VARIABLE.equals( name ) ? collector : null;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.rules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.polypheny.db.algebra.rules.LoptMultiJoin.Edge;
+import org.polypheny.db.algebra.rules.MultiJoinOptimizeDpRule.JoinGraph;
+import org.polypheny.db.algebra.rules.MultiJoinOptimizeDpRule.JoinPlan;
+import org.polypheny.db.util.ImmutableBitSet;
+
+
+/**
+ * Tests the join order enumeration of {@link MultiJoinOptimizeDpRule} on join graphs with given cardinalities and
+ * selectivities.
+ */
+public class MultiJoinOptimizeDpRuleTest {
+
+    private static final double DELTA = 1e-6;
+
+
+    /**
+     * Chain {@code R0 - R1 - R2}: joining the small relation R2 first is cheaper than joining R0 and R1 first.
+     */
+    @Test
+    public void testChain() {
+        List<JoinPlan> leaves = leaves( 100, 100, 10 );
+        JoinGraph graph = graph( new int[][]{ { 0, 1 }, { 1, 2 } }, 0.01, 0.01 );
+
+        JoinPlan plan = MultiJoinOptimizeDpRule.optimize( leaves, graph, 10 );
+        assertEquals( "(0 JOIN (1 JOIN 2))", render( plan ) );
+        assertEquals( 10, plan.rows, DELTA );
+        assertEquals( 20, plan.getTotalCost(), DELTA );
+        assertConnected( plan, graph );
+    }
+
+
+    /**
+     * Star with the fact table R0 and the dimensions R1 to R3: the dimensions are joined in the order of their selectivity.
+     */
+    @Test
+    public void testStar() {
+        List<JoinPlan> leaves = leaves( 1000, 10, 10, 10 );
+        JoinGraph graph = graph( new int[][]{ { 0, 1 }, { 0, 2 }, { 0, 3 } }, 0.1, 0.05, 0.01 );
+
+        JoinPlan plan = MultiJoinOptimizeDpRule.optimize( leaves, graph, 10 );
+        assertEquals( "(((0 JOIN 3) JOIN 2) JOIN 1)", render( plan ) );
+        assertEquals( 50, plan.rows, DELTA );
+        assertEquals( 200, plan.getTotalCost(), DELTA );
+        assertConnected( plan, graph );
+    }
+
+
+    /**
+     * R2 is not connected to the other relations: the cross product is applied last, as it is the most expensive join.
+     */
+    @Test
+    public void testCrossProduct() {
+        List<JoinPlan> leaves = leaves( 10, 10, 5 );
+        JoinGraph graph = graph( new int[][]{ { 0, 1 } }, 0.1 );
+
+        assertNull( graph.join( leaves.get( 0 ), leaves.get( 2 ), false ) );
+        JoinPlan plan = MultiJoinOptimizeDpRule.optimize( leaves, graph, 10 );
+        assertEquals( "((1 JOIN 0) JOIN 2)", render( plan ) );
+        assertEquals( 50, plan.rows, DELTA );
+        assertEquals( 60, plan.getTotalCost(), DELTA );
+    }
+
+
+    /**
+     * Joins with more relations than the limit of the enumeration are ordered greedily, which must not introduce
+     * cross products either.
+     */
+    @Test
+    public void testGreedyFallback() {
+        final int n = 12;
+        double[] rows = new double[n];
+        int[][] edges = new int[n - 1][];
+        double[] selectivities = new double[n - 1];
+        for ( int i = 0; i < n; i++ ) {
+            rows[i] = 100;
+        }
+        for ( int i = 0; i < n - 1; i++ ) {
+            edges[i] = new int[]{ i, i + 1 };
+            selectivities[i] = 0.01;
+        }
+        List<JoinPlan> leaves = leaves( rows );
+        JoinGraph graph = graph( edges, selectivities );
+
+        JoinPlan plan = MultiJoinOptimizeDpRule.optimize( leaves, graph, 10 );
+        assertEquals( ImmutableBitSet.range( n ), plan.factors );
+        assertEquals( 100, plan.rows, DELTA );
+        // Every join of connected sub-chains yields 100 rows
+        assertEquals( 100 * (n - 1), plan.getTotalCost(), DELTA );
+        assertConnected( plan, graph );
+    }
+
+
+    /**
+     * The greedy fallback yields the same plan as the enumeration where the locally cheapest join is optimal.
+     */
+    @Test
+    public void testGreedyFallbackBelowLimit() {
+        List<JoinPlan> leaves = leaves( 100, 100, 10 );
+        JoinGraph graph = graph( new int[][]{ { 0, 1 }, { 1, 2 } }, 0.01, 0.01 );
+
+        JoinPlan enumerated = MultiJoinOptimizeDpRule.optimize( leaves, graph, 10 );
+        JoinPlan greedy = MultiJoinOptimizeDpRule.optimize( leaves, graph, 2 );
+        assertEquals( render( enumerated ), render( greedy ) );
+        assertEquals( enumerated.getTotalCost(), greedy.getTotalCost(), DELTA );
+    }
+
+
+    private static List<JoinPlan> leaves( double... rows ) {
+        List<JoinPlan> leaves = new ArrayList<>();
+        for ( int i = 0; i < rows.length; i++ ) {
+            leaves.add( new JoinPlan( i, rows[i], null ) );
+        }
+        return leaves;
+    }
+
+
+    private static JoinGraph graph( int[][] factors, double... selectivities ) {
+        List<Edge> edges = new ArrayList<>();
+        for ( int[] edge : factors ) {
+            edges.add( new Edge( null, ImmutableBitSet.of( edge ), ImmutableBitSet.of() ) );
+        }
+        return new JoinGraph( edges, selectivities );
+    }
+
+
+    private static String render( JoinPlan plan ) {
+        if ( plan.isLeaf() ) {
+            return String.valueOf( plan.factor );
+        }
+        return "(" + render( plan.left ) + " JOIN " + render( plan.right ) + ")";
+    }
+
+
+    private static void assertConnected( JoinPlan plan, JoinGraph graph ) {
+        if ( plan.isLeaf() ) {
+            return;
+        }
+        assertFalse( "Cross product in " + plan, graph.getConditions( plan.left, plan.right ).isEmpty() );
+        assertTrue( plan.left.rows >= plan.right.rows );
+        assertConnected( plan.left, graph );
+        assertConnected( plan.right, graph );
+    }
+
+}
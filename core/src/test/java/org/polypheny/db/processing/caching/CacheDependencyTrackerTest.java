@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Tests {@link CacheDependencyTracker} and {@link CacheInvalidation}.
+ */
+public class CacheDependencyTrackerTest {
+
+    private final CacheDependencyTracker<String, String> tracker = new CacheDependencyTracker<>();
+    private final Cache<String, String> cache = CacheBuilder.newBuilder()
+            .concurrencyLevel( 1 )
+            .maximumSize( 2 )
+            .removalListener( tracker.removalListener() )
+            .build();
+
+
+    private void put( String key, CacheDependencies dependencies ) {
+        tracker.register( key, dependencies );
+        cache.put( key, key );
+    }
+
+
+    @Test
+    public void testSchemaChange() {
+        put( "a", new CacheDependencies( ImmutableList.of( 1L, 2L ), ImmutableList.of(), ImmutableList.of() ) );
+        put( "b", new CacheDependencies( ImmutableList.of( 3L ), ImmutableList.of(), ImmutableList.of() ) );
+
+        CacheInvalidation invalidation = CacheInvalidation.schemaChange( 2 );
+        Assert.assertEquals( 1, tracker.invalidate( cache, invalidation, invalidation::affectsPhysicalPlan ) );
+        Assert.assertNull( cache.getIfPresent( "a" ) );
+        Assert.assertNotNull( cache.getIfPresent( "b" ) );
+        Assert.assertEquals( 1, tracker.getEvictions( InvalidationCause.SCHEMA_CHANGE ) );
+
+        // Already evicted entries are not counted twice
+        Assert.assertEquals( 0, tracker.invalidate( cache, CacheInvalidation.schemaChange( 1 ), d -> true ) );
+    }
+
+
+    @Test
+    public void testPlacementChange() {
+        put( "a", new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of( 10L ), ImmutableList.of( 1 ) ) );
+        put( "b", new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of( 10L ), ImmutableList.of( 2 ) ) );
+
+        CacheInvalidation invalidation = CacheInvalidation.placementChange( 1, 2 );
+        Assert.assertFalse( invalidation.affectsLogicalPlan( new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of(), ImmutableList.of() ) ) );
+        Assert.assertEquals( 1, tracker.invalidate( cache, invalidation, invalidation::affectsPhysicalPlan ) );
+        Assert.assertNotNull( cache.getIfPresent( "a" ) );
+        Assert.assertNull( cache.getIfPresent( "b" ) );
+        Assert.assertEquals( 1, tracker.getEvictions( InvalidationCause.PLACEMENT_CHANGE ) );
+    }
+
+
+    @Test
+    public void testPartitionChange() {
+        CacheDependencies dependencies = new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of( 10L, 11L ), ImmutableList.of( 1 ) );
+        Assert.assertTrue( CacheInvalidation.partitionChange( 1, ImmutableList.of( 11L ) ).affectsPhysicalPlan( dependencies ) );
+        Assert.assertFalse( CacheInvalidation.partitionChange( 1, ImmutableList.of( 12L ) ).affectsPhysicalPlan( dependencies ) );
+        Assert.assertTrue( CacheInvalidation.partitionChange( 1, ImmutableList.of( 12L ) ).affectsRoutingPlan( dependencies ) );
+        Assert.assertFalse( CacheInvalidation.partitionChange( 2, ImmutableList.of( 11L ) ).affectsRoutingPlan( dependencies ) );
+    }
+
+
+    @Test
+    public void testDataChange() {
+        put( "a", new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of( 10L ), ImmutableList.of( 1 ) ) );
+        put( "b", new CacheDependencies( ImmutableList.of( 2L ), ImmutableList.of(), ImmutableList.of() ) );
+
+        CacheInvalidation invalidation = CacheInvalidation.dataChange( 1 );
+        Assert.assertFalse( invalidation.affectsLogicalPlan( new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of(), ImmutableList.of() ) ) );
+        Assert.assertEquals( 1, tracker.invalidate( cache, invalidation, d -> true ) );
+        Assert.assertNull( cache.getIfPresent( "a" ) );
+        Assert.assertNotNull( cache.getIfPresent( "b" ) );
+        Assert.assertEquals( 1, tracker.getEvictions( InvalidationCause.DATA_CHANGE ) );
+    }
+
+
+    @Test
+    public void testCapacityEviction() {
+        put( "a", new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of(), ImmutableList.of() ) );
+        put( "b", new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of(), ImmutableList.of() ) );
+        put( "c", new CacheDependencies( ImmutableList.of( 1L ), ImmutableList.of(), ImmutableList.of() ) );
+        cache.cleanUp();
+
+        Assert.assertEquals( 1, tracker.getEvictions( InvalidationCause.CAPACITY ) );
+        CacheInvalidation invalidation = CacheInvalidation.schemaChange( 1 );
+        Assert.assertEquals( 2, tracker.invalidate( cache, invalidation, invalidation::affectsPhysicalPlan ) );
+        Assert.assertEquals( 0, cache.size() );
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.polypheny.db.runtime.Bindable;
+
+
+/**
+ * Tests {@link PersistentImplementationCache}.
+ */
+public class PersistentImplementationCacheTest {
+
+    private static final String CLASS_BODY = "public org.apache.calcite.linq4j.Enumerable bind(org.polypheny.db.adapter.DataContext root) {\n"
+            + "  return org.apache.calcite.linq4j.Linq4j.singletonEnumerable(\"a\");\n"
+            + "}\n"
+            + "public java.lang.reflect.Type getElementType() {\n"
+            + "  return String.class;\n"
+            + "}\n";
+
+    private File folder;
+
+
+    @Before
+    public void createFolder() throws Exception {
+        folder = Files.createTempDirectory( "implementations" ).toFile();
+    }
+
+
+    @After
+    public void deleteFolder() {
+        File[] files = folder.listFiles();
+        if ( files != null ) {
+            for ( File file : files ) {
+                assertTrue( file.delete() );
+            }
+        }
+        assertTrue( folder.delete() );
+    }
+
+
+    private static Object bind( PersistentImplementationCache cache ) throws Exception {
+        Bindable<?> bindable = cache.getBindable( "Baz", CLASS_BODY, true, PersistentImplementationCacheTest.class.getClassLoader() );
+        return bindable.bind( null ).first();
+    }
+
+
+    @Test
+    public void testReuseAfterRestart() throws Exception {
+        PersistentImplementationCache cache = new PersistentImplementationCache();
+        assertTrue( cache.open( folder, "v1" ) );
+        assertEquals( "a", bind( cache ) );
+        cache.flush();
+
+        // A new instance with the same version finds the stored bytecode
+        PersistentImplementationCache restarted = new PersistentImplementationCache();
+        assertTrue( restarted.open( folder, "v1" ) );
+        assertEquals( "a", bind( restarted ) );
+        assertEquals( 1, restarted.getHits() );
+        assertEquals( 0, restarted.getMisses() );
+    }
+
+
+    @Test
+    public void testDiscardOnVersionChange() throws Exception {
+        PersistentImplementationCache cache = new PersistentImplementationCache();
+        assertTrue( cache.open( folder, "v1" ) );
+        bind( cache );
+        cache.flush();
+
+        PersistentImplementationCache restarted = new PersistentImplementationCache();
+        assertTrue( restarted.open( folder, "v2" ) );
+        assertEquals( 1, restarted.getRejected() );
+        assertEquals( "a", bind( restarted ) );
+        assertEquals( 0, restarted.getHits() );
+        assertEquals( 1, restarted.getMisses() );
+    }
+
+
+    @Test
+    public void testUnpackagedBuildIsNotStamped() {
+        // The classes of the tests are not loaded from a jar file, so the build cannot be identified
+        assertNull( new PersistentImplementationCache().getVersionStamp() );
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.processing.caching.TranslationCache.CacheKey;
+
+
+/**
+ * Tests the keys of the {@link TranslationCache}.
+ */
+public class TranslationCacheTest {
+
+    private static CacheKey sql( String query ) {
+        return CacheKey.of( "sql", "public", query );
+    }
+
+
+    @Test
+    public void testWhitespace() {
+        Assert.assertEquals( sql( "SELECT * FROM t WHERE a = 1" ), sql( "  SELECT *\n  FROM t\tWHERE a = 1 " ) );
+        Assert.assertNotEquals( sql( "SELECT * FROM t WHERE a = 1" ), sql( "SELECT * FROM t WHERE a = 2" ) );
+    }
+
+
+    @Test
+    public void testQuotedWhitespace() {
+        Assert.assertNotEquals( sql( "SELECT * FROM t WHERE a = 'x  y'" ), sql( "SELECT * FROM t WHERE a = 'x y'" ) );
+        Assert.assertNotEquals( sql( "SELECT \"a  b\" FROM t" ), sql( "SELECT \"a b\" FROM t" ) );
+        Assert.assertEquals( sql( "SELECT * FROM t WHERE a = 'x  y'" ), sql( "SELECT *  FROM t WHERE a = 'x  y'" ) );
+    }
+
+
+    @Test
+    public void testLineComments() {
+        Assert.assertNotEquals( sql( "SELECT * FROM t -- x\nWHERE a = 1" ), sql( "SELECT * FROM t -- x WHERE a = 1" ) );
+        Assert.assertNotEquals(
+                CacheKey.of( "cypher", "public", "MATCH (n) // x\nRETURN n" ),
+                CacheKey.of( "cypher", "public", "MATCH (n) // x RETURN n" ) );
+        // Whitespace before the comment is still collapsed
+        Assert.assertEquals( sql( "SELECT * FROM t -- x\nWHERE a = 1" ), sql( "SELECT *   FROM t -- x\nWHERE a = 1" ) );
+        // Dashes within literals do not start a comment
+        Assert.assertEquals( sql( "SELECT * FROM t WHERE a = '--'  AND b = 1" ), sql( "SELECT * FROM t WHERE a = '--' AND b = 1" ) );
+    }
+
+
+    @Test
+    public void testBlockComments() {
+        Assert.assertNotEquals( sql( "SELECT * FROM t /* a  */ WHERE a = 1" ), sql( "SELECT * FROM t /* a */ WHERE a = 1" ) );
+    }
+
+
+    @Test
+    public void testNamespaceAndLanguage() {
+        Assert.assertNotEquals( CacheKey.of( "sql", "public", "SELECT 1" ), CacheKey.of( "sql", "other", "SELECT 1" ) );
+        Assert.assertNotEquals( CacheKey.of( "sql", "public", "db.t.find({})" ), CacheKey.of( "mql", "public", "db.t.find({})" ) );
+    }
+
+
+    @Test
+    public void testCacheableKinds() {
+        Assert.assertFalse( RuntimeConfig.TRANSLATION_CACHING_DML.getBoolean() );
+        Assert.assertTrue( TranslationCache.isCacheable( Kind.SELECT ) );
+        Assert.assertFalse( TranslationCache.isCacheable( Kind.INSERT ) );
+        Assert.assertFalse( TranslationCache.isCacheable( Kind.CREATE_TABLE ) );
+
+        RuntimeConfig.TRANSLATION_CACHING_DML.setBoolean( true );
+        try {
+            Assert.assertTrue( TranslationCache.isCacheable( Kind.INSERT ) );
+            Assert.assertFalse( TranslationCache.isCacheable( Kind.CREATE_TABLE ) );
+        } finally {
+            RuntimeConfig.TRANSLATION_CACHING_DML.setBoolean( false );
+        }
+    }
+
+}
@@ -37,11 +37,15 @@
 import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.EnumerableDefaults;
 import org.apache.calcite.linq4j.Linq4j;
@@ -222,6 +226,59 @@ public void testThetaFullJoinBothEmpty() {
     }
 
 
+    @Test
+    public void testBernoulliSample() {
+        final List<Integer> sample = Enumerables.sample( Linq4j.asEnumerable( range( 10000 ) ), true, 0.1f, true, 42 ).toList();
+        assertTrue( sample.size() > 800 && sample.size() < 1200 );
+        // Repeatable with the same seed
+        assertThat( Enumerables.sample( Linq4j.asEnumerable( range( 10000 ) ), true, 0.1f, true, 42 ).toList(), equalTo( sample ) );
+    }
+
+
+    @Test
+    public void testSystemSample() {
+        final List<Integer> sample = Enumerables.sample( Linq4j.asEnumerable( range( 100 * Enumerables.SAMPLE_BLOCK_SIZE ) ), false, 0.5f, true, 7 ).toList();
+        assertTrue( !sample.isEmpty() && sample.size() % Enumerables.SAMPLE_BLOCK_SIZE == 0 );
+        // Complete blocks are sampled
+        for ( int i = 0; i < sample.size(); i += Enumerables.SAMPLE_BLOCK_SIZE ) {
+            assertThat( sample.get( i ) % Enumerables.SAMPLE_BLOCK_SIZE, equalTo( 0 ) );
+        }
+    }
+
+
+    @Test
+    public void testTopN() {
+        final List<Integer> input = range( 1000 );
+        Collections.shuffle( input, new Random( 3 ) );
+        assertThat( Enumerables.topN( Linq4j.asEnumerable( input ), i -> i, null, 0, 5 ).toList(), equalTo( Arrays.asList( 0, 1, 2, 3, 4 ) ) );
+        assertThat( Enumerables.topN( Linq4j.asEnumerable( input ), i -> i, Comparator.reverseOrder(), 10, 3 ).toList(), equalTo( Arrays.asList( 989, 988, 987 ) ) );
+        // Offset beyond the input
+        assertTrue( Enumerables.topN( Linq4j.asEnumerable( input ), i -> i, null, 1000, 3 ).toList().isEmpty() );
+        assertTrue( Enumerables.topN( Linq4j.asEnumerable( input ), i -> i, null, 0, 0 ).toList().isEmpty() );
+    }
+
+
+    @Test
+    public void testTopNIsStable() {
+        // Same result as a full sort followed by a limit, including the order of equal keys
+        assertThat(
+                Enumerables.topN( EMPS, emp -> emp.deptno, Comparator.reverseOrder(), 1, 2 ).toList().toString(),
+                equalTo( EMPS.orderBy( emp -> emp.deptno, Comparator.reverseOrder() ).skip( 1 ).take( 2 ).toList().toString() ) );
+        assertThat(
+                Enumerables.topN( EMPS, emp -> emp.deptno, null, 0, 2 ).toList().toString(),
+                equalTo( "[Emp(10, Fred), Emp(20, Theodore)]" ) );
+    }
+
+
+    private static List<Integer> range( int n ) {
+        final List<Integer> list = new ArrayList<>();
+        for ( int i = 0; i < n; i++ ) {
+            list.add( i );
+        }
+        return list;
+    }
+
+
     /**
      * Employee record.
      */
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Collectors;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.Test;
+
+
+/**
+ * Tests {@link ParallelEnumerables}.
+ */
+public class ParallelEnumerablesTest {
+
+    private static List<Integer> numbers( int count ) {
+        final List<Integer> numbers = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            numbers.add( i );
+        }
+        return numbers;
+    }
+
+
+    private static <T> List<T> sorted( List<T> list, Comparator<T> comparator ) {
+        final List<T> copy = new ArrayList<>( list );
+        copy.sort( comparator );
+        return copy;
+    }
+
+
+    @Test
+    public void testGroupBy() {
+        final Enumerable<Integer> input = Linq4j.asEnumerable( numbers( 10000 ) );
+        final List<String> expected = input
+                .groupBy( i -> i % 7, () -> 0L, ( sum, i ) -> sum + i, ( key, sum ) -> key + ":" + sum )
+                .toList();
+        final List<String> actual = ParallelEnumerables
+                .groupBy( input, i -> i % 7, () -> 0L, ( Long sum, Integer i ) -> sum + i, ( key, sum ) -> key + ":" + sum, null, 4 )
+                .toList();
+        assertEquals( sorted( expected, Comparator.naturalOrder() ), sorted( actual, Comparator.naturalOrder() ) );
+    }
+
+
+    @Test
+    public void testLeftJoinWithNullKeys() {
+        final List<Integer> left = Arrays.asList( 1, 2, 3, null, 5, 6 );
+        final List<Integer> right = Arrays.asList( 2, 2, 3, null, 7 );
+        final List<String> expected = Linq4j.asEnumerable( left )
+                .join( Linq4j.asEnumerable( right ), l -> l, r -> r, ( l, r ) -> l + "-" + r, null, false, true )
+                .toList();
+        final List<String> actual = ParallelEnumerables
+                .join( Linq4j.asEnumerable( left ), Linq4j.asEnumerable( right ), l -> l, r -> r, ( Integer l, Integer r ) -> l + "-" + r, null, false, true, 3 )
+                .toList();
+        assertEquals( sorted( expected, Comparator.naturalOrder() ), sorted( actual, Comparator.naturalOrder() ) );
+        assertEquals( 7, actual.size() );
+    }
+
+
+    @Test
+    public void testFullJoin() {
+        final List<Integer> left = numbers( 1000 );
+        final List<Integer> right = numbers( 1500 ).stream().map( i -> i + 500 ).collect( Collectors.toList() );
+        final List<String> actual = ParallelEnumerables
+                .join( Linq4j.asEnumerable( left ), Linq4j.asEnumerable( right ), l -> l, r -> r, ( Integer l, Integer r ) -> l + "-" + r, null, true, true, 8 )
+                .toList();
+        // 500 rows only on the left, 500 matches and 1000 rows only on the right
+        assertEquals( 2000, actual.size() );
+        assertEquals( 500, actual.stream().filter( s -> s.endsWith( "-null" ) ).count() );
+        assertEquals( 1000, actual.stream().filter( s -> s.startsWith( "null-" ) ).count() );
+    }
+
+
+    @Test
+    public void testOrderByIsStable() {
+        final List<int[]> rows = new ArrayList<>();
+        for ( int i = 0; i < 5000; i++ ) {
+            rows.add( new int[]{ i % 10, i } );
+        }
+        final List<int[]> sorted = ParallelEnumerables
+                .orderBy( Linq4j.asEnumerable( rows ), row -> row[0], Comparator.reverseOrder(), 4 )
+                .toList();
+        assertEquals( rows.size(), sorted.size() );
+        for ( int i = 1; i < sorted.size(); i++ ) {
+            final int[] previous = sorted.get( i - 1 );
+            final int[] current = sorted.get( i );
+            if ( previous[0] == current[0] ) {
+                assertEquals( true, previous[1] < current[1] );
+            } else {
+                assertEquals( true, previous[0] > current[0] );
+            }
+        }
+    }
+
+
+    @Test
+    public void testGather() {
+        final List<Enumerable<Integer>> inputs = new ArrayList<>();
+        for ( int i = 0; i < 5; i++ ) {
+            final int offset = i * 10000;
+            inputs.add( Linq4j.asEnumerable( numbers( 10000 ) ).select( n -> n + offset ) );
+        }
+        inputs.add( Linq4j.asEnumerable( Collections.singletonList( (Integer) null ) ) );
+        final List<Integer> actual = ParallelEnumerables.gather( inputs ).toList();
+        assertEquals( 50001, actual.size() );
+        assertEquals( 1, actual.stream().filter( i -> i == null ).count() );
+        assertEquals( numbers( 50000 ), sorted( actual.stream().filter( i -> i != null ).collect( Collectors.toList() ), Comparator.naturalOrder() ) );
+    }
+
+
+    @Test
+    public void testModifyCollect() {
+        final List<Enumerable<?>> inputs = new ArrayList<>();
+        inputs.add( Linq4j.singletonEnumerable( 3 ) );
+        inputs.add( Linq4j.asEnumerable( Arrays.asList( 1L, 2L ) ) );
+        inputs.add( Linq4j.singletonEnumerable( 0 ) );
+        assertEquals( Collections.singletonList( 6 ), ParallelEnumerables.modifyCollect( inputs ).toList() );
+    }
+
+
+    @Test
+    public void testBlockingInputsAreNotExecutedByPool() {
+        // Inputs which block on stores must not occupy the threads of the CPU-bound operations
+        final List<Enumerable<?>> inputs = new ArrayList<>();
+        for ( int i = 0; i < 3; i++ ) {
+            inputs.add( Linq4j.asEnumerable( numbers( 1 ) ).select( n -> Thread.currentThread() instanceof ForkJoinWorkerThread ? 100 : 1 ) );
+        }
+        assertEquals( Collections.singletonList( 3 ), ParallelEnumerables.modifyCollect( inputs ).toList() );
+
+        final List<Enumerable<Boolean>> gatherInputs = new ArrayList<>();
+        for ( int i = 0; i < 3; i++ ) {
+            gatherInputs.add( Linq4j.asEnumerable( numbers( 1 ) ).select( n -> Thread.currentThread() instanceof ForkJoinWorkerThread ) );
+        }
+        assertEquals( Arrays.asList( false, false, false ), ParallelEnumerables.gather( gatherInputs ).toList() );
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void testModifyCollectPropagatesFailure() {
+        final List<Enumerable<?>> inputs = new ArrayList<>();
+        inputs.add( Linq4j.singletonEnumerable( 1 ) );
+        inputs.add( Linq4j.asEnumerable( numbers( 1 ) ).select( n -> {
+            throw new IllegalStateException( "modify failed" );
+        } ) );
+        ParallelEnumerables.modifyCollect( inputs ).toList();
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.hash;
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.Test;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.runtime.vector.ColumnType;
+
+
+/**
+ * Tests {@link LongHashTable} and {@link PrimitiveHashEnumerables}.
+ */
+public class PrimitiveHashEnumerablesTest {
+
+    private static List<String> sorted( List<String> list ) {
+        final List<String> copy = new ArrayList<>( list );
+        copy.sort( Comparator.naturalOrder() );
+        return copy;
+    }
+
+
+    @Test
+    public void testHashTable() {
+        final LongHashTable table = new LongHashTable( 2 );
+        for ( int i = 0; i < 10000; i++ ) {
+            table.put( i, -i, i );
+        }
+        assertEquals( 10000, table.size() );
+        for ( int i = 0; i < 10000; i++ ) {
+            assertEquals( i, table.get( i, -i ) );
+        }
+        assertEquals( -1, table.get( 1, 1 ) );
+        assertEquals( -1, table.get( 10000, -10000 ) );
+    }
+
+
+    @Test
+    public void testFullJoin() {
+        final List<Object[]> left = new ArrayList<>();
+        final List<Object[]> right = new ArrayList<>();
+        for ( int i = 0; i < 2000; i++ ) {
+            left.add( new Object[]{ i % 3 == 0 ? null : i % 700, (long) (i % 5), "left " + i } );
+            right.add( new Object[]{ (long) (i % 900), i % 5, "right " + i } );
+        }
+        final Enumerable<Object[]> outer = Linq4j.asEnumerable( left );
+        final Enumerable<Object[]> inner = Linq4j.asEnumerable( right );
+        final List<String> actual = PrimitiveHashEnumerables
+                .join( outer, inner, new int[]{ 0, 1 }, new int[]{ 0, 1 }, ( Object[] l, Object[] r ) -> Arrays.toString( l ) + Arrays.toString( r ), true, true )
+                .toList();
+        // Keys containing null never match, so they are removed from the keys of the expected result
+        final List<String> expected = outer
+                .join(
+                        inner,
+                        row -> row[0] == null ? (Object) ("null " + row[2]) : Arrays.asList( ((Number) row[0]).longValue(), ((Number) row[1]).longValue() ),
+                        row -> (Object) Arrays.asList( ((Number) row[0]).longValue(), ((Number) row[1]).longValue() ),
+                        ( l, r ) -> Arrays.toString( l ) + Arrays.toString( r ),
+                        null,
+                        true,
+                        true )
+                .toList();
+        assertEquals( sorted( expected ), sorted( actual ) );
+    }
+
+
+    @Test
+    public void testGroupBy() {
+        final List<Object[]> rows = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            rows.add( new Object[]{ i % 4 == 0 ? null : i % 10, i % 7 == 0 ? null : i, (double) i } );
+        }
+        final List<String> actual = new ArrayList<>();
+        PrimitiveHashEnumerables
+                .groupBy(
+                        Linq4j.asEnumerable( rows ),
+                        new int[]{ 0 },
+                        new Kind[]{ Kind.COUNT, Kind.COUNT, Kind.SUM, Kind.MIN, Kind.MAX, Kind.SUM },
+                        new int[]{ -1, 1, 1, 1, 2, 2 },
+                        new ColumnType[]{ ColumnType.LONG, ColumnType.LONG, ColumnType.INT, ColumnType.INT, ColumnType.DOUBLE, ColumnType.DOUBLE } )
+                .forEach( row -> actual.add( Arrays.toString( row ) ) );
+
+        final List<String> expected = Linq4j.asEnumerable( rows )
+                .groupBy(
+                        row -> row[0] == null ? -1 : (Integer) row[0],
+                        () -> new Object[]{ 0L, 0L, null, null, null, null },
+                        ( acc, row ) -> {
+                            acc[0] = (Long) acc[0] + 1;
+                            if ( row[1] != null ) {
+                                final int value = (Integer) row[1];
+                                acc[1] = (Long) acc[1] + 1;
+                                acc[2] = acc[2] == null ? value : (Integer) acc[2] + value;
+                                acc[3] = acc[3] == null ? value : Math.min( (Integer) acc[3], value );
+                            }
+                            final double value = (Double) row[2];
+                            acc[4] = acc[4] == null ? value : Math.max( (Double) acc[4], value );
+                            acc[5] = acc[5] == null ? value : (Double) acc[5] + value;
+                            return acc;
+                        },
+                        ( key, acc ) -> {
+                            final Object[] row = new Object[7];
+                            row[0] = key == -1 ? null : key;
+                            System.arraycopy( acc, 0, row, 1, 6 );
+                            return Arrays.toString( row );
+                        } )
+                .toList();
+        assertEquals( sorted( expected ), sorted( actual ) );
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.spill;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Tests {@link SpillingEnumerables} with a memory budget which is too small to hold the inputs.
+ */
+public class SpillingEnumerablesTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File folder;
+    private MemoryBudget budget;
+
+
+    @Before
+    public void setUp() {
+        folder = temporaryFolder.getRoot();
+        budget = new MemoryBudget( 16 * 1024, folder );
+    }
+
+
+    private static List<Object[]> rows( int count, int modulo ) {
+        final List<Object[]> rows = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            rows.add( new Object[]{ i % modulo, "row " + i, i % 3 == 0 ? null : (long) i } );
+        }
+        return rows;
+    }
+
+
+    private static List<String> toStrings( Enumerable<Object[]> enumerable ) {
+        final List<String> strings = new ArrayList<>();
+        for ( Object[] row : enumerable ) {
+            strings.add( Arrays.toString( row ) );
+        }
+        return strings;
+    }
+
+
+    private static List<String> sorted( List<String> list ) {
+        final List<String> copy = new ArrayList<>( list );
+        copy.sort( Comparator.naturalOrder() );
+        return copy;
+    }
+
+
+    private void assertReleased() {
+        assertEquals( 0, budget.getReserved() );
+        final String[] files = folder.list();
+        assertEquals( 0, files == null ? 0 : files.length );
+    }
+
+
+    @Test
+    public void testOrderBy() {
+        final Enumerable<Object[]> input = Linq4j.asEnumerable( rows( 5000, 97 ) );
+        final List<String> expected = toStrings( input.orderBy( row -> (Integer) row[0] ) );
+        final List<String> actual = toStrings( SpillingEnumerables.orderBy( input, row -> (Integer) row[0], null, budget ) );
+        // The sort is stable, so the order of rows with equal keys is preserved
+        assertEquals( expected, actual );
+        assertReleased();
+    }
+
+
+    @Test
+    public void testGroupBy() {
+        final Enumerable<Object[]> input = Linq4j.asEnumerable( rows( 5000, 1000 ) );
+        final List<String> expected = input
+                .groupBy( row -> row[0], () -> 0L, ( sum, row ) -> sum + (row[2] == null ? 0 : (Long) row[2]), ( key, sum ) -> key + ":" + sum )
+                .toList();
+        final List<String> actual = SpillingEnumerables
+                .groupBy( input, row -> row[0], () -> 0L, ( Long sum, Object[] row ) -> sum + (row[2] == null ? 0 : (Long) row[2]), ( key, sum ) -> key + ":" + sum, null, budget )
+                .toList();
+        assertEquals( sorted( expected ), sorted( actual ) );
+        assertReleased();
+    }
+
+
+    @Test
+    public void testFullJoin() {
+        final Enumerable<Object[]> left = Linq4j.asEnumerable( rows( 3000, 1000 ) );
+        final Enumerable<Object[]> right = Linq4j.asEnumerable( rows( 2000, 1500 ) ).select( row -> new Object[]{ row[1], (Integer) row[0] + 500 } );
+        // Rows of the left input with a null in the third column have a null key
+        final List<String> expected = left
+                .join( right, row -> row[2] == null ? null : row[0], row -> row[1], ( l, r ) -> Arrays.toString( l ) + Arrays.toString( r ), null, true, true )
+                .toList();
+        final List<String> actual = SpillingEnumerables
+                .join( left, right, row -> row[2] == null ? null : row[0], row -> row[1], ( Object[] l, Object[] r ) -> Arrays.toString( l ) + Arrays.toString( r ), null, true, true, budget )
+                .toList();
+        assertEquals( sorted( expected ), sorted( actual ) );
+        assertReleased();
+    }
+
+
+    @Test
+    public void testExceptAndIntersect() {
+        final List<String> left = new ArrayList<>();
+        final List<String> right = new ArrayList<>();
+        for ( int i = 0; i < 4000; i++ ) {
+            left.add( "value " + (i % 2000) );
+            right.add( "value " + (i + 1000) );
+        }
+        final Enumerable<String> source0 = Linq4j.asEnumerable( left );
+        final Enumerable<String> source1 = Linq4j.asEnumerable( right );
+        assertEquals( sorted( source0.except( source1 ).toList() ), sorted( SpillingEnumerables.except( source0, source1, null, budget ).toList() ) );
+        assertReleased();
+        assertEquals( sorted( source0.intersect( source1 ).toList() ), sorted( SpillingEnumerables.intersect( source0, source1, null, budget ).toList() ) );
+        assertReleased();
+    }
+
+
+    @Test
+    public void testSpillStatistics() {
+        final MemoryTracker tracker = budget.createTracker( "Sort" );
+        final SpillFile file = tracker.createSpillFile();
+        for ( Object[] row : rows( 100, 10 ) ) {
+            file.write( row );
+        }
+        file.finish();
+        assertEquals( 100, file.getRowCount() );
+        assertEquals( 100, file.read().count() );
+        assertTrue( tracker.getSpilledBytes() > 0 );
+        tracker.close();
+        assertReleased();
+    }
+
+
+    @Test(expected = MemoryBudgetExceededException.class)
+    public void testRetainExceedsBudget() {
+        try ( Enumerator<Object[]> enumerator = SpillingEnumerables.retain( Linq4j.asEnumerable( rows( 5000, 10 ) ), budget, "Window" ).enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                enumerator.current();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.Test;
+import org.polypheny.db.algebra.constant.Kind;
+
+
+/**
+ * Tests the operators of the vectorized calling convention.
+ */
+public class BatchOperatorTest {
+
+    private static final ColumnType[] TYPES = { ColumnType.INT, ColumnType.LONG, ColumnType.OBJECT };
+
+    private static final List<Object[]> ROWS = Arrays.asList(
+            new Object[]{ 1, 10L, "a" },
+            new Object[]{ 2, null, "b" },
+            new Object[]{ 3, 30L, "a" },
+            new Object[]{ 4, 40L, null },
+            new Object[]{ 5, null, "a" },
+            new Object[]{ 6, 60L, "b" },
+            new Object[]{ 7, 70L, "a" } );
+
+
+    private static BatchOperator source( List<Object[]> rows ) {
+        // A small batch size makes sure that the operators have to handle multiple batches
+        return new RowBatchSource( Linq4j.asEnumerable( rows ), TYPES, false, 3 );
+    }
+
+
+    private static List<Object[]> toList( BatchOperator operator ) {
+        return new ArrayList<>( Batches.toRows( operator, null ).toList() );
+    }
+
+
+    /**
+     * Program with the input columns in the first slots, followed by the given expressions.
+     */
+    private static VectorProgram program( VectorExpression... expressions ) {
+        final List<VectorExpression> list = new ArrayList<>();
+        for ( int i = 0; i < TYPES.length; i++ ) {
+            list.add( new VectorExpressions.InputRef( i ) );
+        }
+        list.addAll( Arrays.asList( expressions ) );
+        return new VectorProgram( list.toArray( new VectorExpression[0] ) );
+    }
+
+
+    @Test
+    public void testRoundTrip() {
+        final List<Object[]> result = toList( source( ROWS ) );
+        assertEquals( ROWS.size(), result.size() );
+        for ( int i = 0; i < ROWS.size(); i++ ) {
+            assertArrayEquals( ROWS.get( i ), result.get( i ) );
+        }
+    }
+
+
+    @Test
+    public void testFilterAndProject() {
+        // WHERE id > 2 AND value IS NOT NULL
+        final BatchOperator filter = new BatchFilter(
+                source( ROWS ),
+                program(
+                        new VectorExpressions.Literal( ColumnType.INT, 2L ),
+                        new VectorExpressions.Comparison( Kind.GREATER_THAN, 0, 3 ),
+                        new VectorExpressions.IsNull( 1, true ),
+                        new VectorExpressions.And( new int[]{ 4, 5 } ) ),
+                6 );
+        // SELECT value * 2, name
+        final BatchOperator project = new BatchProject(
+                filter,
+                program(
+                        new VectorExpressions.Literal( ColumnType.LONG, 2L ),
+                        new VectorExpressions.Arithmetic( Kind.TIMES, ColumnType.LONG, 1, 3 ) ),
+                new int[]{ 4, 2 } );
+        final List<Object[]> result = toList( project );
+        assertEquals( 4, result.size() );
+        assertArrayEquals( new Object[]{ 60L, "a" }, result.get( 0 ) );
+        assertArrayEquals( new Object[]{ 80L, null }, result.get( 1 ) );
+        assertArrayEquals( new Object[]{ 120L, "b" }, result.get( 2 ) );
+        assertArrayEquals( new Object[]{ 140L, "a" }, result.get( 3 ) );
+    }
+
+
+    @Test
+    public void testThreeValuedLogic() {
+        // value > 35 OR id < 3, which is null for the rows with a null value and id >= 3
+        final BatchOperator filter = new BatchFilter(
+                source( ROWS ),
+                program(
+                        new VectorExpressions.Literal( ColumnType.LONG, 35L ),
+                        new VectorExpressions.Comparison( Kind.GREATER_THAN, 1, 3 ),
+                        new VectorExpressions.Literal( ColumnType.INT, 3L ),
+                        new VectorExpressions.Comparison( Kind.LESS_THAN, 0, 5 ),
+                        new VectorExpressions.Or( new int[]{ 4, 6 } ),
+                        new VectorExpressions.Not( 7 ) ),
+                8 );
+        final List<Object[]> result = toList( filter );
+        assertEquals( 1, result.size() );
+        assertEquals( 3, result.get( 0 )[0] );
+    }
+
+
+    @Test
+    public void testHashAggregate() {
+        // SELECT name, COUNT(*), COUNT(value), SUM(value), MIN(id), MAX(value) GROUP BY name
+        final BatchOperator aggregate = new BatchHashAggregate(
+                source( ROWS ),
+                new int[]{ 2 },
+                new Kind[]{ Kind.COUNT, Kind.COUNT, Kind.SUM, Kind.MIN, Kind.MAX },
+                new int[]{ -1, 1, 1, 0, 1 },
+                new ColumnType[]{ ColumnType.LONG, ColumnType.LONG, ColumnType.LONG, ColumnType.INT, ColumnType.LONG },
+                2 );
+        final List<Object[]> result = toList( aggregate );
+        assertEquals( 3, result.size() );
+        assertArrayEquals( new Object[]{ "a", 4L, 3L, 110L, 1, 70L }, result.get( 0 ) );
+        assertArrayEquals( new Object[]{ "b", 2L, 1L, 60L, 2, 60L }, result.get( 1 ) );
+        assertArrayEquals( new Object[]{ null, 1L, 1L, 40L, 4, 40L }, result.get( 2 ) );
+    }
+
+
+    @Test
+    public void testHashAggregateOnIntegerKey() {
+        final List<Object[]> rows = new ArrayList<>();
+        for ( int i = 0; i < 5000; i++ ) {
+            rows.add( new Object[]{ i % 1000, (long) i, null } );
+        }
+        rows.add( new Object[]{ null, 1L, null } );
+        final BatchOperator aggregate = new BatchHashAggregate(
+                source( rows ),
+                new int[]{ 0 },
+                new Kind[]{ Kind.SUM0 },
+                new int[]{ 1 },
+                new ColumnType[]{ ColumnType.LONG },
+                1024 );
+        final List<Object[]> result = toList( aggregate );
+        assertEquals( 1001, result.size() );
+        for ( Object[] row : result ) {
+            if ( row[0] == null ) {
+                assertEquals( 1L, row[1] );
+            } else {
+                final int key = (Integer) row[0];
+                assertEquals( 5L * key + 10000L, row[1] );
+            }
+        }
+    }
+
+
+    @Test
+    public void testGlobalAggregateOnEmptyInput() {
+        final BatchOperator aggregate = new BatchHashAggregate(
+                source( Collections.emptyList() ),
+                new int[0],
+                new Kind[]{ Kind.COUNT, Kind.SUM, Kind.SUM0 },
+                new int[]{ -1, 1, 1 },
+                new ColumnType[]{ ColumnType.LONG, ColumnType.LONG, ColumnType.LONG },
+                1024 );
+        final List<Object[]> result = toList( aggregate );
+        assertEquals( 1, result.size() );
+        assertArrayEquals( new Object[]{ 0L, null, 0L }, result.get( 0 ) );
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.util;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link HyperLogLog} and {@link EquiDepthHistogram}.
+ */
+public class HyperLogLogTest {
+
+    @Test
+    public void testSmallCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue( sketch.isEmpty() );
+        for ( int i = 0; i < 1000; i++ ) {
+            sketch.add( i % 100 );
+            sketch.add( null );
+        }
+        assertEquals( 100, sketch.estimate(), 3 );
+    }
+
+
+    @Test
+    public void testLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        for ( long i = 0; i < 200_000; i++ ) {
+            sketch.add( "value" + i );
+        }
+        assertEquals( 200_000, sketch.estimate(), 200_000 * 0.05 );
+    }
+
+
+    @Test
+    public void testNumbersOfDifferentTypes() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add( 42 );
+        sketch.add( 42L );
+        sketch.add( new BigDecimal( "42.00" ) );
+        sketch.add( 42.0 );
+        assertEquals( 1, sketch.estimate() );
+    }
+
+
+    @Test
+    public void testMerge() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for ( int i = 0; i < 10_000; i++ ) {
+            first.add( i );
+            second.add( i + 5_000 );
+        }
+        first.merge( second );
+        assertEquals( 15_000, first.estimate(), 15_000 * 0.05 );
+    }
+
+
+    @Test
+    public void testHistogramWithSkew() {
+        // 0 to 999 once and 500 another 1000 times
+        double[] values = new double[2000];
+        for ( int i = 0; i < 1000; i++ ) {
+            values[i] = i;
+            values[1000 + i] = 500;
+        }
+        EquiDepthHistogram histogram = EquiDepthHistogram.create( values, 10 );
+        assertEquals( 2000, histogram.getTotalCount() );
+        assertEquals( 0, histogram.getMin(), 0 );
+        assertEquals( 999, histogram.getMax(), 0 );
+
+        assertEquals( 0.5, histogram.equalsSelectivity( 500 ), 0.01 );
+        assertEquals( 0.0005, histogram.equalsSelectivity( 100 ), 0.0005 );
+        assertEquals( 0, histogram.equalsSelectivity( 1000 ), 0 );
+
+        assertEquals( 0.25, histogram.lessThanSelectivity( 500, false ), 0.02 );
+        assertEquals( 0.75, histogram.lessThanSelectivity( 500, true ), 0.02 );
+        assertEquals( 0.25, histogram.greaterThanSelectivity( 500, false ), 0.02 );
+        assertEquals( 1, histogram.lessThanSelectivity( 5000, false ), 0 );
+        assertEquals( 0, histogram.lessThanSelectivity( -1, true ), 0 );
+    }
+
+
+    @Test
+    public void testHistogramAdd() {
+        double[] values = new double[100];
+        for ( int i = 0; i < 100; i++ ) {
+            values[i] = i;
+        }
+        EquiDepthHistogram histogram = EquiDepthHistogram.create( values, 4 );
+        for ( int i = 0; i < 100; i++ ) {
+            histogram.add( 10 );
+        }
+        histogram.add( 150 );
+        assertEquals( 201, histogram.getTotalCount() );
+        assertEquals( 150, histogram.getMax(), 0 );
+        assertEquals( 0.6, histogram.lessThanSelectivity( 25, false ), 0.1 );
+        assertEquals( 1, histogram.lessThanSelectivity( 150, true ), 0 );
+    }
+
+}
@@ -66,6 +66,7 @@
 import org.polypheny.db.processing.AuthenticatorImpl;
 import org.polypheny.db.processing.ConstraintEnforceAttacher.ConstraintTracker;
 import org.polypheny.db.processing.JsonRelProcessorImpl;
+import org.polypheny.db.processing.caching.PersistentImplementationCache;
 import org.polypheny.db.transaction.PUID;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.transaction.TransactionException;
@@ -420,6 +421,9 @@ public void join( final long millis ) throws InterruptedException {
 
         PolyPluginManager.startUp( transactionManager, authenticator );
 
+        // Load the compiled query plans of previous runs
+        PersistentImplementationCache.INSTANCE.init();
+
         // Add tracker, which rechecks constraints after enabling
         ConstraintTracker tracker = new ConstraintTracker( transactionManager );
         RuntimeConfig.FOREIGN_KEY_ENFORCEMENT.addObserver( tracker );
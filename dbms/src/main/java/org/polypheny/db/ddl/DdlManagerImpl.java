@@ -128,6 +128,9 @@
 import org.polypheny.db.partition.properties.TemperaturePartitionProperty.PartitionCostIndication;
 import org.polypheny.db.partition.raw.RawTemperaturePartitionInformation;
 import org.polypheny.db.processing.DataMigrator;
+import org.polypheny.db.processing.caching.CacheDependencies;
+import org.polypheny.db.processing.caching.CacheInvalidation;
+import org.polypheny.db.processing.caching.ResultCache;
 import org.polypheny.db.routing.RoutingManager;
 import org.polypheny.db.runtime.PolyphenyDbContextException;
 import org.polypheny.db.runtime.PolyphenyDbException;
@@ -503,8 +506,8 @@ public void addColumnToSourceTable( CatalogTable catalogTable, String columnPhys
         // Set column position
         catalog.updateColumnPlacementPhysicalPosition( adapterId, columnId, exportedColumn.physicalPosition );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -577,8 +580,8 @@ public void addColumn( String columnName, CatalogTable catalogTable, String befo
             AdapterManager.getInstance().getStore( store.getAdapterId() ).addColumn( statement.getPrepareContext(), catalogTable, addedColumn );
         }
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -915,8 +918,8 @@ else if ( partitionGroupIds.isEmpty() && partitionGroupNames.isEmpty() ) {
         DataMigrator dataMigrator = statement.getTransaction().getDataMigrator();
         dataMigrator.copyData( statement.getTransaction(), catalog.getAdapter( dataStore.getAdapterId() ), addedColumns, partitionIds );
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this placement
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.placementChange( catalogTable.id, dataStore.getAdapterId() ) );
     }
 
 
@@ -1035,8 +1038,8 @@ public void dropColumn( CatalogTable catalogTable, String columnName, Statement
         // Monitor dropColumn for statistics
         prepareMonitoring( statement, Kind.DROP_COLUMN, catalogTable, column );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1142,8 +1145,8 @@ public void dropDataPlacement( CatalogTable catalogTable, DataStore storeInstanc
         // Remove physical stores afterwards
         catalog.removeDataPlacement( storeInstance.getAdapterId(), catalogTable.id );
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this placement
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.placementChange( catalogTable.id, storeInstance.getAdapterId() ) );
     }
 
 
@@ -1185,8 +1188,8 @@ public void setColumnType( CatalogTable catalogTable, String columnName, ColumnT
                     catalogColumn.type );
         }
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1202,8 +1205,8 @@ public void setColumnNullable( CatalogTable catalogTable, String columnName, boo
 
         catalog.setNullable( catalogColumn.id, nullable );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1253,8 +1256,8 @@ public void setColumnPosition( CatalogTable catalogTable, String columnName, Str
         }
         // Do nothing
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1270,8 +1273,8 @@ public void setColumnCollation( CatalogTable catalogTable, String columnName, Co
 
         catalog.setCollation( catalogColumn.id, collation );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1284,8 +1287,8 @@ public void setDefaultValue( CatalogTable catalogTable, String columnName, Strin
 
         addDefaultValue( defaultValue, catalogColumn.id );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1298,8 +1301,8 @@ public void dropDefaultValue( CatalogTable catalogTable, String columnName, Stat
 
         catalog.deleteDefaultValue( catalogColumn.id );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1477,8 +1480,8 @@ else if ( !partitionGroupNames.isEmpty() && partitionGroupIds.isEmpty() ) {
             dataMigrator.copyData( statement.getTransaction(), catalog.getAdapter( storeInstance.getAdapterId() ), addedColumns, intendedPartitionIds );
         }
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this placement
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.placementChange( catalogTable.id, storeInstance.getAdapterId() ) );
     }
 
 
@@ -1548,8 +1551,8 @@ public void modifyPartitionPlacement( CatalogTable catalogTable, List<Long> part
             storeInstance.dropTable( statement.getPrepareContext(), catalogTable, removedPartitions );
         }
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this placement
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.placementChange( catalogTable.id, storeInstance.getAdapterId() ) );
     }
 
 
@@ -1597,8 +1600,8 @@ public void addColumnPlacement( CatalogTable catalogTable, String columnName, Da
                     ImmutableList.of( catalogColumn ), catalog.getPartitionsOnDataPlacement( storeInstance.getAdapterId(), catalogTable.id ) );
         }
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this placement
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.placementChange( catalogTable.id, storeInstance.getAdapterId() ) );
     }
 
 
@@ -1639,8 +1642,8 @@ public void dropColumnPlacement( CatalogTable catalogTable, String columnName, D
         // Drop column placement
         catalog.deleteColumnPlacement( storeInstance.getAdapterId(), catalogColumn.id, false );
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this placement
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.placementChange( catalogTable.id, storeInstance.getAdapterId() ) );
     }
 
 
@@ -1668,8 +1671,8 @@ public void renameTable( CatalogTable catalogTable, String newTableName, Stateme
         // Update Name in statistics
         StatisticsManager.getInstance().updateTableName( catalogTable, newTableName );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -1688,8 +1691,8 @@ public void renameColumn( CatalogTable catalogTable, String columnName, String n
         // Update Name in statistics
         StatisticsManager.getInstance().updateColumnName( catalogColumn, newColumnName );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -2723,8 +2726,8 @@ public void addPartitioning( PartitionInformation partitionInfo, List<DataStore>
         stores.forEach( store -> store.dropTable( statement.getPrepareContext(), unPartitionedTable, unPartitionedTable.partitionProperty.partitionIds ) );
         catalog.deletePartitionGroup( unPartitionedTable.id, unPartitionedTable.namespaceId, unPartitionedTable.partitionProperty.partitionGroupIds.get( 0 ) );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on the previous partitions of this table
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.partitionChange( unPartitionedTable.id, unPartitionedTable.partitionProperty.partitionIds ) );
     }
 
 
@@ -2849,8 +2852,8 @@ public void removePartitioning( CatalogTable partitionedTable, Statement stateme
             catalog.deletePartitionGroup( tableId, partitionedTable.namespaceId, partitionGroupId );
         }
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on the previous partitions of this table
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.partitionChange( partitionedTable.id, partitionedTable.partitionProperty.partitionIds ) );
     }
 
 
@@ -2963,8 +2966,8 @@ public void dropView( CatalogTable catalogView, Statement statement ) throws Ddl
         // Delete the view
         catalog.deleteTable( catalogView.id );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogView.id ) );
     }
 
 
@@ -2985,8 +2988,8 @@ public void dropMaterializedView( CatalogTable materializedView, Statement state
 
         dropTable( materializedView, statement );
 
-        // Reset query plan cache, implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( materializedView.id ) );
     }
 
 
@@ -3098,8 +3101,8 @@ public void dropTable( CatalogTable catalogTable, Statement statement ) throws D
         // ON_COMMIT constraint needs no longer to be enforced if entity does no longer exist
         statement.getTransaction().getCatalogTables().remove( catalogTable );
 
-        // Reset plan cache implementation cache & routing cache
-        statement.getQueryProcessor().resetCaches();
+        // Evict the cached plans depending on this entity
+        statement.getQueryProcessor().invalidateCaches( CacheInvalidation.schemaChange( catalogTable.id ) );
     }
 
 
@@ -3117,6 +3120,12 @@ public void truncate( CatalogTable catalogTable, Statement statement ) {
         catalogTable.dataPlacements.forEach( adapterId -> {
             AdapterManager.getInstance().getAdapter( adapterId ).truncate( statement.getPrepareContext(), catalogTable );
         } );
+
+        // Like for DML statements, the dependent cached results and materialized views are invalidated on commit
+        ResultCache.INSTANCE.registerWrite(
+                statement.getTransaction().getXid(),
+                new CacheDependencies( ImmutableList.of( catalogTable.id ), ImmutableList.of(), ImmutableList.of() ) );
+        MaterializedViewManager.getInstance().addTables( statement.getTransaction(), ImmutableList.of( catalogTable.getNamespaceName(), catalogTable.name ) );
     }
 
 
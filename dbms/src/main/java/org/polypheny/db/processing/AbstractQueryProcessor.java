@@ -18,6 +18,7 @@
 
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import java.lang.reflect.Type;
 import java.util.AbstractList;
@@ -32,6 +33,10 @@
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -52,6 +57,8 @@
 import org.polypheny.db.adapter.index.IndexManager;
 import org.polypheny.db.algebra.AlgCollation;
 import org.polypheny.db.algebra.AlgCollations;
+import org.polypheny.db.algebra.AlgCopier;
+import org.polypheny.db.algebra.AlgFingerprint;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.AlgShuttle;
@@ -75,6 +82,8 @@
 import org.polypheny.db.algebra.logical.relational.LogicalProject;
 import org.polypheny.db.algebra.logical.relational.LogicalScan;
 import org.polypheny.db.algebra.logical.relational.LogicalValues;
+import org.polypheny.db.algebra.metadata.CardinalityFeedback;
+import org.polypheny.db.algebra.metadata.CardinalityFeedback.Collector;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.catalog.Catalog;
@@ -90,23 +99,35 @@
 import org.polypheny.db.information.InformationManager;
 import org.polypheny.db.information.InformationPage;
 import org.polypheny.db.information.InformationQueryPlan;
+import org.polypheny.db.information.InformationTable;
 import org.polypheny.db.interpreter.BindableConvention;
+import org.polypheny.db.interpreter.Interpreter;
 import org.polypheny.db.interpreter.Interpreters;
 import org.polypheny.db.monitoring.events.DmlEvent;
 import org.polypheny.db.monitoring.events.QueryEvent;
 import org.polypheny.db.monitoring.events.StatementEvent;
 import org.polypheny.db.partition.PartitionManagerFactory;
+import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.plan.Convention;
+import org.polypheny.db.plan.volcano.VolcanoPlanner;
+import org.polypheny.db.plan.volcano.VolcanoPlanner.PlanningOutcome;
+import org.polypheny.db.plugins.PolyPluginManager;
 import org.polypheny.db.prepare.AlgOptTableImpl;
 import org.polypheny.db.prepare.Prepare.CatalogReader;
 import org.polypheny.db.prepare.Prepare.PreparedResult;
 import org.polypheny.db.prepare.Prepare.PreparedResultImpl;
+import org.polypheny.db.processing.caching.BackgroundCompiler;
+import org.polypheny.db.processing.caching.CacheDependencies;
+import org.polypheny.db.processing.caching.CacheInvalidation;
 import org.polypheny.db.processing.caching.ImplementationCache;
 import org.polypheny.db.processing.caching.QueryPlanCache;
+import org.polypheny.db.processing.caching.ResultCache;
 import org.polypheny.db.processing.caching.RoutingPlanCache;
+import org.polypheny.db.processing.caching.TranslationCache;
 import org.polypheny.db.processing.shuttles.LogicalQueryInformationImpl;
 import org.polypheny.db.processing.shuttles.ParameterValueValidator;
 import org.polypheny.db.processing.shuttles.QueryParameterizer;
@@ -147,8 +168,10 @@
 import org.polypheny.db.util.DeadlockException;
 import org.polypheny.db.util.ImmutableIntList;
 import org.polypheny.db.util.Pair;
+import org.polypheny.db.view.IncrementalMaintenance;
 import org.polypheny.db.view.MaterializedViewManager;
 import org.polypheny.db.view.MaterializedViewManager.TableUpdateVisitor;
+import org.polypheny.db.view.MaterializedViewRewriter;
 import org.polypheny.db.view.ViewManager.ViewVisitor;
 
 
@@ -161,12 +184,15 @@ public abstract class AbstractQueryProcessor implements QueryProcessor, Executio
     protected static final boolean ENABLE_MODEL_TRAIT = true;
     protected static final boolean CONSTANT_REDUCTION = false;
     protected static final boolean ENABLE_STREAM = true;
-    private final Statement statement;
+    protected final Statement statement;
 
     // This map is required to allow plans with multiple physical placements of the same logical table.
     // scanId -> tableId
     private final Map<Integer, Long> scanPerTable = new HashMap<>();
 
+    // Shared by all statements, created on first use
+    private static ForkJoinPool planningPool;
+
 
     protected AbstractQueryProcessor( Statement statement ) {
         this.statement = statement;
@@ -184,9 +210,22 @@ public void executionTime( String reference, long nanoTime ) {
 
     @Override
     public void resetCaches() {
+        ResultCache.INSTANCE.reset();
         ImplementationCache.INSTANCE.reset();
         QueryPlanCache.INSTANCE.reset();
         RoutingPlanCache.INSTANCE.reset();
+        TranslationCache.INSTANCE.reset();
+        RoutingManager.getInstance().getRouters().forEach( Router::resetCaches );
+    }
+
+
+    @Override
+    public void invalidateCaches( CacheInvalidation invalidation ) {
+        TranslationCache.INSTANCE.invalidate( invalidation );
+        RoutingPlanCache.INSTANCE.invalidate( invalidation );
+        QueryPlanCache.INSTANCE.invalidate( invalidation );
+        ImplementationCache.INSTANCE.invalidate( invalidation );
+        ResultCache.INSTANCE.invalidate( invalidation );
         RoutingManager.getInstance().getRouters().forEach( Router::resetCaches );
     }
 
@@ -297,6 +336,20 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
         logicalRoot.alg.accept( visitor );
         MaterializedViewManager.getInstance().addTables( statement.getTransaction(), visitor.getNames() );
 
+        // Use materialized views computing parts of the query
+        if ( !isRouted && !isSubQuery && RuntimeConfig.MATERIALIZED_VIEW_REWRITE.getBoolean() ) {
+            logicalRoot = MaterializedViewRewriter.rewrite( logicalRoot, statement );
+        }
+
+        // Entities the cached plans of this query depend on
+        final CacheDependencies logicalDependencies = CacheDependencies.of( logicalRoot.alg );
+
+        // Cached results depending on modified entities are evicted when the transaction commits
+        if ( logicalRoot.kind.belongsTo( Kind.DML ) ) {
+            ResultCache.INSTANCE.registerWrite( statement.getTransaction().getXid(), logicalDependencies );
+        }
+        final boolean cacheResults = !isRouted && !isSubQuery && isResultCachingActive( statement ) && ResultCache.INSTANCE.isCacheable( logicalRoot );
+
         if ( isAnalyze ) {
             statement.getProcessingDuration().stop( "Expand Views" );
             statement.getProcessingDuration().start( "Parameter Validation" );
@@ -330,21 +383,36 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
                 statement.getProcessingDuration().start( "Index Update" );
             }
             AlgRoot indexUpdateRoot = logicalRoot;
+            Set<Long> verifiedKeys = Collections.emptySet();
             if ( RuntimeConfig.POLYSTORE_INDEXES_ENABLED.getBoolean() ) {
                 IndexManager.getInstance().barrier( statement.getTransaction().getXid() );
+                if ( RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.getBoolean() || RuntimeConfig.FOREIGN_KEY_ENFORCEMENT.getBoolean() ) {
+                    // Probe the indexes before they contain the rows of this statement
+                    verifiedKeys = ConstraintEnforceAttacher.probeConstraints( logicalRoot, statement );
+                }
                 indexUpdateRoot = indexUpdate( indexUpdateRoot, statement, parameterRowType );
             }
 
             //
-            // Constraint Enforcement Rewrite
+            // Materialized View Delta Capture
             if ( isAnalyze ) {
                 statement.getProcessingDuration().stop( "Index Update" );
+                statement.getProcessingDuration().start( "Materialized View Delta" );
+            }
+            if ( lock && logicalRoot.kind.belongsTo( Kind.DML ) ) {
+                IncrementalMaintenance.captureDelta( statement, logicalRoot, parameterRowType );
+            }
+
+            //
+            // Constraint Enforcement Rewrite
+            if ( isAnalyze ) {
+                statement.getProcessingDuration().stop( "Materialized View Delta" );
                 statement.getProcessingDuration().start( "Constraint Enforcement" );
             }
             AlgRoot constraintsRoot = indexUpdateRoot;
 
             if ( constraintsRoot.kind.belongsTo( Kind.DML ) && (RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.getBoolean() || RuntimeConfig.FOREIGN_KEY_ENFORCEMENT.getBoolean()) ) {
-                constraintsRoot = ConstraintEnforceAttacher.handleConstraints( constraintsRoot, statement );
+                constraintsRoot = ConstraintEnforceAttacher.handleConstraints( constraintsRoot, statement, verifiedKeys );
             }
 
             //
@@ -422,6 +490,8 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             parameterizedRootList.add( parameterizedRoot );
         }
 
+        startCardinalityFeedback( parameterizedRootList );
+
         if ( isAnalyze ) {
             statement.getProcessingDuration().stop( "Parameterize" );
         }
@@ -440,7 +510,7 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
                 AlgNode optimalNode = QueryPlanCache.INSTANCE.getIfPresent( parameterizedRootList.get( i ).alg );
                 if ( preparedResult != null ) {
                     PolyImplementation result = createPolyImplementation(
-                            preparedResult,
+                            cacheResults ? ResultCache.INSTANCE.wrap( parameterizedRoot.alg, preparedResult, logicalDependencies ) : preparedResult,
                             parameterizedRoot.kind,
                             optimalNode,
                             parameterizedRoot.validatedRowType,
@@ -473,7 +543,8 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
                     optimalNodeList.stream().filter( Objects::nonNull ).collect( Collectors.toList() ),
                     results.stream().filter( Objects::nonNull ).collect( Collectors.toList() ),
                     generatedCodes.stream().filter( Objects::nonNull ).collect( Collectors.toList() ),
-                    logicalQueryInformation );
+                    logicalQueryInformation,
+                    logicalDependencies );
         }
 
         optimalNodeList = new ArrayList<>( Collections.nCopies( optimalNodeList.size(), null ) );
@@ -500,20 +571,61 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             statement.getProcessingDuration().start( "Planning & Optimization" );
         }
 
-        // OptimalNode same size as routed, parametrized and result
-        for ( int i = 0; i < optimalNodeList.size(); i++ ) {
-            if ( optimalNodeList.get( i ) != null ) {
-                continue;
+        // The planning budget applies to the statement as a whole
+        final int planningBudget = RuntimeConfig.PLANNING_BUDGET.getInteger();
+        final long planningDeadline = planningBudget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( planningBudget ) : VolcanoPlanner.NO_DEADLINE;
+        final List<Object[]> planningInformation = new ArrayList<>();
+        final Set<Integer> ownClusters = new HashSet<>(); // Candidates whose optimal plans do not share their cluster
+
+        final List<Integer> unoptimized = IntStream.range( 0, optimalNodeList.size() )
+                .filter( i -> optimalNodeList.get( i ) == null )
+                .boxed()
+                .collect( Collectors.toList() );
+
+        // Optimize the candidates in parallel, each with its own planner and cluster. The plans are copied to their
+        // clusters by this thread, as the copies are created using the shared original cluster.
+        final Map<Integer, ForkJoinTask<PlanningResult>> parallelPlanning = new HashMap<>();
+        if ( unoptimized.size() > 1 && RuntimeConfig.PARALLEL_PLANNING.getBoolean() ) {
+            for ( int i : unoptimized ) {
+                final AlgOptPlanner planner = createPlanner();
+                final AlgRoot copiedRoot = copyToOwnCluster( parameterizedRootList.get( i ), planner );
+                if ( copiedRoot != null ) {
+                    parallelPlanning.put( i, getPlanningPool().submit( () -> optimizeWithOwnPlanner( copiedRoot, resultConvention, planner, planningDeadline ) ) );
+                }
             }
+        }
+
+        // OptimalNode same size as routed, parametrized and result
+        setPlanningDeadline( getPlanner(), planningDeadline );
+        for ( int i : unoptimized ) {
             AlgRoot parameterizedRoot = parameterizedRootList.get( i );
             AlgRoot routedRoot = proposedRoutingPlans.get( i ).getRoutedRoot();
-            optimalNodeList.set( i, optimize( parameterizedRoot, resultConvention ) );
+            final PlanningResult planningResult;
+            if ( parallelPlanning.containsKey( i ) ) {
+                planningResult = parallelPlanning.get( i ).join();
+                ownClusters.add( i );
+            } else {
+                // Not optimized in parallel or the plan could not be copied to another cluster
+                planningResult = optimize( parameterizedRoot, resultConvention, getPlanner() );
+            }
+            optimalNodeList.set( i, planningResult.optimalNode );
+            if ( isAnalyze ) {
+                planningInformation.add( new Object[]{
+                        i,
+                        TimeUnit.NANOSECONDS.toMillis( planningResult.planningTime ) + " ms",
+                        planningResult.outcome.getLabel() } );
+            }
 
             if ( this.isQueryPlanCachingActive( statement, routedRoot ) ) {
-                QueryPlanCache.INSTANCE.put( parameterizedRoot.alg, optimalNodeList.get( i ) );
+                QueryPlanCache.INSTANCE.put( parameterizedRoot.alg, optimalNodeList.get( i ), logicalDependencies.withRoutingPlan( proposedRoutingPlans.get( i ) ) );
             }
         }
 
+        setPlanningDeadline( getPlanner(), VolcanoPlanner.NO_DEADLINE );
+        if ( isAnalyze && !planningInformation.isEmpty() ) {
+            addPlanningInformationToQueryAnalyzer( planningBudget, planningInformation );
+        }
+
         //
         // Implementation
         if ( isAnalyze ) {
@@ -521,6 +633,9 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             statement.getProcessingDuration().start( "Implementation" );
         }
 
+        final Map<Integer, AlgRoot> optimalRoots = new HashMap<>();
+        final Map<Integer, PreparedResult> preparedResults = new HashMap<>();
+        final List<Integer> uncompiled = new ArrayList<>();
         for ( int i = 0; i < optimalNodeList.size(); i++ ) {
             if ( results.get( i ) != null ) {
                 continue;
@@ -532,27 +647,80 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
 
             final AlgDataType rowType = parameterizedRoot.alg.getRowType();
             final List<Pair<Integer, String>> fields = Pair.zip( ImmutableIntList.identity( rowType.getFieldCount() ), rowType.getFieldNames() );
-            AlgRoot optimalRoot = new AlgRoot( optimalNode, rowType, parameterizedRoot.kind, fields, algCollation( parameterizedRoot.alg ) );
+            final AlgRoot optimalRoot = new AlgRoot( optimalNode, rowType, parameterizedRoot.kind, fields, algCollation( parameterizedRoot.alg ) );
+            optimalRoots.put( i, optimalRoot );
+
+            if ( BackgroundCompiler.INSTANCE.isActive()
+                    && this.isImplementationCachingActive( statement, routedRoot )
+                    && optimalRoot.alg.isImplementationCacheable() ) {
+                // Interpret this execution and cache the compiled implementation as soon as it is available
+                PreparedResult preparedResult = interpret( optimalRoot, parameterRowType );
+                if ( preparedResult != null ) {
+                    preparedResults.put( i, preparedResult );
+                    // The statement may already be closed when the compilation runs, so it must not be accessed there
+                    final CatalogReader catalogReader = statement.getTransaction().getCatalogReader();
+                    final Conformance conformance = statement.getPrepareContext().config().conformance();
+                    BackgroundCompiler.INSTANCE.submit(
+                            parameterizedRoot.alg,
+                            () -> implement( optimalRoot, parameterRowType, catalogReader, conformance, new LinkedHashMap<>() ),
+                            logicalDependencies.withRoutingPlan( proposedRoutingPlans.get( i ) ) );
+                    continue;
+                }
+            }
+            uncompiled.add( i );
+        }
 
-            PreparedResult preparedResult = implement( optimalRoot, parameterRowType );
+        // Like the optimization, the generation and compilation of the code is independent per candidate. Only plans
+        // in their own cluster are implemented in parallel, and their internal parameters are collected separately and
+        // added to the data context of the statement by this thread.
+        final List<Integer> parallelImplementable = uncompiled.stream().filter( ownClusters::contains ).collect( Collectors.toList() );
+        final Map<Integer, ForkJoinTask<PreparedResult>> parallelImplementation = new HashMap<>();
+        final Map<Integer, Map<String, Object>> parallelParameters = new HashMap<>();
+        if ( parallelImplementable.size() > 1 && RuntimeConfig.PARALLEL_PLANNING.getBoolean() ) {
+            final CatalogReader catalogReader = statement.getTransaction().getCatalogReader();
+            final Conformance conformance = statement.getPrepareContext().config().conformance();
+            for ( int i : parallelImplementable ) {
+                final AlgRoot optimalRoot = optimalRoots.get( i );
+                final Map<String, Object> internalParameters = new LinkedHashMap<>();
+                parallelParameters.put( i, internalParameters );
+                parallelImplementation.put( i, getPlanningPool().submit( () -> implement( optimalRoot, parameterRowType, catalogReader, conformance, internalParameters ) ) );
+            }
+        }
+        for ( int i : uncompiled ) {
+            AlgRoot optimalRoot = optimalRoots.get( i );
+            AlgRoot parameterizedRoot = parameterizedRootList.get( i );
+            AlgRoot routedRoot = proposedRoutingPlans.get( i ).getRoutedRoot();
+            final PreparedResult preparedResult;
+            if ( parallelImplementation.containsKey( i ) ) {
+                preparedResult = parallelImplementation.get( i ).join();
+                statement.getDataContext().addAll( parallelParameters.get( i ) );
+            } else {
+                preparedResult = implement( optimalRoot, parameterRowType );
+            }
+            preparedResults.put( i, preparedResult );
 
             // Cache implementation
             if ( this.isImplementationCachingActive( statement, routedRoot ) ) {
                 if ( optimalRoot.alg.isImplementationCacheable() ) {
-                    ImplementationCache.INSTANCE.put( parameterizedRoot.alg, preparedResult );
+                    ImplementationCache.INSTANCE.put( parameterizedRoot.alg, preparedResult, logicalDependencies.withRoutingPlan( proposedRoutingPlans.get( i ) ) );
                 } else {
                     ImplementationCache.INSTANCE.countUncacheable();
                 }
             }
+        }
 
+        for ( Entry<Integer, AlgRoot> entry : optimalRoots.entrySet() ) {
+            final int i = entry.getKey();
+            AlgRoot optimalRoot = entry.getValue();
+            PreparedResult preparedResult = preparedResults.get( i );
             PolyImplementation result = createPolyImplementation(
-                    preparedResult,
+                    cacheResults ? ResultCache.INSTANCE.wrap( parameterizedRootList.get( i ).alg, preparedResult, logicalDependencies ) : preparedResult,
                     optimalRoot.kind,
                     optimalRoot.alg,
                     optimalRoot.validatedRowType,
                     resultConvention,
                     executionTimeMonitor,
-                    Objects.requireNonNull( optimalNode.getTraitSet().getTrait( ModelTraitDef.INSTANCE ) ).getDataModel() );
+                    Objects.requireNonNull( optimalRoot.alg.getTraitSet().getTrait( ModelTraitDef.INSTANCE ) ).getDataModel() );
             results.set( i, result );
             generatedCodes.set( i, preparedResult.getCode() );
             optimalNodeList.set( i, optimalRoot.alg );
@@ -572,7 +740,18 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
                 optimalNodeList.stream().filter( Objects::nonNull ).collect( Collectors.toList() ),
                 results.stream().filter( Objects::nonNull ).collect( Collectors.toList() ),
                 generatedCodes.stream().filter( Objects::nonNull ).collect( Collectors.toList() ),
-                logicalQueryInformation );
+                logicalQueryInformation,
+                logicalDependencies );
+    }
+
+
+    @AllArgsConstructor
+    private static class PlanningResult {
+
+        private final AlgNode optimalNode;
+        private final long planningTime; // in nanoseconds
+        private final PlanningOutcome outcome;
+
     }
 
 
@@ -585,6 +764,7 @@ private static class ProposedImplementations {
         private final List<PolyImplementation> results;
         private final List<String> generatedCodes;
         private final LogicalQueryInformation logicalQueryInformation;
+        private final CacheDependencies logicalDependencies;
 
     }
 
@@ -1092,6 +1272,34 @@ private List<ProposedRoutingPlan> routeCached( AlgRoot logicalRoot, List<CachedP
     }
 
 
+    /**
+     * Evicts the cached plans whose cardinality estimates have been badly wrong in previous executions and decides whether
+     * the actual cardinalities of the operators are collected during this execution (see {@link CardinalityFeedback}).
+     */
+    private void startCardinalityFeedback( List<AlgRoot> parameterizedRoots ) {
+        final CardinalityFeedback feedback = CardinalityFeedback.INSTANCE;
+        if ( !feedback.isActive() ) {
+            return;
+        }
+        final List<AlgFingerprint> plans = new ArrayList<>();
+        for ( AlgRoot parameterizedRoot : parameterizedRoots ) {
+            final AlgFingerprint fingerprint = parameterizedRoot.alg.algFingerprint();
+            if ( feedback.pollStale( fingerprint ) ) {
+                QueryPlanCache.INSTANCE.invalidate( parameterizedRoot.alg );
+                ImplementationCache.INSTANCE.invalidate( parameterizedRoot.alg );
+            }
+            plans.add( fingerprint );
+        }
+        // Sub-queries are counted by the collector of the surrounding query
+        if ( statement.getDataContext().get( CardinalityFeedback.COLLECTOR_VARIABLE ) == null ) {
+            final Collector collector = feedback.startCollection( plans );
+            if ( collector != null ) {
+                statement.getDataContext().addAll( ImmutableMap.of( CardinalityFeedback.COLLECTOR_VARIABLE, collector ) );
+            }
+        }
+    }
+
+
     private Pair<AlgRoot, AlgDataType> parameterize( AlgRoot routedRoot, AlgDataType parameterRowType ) {
         AlgNode routed = routedRoot.alg;
         List<AlgDataType> parameterRowTypeList = new ArrayList<>();
@@ -1153,7 +1361,7 @@ public int size() {
     }
 
 
-    private AlgNode optimize( AlgRoot logicalRoot, Convention resultConvention ) {
+    private PlanningResult optimize( AlgRoot logicalRoot, Convention resultConvention, AlgOptPlanner planner ) {
         AlgNode logicalPlan = logicalRoot.alg;
 
         final AlgTraitSet desiredTraits = logicalPlan.getTraitSet()
@@ -1161,19 +1369,114 @@ private AlgNode optimize( AlgRoot logicalRoot, Convention resultConvention ) {
                 .replace( algCollation( logicalPlan ) )
                 .simplify();
 
+        final long start = System.nanoTime();
         final Program program = Programs.standard();
-        return program.run( getPlanner(), logicalPlan, desiredTraits );
+        final AlgNode optimalNode = program.run( planner, logicalPlan, desiredTraits );
+        final PlanningOutcome outcome = planner instanceof VolcanoPlanner
+                ? ((VolcanoPlanner) planner).getOutcome()
+                : PlanningOutcome.COMPLETED;
+        return new PlanningResult( optimalNode, System.nanoTime() - start, outcome );
     }
 
 
+    /**
+     * Copies a plan to a new cluster of the given planner. This allows to optimize several plans of a statement
+     * concurrently. As the copy is created using the original cluster, it must be created by the thread of the statement.
+     *
+     * @return the copy or null if the plan cannot be copied to another cluster
+     */
+    private AlgRoot copyToOwnCluster( AlgRoot logicalRoot, AlgOptPlanner planner ) {
+        final AlgOptCluster original = logicalRoot.alg.getCluster();
+        final AlgOptCluster cluster = AlgCopier.createCluster( planner, new RexBuilder( original.getTypeFactory() ), original );
+        final AlgNode copy = AlgCopier.copy( logicalRoot.alg, cluster );
+        return copy == null ? null : logicalRoot.withAlg( copy );
+    }
+
+
+    /**
+     * Optimizes a plan which has been copied to the cluster of the given planner (see {@link #copyToOwnCluster(AlgRoot, AlgOptPlanner)}).
+     */
+    private PlanningResult optimizeWithOwnPlanner( AlgRoot copiedRoot, Convention resultConvention, AlgOptPlanner planner, long deadline ) {
+        setPlanningDeadline( planner, deadline );
+        return optimize( copiedRoot, resultConvention, planner );
+    }
+
+
+    /**
+     * Creates a new planner configured like the planner of this query processor.
+     */
+    protected abstract AlgOptPlanner createPlanner();
+
+
+    private static synchronized ForkJoinPool getPlanningPool() {
+        if ( planningPool == null ) {
+            RuntimeConfig.PARALLEL_PLANNING_THREADS.setRequiresRestart( true );
+            final ClassLoader classLoader = PolyPluginManager.getMainClassLoader();
+            planningPool = new ForkJoinPool(
+                    Math.max( 1, RuntimeConfig.PARALLEL_PLANNING_THREADS.getInteger() ),
+                    pool -> {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread( pool );
+                        thread.setName( "PlanningPool-" + thread.getPoolIndex() );
+                        thread.setContextClassLoader( classLoader );
+                        return thread;
+                    },
+                    null,
+                    false );
+        }
+        return planningPool;
+    }
+
+
+    private void setPlanningDeadline( AlgOptPlanner planner, long deadline ) {
+        if ( planner instanceof VolcanoPlanner ) {
+            ((VolcanoPlanner) planner).setDeadline( deadline );
+        }
+    }
+
+
+    private void addPlanningInformationToQueryAnalyzer( int planningBudget, List<Object[]> planningInformation ) {
+        InformationManager queryAnalyzer = statement.getTransaction().getQueryAnalyzer();
+        InformationPage page = new InformationPage( "Planning" );
+        InformationGroup group = new InformationGroup( page, "Planning Budget: " + (planningBudget > 0 ? planningBudget + " ms" : "Unlimited") );
+        queryAnalyzer.addPage( page );
+        queryAnalyzer.addGroup( group );
+        InformationTable table = new InformationTable( group, ImmutableList.of( "Plan", "Planning Time", "Outcome" ) );
+        planningInformation.forEach( table::addRow );
+        queryAnalyzer.registerInformation( table );
+    }
+
+
+    /**
+     * Generates and compiles the code implementing the given physical plan.
+     *
+     * @param background whether the plan is compiled in the background, i.e., the data context of the statement
+     * is possibly in use by an interpreted execution and must not be modified
+     */
     private PreparedResult implement( AlgRoot root, AlgDataType parameterRowType ) {
+        final Map<String, Object> internalParameters = new LinkedHashMap<>();
+        final PreparedResult preparedResult = implement(
+                root,
+                parameterRowType,
+                statement.getTransaction().getCatalogReader(),
+                statement.getPrepareContext().config().conformance(),
+                internalParameters );
+        statement.getDataContext().addAll( internalParameters );
+        return preparedResult;
+    }
+
+
+    /**
+     * Generates and compiles the code of a physical plan. Everything required from the statement is passed in, so that
+     * plans can be compiled in the background after the statement has been closed.
+     *
+     * @param internalParameters the map to which the internal parameters of the generated code are added, they are
+     * required in the data context when executing the implementation
+     */
+    private PreparedResult implement( AlgRoot root, AlgDataType parameterRowType, CatalogReader catalogReader, Conformance conformance, Map<String, Object> internalParameters ) {
         if ( log.isTraceEnabled() ) {
             log.trace( "Physical query plan: [{}]", AlgOptUtil.dumpPlan( "-- Physical Plan", root.alg, ExplainFormat.TEXT, ExplainLevel.DIGEST_ATTRIBUTES ) );
         }
 
-        final AlgDataType jdbcType = QueryProcessorHelpers.makeStruct( root.alg.getCluster().getTypeFactory(), root.validatedRowType );
-        List<List<String>> fieldOrigins = Collections.nCopies( jdbcType.getFieldCount(), null );
-
         final Prefer prefer = Prefer.ARRAY;
         final Convention resultConvention =
                 ENABLE_BINDABLE
@@ -1186,37 +1489,75 @@ private PreparedResult implement( AlgRoot root, AlgDataType parameterRowType ) {
             bindable = Interpreters.bindable( root.alg );
             generatedCode = null;
         } else {
-            EnumerableAlg enumerable = (EnumerableAlg) root.alg;
-            if ( !root.isRefTrivial() ) {
-                final List<RexNode> projects = new ArrayList<>();
-                final RexBuilder rexBuilder = enumerable.getCluster().getRexBuilder();
-                for ( int field : Pair.left( root.fields ) ) {
-                    projects.add( rexBuilder.makeInputRef( enumerable, field ) );
-                }
-                RexProgram program = RexProgram.create( enumerable.getRowType(), projects, null, root.validatedRowType, rexBuilder );
-                enumerable = EnumerableCalc.create( enumerable, program );
-            }
+            EnumerableAlg enumerable = project( root );
 
             try {
-                CatalogReader.THREAD_LOCAL.set( statement.getTransaction().getCatalogReader() );
-                final Conformance conformance = statement.getPrepareContext().config().conformance();
+                CatalogReader.THREAD_LOCAL.set( catalogReader );
 
-                final Map<String, Object> internalParameters = new LinkedHashMap<>();
                 internalParameters.put( "_conformance", conformance );
 
                 Pair<Bindable<Object[]>, String> implementationPair = EnumerableInterpretable.toBindable(
                         internalParameters,
                         enumerable,
                         prefer,
-                        statement );
+                        null );
                 bindable = implementationPair.left;
                 generatedCode = implementationPair.right;
-                statement.getDataContext().addAll( internalParameters );
             } finally {
                 CatalogReader.THREAD_LOCAL.remove();
             }
         }
 
+        return createPreparedResult( root, parameterRowType, bindable, generatedCode );
+    }
+
+
+    /**
+     * Creates an implementation which executes the given physical plan using the {@link Interpreter}.
+     *
+     * @return the implementation or null if the plan is not supported by the interpreter
+     */
+    private PreparedResult interpret( AlgRoot root, AlgDataType parameterRowType ) {
+        if ( ENABLE_BINDABLE || root.kind.belongsTo( Kind.DML ) ) {
+            return null;
+        }
+        final EnumerableAlg enumerable = project( root );
+        if ( !Interpreters.isInterpretable( enumerable ) ) {
+            return null;
+        }
+        BackgroundCompiler.INSTANCE.countInterpreted();
+
+        // Same element type as the generated code (see EnumerableInterpretable#getBindable)
+        @SuppressWarnings("unchecked")
+        final Bindable<Object[]> bindable = enumerable.getRowType().getFieldCount() == 1
+                ? (Bindable<Object[]>) (Bindable<?>) Interpreters.scalarBindable( enumerable )
+                : Interpreters.bindable( enumerable );
+        return createPreparedResult( root, parameterRowType, bindable, null );
+    }
+
+
+    /**
+     * Adds a projection to the physical plan if the plan produces other fields than requested by the root.
+     */
+    private EnumerableAlg project( AlgRoot root ) {
+        EnumerableAlg enumerable = (EnumerableAlg) root.alg;
+        if ( !root.isRefTrivial() ) {
+            final List<RexNode> projects = new ArrayList<>();
+            final RexBuilder rexBuilder = enumerable.getCluster().getRexBuilder();
+            for ( int field : Pair.left( root.fields ) ) {
+                projects.add( rexBuilder.makeInputRef( enumerable, field ) );
+            }
+            RexProgram program = RexProgram.create( enumerable.getRowType(), projects, null, root.validatedRowType, rexBuilder );
+            enumerable = EnumerableCalc.create( enumerable, program );
+        }
+        return enumerable;
+    }
+
+
+    private PreparedResult createPreparedResult( AlgRoot root, AlgDataType parameterRowType, Bindable<Object[]> bindable, String generatedCode ) {
+        final AlgDataType jdbcType = QueryProcessorHelpers.makeStruct( root.alg.getCluster().getTypeFactory(), root.validatedRowType );
+        List<List<String>> fieldOrigins = Collections.nCopies( jdbcType.getFieldCount(), null );
+
         AlgDataType resultType = root.alg.getRowType();
         boolean isDml = root.kind.belongsTo( Kind.DML );
 
@@ -1285,6 +1626,11 @@ private boolean isImplementationCachingActive( Statement statement, AlgRoot algR
     }
 
 
+    private boolean isResultCachingActive( Statement statement ) {
+        return ResultCache.INSTANCE.isActive() && statement.getTransaction().getUseCache();
+    }
+
+
     private LogicalQueryInformation analyzeQueryAndPrepareMonitoring( Statement statement, AlgRoot logicalRoot, boolean isAnalyze, boolean isSubquery ) {
         // Analyze logical query
         LogicalAlgAnalyzeShuttle analyzeRelShuttle = new LogicalAlgAnalyzeShuttle( statement );
@@ -1481,7 +1827,7 @@ private void finalizeAccessedPartitions( StatementEvent eventData ) {
     }
 
 
-    private void cacheRouterPlans( List<ProposedRoutingPlan> proposedRoutingPlans, List<AlgOptCost> approximatedCosts, String queryId, Set<Long> partitionIds ) {
+    private void cacheRouterPlans( List<ProposedRoutingPlan> proposedRoutingPlans, List<AlgOptCost> approximatedCosts, String queryId, Set<Long> partitionIds, CacheDependencies dependencies ) {
         List<CachedProposedRoutingPlan> cachedPlans = new ArrayList<>();
         for ( int i = 0; i < proposedRoutingPlans.size(); i++ ) {
             if ( proposedRoutingPlans.get( i ).isCacheable() && !RoutingPlanCache.INSTANCE.isKeyPresent( queryId, partitionIds ) ) {
@@ -1490,7 +1836,7 @@ private void cacheRouterPlans( List<ProposedRoutingPlan> proposedRoutingPlans, L
         }
 
         if ( !cachedPlans.isEmpty() ) {
-            RoutingPlanCache.INSTANCE.put( queryId, partitionIds, cachedPlans );
+            RoutingPlanCache.INSTANCE.put( queryId, partitionIds, cachedPlans, dependencies );
         }
     }
 
@@ -1513,7 +1859,8 @@ private Pair<PolyImplementation, ProposedRoutingPlan> selectPlan( ProposedImplem
                     proposedRoutingPlans,
                     approximatedCosts,
                     queryInformation.getQueryClass(),
-                    queryInformation.getAccessedPartitions().values().stream().flatMap( List::stream ).collect( Collectors.toSet() ) );
+                    queryInformation.getAccessedPartitions().values().stream().flatMap( List::stream ).collect( Collectors.toSet() ),
+                    proposedImplementations.getLogicalDependencies() );
         }
 
         if ( results.size() == 1 ) {
@@ -31,6 +31,8 @@
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.NotImplementedException;
 import org.polypheny.db.PolyImplementation;
+import org.polypheny.db.adapter.index.Index;
+import org.polypheny.db.adapter.index.IndexManager;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.constant.ExplainFormat;
@@ -88,14 +90,21 @@
 import org.polypheny.db.rex.RexShuttle;
 import org.polypheny.db.rex.RexUtil;
 import org.polypheny.db.tools.AlgBuilder;
+import org.polypheny.db.transaction.PolyXid;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.transaction.TransactionException;
 import org.polypheny.db.transaction.TransactionManager;
+import org.polypheny.db.type.PolyType;
 
 @Slf4j
 public class ConstraintEnforceAttacher {
 
+    /**
+     * The column types whose keys are probed in the polystore indexes by {@link #probeConstraints}.
+     */
+    private static final Set<PolyType> PROBE_TYPES = ImmutableSet.of( PolyType.BOOLEAN, PolyType.TINYINT, PolyType.SMALLINT, PolyType.INTEGER, PolyType.BIGINT, PolyType.VARCHAR );
+
 
     /**
      * Inserts a dedicated {@link LogicalConstraintEnforcer} node at the top of the provided tree.
@@ -115,8 +124,22 @@ public class ConstraintEnforceAttacher {
      * @return the tree with an inserted {@link LogicalConstraintEnforcer}
      */
     public static AlgRoot attachOnQueryConstraints( AlgRoot root, Statement statement ) {
+        return attachOnQueryConstraints( root, statement, Collections.emptySet() );
+    }
+
+
+    /**
+     * Inserts a dedicated {@link LogicalConstraintEnforcer} node at the top of the provided tree, which does not check the
+     * constraints of the given keys.
+     *
+     * @param root the un-constraint algebraic tree
+     * @param statement the used statement
+     * @param verifiedKeys the ids of the keys which have already been checked by {@link #probeConstraints}
+     * @return the tree with an inserted {@link LogicalConstraintEnforcer}
+     */
+    public static AlgRoot attachOnQueryConstraints( AlgRoot root, Statement statement, Set<Long> verifiedKeys ) {
         return AlgRoot.of(
-                LogicalConstraintEnforcer.create( root.alg, statement ),
+                LogicalConstraintEnforcer.create( root.alg, statement, verifiedKeys ),
                 root.kind );
     }
 
@@ -158,10 +181,24 @@ public static List<EnforcementInformation> getConstraintAlg( Set<CatalogTable> c
      * @return the constraint tree
      */
     public static AlgRoot handleConstraints( AlgRoot constraintsRoot, Statement statement ) {
+        return handleConstraints( constraintsRoot, statement, Collections.emptySet() );
+    }
+
+
+    /**
+     * Depending on the used enforcement strategy this method potentially attaches different
+     * algebraic nodes to the {@link AlgRoot}.
+     *
+     * @param constraintsRoot the initial un-constraint {@link AlgRoot}
+     * @param statement the used statement
+     * @param verifiedKeys the ids of the keys which have already been checked by {@link #probeConstraints}
+     * @return the constraint tree
+     */
+    public static AlgRoot handleConstraints( AlgRoot constraintsRoot, Statement statement, Set<Long> verifiedKeys ) {
         Enum<?> strategy = RuntimeConfig.CONSTRAINT_ENFORCEMENT_STRATEGY.getEnum();
         if ( strategy == ConstraintStrategy.AFTER_QUERY_EXECUTION ) {
             attachOnCommitConstraints( constraintsRoot.alg, statement );
-            return attachOnQueryConstraints( constraintsRoot, statement );
+            return attachOnQueryConstraints( constraintsRoot, statement, verifiedKeys );
         } else if ( strategy == ConstraintStrategy.BEFORE_QUERY_EXECUTION ) {
             return enforceConstraintBeforeQuery( constraintsRoot, statement );
         } else {
@@ -171,6 +208,148 @@ public static AlgRoot handleConstraints( AlgRoot constraintsRoot, Statement stat
     }
 
 
+    /**
+     * Checks the unique constraints and foreign keys of an INSERT with literal rows by probing the polystore indexes on
+     * their columns, instead of executing control queries which read the whole tables. As the indexes keep a
+     * copy-on-write state per transaction, keys written by earlier statements of the same transaction are taken into
+     * account. This has to be called before the indexes are updated with the rows of the statement.
+     *
+     * @param root the un-constraint algebraic tree
+     * @param statement the used statement
+     * @return the ids of the keys which have been checked and need no further enforcement for this statement
+     * @throws ConstraintViolationException if a constraint is violated by the inserted rows
+     */
+    public static Set<Long> probeConstraints( AlgRoot root, Statement statement ) {
+        final Set<Long> verifiedKeys = new HashSet<>();
+        if ( !root.kind.belongsTo( Kind.DML ) || !(root.alg instanceof Modify) || !((Modify) root.alg).isInsert() ) {
+            return verifiedKeys;
+        }
+        final Modify modify = (Modify) root.alg;
+        final Catalog catalog = Catalog.getInstance();
+        final CatalogTable table = LogicalConstraintEnforcer.getCatalogTable( modify );
+        final PolyXid xid = statement.getTransaction().getXid();
+
+        if ( RuntimeConfig.UNIQUE_CONSTRAINT_ENFORCEMENT.getBoolean() ) {
+            final List<CatalogConstraint> constraints = new ArrayList<>( catalog.getConstraints( table.id ) );
+            // Turn primary key into an artificial unique constraint
+            final CatalogPrimaryKey pk = catalog.getPrimaryKey( table.primaryKey );
+            constraints.add( new CatalogConstraint( 0L, pk.id, ConstraintType.UNIQUE, "PRIMARY KEY", pk ) );
+            for ( final CatalogConstraint constraint : constraints ) {
+                if ( constraint.type != ConstraintType.UNIQUE || constraint.key.enforcementTime != EnforcementTime.ON_QUERY ) {
+                    continue;
+                }
+                final Index index = IndexManager.getInstance().getIndex( catalog.getSchema( table.namespaceId ), table, constraint.key.getColumnNames() );
+                final List<List<RexLiteral>> keys = getInsertedLiterals( modify, constraint.key.getColumnNames(), constraint.key.columnIds, statement );
+                if ( index == null || keys == null ) {
+                    continue;
+                }
+                final Set<List<Object>> inserted = new HashSet<>( keys.size() );
+                for ( final List<RexLiteral> key : keys ) {
+                    if ( !inserted.add( key.stream().map( RexLiteral::getValue2 ).collect( Collectors.toList() ) ) || contains( index, xid, key ) ) {
+                        throw new ConstraintViolationException( String.format( "Insert violates unique constraint `%s`.`%s`", table.name, constraint.name ) );
+                    }
+                }
+                verifiedKeys.add( constraint.keyId );
+            }
+        }
+
+        if ( RuntimeConfig.FOREIGN_KEY_ENFORCEMENT.getBoolean() ) {
+            for ( final CatalogForeignKey foreignKey : catalog.getForeignKeys( table.id ) ) {
+                if ( foreignKey.enforcementTime != EnforcementTime.ON_QUERY || foreignKey.referencedKeyTableId == table.id ) {
+                    // Rows of a self-referencing table may reference rows of the same statement
+                    continue;
+                }
+                final CatalogTable referencedTable = catalog.getTable( foreignKey.referencedKeyTableId );
+                final Index index = IndexManager.getInstance().getIndex( catalog.getSchema( referencedTable.namespaceId ), referencedTable, foreignKey.getReferencedKeyColumnNames() );
+                final List<List<RexLiteral>> keys = getInsertedLiterals( modify, foreignKey.getColumnNames(), foreignKey.columnIds, statement );
+                if ( index == null || keys == null || !haveProbeTypes( foreignKey.referencedKeyColumnIds, keys ) ) {
+                    continue;
+                }
+                for ( final List<RexLiteral> key : keys ) {
+                    if ( !contains( index, xid, key ) ) {
+                        throw new ConstraintViolationException( String.format( "Insert violates foreign key constraint `%s`.`%s`", table.name, foreignKey.name ) );
+                    }
+                }
+                verifiedKeys.add( foreignKey.id );
+            }
+        }
+        return verifiedKeys;
+    }
+
+
+    /**
+     * Returns the inserted values of the given columns if they are all non-null literals of a type which can be probed, otherwise null.
+     */
+    private static List<List<RexLiteral>> getInsertedLiterals( Modify modify, List<String> columns, List<Long> columnIds, Statement statement ) {
+        final List<List<RexNode>> keys = LogicalConstraintEnforcer.getInsertedKeys( modify, columns, statement );
+        if ( keys == null ) {
+            return null;
+        }
+        final List<List<RexLiteral>> literals = new ArrayList<>( keys.size() );
+        for ( final List<RexNode> key : keys ) {
+            final List<RexLiteral> literalKey = new ArrayList<>( key.size() );
+            for ( final RexNode value : key ) {
+                if ( !(value instanceof RexLiteral) || ((RexLiteral) value).isNull() ) {
+                    return null;
+                }
+                literalKey.add( (RexLiteral) value );
+            }
+            literals.add( literalKey );
+        }
+        return haveProbeTypes( columnIds, literals ) ? literals : null;
+    }
+
+
+    /**
+     * Whether the given columns and the literals inserted into them all have the same type, whose keys are represented
+     * in the same way in the indexes whether they were inserted as literals or read from the store. For all other types,
+     * e.g. DECIMAL or DOUBLE, the constraints are checked by the control queries.
+     */
+    private static boolean haveProbeTypes( List<Long> columnIds, List<List<RexLiteral>> keys ) {
+        final Catalog catalog = Catalog.getInstance();
+        for ( int i = 0; i < columnIds.size(); i++ ) {
+            final PolyType type = catalog.getColumn( columnIds.get( i ) ).type;
+            if ( !PROBE_TYPES.contains( type ) ) {
+                return false;
+            }
+            for ( final List<RexLiteral> key : keys ) {
+                if ( key.get( i ).getType().getPolyType() != type ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Checks whether an index contains a key. Indexes hold the keys of inserted literals as returned by
+     * {@link RexLiteral#getValue2()}, but the keys read from the store when they are (re)built as the Java type of the
+     * column, therefore both are probed.
+     */
+    private static boolean contains( Index index, PolyXid xid, List<RexLiteral> key ) {
+        final List<Object> values = key.stream().map( RexLiteral::getValue2 ).collect( Collectors.toList() );
+        final List<Object> typedValues = key.stream().map( ConstraintEnforceAttacher::getTypedValue ).collect( Collectors.toList() );
+        return index.contains( xid, values ) || (!typedValues.equals( values ) && index.contains( xid, typedValues ));
+    }
+
+
+    private static Object getTypedValue( RexLiteral literal ) {
+        switch ( literal.getType().getPolyType() ) {
+            case TINYINT:
+                return literal.getValueAs( Byte.class );
+            case SMALLINT:
+                return literal.getValueAs( Short.class );
+            case INTEGER:
+                return literal.getValueAs( Integer.class );
+            case BIGINT:
+                return literal.getValueAs( Long.class );
+            default:
+                return literal.getValue2();
+        }
+    }
+
+
     /**
      * This method inserts a {@link LogicalConditionalExecute} on top of the initial DML query.
      * Additionally, it tries to build a DQL query as a left child of the {@link LogicalConditionalExecute},
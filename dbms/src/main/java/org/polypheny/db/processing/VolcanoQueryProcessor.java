@@ -24,6 +24,7 @@
 import org.polypheny.db.adapter.enumerable.EnumerableBindable.EnumerableToBindableConverterRule;
 import org.polypheny.db.adapter.enumerable.EnumerableInterpreterRule;
 import org.polypheny.db.adapter.enumerable.EnumerableRules;
+import org.polypheny.db.adapter.vectorized.VectorizedRules;
 import org.polypheny.db.algebra.AlgCollationTraitDef;
 import org.polypheny.db.algebra.rules.AggregateExpandDistinctAggregatesRule;
 import org.polypheny.db.algebra.rules.AggregateReduceFunctionsRule;
@@ -86,6 +87,8 @@ public class VolcanoQueryProcessor extends AbstractQueryProcessor {
                     EnumerableRules.ENUMERABLE_AGGREGATE_RULE,
                     EnumerableRules.ENUMERABLE_SORT_RULE,
                     EnumerableRules.ENUMERABLE_LIMIT_RULE,
+                    EnumerableRules.ENUMERABLE_TOP_N_RULE,
+                    EnumerableRules.ENUMERABLE_SAMPLE_RULE,
                     EnumerableRules.ENUMERABLE_COLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNCOLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNION_RULE,
@@ -144,7 +147,13 @@ public class VolcanoQueryProcessor extends AbstractQueryProcessor {
 
     public VolcanoQueryProcessor( Statement statement ) {
         super( statement );
-        planner = new VolcanoPlanner( VolcanoCost.FACTORY, Contexts.of( statement.getPrepareContext().config() ) );
+        planner = createPlanner();
+    }
+
+
+    @Override
+    protected VolcanoPlanner createPlanner() {
+        final VolcanoPlanner planner = new VolcanoPlanner( VolcanoCost.FACTORY, Contexts.of( statement.getPrepareContext().config() ) );
         planner.addAlgTraitDef( ConventionTraitDef.INSTANCE );
         if ( ENABLE_COLLATION_TRAIT ) {
             planner.addAlgTraitDef( AlgCollationTraitDef.INSTANCE );
@@ -179,6 +188,12 @@ public VolcanoQueryProcessor( Statement statement ) {
             planner.addRule( EnumerableToBindableConverterRule.INSTANCE );
         }
 
+        if ( ENABLE_ENUMERABLE && RuntimeConfig.VECTORIZED_EXECUTION.getBoolean() ) {
+            for ( AlgOptRule rule : VectorizedRules.RULES ) {
+                planner.addRule( rule );
+            }
+        }
+
         if ( ENABLE_STREAM ) {
             for ( AlgOptRule rule : StreamRules.RULES ) {
                 planner.addRule( rule );
@@ -194,6 +209,7 @@ public VolcanoQueryProcessor( Statement statement ) {
 
         final DataContext dataContext = statement.getPrepareContext().getDataContext();
         planner.setExecutor( new RexExecutorImpl( dataContext ) );
+        return planner;
     }
 
 }
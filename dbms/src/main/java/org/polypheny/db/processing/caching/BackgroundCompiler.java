@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.algebra.AlgFingerprint;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.prepare.Prepare.PreparedResult;
+
+
+/**
+ * Compiles the generated code of query plans on a bounded pool of background threads and adds the compiled
+ * implementations to the {@link ImplementationCache}. Until the compilation has finished, the plans are executed
+ * using the interpreter.
+ *
+ * Only plans supported by the interpreter are compiled in the background (see
+ * {@link org.polypheny.db.interpreter.Interpreters#isInterpretable(AlgNode)}). This excludes plans which read from or
+ * write to stores through a converter, e.g. the JDBC stores, which are compiled before their first execution.
+ */
+@Slf4j
+public class BackgroundCompiler {
+
+    public static final BackgroundCompiler INSTANCE = new BackgroundCompiler();
+
+    private final ThreadPoolExecutor executor;
+    private final Set<AlgFingerprint> pending = ConcurrentHashMap.newKeySet(); // Plans which are queued or being compiled
+
+    @Getter
+    private final AtomicLong interpretedCounter = new AtomicLong(); // Number of executions using the interpreter
+    @Getter
+    private final AtomicLong compiledCounter = new AtomicLong(); // Number of plans compiled in the background
+    @Getter
+    private final AtomicLong discardedCounter = new AtomicLong(); // Number of compiled plans not cached because of an invalidation
+    @Getter
+    private final AtomicLong rejectedCounter = new AtomicLong(); // Number of plans not compiled because the queue was full
+    @Getter
+    private final AtomicLong failedCounter = new AtomicLong(); // Number of plans whose compilation has failed
+
+
+    public BackgroundCompiler() {
+        RuntimeConfig.IMPLEMENTATION_CACHING_COMPILATION_THREADS.setRequiresRestart( true );
+        RuntimeConfig.IMPLEMENTATION_CACHING_COMPILATION_QUEUE_SIZE.setRequiresRestart( true );
+        final int threads = Math.max( 1, RuntimeConfig.IMPLEMENTATION_CACHING_COMPILATION_THREADS.getInteger() );
+        final AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>( Math.max( 1, RuntimeConfig.IMPLEMENTATION_CACHING_COMPILATION_QUEUE_SIZE.getInteger() ) ),
+                r -> {
+                    Thread thread = new Thread( r, "BackgroundCompiler-" + threadCounter.incrementAndGet() );
+                    thread.setDaemon( true );
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy() );
+        executor.allowCoreThreadTimeOut( true );
+        registerMonitoringPage();
+    }
+
+
+    public boolean isActive() {
+        return RuntimeConfig.IMPLEMENTATION_CACHING_ASYNC_COMPILATION.getBoolean();
+    }
+
+
+    /**
+     * Schedules the compilation of a query plan. The plan is not scheduled if it is already being compiled or if the
+     * queue is full; in the latter case, the compilation is scheduled again on the next execution of the plan.
+     *
+     * @param parameterizedNode the key of the implementation in the {@link ImplementationCache}
+     * @param compilation generates and compiles the code of the plan
+     * @param dependencies the dependencies of the implementation
+     */
+    public void submit( AlgNode parameterizedNode, Supplier<PreparedResult> compilation, CacheDependencies dependencies ) {
+        final AlgFingerprint fingerprint = parameterizedNode.algFingerprint();
+        if ( !pending.add( fingerprint ) ) {
+            return;
+        }
+        final long generation = ImplementationCache.INSTANCE.getGeneration();
+        try {
+            executor.execute( () -> {
+                try {
+                    PreparedResult preparedResult = compilation.get();
+                    if ( ImplementationCache.INSTANCE.putIfUnchanged( parameterizedNode, preparedResult, dependencies, generation ) ) {
+                        compiledCounter.incrementAndGet();
+                    } else {
+                        discardedCounter.incrementAndGet();
+                    }
+                } catch ( Throwable e ) {
+                    failedCounter.incrementAndGet();
+                    log.warn( "Compilation of query plan in the background has failed.", e );
+                } finally {
+                    pending.remove( fingerprint );
+                }
+            } );
+        } catch ( RejectedExecutionException e ) {
+            pending.remove( fingerprint );
+            rejectedCounter.incrementAndGet();
+        }
+    }
+
+
+    public void countInterpreted() {
+        interpretedCounter.incrementAndGet();
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Background Compilation" );
+        im.addPage( page );
+
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            generalKv.putPair( "Status", isActive() ? "Active" : "Disabled" );
+            generalKv.putPair( "Threads", executor.getMaximumPoolSize() + "" );
+            generalKv.putPair( "Queued Plans", executor.getQueue().size() + "" );
+            generalKv.putPair( "Interpreted Executions", interpretedCounter.get() + "" );
+            generalKv.putPair( "Compiled Plans", compiledCounter.get() + "" );
+            generalKv.putPair( "Discarded Plans (Invalidated)", discardedCounter.get() + "" );
+            generalKv.putPair( "Rejected Plans (Queue Full)", rejectedCounter.get() + "" );
+            generalKv.putPair( "Failed Compilations", failedCounter.get() + "" );
+        } );
+    }
+
+}
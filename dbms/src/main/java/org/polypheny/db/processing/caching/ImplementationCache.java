@@ -18,11 +18,16 @@
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import org.polypheny.db.algebra.AlgFingerprint;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.information.InformationAction;
 import org.polypheny.db.information.InformationGraph;
@@ -38,26 +43,41 @@
 
 public class ImplementationCache {
 
+    /**
+     * Settings which are read while implementing a plan. Cached implementations are discarded when one of them changes.
+     */
+    private static final List<RuntimeConfig> IMPLEMENTATION_SETTINGS = ImmutableList.of(
+            RuntimeConfig.STATEMENT_MEMORY_BUDGET,
+            RuntimeConfig.PRIMITIVE_HASH_TABLES,
+            RuntimeConfig.BULK_BATCH_EXECUTION,
+            RuntimeConfig.STREAMER_CHUNK_SIZE,
+            RuntimeConfig.PARALLEL_DML );
+
     public static final ImplementationCache INSTANCE = new ImplementationCache();
 
-    private final Cache<String, PreparedResult> implementationCache;
+    private final Cache<AlgFingerprint, PreparedResult> implementationCache;
+
+    private final CacheDependencyTracker<AlgFingerprint, PreparedResult> dependencyTracker = new CacheDependencyTracker<>();
 
     private final AtomicLong hitsCounter = new AtomicLong(); // Number of requests for which the cache contained the value
     private final AtomicLong missesCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained the value
     private final AtomicLong uncacheableCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained the value
+    private final AtomicLong generation = new AtomicLong(); // Incremented whenever entries are invalidated
 
 
     public ImplementationCache() {
         RuntimeConfig.IMPLEMENTATION_CACHING_SIZE.setRequiresRestart( true );
         implementationCache = CacheBuilder.newBuilder()
                 .maximumSize( RuntimeConfig.IMPLEMENTATION_CACHING_SIZE.getInteger() )
+                .removalListener( dependencyTracker.removalListener() )
                 .build();
         registerMonitoringPage();
+        registerConfigListener();
     }
 
 
     public PreparedResult getIfPresent( AlgNode parameterizedNode ) {
-        PreparedResult preparedResult = implementationCache.getIfPresent( parameterizedNode.algCompareString() );
+        PreparedResult preparedResult = implementationCache.getIfPresent( parameterizedNode.algFingerprint() );
         if ( preparedResult == null ) {
             missesCounter.incrementAndGet();
         } else {
@@ -67,8 +87,51 @@ public PreparedResult getIfPresent( AlgNode parameterizedNode ) {
     }
 
 
-    public void put( AlgNode parameterizedNode, PreparedResult preparedResult ) {
-        implementationCache.put( parameterizedNode.algCompareString(), preparedResult );
+    public void put( AlgNode parameterizedNode, PreparedResult preparedResult, CacheDependencies dependencies ) {
+        AlgFingerprint fingerprint = parameterizedNode.algFingerprint();
+        dependencyTracker.register( fingerprint, dependencies );
+        implementationCache.put( fingerprint, preparedResult );
+    }
+
+
+    /**
+     * Adds an implementation which has been created in the background, unless entries have been invalidated in the
+     * meantime (see {@link #getGeneration()}). In this case, the implementation is possibly based on an outdated plan.
+     *
+     * @return whether the implementation has been added
+     */
+    public synchronized boolean putIfUnchanged( AlgNode parameterizedNode, PreparedResult preparedResult, CacheDependencies dependencies, long expectedGeneration ) {
+        if ( generation.get() != expectedGeneration ) {
+            return false;
+        }
+        put( parameterizedNode, preparedResult, dependencies );
+        return true;
+    }
+
+
+    /**
+     * Returns a counter which changes whenever entries are invalidated.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+
+    /**
+     * Evicts all cached implementations which are affected by the given change of the catalog.
+     */
+    public synchronized void invalidate( CacheInvalidation invalidation ) {
+        generation.incrementAndGet();
+        dependencyTracker.invalidate( implementationCache, invalidation, invalidation::affectsPhysicalPlan );
+    }
+
+
+    /**
+     * Evicts the cached implementation of a plan whose cardinality estimates turned out to be badly wrong.
+     */
+    public synchronized void invalidate( AlgNode parameterizedNode ) {
+        generation.incrementAndGet();
+        dependencyTracker.invalidate( implementationCache, parameterizedNode.algFingerprint(), InvalidationCause.CARDINALITY_FEEDBACK );
     }
 
 
@@ -77,7 +140,9 @@ public void countUncacheable() {
     }
 
 
-    public void reset() {
+    public synchronized void reset() {
+        generation.incrementAndGet();
+        dependencyTracker.reset( implementationCache.size() );
         implementationCache.invalidateAll();
         hitsCounter.set( 0 );
         missesCounter.set( 0 );
@@ -85,6 +150,23 @@ public void reset() {
     }
 
 
+    private void registerConfigListener() {
+        ConfigListener listener = new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                reset();
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+                reset();
+            }
+        };
+        IMPLEMENTATION_SETTINGS.forEach( setting -> setting.addObserver( listener ) );
+    }
+
+
     private void registerMonitoringPage() {
         InformationManager im = InformationManager.getInstance();
 
@@ -146,8 +228,11 @@ private void registerMonitoringPage() {
             hitInfoTable.addRow( "Uncacheable", df.format( total == 0 ? 0 : (uncacheablePercent * 100) ) + " %", uncacheable );
         } );
 
+        // Evictions
+        InformationGroup evictionGroup = dependencyTracker.registerEvictionGroup( page, 3 );
+
         // Invalidate cache
-        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 3 );
+        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 4 );
         im.addGroup( invalidateGroup );
 
         InformationText invalidateText = new InformationText( invalidateGroup, "Invalidate the implementation cache including the hit and miss counters." );
@@ -158,6 +243,7 @@ private void registerMonitoringPage() {
             reset();
             generalGroup.refresh();
             hitRatioGroup.refresh();
+            evictionGroup.refresh();
             return "Successfully invalidated the implementation cache!";
         } );
         invalidateAction.setOrder( 2 );
@@ -18,11 +18,16 @@
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import org.polypheny.db.algebra.AlgFingerprint;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.config.Config;
+import org.polypheny.db.config.Config.ConfigListener;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.information.InformationAction;
 import org.polypheny.db.information.InformationGraph;
@@ -37,9 +42,19 @@
 
 public class QueryPlanCache {
 
+    /**
+     * Settings which are considered by the cost model. Cached plans are discarded when one of them changes.
+     */
+    private static final List<RuntimeConfig> PLANNING_SETTINGS = ImmutableList.of(
+            RuntimeConfig.PARALLELISM,
+            RuntimeConfig.PARALLELISM_THRESHOLD,
+            RuntimeConfig.STATEMENT_MEMORY_BUDGET );
+
     public static final QueryPlanCache INSTANCE = new QueryPlanCache();
 
-    private final Cache<String, AlgNode> planCache;
+    private final Cache<AlgFingerprint, AlgNode> planCache;
+
+    private final CacheDependencyTracker<AlgFingerprint, AlgNode> dependencyTracker = new CacheDependencyTracker<>();
 
     private final AtomicLong hitsCounter = new AtomicLong(); // Number of requests for which the cache contained the value
     private final AtomicLong missesCounter = new AtomicLong(); // Number of requests for which the cache hasn't contained the value
@@ -49,14 +64,16 @@ public QueryPlanCache() {
         RuntimeConfig.QUERY_PLAN_CACHING_SIZE.setRequiresRestart( true );
         planCache = CacheBuilder.newBuilder()
                 .maximumSize( RuntimeConfig.QUERY_PLAN_CACHING_SIZE.getInteger() )
+                .removalListener( dependencyTracker.removalListener() )
                 //  .expireAfterWrite(10, TimeUnit.MINUTES)
                 .build();
         registerMonitoringPage();
+        registerConfigListener();
     }
 
 
     public AlgNode getIfPresent( AlgNode parameterizedNode ) {
-        AlgNode node = planCache.getIfPresent( parameterizedNode.algCompareString() );
+        AlgNode node = planCache.getIfPresent( parameterizedNode.algFingerprint() );
         if ( node == null ) {
             missesCounter.incrementAndGet();
         } else {
@@ -66,19 +83,55 @@ public AlgNode getIfPresent( AlgNode parameterizedNode ) {
     }
 
 
-    public void put( AlgNode parameterizedNode, AlgNode optimalNode ) {
-        planCache.put( parameterizedNode.algCompareString(), optimalNode );
+    public void put( AlgNode parameterizedNode, AlgNode optimalNode, CacheDependencies dependencies ) {
+        AlgFingerprint fingerprint = parameterizedNode.algFingerprint();
+        dependencyTracker.register( fingerprint, dependencies );
+        planCache.put( fingerprint, optimalNode );
+    }
+
+
+    /**
+     * Evicts all cached plans which are affected by the given change of the catalog.
+     */
+    public void invalidate( CacheInvalidation invalidation ) {
+        dependencyTracker.invalidate( planCache, invalidation, invalidation::affectsPhysicalPlan );
+    }
+
+
+    /**
+     * Evicts the cached plan of a query whose cardinality estimates turned out to be badly wrong.
+     */
+    public void invalidate( AlgNode parameterizedNode ) {
+        dependencyTracker.invalidate( planCache, parameterizedNode.algFingerprint(), InvalidationCause.CARDINALITY_FEEDBACK );
     }
 
 
     public void reset() {
         ImplementationCache.INSTANCE.reset();
+        dependencyTracker.reset( planCache.size() );
         planCache.invalidateAll();
         hitsCounter.set( 0 );
         missesCounter.set( 0 );
     }
 
 
+    private void registerConfigListener() {
+        ConfigListener listener = new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                reset();
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+                reset();
+            }
+        };
+        PLANNING_SETTINGS.forEach( setting -> setting.addObserver( listener ) );
+    }
+
+
     private void registerMonitoringPage() {
         InformationManager im = InformationManager.getInstance();
 
@@ -136,8 +189,11 @@ private void registerMonitoringPage() {
             hitInfoTable.addRow( "Misses", df.format( total == 0 ? 0 : (missesPercent * 100) ) + " %", misses );
         } );
 
+        // Evictions
+        InformationGroup evictionGroup = dependencyTracker.registerEvictionGroup( page, 3 );
+
         // Invalidate cache
-        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 3 );
+        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 4 );
         im.addGroup( invalidateGroup );
 
         InformationText invalidateText = new InformationText( invalidateGroup, "Invalidate the query plan cache including the hit and miss counters." );
@@ -148,6 +204,7 @@ private void registerMonitoringPage() {
             reset();
             generalGroup.refresh();
             hitRatioGroup.refresh();
+            evictionGroup.refresh();
             return "Successfully invalidated the query plan cache!";
         } );
         invalidateAction.setOrder( 2 );
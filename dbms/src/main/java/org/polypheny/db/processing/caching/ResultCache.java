@@ -0,0 +1,693 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.Value;
+import org.apache.calcite.avatica.Meta;
+import org.apache.calcite.avatica.Meta.CursorFactory;
+import org.apache.calcite.avatica.util.ByteString;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.algebra.AlgFingerprint;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.Sample;
+import org.polypheny.db.algebra.core.TableFunctionScan;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.core.document.DocumentScan;
+import org.polypheny.db.algebra.core.document.DocumentValues;
+import org.polypheny.db.algebra.core.lpg.LpgScan;
+import org.polypheny.db.algebra.core.lpg.LpgValues;
+import org.polypheny.db.algebra.logical.relational.LogicalModify;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.Catalog.EntityType;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.CatalogAdapter.AdapterType;
+import org.polypheny.db.catalog.entity.CatalogDataPlacement;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.information.InformationAction;
+import org.polypheny.db.information.InformationGraph;
+import org.polypheny.db.information.InformationGraph.GraphData;
+import org.polypheny.db.information.InformationGraph.GraphType;
+import org.polypheny.db.information.InformationGroup;
+import org.polypheny.db.information.InformationKeyValue;
+import org.polypheny.db.information.InformationManager;
+import org.polypheny.db.information.InformationPage;
+import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.information.InformationText;
+import org.polypheny.db.prepare.Prepare.PreparedResult;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexShuttle;
+import org.polypheny.db.rex.RexSubQuery;
+import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.transaction.PolyXid;
+
+
+/**
+ * Caches the results of deterministic queries. The results are keyed by the fingerprint of the parameterized plan and
+ * the bound parameter values and are bounded by their estimated memory consumption.
+ *
+ * The cache is kept transactionally consistent: the entities modified by a transaction are recorded (see
+ * {@link #registerWrite(PolyXid, CacheDependencies)}) and all results depending on them are evicted when the transaction
+ * commits. A transaction with uncommitted changes of an entity bypasses the cache for all queries accessing it. Every
+ * entity has a version which is incremented on commit, a result is only added if the versions of the entities it has
+ * been computed from have not changed in the meantime.
+ */
+public class ResultCache {
+
+    public static final ResultCache INSTANCE = new ResultCache();
+
+    private final Cache<ResultKey, CachedResult> resultCache;
+
+    private final CacheDependencyTracker<ResultKey, CachedResult> dependencyTracker = new CacheDependencyTracker<>();
+
+    private final Map<Long, AtomicLong> entityVersions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong(); // Incremented whenever all entries are invalidated
+
+    private final Map<PolyXid, Set<Long>> pendingWrites = new ConcurrentHashMap<>(); // Entities modified by uncommitted transactions
+    private final Set<PolyXid> pendingUnknownWrites = ConcurrentHashMap.newKeySet(); // Uncommitted transactions which have modified unknown entities
+
+    @Getter
+    private final AtomicLong hitsCounter = new AtomicLong(); // Number of executions for which the cache contained the result
+    @Getter
+    private final AtomicLong missesCounter = new AtomicLong(); // Number of executions for which the cache hasn't contained the result
+    @Getter
+    private final AtomicLong uncacheableCounter = new AtomicLong(); // Number of queries whose results cannot be cached
+    @Getter
+    private final AtomicLong bypassedCounter = new AtomicLong(); // Number of executions in transactions with uncommitted changes of the accessed entities
+    @Getter
+    private final AtomicLong discardedCounter = new AtomicLong(); // Number of results not cached because of a concurrent change or their size
+
+
+    public ResultCache() {
+        RuntimeConfig.RESULT_CACHING_SIZE.setRequiresRestart( true );
+        resultCache = CacheBuilder.newBuilder()
+                .maximumWeight( Math.max( 1, RuntimeConfig.RESULT_CACHING_SIZE.getInteger() ) * 1024L * 1024L )
+                .weigher( ( ResultKey key, CachedResult result ) -> result.getWeight() )
+                .removalListener( dependencyTracker.removalListener() )
+                .build();
+        registerMonitoringPage();
+    }
+
+
+    public boolean isActive() {
+        return RuntimeConfig.RESULT_CACHING.getBoolean();
+    }
+
+
+    /**
+     * Checks whether the results of a logical query plan can be cached. This is the case for queries which are
+     * deterministic (e.g. do not use {@code CURRENT_TIMESTAMP} or random functions) and only read from entities known to the
+     * catalog whose data is placed on stores. Counts the query as uncacheable otherwise.
+     */
+    public boolean isCacheable( AlgRoot logicalRoot ) {
+        if ( logicalRoot.kind.belongsTo( Kind.QUERY ) && isCacheable( logicalRoot.alg ) ) {
+            return true;
+        }
+        uncacheableCounter.incrementAndGet();
+        return false;
+    }
+
+
+    private boolean isCacheable( AlgNode node ) {
+        if ( node instanceof Sample || node instanceof TableFunctionScan ) {
+            return false;
+        }
+        if ( node.getInputs().isEmpty() && !hasKnownEntity( node ) ) {
+            return false;
+        }
+        DeterminismShuttle shuttle = new DeterminismShuttle();
+        node.accept( shuttle );
+        if ( !shuttle.deterministic ) {
+            return false;
+        }
+        for ( AlgNode input : node.getInputs() ) {
+            if ( !isCacheable( input ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean hasKnownEntity( AlgNode leaf ) {
+        if ( leaf instanceof Values || leaf instanceof DocumentValues || leaf instanceof LpgValues || leaf instanceof LpgScan ) {
+            return true;
+        } else if ( leaf instanceof DocumentScan ) {
+            return isOnStores( CacheDependencies.getEntityId( ((DocumentScan) leaf).getCollection() ) );
+        }
+        return isOnStores( CacheDependencies.getEntityId( leaf.getTable() ) );
+    }
+
+
+    /**
+     * Whether the data of the given entity is only placed on stores. The data of entities on data sources can change
+     * outside of Polypheny transactions, which would not evict the cached results.
+     */
+    private static boolean isOnStores( Long entityId ) {
+        final Catalog catalog = Catalog.getInstance();
+        if ( entityId == null || !catalog.checkIfExistsEntity( entityId ) || catalog.getTable( entityId ).entityType == EntityType.SOURCE ) {
+            return false;
+        }
+        for ( CatalogDataPlacement placement : catalog.getDataPlacements( entityId ) ) {
+            if ( catalog.getAdapter( placement.adapterId ).type != AdapterType.STORE ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns a prepared result whose bindables look up the results in the cache and add the results of their executions
+     * to the cache.
+     *
+     * @param parameterizedNode the parameterized plan the prepared result has been created from
+     * @param preparedResult the prepared result to wrap
+     * @param dependencies the entities accessed by the plan
+     */
+    public PreparedResult wrap( AlgNode parameterizedNode, PreparedResult preparedResult, CacheDependencies dependencies ) {
+        return new CachingPreparedResult( parameterizedNode.algFingerprint(), preparedResult, dependencies );
+    }
+
+
+    /**
+     * Records that a transaction has modified the given entities. If the modified entities are unknown, all cached results
+     * are invalidated when the transaction commits.
+     */
+    public void registerWrite( PolyXid xid, CacheDependencies dependencies ) {
+        if ( dependencies.getEntityIds().isEmpty() ) {
+            pendingUnknownWrites.add( xid );
+        } else {
+            pendingWrites.computeIfAbsent( xid, x -> ConcurrentHashMap.newKeySet() ).addAll( dependencies.getEntityIds() );
+        }
+    }
+
+
+    /**
+     * Evicts all results depending on entities modified by the given transaction. Has to be called after the changes
+     * are committed and before the locks of the transaction are released.
+     */
+    public synchronized void commit( PolyXid xid ) {
+        Set<Long> entityIds = pendingWrites.remove( xid );
+        if ( pendingUnknownWrites.remove( xid ) ) {
+            invalidateAll( InvalidationCause.DATA_CHANGE );
+        } else if ( entityIds != null ) {
+            for ( long entityId : entityIds ) {
+                invalidateEntity( CacheInvalidation.dataChange( entityId ) );
+            }
+        }
+    }
+
+
+    /**
+     * Discards the modifications recorded for a transaction which has been rolled back.
+     */
+    public void rollback( PolyXid xid ) {
+        pendingWrites.remove( xid );
+        pendingUnknownWrites.remove( xid );
+    }
+
+
+    /**
+     * Evicts all cached results accessing the entity affected by the given change of the catalog.
+     */
+    public synchronized void invalidate( CacheInvalidation invalidation ) {
+        invalidateEntity( invalidation );
+    }
+
+
+    private void invalidateEntity( CacheInvalidation invalidation ) {
+        entityVersions.computeIfAbsent( invalidation.getEntityId(), id -> new AtomicLong() ).incrementAndGet();
+        dependencyTracker.invalidate( resultCache, invalidation, dependencies -> true );
+    }
+
+
+    private void invalidateAll( InvalidationCause cause ) {
+        globalVersion.incrementAndGet();
+        long size = resultCache.size();
+        dependencyTracker.reset( cause == InvalidationCause.RESET ? size : 0 );
+        resultCache.invalidateAll();
+    }
+
+
+    public synchronized void reset() {
+        invalidateAll( InvalidationCause.RESET );
+        hitsCounter.set( 0 );
+        missesCounter.set( 0 );
+        uncacheableCounter.set( 0 );
+        bypassedCounter.set( 0 );
+        discardedCounter.set( 0 );
+    }
+
+
+    /**
+     * Returns a value which changes whenever one of the given entities is modified.
+     */
+    private long getVersion( CacheDependencies dependencies ) {
+        long version = globalVersion.get();
+        for ( Long entityId : dependencies.getEntityIds() ) {
+            AtomicLong entityVersion = entityVersions.get( entityId );
+            if ( entityVersion != null ) {
+                version += entityVersion.get();
+            }
+        }
+        return version;
+    }
+
+
+    private synchronized void putIfUnchanged( ResultKey key, CachedResult result, CacheDependencies dependencies, long expectedVersion ) {
+        if ( getVersion( dependencies ) != expectedVersion ) {
+            discardedCounter.incrementAndGet();
+            return;
+        }
+        dependencyTracker.register( key, dependencies );
+        resultCache.put( key, result );
+    }
+
+
+    private boolean hasPendingWrites( DataContext dataContext, CacheDependencies dependencies ) {
+        if ( dataContext.getStatement() == null ) {
+            return true;
+        }
+        PolyXid xid = dataContext.getStatement().getTransaction().getXid();
+        if ( pendingUnknownWrites.contains( xid ) ) {
+            return true;
+        }
+        Set<Long> written = pendingWrites.get( xid );
+        return written != null && !Collections.disjoint( written, dependencies.getEntityIds() );
+    }
+
+
+    /**
+     * Copies the bound parameter values or returns {@code null} if they are not suitable as part of a cache key.
+     */
+    private static List<Map<Long, Object>> copyParameterValues( List<Map<Long, Object>> parameterValues ) {
+        if ( parameterValues.size() > 1 ) {
+            // Batch execution
+            return null;
+        }
+        List<Map<Long, Object>> copy = new ArrayList<>( parameterValues.size() );
+        for ( Map<Long, Object> values : parameterValues ) {
+            for ( Object value : values.values() ) {
+                if ( !isImmutableValue( value ) ) {
+                    return null;
+                }
+            }
+            copy.add( new HashMap<>( values ) );
+        }
+        return copy;
+    }
+
+
+    private static boolean isImmutableValue( Object value ) {
+        if ( value instanceof List ) {
+            return ((List<?>) value).stream().allMatch( ResultCache::isImmutableValue );
+        }
+        return value == null || value instanceof Comparable;
+    }
+
+
+    /**
+     * Roughly estimates the number of bytes occupied by a value of a result row.
+     */
+    private static long estimateSize( Object value ) {
+        if ( value == null ) {
+            return 8;
+        } else if ( value instanceof String ) {
+            return 40 + 2L * ((String) value).length();
+        } else if ( value instanceof byte[] ) {
+            return 16 + ((byte[]) value).length;
+        } else if ( value instanceof ByteString ) {
+            return 32 + ((ByteString) value).length();
+        } else if ( value instanceof Object[] ) {
+            long size = 16;
+            for ( Object element : (Object[]) value ) {
+                size += 8 + estimateSize( element );
+            }
+            return size;
+        } else if ( value instanceof List ) {
+            long size = 40;
+            for ( Object element : (List<?>) value ) {
+                size += 8 + estimateSize( element );
+            }
+            return size;
+        } else if ( value instanceof Map ) {
+            long size = 48;
+            for ( Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet() ) {
+                size += 32 + estimateSize( entry.getKey() ) + estimateSize( entry.getValue() );
+            }
+            return size;
+        }
+        return 24;
+    }
+
+
+    @Value
+    private static class ResultKey {
+
+        AlgFingerprint fingerprint;
+        Meta.Style style;
+        List<Map<Long, Object>> parameterValues;
+
+    }
+
+
+    @Value
+    private static class CachedResult {
+
+        List<Object> rows;
+        int weight;
+
+    }
+
+
+    /**
+     * Delegates to the wrapped prepared result and wraps its bindables.
+     */
+    private class CachingPreparedResult implements PreparedResult {
+
+        private final AlgFingerprint fingerprint;
+        private final PreparedResult preparedResult;
+        private final CacheDependencies dependencies;
+
+
+        private CachingPreparedResult( AlgFingerprint fingerprint, PreparedResult preparedResult, CacheDependencies dependencies ) {
+            this.fingerprint = fingerprint;
+            this.preparedResult = preparedResult;
+            this.dependencies = dependencies;
+        }
+
+
+        @Override
+        public String getCode() {
+            return preparedResult.getCode();
+        }
+
+
+        @Override
+        public boolean isDml() {
+            return preparedResult.isDml();
+        }
+
+
+        @Override
+        public LogicalModify.Operation getTableModOp() {
+            return preparedResult.getTableModOp();
+        }
+
+
+        @Override
+        public List<List<String>> getFieldOrigins() {
+            return preparedResult.getFieldOrigins();
+        }
+
+
+        @Override
+        public AlgDataType getParameterRowType() {
+            return preparedResult.getParameterRowType();
+        }
+
+
+        @Override
+        public Bindable getBindable( CursorFactory cursorFactory ) {
+            @SuppressWarnings("unchecked") final Bindable<Object> bindable = preparedResult.getBindable( cursorFactory );
+            return (Bindable<Object>) dataContext -> bind( bindable, cursorFactory.style, dataContext );
+        }
+
+
+        private Enumerable<Object> bind( Bindable<Object> bindable, Meta.Style style, DataContext dataContext ) {
+            if ( !isActive() ) {
+                return bindable.bind( dataContext );
+            }
+            if ( hasPendingWrites( dataContext, dependencies ) ) {
+                bypassedCounter.incrementAndGet();
+                return bindable.bind( dataContext );
+            }
+            List<Map<Long, Object>> parameterValues = copyParameterValues( dataContext.getParameterValues() );
+            if ( parameterValues == null ) {
+                uncacheableCounter.incrementAndGet();
+                return bindable.bind( dataContext );
+            }
+
+            final ResultKey key = new ResultKey( fingerprint, style, parameterValues );
+            CachedResult cached = resultCache.getIfPresent( key );
+            if ( cached != null ) {
+                hitsCounter.incrementAndGet();
+                return Linq4j.asEnumerable( cached.getRows() ).select( ResultCache::copyRow );
+            }
+            missesCounter.incrementAndGet();
+
+            // The version has to be determined before the execution to detect concurrent changes
+            final long version = getVersion( dependencies );
+            final Enumerable<Object> enumerable = bindable.bind( dataContext );
+            return new AbstractEnumerable<Object>() {
+                @Override
+                public Enumerator<Object> enumerator() {
+                    return new RecordingEnumerator( enumerable.enumerator(), key, dependencies, version );
+                }
+            };
+        }
+
+    }
+
+
+    /**
+     * Records the rows returned by an enumerator and adds them to the cache once the enumerator is exhausted. Results
+     * which are not read completely or which exceed the configured size are not cached.
+     */
+    private class RecordingEnumerator implements Enumerator<Object> {
+
+        private final Enumerator<Object> enumerator;
+        private final ResultKey key;
+        private final CacheDependencies dependencies;
+        private final long version;
+
+        private final int maxRows = RuntimeConfig.RESULT_CACHING_MAX_ROWS.getInteger();
+        private final long maxWeight = Math.max( 1, RuntimeConfig.RESULT_CACHING_SIZE.getInteger() ) * 1024L * 1024L;
+
+        private List<Object> rows = new ArrayList<>();
+        private long weight = 0;
+        private Object current;
+
+
+        private RecordingEnumerator( Enumerator<Object> enumerator, ResultKey key, CacheDependencies dependencies, long version ) {
+            this.enumerator = enumerator;
+            this.key = key;
+            this.dependencies = dependencies;
+            this.version = version;
+        }
+
+
+        @Override
+        public Object current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            if ( enumerator.moveNext() ) {
+                current = enumerator.current();
+                if ( rows != null ) {
+                    rows.add( copyRow( current ) );
+                    weight += 8 + estimateSize( current );
+                    if ( rows.size() > maxRows || weight > maxWeight ) {
+                        // Stop recording
+                        discardedCounter.incrementAndGet();
+                        rows = null;
+                    }
+                }
+                return true;
+            }
+            current = null;
+            if ( rows != null ) {
+                putIfUnchanged( key, new CachedResult( Collections.unmodifiableList( rows ), (int) Math.min( Integer.MAX_VALUE, weight ) ), dependencies, version );
+                rows = null;
+            }
+            return false;
+        }
+
+
+        @Override
+        public void reset() {
+            enumerator.reset();
+            rows = null;
+        }
+
+
+        @Override
+        public void close() {
+            enumerator.close();
+        }
+
+    }
+
+
+    /**
+     * Copies a row, so that neither the cache nor the consumers of a result can modify the rows seen by the other.
+     */
+    private static Object copyRow( Object row ) {
+        if ( row instanceof Object[] ) {
+            final Object[] copy = ((Object[]) row).clone();
+            for ( int i = 0; i < copy.length; i++ ) {
+                if ( copy[i] instanceof Object[] || copy[i] instanceof byte[] ) {
+                    copy[i] = copyRow( copy[i] );
+                }
+            }
+            return copy;
+        } else if ( row instanceof byte[] ) {
+            return ((byte[]) row).clone();
+        }
+        return row;
+    }
+
+
+    private void registerMonitoringPage() {
+        InformationManager im = InformationManager.getInstance();
+
+        InformationPage page = new InformationPage( "Result Cache" );
+        im.addPage( page );
+
+        // General
+        InformationGroup generalGroup = new InformationGroup( page, "General" ).setOrder( 1 );
+        im.addGroup( generalGroup );
+
+        InformationKeyValue generalKv = new InformationKeyValue( generalGroup );
+        im.registerInformation( generalKv );
+        generalGroup.setRefreshFunction( () -> {
+            generalKv.putPair( "Status", isActive() ? "Active" : "Disabled" );
+            generalKv.putPair( "Cached Results", resultCache.size() + "" );
+            generalKv.putPair( "Maximum Size (MB)", RuntimeConfig.RESULT_CACHING_SIZE.getInteger() + "" );
+            generalKv.putPair( "Maximum Rows per Result", RuntimeConfig.RESULT_CACHING_MAX_ROWS.getInteger() + "" );
+            generalKv.putPair( "Transactions with Uncommitted Changes", (pendingWrites.size() + pendingUnknownWrites.size()) + "" );
+            generalKv.putPair( "Discarded Results (Changed or Too Large)", discardedCounter.get() + "" );
+        } );
+
+        // Hit ratio
+        InformationGroup hitRatioGroup = new InformationGroup( page, "Hit Ratio" ).setOrder( 2 );
+        im.addGroup( hitRatioGroup );
+
+        InformationGraph hitInfoGraph = new InformationGraph(
+                hitRatioGroup,
+                GraphType.DOUGHNUT,
+                new String[]{ "Hits", "Misses" }
+        );
+        hitInfoGraph.setOrder( 1 );
+        im.registerInformation( hitInfoGraph );
+
+        InformationTable hitInfoTable = new InformationTable(
+                hitRatioGroup,
+                Arrays.asList( "Attribute", "Percent", "Absolute" )
+        );
+        hitInfoTable.setOrder( 2 );
+        im.registerInformation( hitInfoTable );
+
+        hitRatioGroup.setRefreshFunction( () -> {
+            long hits = hitsCounter.longValue();
+            long misses = missesCounter.longValue();
+            long uncacheable = uncacheableCounter.longValue();
+            long bypassed = bypassedCounter.longValue();
+            long total = hits + misses + uncacheable + bypassed;
+
+            hitInfoGraph.updateGraph(
+                    new String[]{ "Misses", "Hits", "Uncacheable", "Bypassed" },
+                    new GraphData<>( "heap-data", new Long[]{ misses, hits, uncacheable, bypassed } )
+            );
+
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+            symbols.setDecimalSeparator( '.' );
+            DecimalFormat df = new DecimalFormat( "0.0", symbols );
+            hitInfoTable.reset();
+            hitInfoTable.addRow( "Hits", df.format( total == 0 ? 0 : ((double) hits / total * 100) ) + " %", hits );
+            hitInfoTable.addRow( "Misses", df.format( total == 0 ? 0 : ((double) misses / total * 100) ) + " %", misses );
+            hitInfoTable.addRow( "Uncacheable", df.format( total == 0 ? 0 : ((double) uncacheable / total * 100) ) + " %", uncacheable );
+            hitInfoTable.addRow( "Bypassed (Uncommitted Changes)", df.format( total == 0 ? 0 : ((double) bypassed / total * 100) ) + " %", bypassed );
+        } );
+
+        // Evictions
+        InformationGroup evictionGroup = dependencyTracker.registerEvictionGroup( page, 3 );
+
+        // Invalidate cache
+        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 4 );
+        im.addGroup( invalidateGroup );
+
+        InformationText invalidateText = new InformationText( invalidateGroup, "Invalidate the result cache including the hit and miss counters." );
+        invalidateText.setOrder( 1 );
+        im.registerInformation( invalidateText );
+
+        InformationAction invalidateAction = new InformationAction( invalidateGroup, "Invalidate", parameters -> {
+            reset();
+            generalGroup.refresh();
+            hitRatioGroup.refresh();
+            evictionGroup.refresh();
+            return "Successfully invalidated the result cache!";
+        } );
+        invalidateAction.setOrder( 2 );
+        im.registerInformation( invalidateAction );
+    }
+
+
+    /**
+     * Checks whether the expressions of an algebra node only use deterministic functions.
+     */
+    private class DeterminismShuttle extends RexShuttle {
+
+        private boolean deterministic = true;
+
+
+        @Override
+        public RexNode visitCall( RexCall call ) {
+            if ( !call.getOperator().isDeterministic() || call.getOperator().isDynamicFunction() ) {
+                deterministic = false;
+                return call;
+            }
+            return super.visitCall( call );
+        }
+
+
+        @Override
+        public RexNode visitSubQuery( RexSubQuery subQuery ) {
+            if ( !isCacheable( subQuery.alg ) ) {
+                deterministic = false;
+                return subQuery;
+            }
+            return super.visitSubQuery( subQuery );
+        }
+
+    }
+
+}
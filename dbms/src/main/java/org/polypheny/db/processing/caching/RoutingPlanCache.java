@@ -51,6 +51,8 @@ public class RoutingPlanCache {
     public static final RoutingPlanCache INSTANCE = new RoutingPlanCache();
     private final Cache<Pair<String, Set<Long>>, List<CachedProposedRoutingPlan>> planCache;
 
+    private final CacheDependencyTracker<Pair<String, Set<Long>>, List<CachedProposedRoutingPlan>> dependencyTracker = new CacheDependencyTracker<>();
+
     private final AtomicLong hitsCounter = new AtomicLong(); // Number of requests for which the cache contained the value
     private final AtomicLong missesCounter = new AtomicLong(); // Number of requests when the cache didn't contain the value
 
@@ -59,6 +61,7 @@ public RoutingPlanCache() {
         RuntimeConfig.ROUTING_PLAN_CACHING_SIZE.setRequiresRestart( true );
         planCache = CacheBuilder.newBuilder()
                 .maximumSize( RuntimeConfig.ROUTING_PLAN_CACHING_SIZE.getInteger() )
+                .removalListener( dependencyTracker.removalListener() )
                 .build();
         registerMonitoringPage();
     }
@@ -81,7 +84,7 @@ public List<CachedProposedRoutingPlan> getIfPresent( String queryId, Set<Long> p
     }
 
 
-    public void put( String queryId, Set<Long> partitionIds, List<CachedProposedRoutingPlan> routingPlans ) {
+    public void put( String queryId, Set<Long> partitionIds, List<CachedProposedRoutingPlan> routingPlans, CacheDependencies dependencies ) {
         // this seems to be a bug, which occurs when Unions are used. As the cached execution later on needs
         // all physicalPlacementsOfPartitions or else it will fail later on.
         // We check here and don't cache if the plan is not complete
@@ -93,13 +96,24 @@ public void put( String queryId, Set<Long> partitionIds, List<CachedProposedRout
             }
             return true;
         } ) ) {
-            planCache.put( new Pair<>( queryId, partitionIds ), routingPlans );
+            Pair<String, Set<Long>> key = new Pair<>( queryId, partitionIds );
+            dependencyTracker.register( key, dependencies );
+            planCache.put( key, routingPlans );
         }
 
     }
 
 
+    /**
+     * Evicts all cached routing plans which are affected by the given change of the catalog.
+     */
+    public void invalidate( CacheInvalidation invalidation ) {
+        dependencyTracker.invalidate( planCache, invalidation, invalidation::affectsRoutingPlan );
+    }
+
+
     public void reset() {
+        dependencyTracker.reset( planCache.size() );
         planCache.invalidateAll();
         hitsCounter.set( 0 );
         missesCounter.set( 0 );
@@ -163,8 +177,11 @@ private void registerMonitoringPage() {
             hitInfoTable.addRow( "Misses", df.format( total == 0 ? 0 : (missesPercent * 100) ) + " %", misses );
         } );
 
+        // Evictions
+        InformationGroup evictionGroup = dependencyTracker.registerEvictionGroup( page, 3 );
+
         // Invalidate cache
-        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 3 );
+        InformationGroup invalidateGroup = new InformationGroup( page, "Invalidate" ).setOrder( 4 );
         im.addGroup( invalidateGroup );
 
         InformationText invalidateText = new InformationText( invalidateGroup, "Invalidate the routing plan cache including the hit and miss counters." );
@@ -175,13 +192,14 @@ private void registerMonitoringPage() {
             reset();
             generalGroup.refresh();
             hitRatioGroup.refresh();
+            evictionGroup.refresh();
             return "Successfully invalidated the routing query plan cache!";
         } );
         invalidateAction.setOrder( 2 );
         im.registerInformation( invalidateAction );
 
         // Invalidate post cost aggregation
-        InformationGroup invalidatePostCosts = new InformationGroup( page, "Invalidate" ).setOrder( 4 );
+        InformationGroup invalidatePostCosts = new InformationGroup( page, "Invalidate" ).setOrder( 5 );
         im.addGroup( invalidatePostCosts );
 
         InformationText invalidatePostCostsText = new InformationText( invalidatePostCosts, "Invalidate aggregated query post costs." );
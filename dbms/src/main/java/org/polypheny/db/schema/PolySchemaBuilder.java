@@ -55,6 +55,7 @@
 import org.polypheny.db.catalog.entity.CatalogTable;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.schema.impl.AbstractSchema;
+import org.polypheny.db.schema.impl.AbstractTable;
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.PolyTypeFactoryImpl;
 import org.polypheny.db.util.BuiltInMethod;
@@ -344,6 +345,9 @@ private void buildPhysicalTables( AbstractPolyphenyDbSchema polyphenyDbSchema, S
                                     catalogTable,
                                     Catalog.getInstance().getColumnPlacementsOnAdapterSortedByPhysicalPosition( adapter.getAdapterId(), catalogTable.id ),
                                     partitionPlacement );
+                            if ( table instanceof AbstractTable ) {
+                                ((AbstractTable) table).setAdapterId( adapter.getAdapterId() );
+                            }
 
                             physicalTables.put( catalog.getTable( tableId ).name + "_" + partitionPlacement.partitionId, table );
 
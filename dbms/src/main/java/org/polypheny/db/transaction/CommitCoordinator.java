@@ -0,0 +1,228 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.transaction;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.polypheny.db.adapter.Adapter;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plugins.PolyPluginManager;
+
+
+/**
+ * Executes the two phases of the commit of a transaction on its involved adapters.
+ *
+ * The adapters are prepared and committed concurrently. If a group commit window is configured, a committing
+ * transaction waits for concurrent transactions to commit and the commit phases of the whole group are dispatched
+ * together. The stores still commit every transaction on their own, they only receive the commits at the same time, which
+ * lets stores that batch concurrent commits share the flush of their logs. A transaction which starts committing after
+ * the window of the current group has closed starts a new group.
+ *
+ * The latency of every phase is tracked per adapter.
+ */
+public class CommitCoordinator {
+
+    public static final CommitCoordinator INSTANCE = new CommitCoordinator();
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool( runnable -> {
+        Thread thread = new Thread( runnable, "CommitPool-" + threadCounter.getAndIncrement() );
+        thread.setDaemon( true );
+        thread.setContextClassLoader( PolyPluginManager.getMainClassLoader() );
+        return thread;
+    } );
+
+    private final Map<String, Map<Phase, Latency>> latencies = new ConcurrentHashMap<>();
+
+    private final Object groupLock = new Object();
+    private List<CompletableFuture<Void>> group;
+
+
+    private CommitCoordinator() {
+    }
+
+
+    /**
+     * Prepares the given adapters for the commit of a transaction.
+     *
+     * @return whether all adapters are ready to commit
+     */
+    public boolean prepare( PolyXid xid, List<Adapter> adapters ) {
+        boolean okToCommit = true;
+        for ( Boolean ok : await( execute( adapters, Phase.PREPARE, adapter -> adapter.prepare( xid ) ) ) ) {
+            okToCommit &= ok;
+        }
+        return okToCommit;
+    }
+
+
+    /**
+     * Commits a transaction on the given adapters. Depending on the group commit window, the commit is dispatched
+     * together with the commits of concurrent transactions.
+     */
+    public void commit( PolyXid xid, List<Adapter> adapters ) {
+        final AdapterAction commit = adapter -> {
+            adapter.commit( xid );
+            return true;
+        };
+        final long window = RuntimeConfig.GROUP_COMMIT_WINDOW.getInteger();
+        if ( window <= 0 || adapters.isEmpty() ) {
+            await( execute( adapters, Phase.COMMIT, commit ) );
+            return;
+        }
+
+        final CompletableFuture<Void> start = new CompletableFuture<>();
+        final CompletableFuture<List<Boolean>> result = start.thenComposeAsync( v -> execute( adapters, Phase.COMMIT, commit ), executor );
+        final boolean leader;
+        synchronized ( groupLock ) {
+            leader = group == null;
+            if ( leader ) {
+                group = new ArrayList<>();
+            }
+            group.add( start );
+        }
+        if ( leader ) {
+            // Give concurrent transactions the chance to join the group
+            LockSupport.parkNanos( TimeUnit.MICROSECONDS.toNanos( window ) );
+            final List<CompletableFuture<Void>> members;
+            synchronized ( groupLock ) {
+                members = group;
+                group = null;
+            }
+            members.forEach( member -> member.complete( null ) );
+        }
+        await( result );
+    }
+
+
+    /**
+     * Executes an action on every adapter and tracks its latency. A single adapter is handled by the calling thread.
+     */
+    private CompletableFuture<List<Boolean>> execute( List<Adapter> adapters, Phase phase, AdapterAction action ) {
+        final boolean parallel = adapters.size() > 1 && RuntimeConfig.PARALLEL_COMMIT.getBoolean();
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>( adapters.size() );
+        for ( Adapter adapter : adapters ) {
+            final Supplier<Boolean> task = () -> {
+                final long start = System.nanoTime();
+                try {
+                    return action.apply( adapter );
+                } finally {
+                    getLatency( adapter, phase ).add( System.nanoTime() - start );
+                }
+            };
+            if ( parallel ) {
+                futures.add( CompletableFuture.supplyAsync( task, executor ) );
+            } else {
+                try {
+                    futures.add( CompletableFuture.completedFuture( task.get() ) );
+                } catch ( RuntimeException e ) {
+                    futures.add( CompletableFuture.failedFuture( e ) );
+                    break;
+                }
+            }
+        }
+        // Completes once all adapters are done, even if one of them failed
+        return CompletableFuture
+                .allOf( futures.toArray( new CompletableFuture[0] ) )
+                .thenApply( v -> futures.stream().map( CompletableFuture::join ).collect( Collectors.toList() ) );
+    }
+
+
+    /**
+     * Waits for the given result and rethrows the exception of a failed adapter.
+     */
+    private static <T> T await( CompletableFuture<T> future ) {
+        try {
+            return future.join();
+        } catch ( CompletionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException( e.getCause() );
+        }
+    }
+
+
+    private Latency getLatency( Adapter adapter, Phase phase ) {
+        return latencies
+                .computeIfAbsent( adapter.getUniqueName(), k -> new ConcurrentHashMap<>() )
+                .computeIfAbsent( phase, k -> new Latency() );
+    }
+
+
+    /**
+     * Returns the tracked latencies as rows of adapter name, phase, count, average and maximum latency in milliseconds.
+     */
+    public List<Object[]> getLatencies() {
+        final List<Object[]> rows = new ArrayList<>();
+        latencies.forEach( ( adapter, phases ) -> phases.forEach( ( phase, latency ) -> {
+            final long count = latency.getCount().get();
+            rows.add( new Object[]{
+                    adapter,
+                    phase.name(),
+                    count,
+                    String.format( "%.3f", count == 0 ? 0d : latency.getTotal().get() / (double) count / 1_000_000 ),
+                    String.format( "%.3f", latency.getMax().get() / 1_000_000d ) } );
+        } ) );
+        return rows;
+    }
+
+
+    public enum Phase {
+        PREPARE,
+        COMMIT
+    }
+
+
+    private interface AdapterAction {
+
+        boolean apply( Adapter adapter );
+
+    }
+
+
+    @Getter
+    private static class Latency {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+
+        void add( long nanos ) {
+            count.incrementAndGet();
+            total.addAndGet( nanos );
+            max.accumulateAndGet( nanos, Math::max );
+        }
+
+    }
+
+}
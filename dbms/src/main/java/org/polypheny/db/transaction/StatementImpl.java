@@ -35,6 +35,7 @@
 import org.polypheny.db.processing.QueryProcessor;
 import org.polypheny.db.processing.QueryProviderImpl;
 import org.polypheny.db.processing.VolcanoQueryProcessor;
+import org.polypheny.db.runtime.spill.MemoryBudget;
 import org.polypheny.db.util.FileInputHandle;
 
 public class StatementImpl implements Statement {
@@ -54,6 +55,7 @@ public class StatementImpl implements Statement {
     private InformationDuration routingDuration;
     private InformationDuration overviewDuration;
     private InformationPage executionTimePage;
+    private MemoryBudget memoryBudget;
 
     private StatementEvent statementEvent;
 
@@ -151,6 +153,15 @@ public void setMonitoringEvent( StatementEvent event ) {
     }
 
 
+    @Override
+    public synchronized MemoryBudget getMemoryBudget() {
+        if ( memoryBudget == null ) {
+            memoryBudget = new MemoryBudget( this );
+        }
+        return memoryBudget;
+    }
+
+
     private InformationDuration initDuration( String title, int order ) {
         InformationManager im = transaction.getQueryAnalyzer();
         if ( executionTimePage == null ) {
@@ -56,6 +56,7 @@
 import org.polypheny.db.processing.DataMigratorImpl;
 import org.polypheny.db.processing.Processor;
 import org.polypheny.db.processing.QueryProcessor;
+import org.polypheny.db.processing.caching.ResultCache;
 import org.polypheny.db.schema.PolySchemaBuilder;
 import org.polypheny.db.schema.PolyphenyDbSchema;
 import org.polypheny.db.view.MaterializedViewManager;
@@ -102,7 +103,7 @@ public class TransactionImpl implements Transaction, Comparable<Object> {
     private final Set<CatalogTable> catalogTables = new TreeSet<>();
 
     @Getter
-    private final List<Adapter> involvedAdapters = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<Adapter> involvedAdapters = new CopyOnWriteArrayList<>();
 
     private final Set<Lock> lockList = new HashSet<>();
     private boolean useCache = true;
@@ -150,9 +151,8 @@ public InformationManager getQueryAnalyzer() {
 
     @Override
     public void registerInvolvedAdapter( Adapter adapter ) {
-        if ( !involvedAdapters.contains( adapter ) ) {
-            involvedAdapters.add( adapter );
-        }
+        // The modifies of a statement may be executed concurrently
+        involvedAdapters.addIfAbsent( adapter );
     }
 
 
@@ -165,9 +165,7 @@ public void commit() throws TransactionException {
         // Prepare to commit changes on all involved adapters and the catalog
         boolean okToCommit = true;
         if ( RuntimeConfig.TWO_PC_MODE.getBoolean() ) {
-            for ( Adapter adapter : involvedAdapters ) {
-                okToCommit &= adapter.prepare( xid );
-            }
+            okToCommit = CommitCoordinator.INSTANCE.prepare( xid, involvedAdapters );
         }
 
         if ( !catalogTables.isEmpty() ) {
@@ -188,9 +186,7 @@ public void commit() throws TransactionException {
 
         if ( okToCommit ) {
             // Commit changes
-            for ( Adapter adapter : involvedAdapters ) {
-                adapter.commit( xid );
-            }
+            CommitCoordinator.INSTANCE.commit( xid, involvedAdapters );
 
             this.statements.forEach( statement -> {
                 if ( statement.getMonitoringEvent() != null ) {
@@ -209,6 +205,12 @@ public void commit() throws TransactionException {
         // Free resources hold by statements
         statements.forEach( Statement::close );
 
+        // Evict cached results depending on the changes (before other transactions can access the modified entities)
+        ResultCache.INSTANCE.commit( xid );
+
+        // Handover the changes for incrementally maintained materialized views (before other transactions can access the modified entities)
+        MaterializedViewManager.getInstance().publishDeltas( xid );
+
         // Release locks
         LockManager.INSTANCE.removeTransaction( this );
         // Remove transaction
@@ -242,6 +244,8 @@ public void rollback() throws TransactionException {
                 statement.close();
             } );
         } finally {
+            ResultCache.INSTANCE.rollback( xid );
+            MaterializedViewManager.getInstance().updateRolledBackXid( xid );
             // Release locks
             LockManager.INSTANCE.removeTransaction( this );
             // Remove transaction
@@ -58,6 +58,12 @@ private TransactionManagerImpl() {
                 runningTransactionsGroup,
                 Arrays.asList( "ID", "XID Hash", "Statements", "Analyze", "Involved Adapters", "Origin" ) );
         im.registerInformation( runningTransactionsTable );
+        InformationGroup commitLatencyGroup = new InformationGroup( page, "Commit Latency" );
+        im.addGroup( commitLatencyGroup );
+        InformationTable commitLatencyTable = new InformationTable(
+                commitLatencyGroup,
+                Arrays.asList( "Adapter", "Phase", "Count", "Average (ms)", "Max (ms)" ) );
+        im.registerInformation( commitLatencyTable );
         page.setRefreshFunction( () -> {
             runningTransactionsTable.reset();
             transactions.forEach( ( k, v ) -> runningTransactionsTable.addRow(
@@ -67,6 +73,8 @@ private TransactionManagerImpl() {
                     v.isAnalyze(),
                     v.getInvolvedAdapters().stream().map( Adapter::getUniqueName ).collect( Collectors.joining( ", " ) ),
                     v.getOrigin() ) );
+            commitLatencyTable.reset();
+            CommitCoordinator.INSTANCE.getLatencies().forEach( commitLatencyTable::addRow );
         } );
     }
 
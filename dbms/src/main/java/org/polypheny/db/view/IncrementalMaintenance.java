@@ -0,0 +1,678 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.view;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.algebra.AbstractAlgNode;
+import org.polypheny.db.algebra.AlgCopier;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.Aggregate.Group;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.algebra.logical.relational.LogicalAggregate;
+import org.polypheny.db.algebra.logical.relational.LogicalFilter;
+import org.polypheny.db.algebra.logical.relational.LogicalJoin;
+import org.polypheny.db.algebra.logical.relational.LogicalModify;
+import org.polypheny.db.algebra.logical.relational.LogicalProject;
+import org.polypheny.db.algebra.logical.relational.LogicalScan;
+import org.polypheny.db.algebra.logical.relational.LogicalValues;
+import org.polypheny.db.algebra.operators.OperatorName;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.CatalogColumn;
+import org.polypheny.db.catalog.entity.CatalogColumnPlacement;
+import org.polypheny.db.catalog.entity.CatalogMaterializedView;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.languages.OperatorRegistry;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.processing.DataMigrator;
+import org.polypheny.db.processing.DeepCopyShuttle;
+import org.polypheny.db.processing.caching.CacheDependencies;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexShuttle;
+import org.polypheny.db.rex.RexSubQuery;
+import org.polypheny.db.rex.RexUtil;
+import org.polypheny.db.rex.RexVisitorImpl;
+import org.polypheny.db.tools.AlgBuilder;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.Pair;
+import org.polypheny.db.util.Util;
+
+
+/**
+ * Updates materialized views by applying the changes (deltas) of their underlying tables instead of recomputing them.
+ *
+ * The changes of a select-project-join view are derived from the definition by replacing the scans of the changed
+ * tables by the changed rows. If multiple tables have changed, the terms are combined by inclusion–exclusion, which
+ * only requires the current state of the tables:
+ * {@code V(T1 + D1, T2 + D2) - V(T1, T2) = V(D1, T2 + D2) + V(T1 + D1, D2) - V(D1, D2)}.
+ * Aggregations of such views are maintained by recomputing the groups affected by the changes, which also covers
+ * aggregate functions like MIN and MAX which cannot be maintained from deleted rows alone.
+ */
+@Slf4j
+public class IncrementalMaintenance {
+
+    // The number of delta queries grows exponentially with the number of changed scans
+    private static final int MAX_CHANGED_SCANS = 3;
+
+    // Maximal number of rows of a values node or disjuncts of a lookup condition
+    private static final int CHUNK_SIZE = 100;
+
+    private final Transaction transaction;
+    private final CatalogMaterializedView view;
+    private final Definition definition;
+    private int nextMatId = -1;
+
+
+    private IncrementalMaintenance( Transaction transaction, CatalogMaterializedView view, Definition definition ) {
+        this.transaction = transaction;
+        this.view = view;
+        this.definition = definition;
+    }
+
+
+    /**
+     * Captures the rows inserted, deleted or updated by a DML statement on a table with incrementally maintained
+     * materialized views. The rows are determined by executing the input of the table modify in the transaction of
+     * the statement, before the modification itself is executed. As the statement holds an exclusive lock on the
+     * table, this yields exactly the rows consumed by the modification, provided that the input is deterministic.
+     * Modifications are mostly executed by the stores, so their rows cannot be observed directly. The changes of
+     * statements with non-deterministic inputs are therefore not captured, which leads to a recomputation.
+     *
+     * @param statement the statement of the modification, whose locks have already been acquired
+     * @param logicalRoot the logical plan of the modification
+     * @param parameterRowType the types of the dynamic parameters
+     */
+    public static void captureDelta( Statement statement, AlgRoot logicalRoot, AlgDataType parameterRowType ) {
+        if ( !RuntimeConfig.MATERIALIZED_VIEW_INCREMENTAL.getBoolean() || !(logicalRoot.alg instanceof LogicalModify) ) {
+            return;
+        }
+        final LogicalModify modify = (LogicalModify) logicalRoot.alg;
+        final Long tableId = CacheDependencies.getEntityId( modify.getTable() );
+        final MaterializedViewManager manager = MaterializedViewManager.getInstance();
+        if ( tableId == null || !manager.requiresDelta( tableId ) ) {
+            return;
+        }
+        final Transaction transaction = statement.getTransaction();
+        if ( modify.isMerge() || statement.getDataContext().getParameterValues().size() > 1 || !isDeterministic( modify.getInput() ) ) {
+            // The changes of merges, batches and non-deterministic inputs are not captured, their views are recomputed
+            manager.addDelta( transaction, tableId, null, null );
+            return;
+        }
+
+        try {
+            final List<String> fieldNames = modify.getTable().getRowType().getFieldNames();
+            final AlgNode input = modify.getInput().accept( new DeepCopyShuttle() );
+            final int expectedFieldCount = modify.isUpdate() ? fieldNames.size() + modify.getUpdateColumnList().size() : fieldNames.size();
+            if ( input.getRowType().getFieldCount() != expectedFieldCount ) {
+                throw new IllegalStateException( "Unexpected input of table modify: " + input.getRowType() );
+            }
+            final List<List<Object>> rows = statement.getQueryProcessor()
+                    .prepareQuery( AlgRoot.of( input, Kind.SELECT ), parameterRowType, false, true, false )
+                    .getRows( statement, -1 );
+
+            List<List<Object>> inserted = Collections.emptyList();
+            List<List<Object>> deleted = Collections.emptyList();
+            if ( modify.isInsert() ) {
+                inserted = rows;
+            } else if ( modify.isDelete() ) {
+                deleted = rows;
+            } else {
+                // The input of an update contains the old row followed by the new values of the updated columns
+                inserted = new ArrayList<>( rows.size() );
+                deleted = new ArrayList<>( rows.size() );
+                for ( List<Object> row : rows ) {
+                    List<Object> oldRow = row.subList( 0, fieldNames.size() );
+                    List<Object> newRow = new ArrayList<>( oldRow );
+                    for ( int i = 0; i < modify.getUpdateColumnList().size(); i++ ) {
+                        newRow.set( fieldNames.indexOf( modify.getUpdateColumnList().get( i ) ), row.get( fieldNames.size() + i ) );
+                    }
+                    deleted.add( new ArrayList<>( oldRow ) );
+                    inserted.add( newRow );
+                }
+            }
+            manager.addDelta( transaction, tableId, inserted, deleted );
+        } catch ( Exception e ) {
+            log.debug( "Unable to capture the changes of table {}", tableId, e );
+            manager.addDelta( transaction, tableId, null, null );
+        }
+    }
+
+
+    /**
+     * Checks whether evaluating a plan twice in the same state yields the same rows, e.g. it does not contain calls to
+     * functions like RAND or CURRENT_TIMESTAMP.
+     */
+    static boolean isDeterministic( AlgNode node ) {
+        final boolean[] deterministic = { true };
+        node.accept( new RexShuttle() {
+            @Override
+            public RexNode visitCall( RexCall call ) {
+                if ( !call.getOperator().isDeterministic() || call.getOperator().isDynamicFunction() ) {
+                    deterministic[0] = false;
+                }
+                return super.visitCall( call );
+            }
+
+
+            @Override
+            public RexNode visitSubQuery( RexSubQuery subQuery ) {
+                if ( !isDeterministic( subQuery.alg ) ) {
+                    deterministic[0] = false;
+                }
+                return super.visitSubQuery( subQuery );
+            }
+        } );
+        return deterministic[0] && node.getInputs().stream().allMatch( IncrementalMaintenance::isDeterministic );
+    }
+
+
+    /**
+     * Checks whether a materialized view can be updated incrementally.
+     */
+    public static boolean isMaintainable( CatalogMaterializedView view ) {
+        return !view.isOrdered() && view.getDefinition() != null && Definition.of( view.getDefinition() ) != null;
+    }
+
+
+    /**
+     * Applies the changes of the underlying tables to all placements of a materialized view. The changes have to
+     * cover all modifications of the underlying tables since the materialized view has last been updated, and the
+     * transaction has to hold locks on the underlying tables. If an exception is thrown, the placements may be
+     * partially updated and the materialized view has to be recomputed.
+     *
+     * @param transaction the transaction used to update the materialized view
+     * @param view the materialized view
+     * @param deltas the changes of the underlying tables by table id
+     */
+    static void apply( Transaction transaction, CatalogMaterializedView view, Map<Long, TableDelta> deltas ) {
+        Definition definition = Definition.of( view.getDefinition() );
+        // The materialized view contains the columns of its definition followed by the id of the row
+        if ( view.isOrdered() || definition == null || view.fieldIds.size() != definition.root.getRowType().getFieldCount() + 1 ) {
+            throw new IllegalStateException( "Materialized view " + view.name + " cannot be updated incrementally" );
+        }
+        new IncrementalMaintenance( transaction, view, definition ).apply( deltas );
+    }
+
+
+    private void apply( Map<Long, TableDelta> deltas ) {
+        // Every scan of a changed table is a variable of the definition, also if a table is scanned multiple times
+        List<AlgNode> changedScans = new ArrayList<>();
+        List<TableDelta> scanDeltas = new ArrayList<>();
+        for ( AlgNode scan : definition.scans ) {
+            TableDelta delta = deltas.get( CacheDependencies.getEntityId( scan.getTable() ) );
+            if ( delta == null || delta.isEmpty() ) {
+                continue;
+            }
+            if ( !delta.isComplete() ) {
+                throw new IllegalStateException( "Incomplete changes of table " + scan.getTable().getQualifiedName() );
+            }
+            changedScans.add( scan );
+            scanDeltas.add( delta );
+        }
+        if ( changedScans.isEmpty() ) {
+            return;
+        }
+        if ( changedScans.size() > MAX_CHANGED_SCANS ) {
+            throw new IllegalStateException( "Too many changed tables for an incremental update" );
+        }
+
+        if ( definition.aggregate == null ) {
+            final Map<List<Object>, Integer> changes = new LinkedHashMap<>();
+            evaluateDeltas( changedScans, scanDeltas, 0, new IdentityHashMap<>(), 1, ( rows, sign ) ->
+                    rows.forEach( row -> changes.merge( row, sign, Integer::sum ) ) );
+            applyChanges( changes );
+        } else {
+            final List<Integer> groupKeys = definition.aggregate.getGroupSet().asList();
+            final Set<List<Object>> groups = new LinkedHashSet<>();
+            evaluateDeltas( changedScans, scanDeltas, 0, new IdentityHashMap<>(), 1, ( rows, sign ) ->
+                    rows.forEach( row -> groups.add( groupKeys.stream().map( row::get ).collect( Collectors.toList() ) ) ) );
+            for ( List<List<Object>> chunk : Lists.partition( new ArrayList<>( groups ), CHUNK_SIZE ) ) {
+                recomputeGroups( chunk );
+            }
+        }
+    }
+
+
+    /**
+     * Evaluates the terms of the inclusion–exclusion for every non-empty subset of the changed scans. Each term replaces
+     * the scans of the subset by their inserted (positive) or deleted (negative) rows.
+     */
+    private void evaluateDeltas( List<AlgNode> scans, List<TableDelta> scanDeltas, int index, Map<AlgNode, List<List<Object>>> substitutions, int sign, BiConsumer<List<List<Object>>, Integer> consumer ) {
+        if ( index == scans.size() ) {
+            if ( !substitutions.isEmpty() ) {
+                // Terms with an even number of deltas are subtracted
+                int termSign = substitutions.size() % 2 == 1 ? sign : -sign;
+                consumer.accept( query( ( builder, cluster ) -> copy( definition.spj, cluster, substitutions ) ), termSign );
+            }
+            return;
+        }
+        // Current state of the table
+        evaluateDeltas( scans, scanDeltas, index + 1, substitutions, sign, consumer );
+
+        AlgNode scan = scans.get( index );
+        for ( List<List<Object>> chunk : Lists.partition( scanDeltas.get( index ).getInserted(), CHUNK_SIZE ) ) {
+            substitutions.put( scan, chunk );
+            evaluateDeltas( scans, scanDeltas, index + 1, substitutions, sign, consumer );
+        }
+        for ( List<List<Object>> chunk : Lists.partition( scanDeltas.get( index ).getDeleted(), CHUNK_SIZE ) ) {
+            substitutions.put( scan, chunk );
+            evaluateDeltas( scans, scanDeltas, index + 1, substitutions, -sign, consumer );
+        }
+        substitutions.remove( scan );
+    }
+
+
+    /**
+     * Inserts and deletes the changed rows of a select-project-join view. Rows are inserted first, a row which has
+     * been split into an insertion and a deletion because of different representations of the same values is then
+     * deleted again.
+     */
+    private void applyChanges( Map<List<Object>, Integer> changes ) {
+        List<List<Object>> inserted = new ArrayList<>();
+        List<Pair<List<Object>, Integer>> deleted = new ArrayList<>();
+        for ( Entry<List<Object>, Integer> change : changes.entrySet() ) {
+            for ( int i = 0; i < change.getValue(); i++ ) {
+                inserted.add( change.getKey() );
+            }
+            if ( change.getValue() < 0 ) {
+                deleted.add( Pair.of( change.getKey(), -change.getValue() ) );
+            }
+        }
+        insert( inserted );
+
+        // The rows of a materialized view are identified by their ids, duplicates are deleted one by one
+        final int columnCount = definition.root.getRowType().getFieldCount();
+        final List<Integer> columns = new ArrayList<>();
+        for ( int i = 0; i < columnCount; i++ ) {
+            columns.add( i );
+        }
+        final Set<Integer> matIds = new HashSet<>();
+        for ( List<Pair<List<Object>, Integer>> chunk : Lists.partition( deleted, CHUNK_SIZE ) ) {
+            List<List<Object>> rows = query( ( builder, cluster ) -> {
+                builder.scan( view.getNamespaceName(), view.name );
+                RexBuilder rexBuilder = cluster.getRexBuilder();
+                List<RexNode> caseOperands = new ArrayList<>();
+                for ( int i = 0; i < chunk.size(); i++ ) {
+                    caseOperands.add( matches( rexBuilder, builder.peek(), columns, Collections.singletonList( chunk.get( i ).left ) ) );
+                    caseOperands.add( builder.literal( i ) );
+                }
+                caseOperands.add( builder.literal( -1 ) );
+                builder.filter( matches( rexBuilder, builder.peek(), columns, Pair.left( chunk ) ) );
+                return builder.project( builder.field( columnCount ), rexBuilder.makeCall( OperatorRegistry.get( OperatorName.CASE ), caseOperands ) ).build();
+            } );
+
+            Map<Integer, List<Integer>> candidates = new HashMap<>();
+            for ( List<Object> row : rows ) {
+                candidates.computeIfAbsent( ((Number) row.get( 1 )).intValue(), i -> new ArrayList<>() ).add( ((Number) row.get( 0 )).intValue() );
+            }
+            for ( int i = 0; i < chunk.size(); i++ ) {
+                int remaining = chunk.get( i ).right;
+                for ( Integer matId : candidates.getOrDefault( i, Collections.emptyList() ) ) {
+                    if ( remaining > 0 && matIds.add( matId ) ) {
+                        remaining--;
+                    }
+                }
+                if ( remaining > 0 ) {
+                    throw new IllegalStateException( "Materialized view " + view.name + " does not contain the deleted rows" );
+                }
+            }
+        }
+
+        for ( List<Integer> chunk : Lists.partition( new ArrayList<>( matIds ), CHUNK_SIZE ) ) {
+            modifyPlacements( true, builder -> {
+                builder.scan( view.getNamespaceName(), view.name );
+                RexBuilder rexBuilder = builder.getRexBuilder();
+                RexNode matIdField = builder.field( columnCount );
+                List<RexNode> conditions = chunk.stream()
+                        .map( id -> rexBuilder.makeCall( OperatorRegistry.get( OperatorName.EQUALS ), matIdField, builder.literal( id ) ) )
+                        .collect( Collectors.toList() );
+                return builder.filter( RexUtil.composeDisjunction( rexBuilder, conditions ) ).build();
+            } );
+        }
+    }
+
+
+    /**
+     * Replaces the rows of the given groups of an aggregate view by the recomputed aggregates.
+     */
+    private void recomputeGroups( List<List<Object>> groups ) {
+        modifyPlacements( true, builder -> {
+            builder.scan( view.getNamespaceName(), view.name );
+            return builder.filter( matches( builder.getRexBuilder(), builder.peek(), definition.groupColumns, groups ) ).build();
+        } );
+
+        List<List<Object>> rows = query( ( builder, cluster ) -> {
+            AlgNode input = copy( definition.spj, cluster, Collections.emptyMap() );
+            List<Integer> groupKeys = definition.aggregate.getGroupSet().asList();
+            AlgNode current = LogicalFilter.create( input, matches( cluster.getRexBuilder(), input, groupKeys, groups ) );
+            current = copy( definition.aggregate, cluster, Collections.singletonList( current ) );
+            for ( int i = definition.upper.size() - 1; i >= 0; i-- ) {
+                current = copy( definition.upper.get( i ), cluster, Collections.singletonList( current ) );
+            }
+            return current;
+        } );
+        insert( rows );
+    }
+
+
+    /**
+     * Inserts rows into all placements of the materialized view, assigning new ids to them.
+     */
+    private void insert( List<List<Object>> rows ) {
+        if ( rows.isEmpty() ) {
+            return;
+        }
+        if ( nextMatId < 0 ) {
+            final int matIdIndex = definition.root.getRowType().getFieldCount();
+            List<List<Object>> max = query( ( builder, cluster ) -> {
+                builder.scan( view.getNamespaceName(), view.name );
+                return builder.aggregate( builder.groupKey(), builder.max( builder.field( matIdIndex ) ) ).build();
+            } );
+            Object value = max.isEmpty() ? null : max.get( 0 ).get( 0 );
+            nextMatId = value == null ? 0 : ((Number) value).intValue() + 1;
+        }
+        List<List<Object>> identifiedRows = new ArrayList<>( rows.size() );
+        for ( List<Object> row : rows ) {
+            List<Object> identifiedRow = new ArrayList<>( row );
+            identifiedRow.add( nextMatId++ );
+            identifiedRows.add( identifiedRow );
+        }
+        modifyPlacements( false, builder -> {
+            AlgNode scan = builder.scan( view.getNamespaceName(), view.name ).build();
+            return values( scan.getCluster(), scan.getRowType(), identifiedRows );
+        } );
+    }
+
+
+    /**
+     * Inserts or deletes the rows returned by a query into or from all placements of the materialized view.
+     */
+    private void modifyPlacements( boolean delete, Function<AlgBuilder, AlgNode> source ) {
+        final Catalog catalog = Catalog.getInstance();
+        final DataMigrator dataMigrator = transaction.getDataMigrator();
+        for ( int adapterId : view.dataPlacements ) {
+            List<CatalogColumn> columns = catalog.getDataPlacement( adapterId, view.id ).columnPlacementsOnAdapter.stream()
+                    .map( catalog::getColumn )
+                    .collect( Collectors.toList() );
+            List<CatalogColumnPlacement> columnPlacements = columns.stream()
+                    .map( column -> catalog.getColumnPlacement( adapterId, column.id ) )
+                    .collect( Collectors.toList() );
+            // If partitions should be allowed for materialized views this needs to be changed that all partitions are considered
+            long partitionId = catalog.getPartitionsOnDataPlacement( adapterId, view.id ).get( 0 );
+
+            Statement sourceStatement = transaction.createStatement();
+            Statement targetStatement = transaction.createStatement();
+            AlgRoot targetRel = delete
+                    ? dataMigrator.buildDeleteStatement( targetStatement, columnPlacements, partitionId )
+                    : dataMigrator.buildInsertStatement( targetStatement, columnPlacements, partitionId );
+            AlgNode sourceRel = source.apply( AlgBuilder.create( sourceStatement ) );
+            dataMigrator.executeQuery( columns, AlgRoot.of( sourceRel, Kind.SELECT ), sourceStatement, targetStatement, targetRel, true, false );
+        }
+    }
+
+
+    /**
+     * Executes a query in a new statement of the transaction. The query is not locked, the locks are held by the
+     * transaction of the update.
+     */
+    private List<List<Object>> query( BiFunction<AlgBuilder, AlgOptCluster, AlgNode> query ) {
+        final Statement statement = transaction.createStatement();
+        final AlgOptCluster cluster = AlgOptCluster.create(
+                statement.getQueryProcessor().getPlanner(),
+                new RexBuilder( transaction.getTypeFactory() ) );
+        final AlgNode node = query.apply( AlgBuilder.create( statement, cluster ), cluster );
+        return statement.getQueryProcessor()
+                .prepareQuery( AlgRoot.of( node, Kind.SELECT ), cluster.getTypeFactory().builder().build(), false, true, false )
+                .getRows( statement, -1 );
+    }
+
+
+    /**
+     * Copies a part of the definition into the given cluster, replacing scans by values if requested.
+     */
+    private static AlgNode copy( AlgNode node, AlgOptCluster cluster, Map<AlgNode, List<List<Object>>> substitutions ) {
+        AlgNode copied = AlgCopier.copy( node, cluster, leaf -> {
+            List<List<Object>> rows = substitutions.get( leaf );
+            return rows == null ? null : values( cluster, leaf.getRowType(), rows );
+        } );
+        if ( copied == null ) {
+            throw new IllegalStateException( "Unable to copy the definition of the materialized view" );
+        }
+        return copied;
+    }
+
+
+    private static AlgNode copy( AlgNode node, AlgOptCluster cluster, List<AlgNode> inputs ) {
+        AlgNode copied = node.copy( cluster.traitSetOf( Convention.NONE ), inputs );
+        ((AbstractAlgNode) copied).setCluster( cluster );
+        return copied;
+    }
+
+
+    private static AlgNode values( AlgOptCluster cluster, AlgDataType rowType, List<List<Object>> rows ) {
+        final RexBuilder rexBuilder = cluster.getRexBuilder();
+        final ImmutableList.Builder<ImmutableList<RexLiteral>> tuples = ImmutableList.builder();
+        for ( List<Object> row : rows ) {
+            if ( row.size() != rowType.getFieldCount() ) {
+                throw new IllegalStateException( "Row does not match " + rowType );
+            }
+            ImmutableList.Builder<RexLiteral> tuple = ImmutableList.builder();
+            for ( int i = 0; i < row.size(); i++ ) {
+                tuple.add( literal( rexBuilder, row.get( i ), rowType.getFieldList().get( i ).getType() ) );
+            }
+            tuples.add( tuple.build() );
+        }
+        return LogicalValues.create( cluster, rowType, tuples.build() );
+    }
+
+
+    private static RexLiteral literal( RexBuilder rexBuilder, Object value, AlgDataType type ) {
+        if ( value == null ) {
+            return rexBuilder.makeNullLiteral( type );
+        }
+        Pair<Comparable, PolyType> converted = RexLiteral.convertType( (Comparable) value, type );
+        return new RexLiteral( converted.left, type, converted.right );
+    }
+
+
+    /**
+     * Creates a condition matching rows whose given columns are equal to one of the given keys (with nulls being equal).
+     */
+    private static RexNode matches( RexBuilder rexBuilder, AlgNode input, List<Integer> columns, List<List<Object>> keys ) {
+        List<RexNode> disjuncts = new ArrayList<>( keys.size() );
+        for ( List<Object> key : keys ) {
+            List<RexNode> conjuncts = new ArrayList<>( columns.size() );
+            for ( int i = 0; i < columns.size(); i++ ) {
+                RexNode field = rexBuilder.makeInputRef( input, columns.get( i ) );
+                if ( key.get( i ) == null ) {
+                    conjuncts.add( rexBuilder.makeCall( OperatorRegistry.get( OperatorName.IS_NULL ), field ) );
+                } else {
+                    conjuncts.add( rexBuilder.makeCall( OperatorRegistry.get( OperatorName.EQUALS ), field, literal( rexBuilder, key.get( i ), field.getType() ) ) );
+                }
+            }
+            disjuncts.add( RexUtil.composeConjunction( rexBuilder, conjuncts, false ) );
+        }
+        return RexUtil.composeDisjunction( rexBuilder, disjuncts );
+    }
+
+
+    /**
+     * The parts of a maintainable definition: projections and filters on top of an optional aggregate of a
+     * select-project-join expression.
+     */
+    private static class Definition {
+
+        private final AlgNode root;
+        private final List<AlgNode> upper = new ArrayList<>(); // Projections and filters above the aggregate, from top to bottom
+        private final List<AlgNode> scans = new ArrayList<>();
+        private LogicalAggregate aggregate;
+        private AlgNode spj;
+        private List<Integer> groupColumns; // Columns of the materialized view containing the group keys
+
+
+        private Definition( AlgNode root ) {
+            this.root = root;
+        }
+
+
+        /**
+         * Analyzes the definition of a materialized view.
+         *
+         * @return the parts of the definition or null if it cannot be maintained incrementally
+         */
+        static Definition of( AlgNode root ) {
+            Definition definition = new Definition( root );
+            AlgNode current = root;
+            while ( current instanceof LogicalProject || current instanceof LogicalFilter ) {
+                definition.upper.add( current );
+                current = current.getInput( 0 );
+            }
+            if ( current instanceof LogicalAggregate ) {
+                definition.aggregate = (LogicalAggregate) current;
+                if ( definition.aggregate.getGroupType() != Group.SIMPLE || definition.aggregate.getGroupCount() == 0 ) {
+                    return null;
+                }
+                for ( AlgNode node : definition.upper ) {
+                    if ( !isStable( node ) ) {
+                        return null;
+                    }
+                }
+                definition.groupColumns = new ArrayList<>();
+                for ( int i = 0; i < definition.aggregate.getGroupCount(); i++ ) {
+                    int column = traceGroupKey( definition.upper, i );
+                    if ( column < 0 ) {
+                        return null;
+                    }
+                    definition.groupColumns.add( column );
+                }
+                definition.spj = definition.aggregate.getInput();
+            } else {
+                definition.upper.clear();
+                definition.spj = root;
+            }
+            return definition.isSpj( definition.spj ) ? definition : null;
+        }
+
+
+        /**
+         * Follows an output of the aggregate through the projections above it.
+         */
+        private static int traceGroupKey( List<AlgNode> upper, int index ) {
+            for ( int i = upper.size() - 1; i >= 0 && index >= 0; i-- ) {
+                if ( upper.get( i ) instanceof LogicalProject ) {
+                    List<RexNode> projects = ((LogicalProject) upper.get( i )).getProjects();
+                    int position = -1;
+                    for ( int j = 0; j < projects.size(); j++ ) {
+                        if ( projects.get( j ) instanceof RexInputRef && ((RexInputRef) projects.get( j )).getIndex() == index ) {
+                            position = j;
+                            break;
+                        }
+                    }
+                    index = position;
+                }
+            }
+            return index;
+        }
+
+
+        private boolean isSpj( AlgNode node ) {
+            if ( node instanceof LogicalScan ) {
+                scans.add( node );
+                return CacheDependencies.getEntityId( node.getTable() ) != null;
+            }
+            if ( node instanceof LogicalJoin && ((LogicalJoin) node).getJoinType() != JoinAlgType.INNER ) {
+                return false;
+            }
+            if ( !(node instanceof LogicalProject || node instanceof LogicalFilter || node instanceof LogicalJoin) || !isStable( node ) ) {
+                return false;
+            }
+            for ( AlgNode input : node.getInputs() ) {
+                if ( !isSpj( input ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        /**
+         * Checks whether the expressions of a node only use deterministic functions and contain no sub-queries.
+         */
+        private static boolean isStable( AlgNode node ) {
+            final List<RexNode> expressions;
+            if ( node instanceof LogicalProject ) {
+                expressions = ((LogicalProject) node).getProjects();
+            } else if ( node instanceof LogicalFilter ) {
+                expressions = Collections.singletonList( ((LogicalFilter) node).getCondition() );
+            } else if ( node instanceof LogicalJoin ) {
+                expressions = Collections.singletonList( ((LogicalJoin) node).getCondition() );
+            } else {
+                return false;
+            }
+            try {
+                for ( RexNode expression : expressions ) {
+                    expression.accept( new RexVisitorImpl<Void>( true ) {
+                        @Override
+                        public Void visitCall( RexCall call ) {
+                            if ( !call.getOperator().isDeterministic() || call.getOperator().isDynamicFunction() ) {
+                                throw Util.FoundOne.NULL;
+                            }
+                            return super.visitCall( call );
+                        }
+
+
+                        @Override
+                        public Void visitSubQuery( RexSubQuery subQuery ) {
+                            throw Util.FoundOne.NULL;
+                        }
+                    } );
+                }
+                return true;
+            } catch ( Util.FoundOne e ) {
+                return false;
+            }
+        }
+
+    }
+
+}
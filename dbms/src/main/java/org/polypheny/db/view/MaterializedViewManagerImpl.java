@@ -18,6 +18,7 @@
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,7 +28,9 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.adapter.DataStore;
@@ -89,13 +92,42 @@ public class MaterializedViewManagerImpl extends MaterializedViewManager {
     @Getter
     private final List<Long> intervalToUpdate;
 
-    final Map<PolyXid, Long> updateCandidates;
+    final Map<PolyXid, Set<Long>> updateCandidates;
+
+    // Time the content of a materialized view is unknown since, e.g. for views restored after a restart
+    private static final long OUTDATED_SINCE_UNKNOWN = 0L;
+
+    // Materialized views not reflecting committed changes of their underlying tables, with the time of the first such change
+    private final Map<Long, Long> outdatedSince;
+
+    // Materialized views which are currently filled, they must not be used to answer their own definition
+    private final Set<Long> refreshing;
+
+    // Changes of tables with incrementally maintained materialized views by uncommitted transactions
+    private final Map<PolyXid, Map<Long, TableDelta>> pendingDeltas;
+
+    // Committed changes of the underlying tables since the last update of incrementally maintained materialized views
+    private final Map<Long, Map<Long, TableDelta>> deltaLogs;
+
+    // Materialized views updated by uncommitted transactions
+    private final Map<PolyXid, Set<Long>> pendingRefreshes;
+
+    @Getter
+    private final AtomicLong incrementalRefreshes = new AtomicLong();
+
+    @Getter
+    private final AtomicLong fullRefreshes = new AtomicLong();
 
 
     public MaterializedViewManagerImpl( TransactionManager transactionManager ) {
         this.transactionManager = transactionManager;
         this.materializedInfo = new ConcurrentHashMap<>();
-        this.updateCandidates = new HashMap<>();
+        this.updateCandidates = new ConcurrentHashMap<>();
+        this.outdatedSince = new ConcurrentHashMap<>();
+        this.refreshing = ConcurrentHashMap.newKeySet();
+        this.pendingDeltas = new ConcurrentHashMap<>();
+        this.deltaLogs = new ConcurrentHashMap<>();
+        this.pendingRefreshes = new ConcurrentHashMap<>();
         this.intervalToUpdate = Collections.synchronizedList( new ArrayList<>() );
         registerFreshnessLoop();
     }
@@ -126,6 +158,8 @@ public synchronized Map<Long, MaterializedCriteria> updateMaterializedViewInfo()
     @Override
     public synchronized void deleteMaterializedViewFromInfo( Long materializedId ) {
         materializedInfo.remove( materializedId );
+        outdatedSince.remove( materializedId );
+        deltaLogs.remove( materializedId );
     }
 
 
@@ -164,6 +198,9 @@ public synchronized void updateMaterializedUpdate( Long materializedId, int upda
     @Override
     public synchronized void addMaterializedInfo( Long materializedId, MaterializedCriteria matViewCriteria ) {
         materializedInfo.put( materializedId, matViewCriteria );
+        // Changes of the underlying tables before this runtime have not been tracked, the materialized view is
+        // therefore outdated until it has been filled or refreshed
+        outdatedSince.putIfAbsent( materializedId, OUTDATED_SINCE_UNKNOWN );
     }
 
 
@@ -181,7 +218,7 @@ public void addTables( Transaction transaction, List<String> tableNames ) {
                 CatalogTable catalogTable = Catalog.getInstance().getTable( 1, tableNames.get( 0 ), tableNames.get( 1 ) );
                 long id = catalogTable.id;
                 if ( !catalogTable.getConnectedViews().isEmpty() ) {
-                    updateCandidates.put( transaction.getXid(), id );
+                    updateCandidates.computeIfAbsent( transaction.getXid(), xid -> ConcurrentHashMap.newKeySet() ).add( id );
                 }
             } catch ( UnknownTableException e ) {
                 throw new RuntimeException( "Not possible to getTable to update which Tables were changed.", e );
@@ -198,9 +235,106 @@ public void addTables( Transaction transaction, List<String> tableNames ) {
      */
     @Override
     public void updateCommittedXid( PolyXid xid ) {
-        if ( updateCandidates.containsKey( xid ) ) {
-            materializedUpdate( updateCandidates.remove( xid ) );
+        pendingRefreshes.remove( xid );
+        Set<Long> changedTables = updateCandidates.remove( xid );
+        if ( changedTables != null ) {
+            changedTables.forEach( this::materializedUpdate );
+        }
+    }
+
+
+    @Override
+    public boolean requiresDelta( Long tableId ) {
+        if ( deltaLogs.isEmpty() || !Catalog.getInstance().checkIfExistsEntity( tableId ) ) {
+            return false;
         }
+        return Catalog.getInstance().getTable( tableId ).getConnectedViews().stream().anyMatch( deltaLogs::containsKey );
+    }
+
+
+    @Override
+    public void addDelta( Transaction transaction, Long tableId, List<List<Object>> inserted, List<List<Object>> deleted ) {
+        pendingDeltas.computeIfAbsent( transaction.getXid(), xid -> new ConcurrentHashMap<>() )
+                .computeIfAbsent( tableId, id -> new TableDelta() )
+                .add( inserted, deleted );
+    }
+
+
+    /**
+     * Adds the changes of a committing transaction to the logs of the incrementally maintained materialized views.
+     * As the transaction still holds its locks, no materialized view is updated concurrently. Changes of tables which
+     * have not been captured prevent the incremental update of the connected materialized views.
+     *
+     * @param xid of the committing transaction
+     */
+    @Override
+    public void publishDeltas( PolyXid xid ) {
+        Map<Long, TableDelta> deltas = pendingDeltas.remove( xid );
+        Set<Long> changedTables = updateCandidates.get( xid );
+        if ( changedTables == null || deltaLogs.isEmpty() ) {
+            return;
+        }
+        Catalog catalog = Catalog.getInstance();
+        for ( Long tableId : changedTables ) {
+            if ( !catalog.checkIfExistsEntity( tableId ) ) {
+                continue;
+            }
+            TableDelta delta = deltas == null ? null : deltas.get( tableId );
+            for ( Long viewId : catalog.getTable( tableId ).getConnectedViews() ) {
+                Map<Long, TableDelta> deltaLog = deltaLogs.get( viewId );
+                if ( deltaLog == null ) {
+                    continue;
+                }
+                if ( delta == null || !delta.isComplete() ) {
+                    deltaLogs.remove( viewId );
+                    continue;
+                }
+                deltaLog.computeIfAbsent( tableId, id -> new TableDelta() ).addAll( delta );
+                if ( deltaLog.values().stream().mapToInt( TableDelta::getSize ).sum() > RuntimeConfig.MATERIALIZED_VIEW_INCREMENTAL_MAX_DELTA.getInteger() ) {
+                    deltaLogs.remove( viewId );
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public void updateRolledBackXid( PolyXid xid ) {
+        pendingDeltas.remove( xid );
+        updateCandidates.remove( xid );
+        Set<Long> refreshed = pendingRefreshes.remove( xid );
+        if ( refreshed != null ) {
+            // The updates of these materialized views are undone, their delta logs have been restarted with the update
+            for ( Long materializedId : refreshed ) {
+                deltaLogs.remove( materializedId );
+                outdatedSince.putIfAbsent( materializedId, OUTDATED_SINCE_UNKNOWN );
+            }
+        }
+    }
+
+
+    @Override
+    public Set<Long> getMaterializedViewIds() {
+        return ImmutableSet.copyOf( materializedInfo.keySet() );
+    }
+
+
+    @Override
+    public boolean isFresh( Transaction transaction, Long materializedId, long maxStaleness ) {
+        if ( refreshing.contains( materializedId ) || !Catalog.getInstance().checkIfExistsEntity( materializedId ) ) {
+            return false;
+        }
+        CatalogTable catalogTable = Catalog.getInstance().getTable( materializedId );
+        if ( !(catalogTable instanceof CatalogMaterializedView) ) {
+            return false;
+        }
+        // Uncommitted changes of the transaction are not reflected by the materialized view
+        Set<Long> changedTables = updateCandidates.get( transaction.getXid() );
+        if ( changedTables != null && !Collections.disjoint( changedTables, ((CatalogMaterializedView) catalogTable).getUnderlyingTables().keySet() ) ) {
+            return false;
+        }
+        Long since = outdatedSince.get( materializedId );
+        return since == null || System.currentTimeMillis() - since <= maxStaleness;
     }
 
 
@@ -217,6 +351,7 @@ public void materializedUpdate( Long potentialInteresting ) {
         for ( Long id : connectedViews ) {
             CatalogTable view = catalog.getTable( id );
             if ( view.entityType == EntityType.MATERIALIZED_VIEW ) {
+                outdatedSince.putIfAbsent( view.id, System.currentTimeMillis() );
                 MaterializedCriteria materializedCriteria = materializedInfo.get( view.id );
                 if ( materializedCriteria.getCriteriaType() == CriteriaType.UPDATE ) {
                     int numberUpdated = materializedCriteria.getTimesUpdated();
@@ -307,23 +442,31 @@ public void prepareToUpdate( Long materializedId ) {
      */
     @Override
     public void addData( Transaction transaction, List<DataStore> stores, Map<Integer, List<CatalogColumn>> columns, AlgRoot algRoot, CatalogMaterializedView materializedView ) {
+        long refreshStart = System.currentTimeMillis();
         addMaterializedInfo( materializedView.id, materializedView.getMaterializedCriteria() );
 
         List<CatalogColumnPlacement> columnPlacements = new LinkedList<>();
         DataMigrator dataMigrator = transaction.getDataMigrator();
 
-        for ( int id : materializedView.dataPlacements ) {
-            Statement sourceStatement = transaction.createStatement();
-            prepareSourceRel( sourceStatement, materializedView.getAlgCollation(), algRoot.alg );
-            Statement targetStatement = transaction.createStatement();
-            columnPlacements.clear();
+        refreshing.add( materializedView.id );
+        try {
+            for ( int id : materializedView.dataPlacements ) {
+                Statement sourceStatement = transaction.createStatement();
+                prepareSourceRel( sourceStatement, materializedView.getAlgCollation(), algRoot.alg );
+                Statement targetStatement = transaction.createStatement();
+                columnPlacements.clear();
 
-            columns.get( id ).forEach( column -> columnPlacements.add( Catalog.getInstance().getColumnPlacement( id, column.id ) ) );
-            // If partitions should be allowed for materialized views this needs to be changed that all partitions are considered
-            AlgRoot targetRel = dataMigrator.buildInsertStatement( targetStatement, columnPlacements, Catalog.getInstance().getPartitionsOnDataPlacement( id, materializedView.id ).get( 0 ) );
+                columns.get( id ).forEach( column -> columnPlacements.add( Catalog.getInstance().getColumnPlacement( id, column.id ) ) );
+                // If partitions should be allowed for materialized views this needs to be changed that all partitions are considered
+                AlgRoot targetRel = dataMigrator.buildInsertStatement( targetStatement, columnPlacements, Catalog.getInstance().getPartitionsOnDataPlacement( id, materializedView.id ).get( 0 ) );
 
-            dataMigrator.executeQuery( columns.get( id ), algRoot, sourceStatement, targetStatement, targetRel, true, materializedView.isOrdered() );
+                dataMigrator.executeQuery( columns.get( id ), algRoot, sourceStatement, targetStatement, targetRel, true, materializedView.isOrdered() );
+            }
+            markRefreshed( materializedView.id, refreshStart );
+        } finally {
+            refreshing.remove( materializedView.id );
         }
+        startDeltaLog( materializedView );
     }
 
 
@@ -335,6 +478,69 @@ public void addData( Transaction transaction, List<DataStore> stores, Map<Intege
      */
     @Override
     public void updateData( Transaction transaction, Long materializedId ) {
+        long refreshStart = System.currentTimeMillis();
+        refreshing.add( materializedId );
+        pendingRefreshes.computeIfAbsent( transaction.getXid(), xid -> ConcurrentHashMap.newKeySet() ).add( materializedId );
+        try {
+            if ( applyDeltas( transaction, materializedId ) ) {
+                incrementalRefreshes.incrementAndGet();
+            } else {
+                replaceData( transaction, materializedId );
+                fullRefreshes.incrementAndGet();
+            }
+            if ( Catalog.getInstance().checkIfExistsEntity( materializedId ) ) {
+                startDeltaLog( (CatalogMaterializedView) Catalog.getInstance().getTable( materializedId ) );
+            }
+            markRefreshed( materializedId, refreshStart );
+        } finally {
+            refreshing.remove( materializedId );
+        }
+    }
+
+
+    /**
+     * Updates a materialized view using the changes of its underlying tables since its last update.
+     *
+     * @return false if the changes are not known or cannot be applied, then the materialized view has to be recomputed
+     */
+    private boolean applyDeltas( Transaction transaction, Long materializedId ) {
+        Map<Long, TableDelta> deltaLog = deltaLogs.remove( materializedId );
+        if ( deltaLog == null || !RuntimeConfig.MATERIALIZED_VIEW_INCREMENTAL.getBoolean()
+                || !Catalog.getInstance().checkIfExistsEntity( materializedId ) || !materializedInfo.containsKey( materializedId ) ) {
+            return false;
+        }
+        CatalogMaterializedView materializedView = (CatalogMaterializedView) Catalog.getInstance().getTable( materializedId );
+        try {
+            IncrementalMaintenance.apply( transaction, materializedView, deltaLog );
+            return true;
+        } catch ( Exception e ) {
+            log.warn( "Unable to update materialized view {} incrementally, recomputing it.", materializedView.name, e );
+            return false;
+        }
+    }
+
+
+    /**
+     * Starts collecting the changes of the underlying tables of a materialized view which has just been filled.
+     */
+    private void startDeltaLog( CatalogMaterializedView materializedView ) {
+        if ( RuntimeConfig.MATERIALIZED_VIEW_INCREMENTAL.getBoolean() && IncrementalMaintenance.isMaintainable( materializedView ) ) {
+            deltaLogs.put( materializedView.id, new ConcurrentHashMap<>() );
+        } else {
+            deltaLogs.remove( materializedView.id );
+        }
+    }
+
+
+    /**
+     * Marks a materialized view as up-to-date unless its underlying tables have been changed after the refresh has started.
+     */
+    private void markRefreshed( Long materializedId, long refreshStart ) {
+        outdatedSince.computeIfPresent( materializedId, ( id, since ) -> since <= refreshStart ? null : since );
+    }
+
+
+    private void replaceData( Transaction transaction, Long materializedId ) {
         Catalog catalog = Catalog.getInstance();
 
         DataMigrator dataMigrator = transaction.getDataMigrator();
@@ -418,6 +624,7 @@ public void commitTransaction( Transaction transaction ) {
             transaction.commit();
         } catch ( TransactionException e ) {
             log.error( "Caught exception while executing a query from the console", e );
+            // The rollback discards the delta logs of the materialized views updated by the transaction
             try {
                 transaction.rollback();
             } catch ( TransactionException ex ) {
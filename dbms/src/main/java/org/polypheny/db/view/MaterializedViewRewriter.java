@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.view;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.algebra.AlgCopier;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.logical.relational.LogicalScan;
+import org.polypheny.db.algebra.rules.FilterProjectTransposeRule;
+import org.polypheny.db.algebra.rules.ProjectMergeRule;
+import org.polypheny.db.algebra.rules.ProjectRemoveRule;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.CatalogMaterializedView;
+import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.plan.SubstitutionVisitor;
+import org.polypheny.db.plan.hep.HepPlanner;
+import org.polypheny.db.plan.hep.HepProgram;
+import org.polypheny.db.plan.hep.HepProgramBuilder;
+import org.polypheny.db.processing.caching.CacheDependencies;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.tools.AlgBuilder;
+import org.polypheny.db.transaction.Statement;
+
+
+/**
+ * Rewrites logical query plans to scan materialized views instead of computing (parts of) their definitions from the
+ * underlying tables. The definitions are matched against the query using the unification rules of the
+ * {@link SubstitutionVisitor}, which cover exact matches, views containing the query with additional filters and the
+ * rollup of aggregates. Only materialized views which are fresh enough (see
+ * {@link MaterializedViewManager#isFresh(org.polypheny.db.transaction.Transaction, Long, long)}) are used.
+ */
+@Slf4j
+public class MaterializedViewRewriter {
+
+    private static final HepProgram NORMALIZATION_PROGRAM = new HepProgramBuilder()
+            .addRuleInstance( FilterProjectTransposeRule.INSTANCE )
+            .addRuleInstance( ProjectMergeRule.INSTANCE )
+            .addRuleInstance( ProjectRemoveRule.INSTANCE )
+            .build();
+
+
+    private MaterializedViewRewriter() {
+    }
+
+
+    /**
+     * Replaces the parts of a logical query plan which can be answered by materialized views.
+     *
+     * @param logicalRoot the logical plan with expanded views
+     * @param statement the statement of the query
+     * @return the rewritten plan or the given plan if no materialized view matches
+     */
+    public static AlgRoot rewrite( AlgRoot logicalRoot, Statement statement ) {
+        if ( !logicalRoot.kind.belongsTo( Kind.QUERY ) ) {
+            return logicalRoot;
+        }
+        MaterializedViewManager manager = MaterializedViewManager.getInstance();
+        Set<Long> viewIds = manager.getMaterializedViewIds();
+        if ( viewIds.isEmpty() ) {
+            return logicalRoot;
+        }
+
+        final Catalog catalog = Catalog.getInstance();
+        final Set<Long> entityIds = CacheDependencies.of( logicalRoot.alg ).getEntityIds();
+        final long maxStaleness = RuntimeConfig.MATERIALIZED_VIEW_REWRITE_STALENESS.getInteger();
+
+        AlgNode query = null;
+        boolean rewritten = false;
+        for ( Long viewId : viewIds ) {
+            if ( entityIds.contains( viewId ) || !catalog.checkIfExistsEntity( viewId ) ) {
+                continue;
+            }
+            CatalogTable catalogTable = catalog.getTable( viewId );
+            if ( !(catalogTable instanceof CatalogMaterializedView) ) {
+                continue;
+            }
+            CatalogMaterializedView view = (CatalogMaterializedView) catalogTable;
+            Set<Long> underlyingTables = view.getUnderlyingTables().keySet();
+            if ( underlyingTables.isEmpty()
+                    || !entityIds.containsAll( underlyingTables )
+                    || view.getDefinition() == null
+                    || !manager.isFresh( statement.getTransaction(), viewId, maxStaleness ) ) {
+                continue;
+            }
+
+            try {
+                if ( query == null ) {
+                    query = normalize( logicalRoot.alg );
+                }
+                AlgNode target = copyDefinition( view.getDefinition(), query.getCluster(), collectScans( query, new HashMap<>() ) );
+                if ( target == null ) {
+                    continue;
+                }
+                target = normalize( target );
+                AlgNode replacement = createReplacement( statement, query.getCluster(), view, target.getRowType() );
+                List<AlgNode> substitutions = new SubstitutionVisitor( target, query ).go( replacement );
+                if ( !substitutions.isEmpty() && AlgOptUtil.areRowTypesEqual( substitutions.get( 0 ).getRowType(), logicalRoot.alg.getRowType(), false ) ) {
+                    // The first substitution replaces all occurrences of the definition
+                    query = substitutions.get( 0 );
+                    rewritten = true;
+                    log.debug( "Rewrote query to use materialized view {}", view.name );
+                }
+            } catch ( Exception | AssertionError e ) {
+                log.debug( "Unable to match the definition of materialized view {}", view.name, e );
+            }
+        }
+        return rewritten ? logicalRoot.withAlg( query ) : logicalRoot;
+    }
+
+
+    /**
+     * Brings filters and projections into a canonical form, which is required for the unification rules to match.
+     */
+    private static AlgNode normalize( AlgNode node ) {
+        HepPlanner planner = new HepPlanner( NORMALIZATION_PROGRAM );
+        planner.setRoot( node );
+        return planner.findBestExp();
+    }
+
+
+    private static Map<Long, AlgNode> collectScans( AlgNode node, Map<Long, AlgNode> scans ) {
+        if ( node instanceof LogicalScan ) {
+            Long entityId = CacheDependencies.getEntityId( node.getTable() );
+            if ( entityId != null ) {
+                scans.putIfAbsent( entityId, node );
+            }
+        }
+        for ( AlgNode input : node.getInputs() ) {
+            collectScans( input, scans );
+        }
+        return scans;
+    }
+
+
+    /**
+     * Copies the definition of a materialized view into the cluster of the query. The scans of the definition are
+     * replaced by the scans of the query, because the unification matches scans by identity.
+     *
+     * @return the copy or null if the definition cannot be matched against the query
+     */
+    private static AlgNode copyDefinition( AlgNode node, AlgOptCluster cluster, Map<Long, AlgNode> queryScans ) {
+        return AlgCopier.copy( node, cluster, leaf -> leaf instanceof LogicalScan ? queryScans.get( CacheDependencies.getEntityId( leaf.getTable() ) ) : null );
+    }
+
+
+    /**
+     * Creates a scan of the materialized view with the row type of its definition. The materialized view contains an
+     * additional primary key column, which is projected away.
+     */
+    private static AlgNode createReplacement( Statement statement, AlgOptCluster cluster, CatalogMaterializedView view, AlgDataType rowType ) {
+        AlgBuilder builder = AlgBuilder.create( statement, cluster );
+        builder.scan( view.getNamespaceName(), view.name );
+        RexBuilder rexBuilder = cluster.getRexBuilder();
+        List<RexNode> projects = new ArrayList<>();
+        for ( AlgDataTypeField field : rowType.getFieldList() ) {
+            RexNode ref = builder.field( field.getIndex() );
+            projects.add( ref.getType().equals( field.getType() ) ? ref : rexBuilder.makeCast( field.getType(), ref, true ) );
+        }
+        return builder.project( projects, rowType.getFieldNames(), true ).build();
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.view;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import lombok.Getter;
+
+
+/**
+ * The changes of a table as rows with a signed multiplicity: inserted rows are counted positive, deleted rows negative.
+ * A row which is inserted and deleted again cancels out. A delta is incomplete if some changes could not be captured.
+ */
+class TableDelta {
+
+    private final Map<List<Object>, Integer> rows = new LinkedHashMap<>();
+
+    @Getter
+    private boolean complete = true;
+
+    @Getter
+    private int size = 0;
+
+
+    synchronized void add( List<List<Object>> inserted, List<List<Object>> deleted ) {
+        if ( inserted == null || deleted == null ) {
+            invalidate();
+            return;
+        }
+        inserted.forEach( row -> add( row, 1 ) );
+        deleted.forEach( row -> add( row, -1 ) );
+    }
+
+
+    synchronized void addAll( TableDelta delta ) {
+        if ( !delta.isComplete() ) {
+            invalidate();
+            return;
+        }
+        delta.rows.forEach( this::add );
+    }
+
+
+    synchronized void invalidate() {
+        complete = false;
+        rows.clear();
+        size = 0;
+    }
+
+
+    private void add( List<Object> row, int count ) {
+        if ( !complete ) {
+            return;
+        }
+        Integer previous = rows.get( row );
+        int updated = (previous == null ? 0 : previous) + count;
+        size += Math.abs( updated ) - (previous == null ? 0 : Math.abs( previous ));
+        if ( updated == 0 ) {
+            rows.remove( row );
+        } else {
+            rows.put( row, updated );
+        }
+    }
+
+
+    synchronized boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+
+    /**
+     * Returns the inserted rows, a row inserted multiple times is contained multiple times.
+     */
+    synchronized List<List<Object>> getInserted() {
+        return expand( 1 );
+    }
+
+
+    /**
+     * Returns the deleted rows, a row deleted multiple times is contained multiple times.
+     */
+    synchronized List<List<Object>> getDeleted() {
+        return expand( -1 );
+    }
+
+
+    private List<List<Object>> expand( int sign ) {
+        List<List<Object>> expanded = new ArrayList<>();
+        for ( Entry<List<Object>, Integer> entry : rows.entrySet() ) {
+            for ( int i = 0; i < entry.getValue() * sign; i++ ) {
+                expanded.add( entry.getKey() );
+            }
+        }
+        return expanded;
+    }
+
+}
@@ -268,6 +268,49 @@ public void verticalPartitioningTest() throws SQLException {
     }
 
 
+    @Test
+    public void testBatchUpdateDelete() throws SQLException {
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( false ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                try {
+                    statement.executeUpdate( "CREATE TABLE batchTest (a INTEGER NOT NULL, b INTEGER, PRIMARY KEY (a)) ON STORE \"mm\"" );
+                    statement.executeUpdate( "INSERT INTO batchTest (a,b) VALUES (1,1),(2,2),(3,3),(4,4)" );
+                    connection.commit();
+
+                    // the file store executes batched updates and deletes once per parameter set
+                    PreparedStatement preparedStatement = connection.prepareStatement( "UPDATE batchTest SET b = ? WHERE a = ?" );
+                    preparedStatement.setInt( 1, 10 );
+                    preparedStatement.setInt( 2, 1 );
+                    preparedStatement.addBatch();
+                    preparedStatement.setInt( 1, 20 );
+                    preparedStatement.setInt( 2, 2 );
+                    preparedStatement.addBatch();
+                    preparedStatement.executeBatch();
+                    preparedStatement.close();
+
+                    preparedStatement = connection.prepareStatement( "DELETE FROM batchTest WHERE a = ?" );
+                    preparedStatement.setInt( 1, 3 );
+                    preparedStatement.addBatch();
+                    preparedStatement.setInt( 1, 4 );
+                    preparedStatement.addBatch();
+                    preparedStatement.executeBatch();
+                    preparedStatement.close();
+                    connection.commit();
+
+                    ResultSet rs = statement.executeQuery( "SELECT a,b FROM batchTest ORDER BY a" );
+                    TestHelper.checkResultSet( rs, ImmutableList.of( new Object[]{ 1, 10 }, new Object[]{ 2, 20 } ) );
+                    rs.close();
+                    connection.commit();
+                } finally {
+                    statement.executeUpdate( "DROP TABLE batchTest" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+
     @Test
     public void testRollback() throws SQLException {
         try ( JdbcConnection jdbcConnection = new JdbcConnection( false ) ) {
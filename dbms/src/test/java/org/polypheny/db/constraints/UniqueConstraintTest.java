@@ -623,4 +623,156 @@ public void updateConflictTest() throws SQLException {
         }
     }
 
+
+    @Test
+    public void insertApproximateConflictTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // Keys of these types are not probed in the indexes, but checked by the control queries
+                statement.executeUpdate( "CREATE TABLE constraint_decimal (id INTEGER NOT NULL, d DECIMAL(5,2) NOT NULL, f DOUBLE NOT NULL, PRIMARY KEY (id), CONSTRAINT u_d UNIQUE (d), CONSTRAINT u_f UNIQUE (f))" );
+                if ( createIndexes ) {
+                    statement.executeUpdate( "ALTER TABLE constraint_decimal ADD UNIQUE INDEX idx_d ON d" );
+                    statement.executeUpdate( "ALTER TABLE constraint_decimal ADD UNIQUE INDEX idx_f ON f" );
+                }
+
+                try {
+                    statement.executeUpdate( "INSERT INTO constraint_decimal VALUES (1, 1.50, 2.5)" );
+                    connection.commit();
+
+                    try {
+                        statement.executeUpdate( "INSERT INTO constraint_decimal VALUES (2, 1.5, 3.5)" );
+                        connection.commit();
+                        Assert.fail( "Expected ConstraintViolationException was not thrown" );
+                    } catch ( AvaticaSqlException e ) {
+                        if ( !e.getMessage().contains( "Insert violates unique constraint" ) ) {
+                            throw new RuntimeException( "Unexpected exception", e );
+                        }
+                        connection.rollback();
+                    }
+                    try {
+                        statement.executeUpdate( "INSERT INTO constraint_decimal VALUES (3, 2.5, 2.5)" );
+                        connection.commit();
+                        Assert.fail( "Expected ConstraintViolationException was not thrown" );
+                    } catch ( AvaticaSqlException e ) {
+                        if ( !e.getMessage().contains( "Insert violates unique constraint" ) ) {
+                            throw new RuntimeException( "Unexpected exception", e );
+                        }
+                        connection.rollback();
+                    }
+
+                    statement.executeUpdate( "INSERT INTO constraint_decimal VALUES (4, 2.5, 3.5)" );
+                    connection.commit();
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT id FROM constraint_decimal ORDER BY id" ),
+                            ImmutableList.of( new Object[]{ 1 }, new Object[]{ 4 } )
+                    );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE constraint_decimal" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void insertTransactionConflictTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // Create schema
+                statement.executeUpdate( CREATE_TABLE_CONSTRAINT_STATEMENTS );
+                if ( createIndexes ) {
+                    // Add indexes
+                    for ( String s : ALTER_TABLE_ADD_INDEX_STATEMENTS ) {
+                        statement.executeUpdate( s );
+                    }
+                }
+                connection.commit();
+
+                try {
+                    // The second statement conflicts with a key written earlier in the same transaction
+                    statement.executeUpdate( "INSERT INTO constraint_test VALUES (1, 1, 1, 1)" );
+                    try {
+                        statement.executeUpdate( "INSERT INTO constraint_test VALUES (2, 1, 1, 2)" );
+                        connection.commit();
+                        Assert.fail( "Expected ConstraintViolationException was not thrown" );
+                    } catch ( AvaticaSqlException e ) {
+                        if ( !e.getMessage().contains( "Insert violates unique constraint" ) ) {
+                            throw new RuntimeException( "Unexpected exception", e );
+                        }
+                        connection.rollback();
+                    }
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT COUNT(ctid) FROM constraint_test" ),
+                            ImmutableList.of( new Object[]{ 0L } )
+                    );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE constraint_test" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void preparedInsertConflictTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // Create schema
+                statement.executeUpdate( CREATE_TABLE_CONSTRAINT_STATEMENTS );
+                if ( createIndexes ) {
+                    // Add indexes
+                    for ( String s : ALTER_TABLE_ADD_INDEX_STATEMENTS ) {
+                        statement.executeUpdate( s );
+                    }
+                }
+
+                try {
+                    statement.executeUpdate( "INSERT INTO constraint_test VALUES (1, 1, 1, 1), (2, 1, 2, 2)" );
+                    connection.commit();
+
+                    // Parameters are not probed, the control query is restricted to the inserted keys
+                    PreparedStatement preparedStatement = connection.prepareStatement( "INSERT INTO constraint_test VALUES (?,?,?,?)" );
+                    preparedStatement.setInt( 1, 3 );
+                    preparedStatement.setInt( 2, 1 );
+                    preparedStatement.setInt( 3, 3 );
+                    preparedStatement.setInt( 4, 3 );
+                    preparedStatement.executeUpdate();
+                    preparedStatement.setInt( 1, 4 );
+                    preparedStatement.setInt( 2, 2 );
+                    preparedStatement.setInt( 3, 1 );
+                    preparedStatement.setInt( 4, 4 );
+                    preparedStatement.executeUpdate();
+                    connection.commit();
+
+                    try {
+                        preparedStatement.setInt( 1, 5 );
+                        preparedStatement.setInt( 2, 1 );
+                        preparedStatement.setInt( 3, 2 );
+                        preparedStatement.setInt( 4, 5 );
+                        preparedStatement.executeUpdate();
+                        connection.commit();
+                        Assert.fail( "Expected ConstraintViolationException was not thrown" );
+                    } catch ( AvaticaSqlException e ) {
+                        if ( !e.getMessage().contains( "Insert violates unique constraint" ) ) {
+                            throw new RuntimeException( "Unexpected exception", e );
+                        }
+                        connection.rollback();
+                    }
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT ctid FROM constraint_test ORDER BY ctid" ),
+                            ImmutableList.of( new Object[]{ 1 }, new Object[]{ 2 }, new Object[]{ 3 }, new Object[]{ 4 } )
+                    );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE constraint_test" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.jdbc;
+
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+
+
+/**
+ * Executes batched prepared inserts, updates and deletes on the default store, once in bulk and once per parameter set.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class JdbcBatchModifyTest {
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void bulkBatchTest() throws SQLException {
+        batchModify( true );
+    }
+
+
+    @Test
+    public void singleBatchTest() throws SQLException {
+        batchModify( false );
+    }
+
+
+    private void batchModify( boolean bulk ) throws SQLException {
+        boolean previous = RuntimeConfig.BULK_BATCH_EXECUTION.getBoolean();
+        RuntimeConfig.BULK_BATCH_EXECUTION.setBoolean( bulk );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE batchtest( id INTEGER NOT NULL, val INTEGER NULL, PRIMARY KEY (id) )" );
+
+                try {
+                    PreparedStatement preparedInsert = connection.prepareStatement( "INSERT INTO batchtest(id, val) VALUES (?, ?)" );
+                    for ( int i = 1; i <= 4; i++ ) {
+                        preparedInsert.setInt( 1, i );
+                        preparedInsert.setInt( 2, i * 10 );
+                        preparedInsert.addBatch();
+                    }
+                    Assert.assertEquals( 4, preparedInsert.executeBatch().length );
+                    connection.commit();
+
+                    PreparedStatement preparedUpdate = connection.prepareStatement( "UPDATE batchtest SET val = ? WHERE id = ?" );
+                    preparedUpdate.setInt( 1, 11 );
+                    preparedUpdate.setInt( 2, 1 );
+                    preparedUpdate.addBatch();
+                    preparedUpdate.setInt( 1, 22 );
+                    preparedUpdate.setInt( 2, 2 );
+                    preparedUpdate.addBatch();
+                    preparedUpdate.executeBatch();
+                    connection.commit();
+
+                    PreparedStatement preparedDelete = connection.prepareStatement( "DELETE FROM batchtest WHERE id = ?" );
+                    preparedDelete.setInt( 1, 3 );
+                    preparedDelete.addBatch();
+                    preparedDelete.setInt( 1, 4 );
+                    preparedDelete.addBatch();
+                    preparedDelete.executeBatch();
+                    connection.commit();
+
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT id, val FROM batchtest ORDER BY id" ),
+                            ImmutableList.of(
+                                    new Object[]{ 1, 11 },
+                                    new Object[]{ 2, 22 } ) );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE batchtest" );
+                    connection.commit();
+                }
+            }
+        } finally {
+            RuntimeConfig.BULK_BATCH_EXECUTION.setBoolean( previous );
+        }
+    }
+
+}
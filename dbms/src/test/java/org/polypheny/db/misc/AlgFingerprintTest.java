@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.algebra.AlgFingerprint;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.logical.relational.LogicalFilter;
+import org.polypheny.db.algebra.logical.relational.LogicalValues;
+import org.polypheny.db.algebra.operators.OperatorName;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.languages.OperatorRegistry;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.Contexts;
+import org.polypheny.db.prepare.JavaTypeFactoryImpl;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.test.MockRelOptPlanner;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * Tests the structural fingerprints of trees of {@link AlgNode}s, which are the keys of the plan and implementation caches.
+ */
+public class AlgFingerprintTest {
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running, the operators are registered by the query languages
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    private static AlgOptCluster cluster() {
+        return AlgOptCluster.create( new MockRelOptPlanner( Contexts.empty() ), new RexBuilder( new JavaTypeFactoryImpl() ) );
+    }
+
+
+    private static AlgDataType type( AlgOptCluster cluster, PolyType polyType ) {
+        return cluster.getTypeFactory().createPolyType( polyType );
+    }
+
+
+    private static RexLiteral literal( AlgOptCluster cluster, int value ) {
+        return cluster.getRexBuilder().makeExactLiteral( BigDecimal.valueOf( value ), type( cluster, PolyType.INTEGER ) );
+    }
+
+
+    private static AlgNode values( AlgOptCluster cluster, int... values ) {
+        final AlgDataType rowType = cluster.getTypeFactory().builder().add( "id", null, PolyType.INTEGER ).build();
+        final ImmutableList.Builder<ImmutableList<RexLiteral>> tuples = ImmutableList.builder();
+        for ( int value : values ) {
+            tuples.add( ImmutableList.of( literal( cluster, value ) ) );
+        }
+        return LogicalValues.create( cluster, rowType, tuples.build() );
+    }
+
+
+    /**
+     * Creates a filter {@code id > right} on the given input.
+     */
+    private static AlgNode filter( AlgNode input, RexNode right ) {
+        final RexBuilder rexBuilder = input.getCluster().getRexBuilder();
+        return LogicalFilter.create( input, rexBuilder.makeCall( OperatorRegistry.get( OperatorName.GREATER_THAN ), rexBuilder.makeInputRef( input, 0 ), right ) );
+    }
+
+
+    @Test
+    public void sameTreeInDifferentClustersTest() {
+        final AlgOptCluster cluster1 = cluster();
+        final AlgOptCluster cluster2 = cluster();
+        final AlgFingerprint fingerprint1 = filter( values( cluster1, 1, 2, 3 ), literal( cluster1, 2 ) ).algFingerprint();
+        final AlgFingerprint fingerprint2 = filter( values( cluster2, 1, 2, 3 ), literal( cluster2, 2 ) ).algFingerprint();
+        Assert.assertEquals( fingerprint1, fingerprint2 );
+        Assert.assertEquals( fingerprint1.hashCode(), fingerprint2.hashCode() );
+        Assert.assertEquals( fingerprint1.toString(), fingerprint2.toString() );
+    }
+
+
+    @Test
+    public void differentLiteralsTest() {
+        final AlgOptCluster cluster = cluster();
+        final AlgNode values = values( cluster, 1, 2, 3 );
+        Assert.assertNotEquals(
+                filter( values, literal( cluster, 2 ) ).algFingerprint(),
+                filter( values, literal( cluster, 3 ) ).algFingerprint() );
+        // The literals of a leaf are part of the fingerprint as well
+        Assert.assertNotEquals(
+                filter( values( cluster, 1, 2, 3 ), literal( cluster, 2 ) ).algFingerprint(),
+                filter( values( cluster, 1, 2, 4 ), literal( cluster, 2 ) ).algFingerprint() );
+    }
+
+
+    @Test
+    public void differentParametersTest() {
+        final AlgOptCluster cluster = cluster();
+        final RexBuilder rexBuilder = cluster.getRexBuilder();
+        final AlgNode values = values( cluster, 1, 2, 3 );
+        final AlgFingerprint first = filter( values, rexBuilder.makeDynamicParam( type( cluster, PolyType.INTEGER ), 0 ) ).algFingerprint();
+        Assert.assertEquals( first, filter( values, rexBuilder.makeDynamicParam( type( cluster, PolyType.INTEGER ), 0 ) ).algFingerprint() );
+        // Other index
+        Assert.assertNotEquals( first, filter( values, rexBuilder.makeDynamicParam( type( cluster, PolyType.INTEGER ), 1 ) ).algFingerprint() );
+        // Other type
+        Assert.assertNotEquals( first, filter( values, rexBuilder.makeDynamicParam( type( cluster, PolyType.BIGINT ), 0 ) ).algFingerprint() );
+    }
+
+
+    @Test
+    public void replacedInputTest() {
+        final AlgOptCluster cluster = cluster();
+        final AlgNode filter = filter( values( cluster, 1, 2, 3 ), literal( cluster, 2 ) );
+        final AlgFingerprint before = filter.algFingerprint();
+        // The cached fingerprint is not reused once an input has been replaced
+        filter.replaceInput( 0, values( cluster, 4, 5, 6 ) );
+        Assert.assertNotEquals( before, filter.algFingerprint() );
+        Assert.assertEquals( filter( values( cluster, 4, 5, 6 ), literal( cluster, 2 ) ).algFingerprint(), filter.algFingerprint() );
+    }
+
+
+    @Test
+    public void collisionTest() {
+        // Fingerprints with the same hash are only equal if their structure is equal as well
+        final AlgFingerprint left = AlgFingerprint.of( "Scan$a&" );
+        final AlgFingerprint right = AlgFingerprint.of( "Scan$b&" );
+        final AlgFingerprint parent = AlgFingerprint.of( "Filter$#0&", new AlgFingerprint[]{ left } );
+        Assert.assertEquals( parent, AlgFingerprint.of( "Filter$#0&", new AlgFingerprint[]{ AlgFingerprint.of( "Scan$a&" ) } ) );
+        Assert.assertNotEquals( parent, AlgFingerprint.of( "Filter$#0&", new AlgFingerprint[]{ right } ) );
+        Assert.assertNotEquals( parent, AlgFingerprint.of( "Filter$#0&" ) );
+        Assert.assertNotEquals( left, right );
+        Assert.assertFalse( left.getHigh() == right.getHigh() && left.getLow() == right.getLow() );
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.metadata.CardinalityFeedback;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Executes queries while the cardinalities of every execution are collected. The scans of the default store are
+ * implemented by enumerables of a specific class, which must be usable with the counting of the rows.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+public class CardinalityFeedbackTest {
+
+    private static boolean previousActive;
+    private static double previousSampleRate;
+
+
+    @BeforeClass
+    public static void start() throws SQLException {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+        previousActive = RuntimeConfig.CARDINALITY_FEEDBACK.getBoolean();
+        previousSampleRate = RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.getDouble();
+        RuntimeConfig.CARDINALITY_FEEDBACK.setBoolean( true );
+        RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.setDouble( 1 );
+        CardinalityFeedback.INSTANCE.reset();
+
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( false ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE feedbackEmp( empId INTEGER NOT NULL, name VARCHAR(20), depId INTEGER NOT NULL, PRIMARY KEY (empId))" );
+                statement.executeUpdate( "CREATE TABLE feedbackDep( depId INTEGER NOT NULL, depName VARCHAR(20), PRIMARY KEY (depId))" );
+                statement.executeUpdate( "INSERT INTO feedbackEmp VALUES ( 1, 'Max', 1 ), ( 2, 'Ernst', 2 ), ( 3, 'Elsa', 2 ), ( 4, 'Hans', 3 )" );
+                statement.executeUpdate( "INSERT INTO feedbackDep VALUES ( 1, 'IT' ), ( 2, 'Sales' ), ( 3, 'HR' )" );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @AfterClass
+    public static void stop() throws SQLException {
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( true ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE feedbackEmp" );
+                statement.executeUpdate( "DROP TABLE feedbackDep" );
+            }
+        } finally {
+            CardinalityFeedback.INSTANCE.reset();
+            RuntimeConfig.CARDINALITY_FEEDBACK.setBoolean( previousActive );
+            RuntimeConfig.CARDINALITY_FEEDBACK_SAMPLE_RATE.setDouble( previousSampleRate );
+        }
+    }
+
+
+    @Test
+    public void testCollectCardinalities() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // Executed repeatedly, as the plans may be planned again after the first execution
+                for ( int i = 0; i < 3; i++ ) {
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT feedbackEmp.name, feedbackDep.depName FROM feedbackEmp INNER JOIN feedbackDep ON feedbackEmp.depId = feedbackDep.depId WHERE feedbackDep.depName <> 'IT' ORDER BY feedbackEmp.name" ),
+                            ImmutableList.of(
+                                    new Object[]{ "Elsa", "Sales" },
+                                    new Object[]{ "Ernst", "Sales" },
+                                    new Object[]{ "Hans", "HR" }
+                            )
+                    );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT COUNT(*) FROM feedbackEmp" ),
+                            ImmutableList.of( new Object[]{ 4L } )
+                    );
+                }
+                Assert.assertTrue( CardinalityFeedback.INSTANCE.getObservedOperators() > 0 );
+            }
+        }
+    }
+
+}
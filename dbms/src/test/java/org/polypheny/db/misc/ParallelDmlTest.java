@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.CatalogPartitionPlacement;
+import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+import org.polypheny.db.schema.PolySchemaBuilder;
+import org.polypheny.db.schema.Table;
+
+
+/**
+ * Modifies a table with placements on two stores, once with the modifies on the placements executed concurrently and once
+ * after each other.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class ParallelDmlTest {
+
+    private static final List<Object[]> ROWS = ImmutableList.of(
+            new Object[]{ 1, "a" },
+            new Object[]{ 2, "b" },
+            new Object[]{ 3, "c" },
+            new Object[]{ 4, "d" } );
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void placementsTest() throws SQLException {
+        final boolean parallel = RuntimeConfig.PARALLEL_DML.getBoolean();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE paralleldmltest( tprimary INTEGER NOT NULL, tvarchar VARCHAR(20) NULL, PRIMARY KEY (tprimary) )" );
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"store1\" USING 'Hsqldb' AS 'Store'"
+                        + " WITH '{maxConnections:\"25\",trxControlMode:locks,trxIsolationLevel:read_committed,type:Memory,tableType:Memory,mode:embedded}'" );
+                statement.executeUpdate( "ALTER TABLE \"paralleldmltest\" ADD PLACEMENT ON STORE \"store1\"" );
+                connection.commit();
+
+                try {
+                    // Both ways of executing the modifies report the same number of changed rows
+                    RuntimeConfig.PARALLEL_DML.setBoolean( true );
+                    final int parallelCount = statement.executeUpdate( "INSERT INTO paralleldmltest VALUES (1, 'a'), (2, 'b')" );
+                    connection.commit();
+                    RuntimeConfig.PARALLEL_DML.setBoolean( false );
+                    final int serialCount = statement.executeUpdate( "INSERT INTO paralleldmltest VALUES (3, 'c'), (4, 'd')" );
+                    connection.commit();
+                    Assert.assertEquals( serialCount, parallelCount );
+
+                    // A failing modify rolls back the modifies on all placements
+                    RuntimeConfig.PARALLEL_DML.setBoolean( true );
+                    statement.executeUpdate( "INSERT INTO paralleldmltest VALUES (5, 'e')" );
+                    try {
+                        statement.executeUpdate( "INSERT INTO paralleldmltest VALUES (6, 'f'), (1, 'a')" );
+                        connection.commit();
+                        Assert.fail( "Expected the insert of a duplicate primary key to fail" );
+                    } catch ( SQLException e ) {
+                        connection.rollback();
+                    }
+
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT * FROM paralleldmltest ORDER BY tprimary" ),
+                            ROWS );
+                    connection.commit();
+
+                    // Check the placement on the second store
+                    statement.executeUpdate( "ALTER TABLE \"paralleldmltest\" DROP PLACEMENT ON STORE \"hsqldb\"" );
+                    connection.commit();
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT * FROM paralleldmltest ORDER BY tprimary" ),
+                            ROWS );
+                    connection.commit();
+                } finally {
+                    RuntimeConfig.PARALLEL_DML.setBoolean( parallel );
+                    statement.executeUpdate( "DROP TABLE paralleldmltest" );
+                    statement.executeUpdate( "ALTER ADAPTERS DROP \"store1\"" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+
+
+    @Test
+    public void physicalTablesTest() throws Exception {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE paralleldmlphysical( tprimary INTEGER NOT NULL, tvarchar VARCHAR(20) NULL, PRIMARY KEY (tprimary) )" );
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"store2\" USING 'Hsqldb' AS 'Store'"
+                        + " WITH '{maxConnections:\"25\",trxControlMode:locks,trxIsolationLevel:read_committed,type:Memory,tableType:Memory,mode:embedded}'" );
+                statement.executeUpdate( "ALTER TABLE \"paralleldmlphysical\" ADD PLACEMENT ON STORE \"store2\"" );
+                connection.commit();
+
+                try {
+                    // The modifies of a modify collect are assigned to stores by the adapter ids of their physical tables
+                    Catalog catalog = Catalog.getInstance();
+                    CatalogTable catalogTable = catalog.getTable( "APP", "public", "paralleldmlphysical" );
+                    List<CatalogPartitionPlacement> placements = catalog.getAllPartitionPlacementsByTable( catalogTable.id );
+                    Assert.assertEquals( 2, placements.size() );
+                    for ( CatalogPartitionPlacement placement : placements ) {
+                        String schemaName = PolySchemaBuilder.buildAdapterSchemaName( placement.adapterUniqueName, "public", placement.physicalSchemaName );
+                        Table table = PolySchemaBuilder.getInstance().getCurrent()
+                                .getSubSchema( schemaName, true )
+                                .getTable( catalogTable.name + "_" + placement.partitionId )
+                                .getTable();
+                        Assert.assertEquals( Integer.valueOf( placement.adapterId ), table.getAdapterId() );
+                        Assert.assertEquals( Long.valueOf( catalogTable.id ), table.getTableId() );
+                    }
+                } finally {
+                    statement.executeUpdate( "DROP TABLE paralleldmlphysical" );
+                    statement.executeUpdate( "ALTER ADAPTERS DROP \"store2\"" );
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+}
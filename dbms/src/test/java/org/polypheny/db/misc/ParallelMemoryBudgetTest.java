@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+
+
+/**
+ * Executes memory-intensive operators with both intra-query parallelism and a statement memory budget enabled.
+ * The budget takes precedence, so the operators run sequentially and spill instead of partitioning their input.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class ParallelMemoryBudgetTest {
+
+    private static final int ROWS = 40;
+
+    private int parallelism;
+    private int threshold;
+    private int budget;
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Before
+    public void createTables() throws SQLException {
+        parallelism = RuntimeConfig.PARALLELISM.getInteger();
+        threshold = RuntimeConfig.PARALLELISM_THRESHOLD.getInteger();
+        budget = RuntimeConfig.STATEMENT_MEMORY_BUDGET.getInteger();
+        RuntimeConfig.PARALLELISM.setInteger( 4 );
+        RuntimeConfig.PARALLELISM_THRESHOLD.setInteger( 1 );
+        RuntimeConfig.STATEMENT_MEMORY_BUDGET.setInteger( 1 );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE budgetfact( id INTEGER NOT NULL, grp INTEGER NOT NULL, val INTEGER NOT NULL, PRIMARY KEY (id) )" );
+                statement.executeUpdate( "CREATE TABLE budgetdim( grp INTEGER NOT NULL, name VARCHAR(20) NOT NULL, PRIMARY KEY (grp) )" );
+                for ( int i = 0; i < ROWS; i++ ) {
+                    statement.executeUpdate( "INSERT INTO budgetfact VALUES (" + i + ", " + i % 4 + ", " + i + ")" );
+                }
+                for ( int g = 0; g < 4; g++ ) {
+                    statement.executeUpdate( "INSERT INTO budgetdim VALUES (" + g + ", 'group" + g + "')" );
+                }
+                connection.commit();
+            }
+        }
+    }
+
+
+    @After
+    public void dropTables() throws SQLException {
+        RuntimeConfig.PARALLELISM.setInteger( parallelism );
+        RuntimeConfig.PARALLELISM_THRESHOLD.setInteger( threshold );
+        RuntimeConfig.STATEMENT_MEMORY_BUDGET.setInteger( budget );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE budgetfact" );
+                statement.executeUpdate( "DROP TABLE budgetdim" );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @Test
+    public void aggregateTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                List<Object[]> expected = new ArrayList<>();
+                for ( int g = 0; g < 4; g++ ) {
+                    long sum = 0;
+                    for ( int i = g; i < ROWS; i += 4 ) {
+                        sum += i;
+                    }
+                    expected.add( new Object[]{ g, (long) ROWS / 4, sum } );
+                }
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT grp, COUNT(*), SUM(val) FROM budgetfact GROUP BY grp ORDER BY grp" ),
+                        expected );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @Test
+    public void joinTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                List<Object[]> expected = new ArrayList<>();
+                for ( int i = 0; i < ROWS; i++ ) {
+                    expected.add( new Object[]{ i, "group" + i % 4 } );
+                }
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT f.id, d.name FROM budgetfact f JOIN budgetdim d ON f.grp = d.grp ORDER BY f.id" ),
+                        expected );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @Test
+    public void sortTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                List<Object[]> expected = new ArrayList<>();
+                for ( int i = ROWS - 1; i >= 0; i-- ) {
+                    expected.add( new Object[]{ i, i % 4 } );
+                }
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, grp FROM budgetfact ORDER BY val DESC" ),
+                        expected );
+                connection.commit();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+
+
+/**
+ * Plans queries on a table with placements on two stores, which results in several proposed routing plans per query.
+ * The proposals are planned and implemented once in parallel and once after each other, with the same results.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class ParallelPlanningTest {
+
+    private static final String[] QUERIES = {
+            "SELECT id, grp, val FROM parallelplanning WHERE val > 5 ORDER BY id",
+            "SELECT grp, COUNT(*), SUM(val) FROM parallelplanning GROUP BY grp ORDER BY grp",
+            "SELECT a.id, b.id FROM parallelplanning a JOIN parallelplanning b ON a.grp = b.grp WHERE a.id < b.id ORDER BY a.id, b.id",
+            "SELECT id FROM parallelplanning WHERE grp = 1 UNION SELECT id FROM parallelplanning WHERE val < 3 ORDER BY id" };
+
+    private boolean parallelPlanning;
+    private boolean queryPlanCaching;
+    private boolean implementationCaching;
+    private boolean routingPlanCaching;
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Before
+    public void createTable() throws SQLException {
+        parallelPlanning = RuntimeConfig.PARALLEL_PLANNING.getBoolean();
+        queryPlanCaching = RuntimeConfig.QUERY_PLAN_CACHING.getBoolean();
+        implementationCaching = RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean();
+        routingPlanCaching = RuntimeConfig.ROUTING_PLAN_CACHING.getBoolean();
+        // Every execution plans all proposals
+        RuntimeConfig.QUERY_PLAN_CACHING.setBoolean( false );
+        RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( false );
+        RuntimeConfig.ROUTING_PLAN_CACHING.setBoolean( false );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE parallelplanning( id INTEGER NOT NULL, grp INTEGER NOT NULL, val INTEGER NOT NULL, PRIMARY KEY (id) )" );
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"planningstore\" USING 'Hsqldb' AS 'Store'"
+                        + " WITH '{maxConnections:\"25\",trxControlMode:locks,trxIsolationLevel:read_committed,type:Memory,tableType:Memory,mode:embedded}'" );
+                statement.executeUpdate( "ALTER TABLE \"parallelplanning\" ADD PLACEMENT ON STORE \"planningstore\"" );
+                for ( int i = 0; i < 12; i++ ) {
+                    statement.executeUpdate( "INSERT INTO parallelplanning VALUES (" + i + ", " + i % 3 + ", " + i + ")" );
+                }
+                connection.commit();
+            }
+        }
+    }
+
+
+    @After
+    public void dropTable() throws SQLException {
+        RuntimeConfig.PARALLEL_PLANNING.setBoolean( parallelPlanning );
+        RuntimeConfig.QUERY_PLAN_CACHING.setBoolean( queryPlanCaching );
+        RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( implementationCaching );
+        RuntimeConfig.ROUTING_PLAN_CACHING.setBoolean( routingPlanCaching );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE parallelplanning" );
+                statement.executeUpdate( "ALTER ADAPTERS DROP \"planningstore\"" );
+                connection.commit();
+            }
+        }
+    }
+
+
+    private static List<Object[]> query( Statement statement, String query ) throws SQLException {
+        final List<Object[]> rows = new ArrayList<>();
+        try ( ResultSet resultSet = statement.executeQuery( query ) ) {
+            final int columns = resultSet.getMetaData().getColumnCount();
+            while ( resultSet.next() ) {
+                final Object[] row = new Object[columns];
+                for ( int i = 0; i < columns; i++ ) {
+                    row[i] = resultSet.getObject( i + 1 );
+                }
+                rows.add( row );
+            }
+        }
+        return rows;
+    }
+
+
+    @Test
+    public void sameResultsTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                final List<List<Object[]>> sequential = new ArrayList<>();
+                RuntimeConfig.PARALLEL_PLANNING.setBoolean( false );
+                for ( String query : QUERIES ) {
+                    sequential.add( query( statement, query ) );
+                }
+                Assert.assertEquals( 6, sequential.get( 0 ).size() );
+
+                RuntimeConfig.PARALLEL_PLANNING.setBoolean( true );
+                // Repeated, as the planning threads may interleave differently on every execution
+                for ( int run = 0; run < 5; run++ ) {
+                    for ( int i = 0; i < QUERIES.length; i++ ) {
+                        TestHelper.checkResultSet( statement.executeQuery( QUERIES[i] ), sequential.get( i ) );
+                    }
+                }
+            }
+        }
+    }
+
+}
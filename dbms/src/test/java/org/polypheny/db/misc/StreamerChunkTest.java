@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.misc;
+
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+
+
+/**
+ * Passes the source of DML statements to the target in chunks which are smaller than the source.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class StreamerChunkTest {
+
+    private static final int ROWS = 7;
+
+    private int chunkSize;
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Before
+    public void createTables() throws SQLException {
+        chunkSize = RuntimeConfig.STREAMER_CHUNK_SIZE.getInteger();
+        RuntimeConfig.STREAMER_CHUNK_SIZE.setInteger( 2 );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE streamsource( id INTEGER NOT NULL, val INTEGER NULL, PRIMARY KEY (id) )" );
+                statement.executeUpdate( "CREATE TABLE streamtarget( id INTEGER NOT NULL, val INTEGER NULL, PRIMARY KEY (id) )" );
+                for ( int i = 1; i <= ROWS; i++ ) {
+                    statement.executeUpdate( "INSERT INTO streamsource VALUES (" + i + ", " + i * 10 + ")" );
+                }
+                connection.commit();
+            }
+        }
+    }
+
+
+    @After
+    public void dropTables() throws SQLException {
+        RuntimeConfig.STREAMER_CHUNK_SIZE.setInteger( chunkSize );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE streamsource" );
+                statement.executeUpdate( "DROP TABLE streamtarget" );
+                connection.commit();
+            }
+        }
+    }
+
+
+    private static List<Object[]> rows( int idOffset ) {
+        List<Object[]> rows = new ArrayList<>();
+        for ( int i = 1; i <= ROWS; i++ ) {
+            rows.add( new Object[]{ i + idOffset, i * 10 } );
+        }
+        return rows;
+    }
+
+
+    @Test
+    public void multipleChunksTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // 7 rows are written in four chunks, the update counts of the chunks are added up
+                Assert.assertEquals( ROWS, statement.executeUpdate( "INSERT INTO streamtarget SELECT id, val FROM streamsource" ) );
+                connection.commit();
+
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, val FROM streamtarget ORDER BY id" ),
+                        rows( 0 ) );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @Test
+    public void emptySourceTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                Assert.assertEquals( 0, statement.executeUpdate( "INSERT INTO streamtarget SELECT id, val FROM streamsource WHERE id > 100" ) );
+                connection.commit();
+
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT COUNT(*) FROM streamtarget" ),
+                        ImmutableList.of( new Object[]{ 0L } ) );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @Test
+    public void selfReferencingTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                // the source is read completely before the first row is written, so it does not see the inserted rows
+                Assert.assertEquals( ROWS, statement.executeUpdate( "INSERT INTO streamsource SELECT id + 100, val FROM streamsource" ) );
+                connection.commit();
+
+                List<Object[]> expected = new ArrayList<>( rows( 0 ) );
+                expected.addAll( rows( 100 ) );
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, val FROM streamsource ORDER BY id" ),
+                        expected );
+                connection.commit();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.logical.relational.LogicalValues;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.Contexts;
+import org.polypheny.db.prepare.JavaTypeFactoryImpl;
+import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.test.MockRelOptPlanner;
+
+
+/**
+ * Checks that the {@link BackgroundCompiler} interprets new plans and replaces them with their compiled implementation.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+public class BackgroundCompilerTest {
+
+    private static final List<Object[]> ROWS = ImmutableList.of(
+            new Object[]{ 2, "b" },
+            new Object[]{ 3, "c" } );
+
+    private boolean asyncCompilation;
+    private boolean resultCaching;
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Before
+    public void enable() {
+        asyncCompilation = RuntimeConfig.IMPLEMENTATION_CACHING_ASYNC_COMPILATION.getBoolean();
+        resultCaching = RuntimeConfig.RESULT_CACHING.getBoolean();
+        RuntimeConfig.IMPLEMENTATION_CACHING_ASYNC_COMPILATION.setBoolean( true );
+        RuntimeConfig.RESULT_CACHING.setBoolean( false );
+        ImplementationCache.INSTANCE.reset();
+    }
+
+
+    @After
+    public void restore() {
+        RuntimeConfig.IMPLEMENTATION_CACHING_ASYNC_COMPILATION.setBoolean( asyncCompilation );
+        RuntimeConfig.RESULT_CACHING.setBoolean( resultCaching );
+    }
+
+
+    /**
+     * Executes the query and returns by how much the given counter has changed.
+     */
+    private static long query( String query, AtomicLong counter ) throws SQLException {
+        final long before = counter.get();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.checkResultSet( statement.executeQuery( query ), ROWS );
+            }
+        }
+        return counter.get() - before;
+    }
+
+
+    private static void awaitChange( AtomicLong counter, long before ) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 30_000;
+        while ( counter.get() == before ) {
+            Assert.assertTrue( "Background compilation has not finished in time", System.currentTimeMillis() < deadline );
+            Thread.sleep( 10 );
+        }
+    }
+
+
+    @Test
+    public void interpretedTest() throws SQLException {
+        // The first execution does not wait for the compilation
+        Assert.assertEquals( 1, query(
+                "SELECT id, val FROM (VALUES (1, 'a'), (2, 'b'), (3, 'c')) AS t (id, val) WHERE id > 1 ORDER BY id",
+                BackgroundCompiler.INSTANCE.getInterpretedCounter() ) );
+    }
+
+
+    @Test
+    public void replacedByCompiledTest() throws SQLException, InterruptedException {
+        final String query = "SELECT id, val FROM (VALUES (3, 'c'), (2, 'b'), (1, 'a')) AS t (id, val) WHERE id >= 2 ORDER BY id";
+        final long compiled = BackgroundCompiler.INSTANCE.getCompiledCounter().get();
+        Assert.assertEquals( 1, query( query, BackgroundCompiler.INSTANCE.getInterpretedCounter() ) );
+        awaitChange( BackgroundCompiler.INSTANCE.getCompiledCounter(), compiled );
+
+        // Once the compiled implementation is cached, it is used instead of the interpreter
+        Assert.assertEquals( 0, query( query, BackgroundCompiler.INSTANCE.getInterpretedCounter() ) );
+    }
+
+
+    @Test
+    public void invalidatedWhileCompilingTest() throws InterruptedException {
+        final AlgOptCluster cluster = AlgOptCluster.create( new MockRelOptPlanner( Contexts.empty() ), new RexBuilder( new JavaTypeFactoryImpl() ) );
+        final AlgNode node = LogicalValues.createOneRow( cluster );
+        final CountDownLatch started = new CountDownLatch( 1 );
+        final CountDownLatch invalidated = new CountDownLatch( 1 );
+        final long discarded = BackgroundCompiler.INSTANCE.getDiscardedCounter().get();
+
+        BackgroundCompiler.INSTANCE.submit( node, () -> {
+            started.countDown();
+            try {
+                invalidated.await();
+            } catch ( InterruptedException e ) {
+                throw new RuntimeException( e );
+            }
+            // Never added to the cache, as the cache has been invalidated in the meantime
+            return null;
+        }, CacheDependencies.NONE );
+
+        Assert.assertTrue( started.await( 30, TimeUnit.SECONDS ) );
+        ImplementationCache.INSTANCE.reset();
+        invalidated.countDown();
+        awaitChange( BackgroundCompiler.INSTANCE.getDiscardedCounter(), discarded );
+        Assert.assertNull( ImplementationCache.INSTANCE.getIfPresent( node ) );
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Checks that cached plans and implementations are discarded when a setting changes which they depend on.
+ */
+public class ImplementationCacheTest {
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void implementationSettingTest() {
+        boolean primitiveHashTables = RuntimeConfig.PRIMITIVE_HASH_TABLES.getBoolean();
+        long generation = ImplementationCache.INSTANCE.getGeneration();
+        try {
+            RuntimeConfig.PRIMITIVE_HASH_TABLES.setBoolean( !primitiveHashTables );
+            Assert.assertTrue( ImplementationCache.INSTANCE.getGeneration() > generation );
+        } finally {
+            RuntimeConfig.PRIMITIVE_HASH_TABLES.setBoolean( primitiveHashTables );
+        }
+    }
+
+
+    @Test
+    public void planningSettingTest() {
+        // Resetting the plan cache also resets the implementation cache
+        int parallelism = RuntimeConfig.PARALLELISM.getInteger();
+        long generation = ImplementationCache.INSTANCE.getGeneration();
+        try {
+            RuntimeConfig.PARALLELISM.setInteger( parallelism + 1 );
+            Assert.assertTrue( ImplementationCache.INSTANCE.getGeneration() > generation );
+        } finally {
+            RuntimeConfig.PARALLELISM.setInteger( parallelism );
+        }
+    }
+
+
+    @Test
+    public void unrelatedSettingTest() {
+        boolean debug = RuntimeConfig.DEBUG.getBoolean();
+        long generation = ImplementationCache.INSTANCE.getGeneration();
+        try {
+            RuntimeConfig.DEBUG.setBoolean( !debug );
+            Assert.assertEquals( generation, ImplementationCache.INSTANCE.getGeneration() );
+        } finally {
+            RuntimeConfig.DEBUG.setBoolean( debug );
+        }
+    }
+
+}
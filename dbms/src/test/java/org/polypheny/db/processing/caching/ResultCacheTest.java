@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.processing.caching;
+
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Checks that the {@link ResultCache} returns cached results and evicts them when the accessed tables change.
+ */
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+public class ResultCacheTest {
+
+    private static final String QUERY = "SELECT id, val FROM resultcachetest ORDER BY id";
+
+    private static final List<Object[]> ROWS = ImmutableList.of(
+            new Object[]{ 1, "a" },
+            new Object[]{ 2, "b" } );
+
+    private boolean resultCaching;
+    private int maxRows;
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Before
+    public void createTable() throws SQLException {
+        resultCaching = RuntimeConfig.RESULT_CACHING.getBoolean();
+        maxRows = RuntimeConfig.RESULT_CACHING_MAX_ROWS.getInteger();
+        RuntimeConfig.RESULT_CACHING.setBoolean( true );
+        ResultCache.INSTANCE.reset();
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE resultcachetest( id INTEGER NOT NULL, val VARCHAR(4000) NULL, PRIMARY KEY (id) )" );
+                statement.executeUpdate( "INSERT INTO resultcachetest VALUES (1, 'a'), (2, 'b')" );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @After
+    public void dropTable() throws SQLException {
+        RuntimeConfig.RESULT_CACHING.setBoolean( resultCaching );
+        RuntimeConfig.RESULT_CACHING_MAX_ROWS.setInteger( maxRows );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE resultcachetest" );
+                connection.commit();
+            }
+        }
+        ResultCache.INSTANCE.reset();
+    }
+
+
+    /**
+     * Executes the query and returns by how much the given counter has changed.
+     */
+    private static long query( Connection connection, List<Object[]> expected, AtomicLong counter ) throws SQLException {
+        final long before = counter.get();
+        try ( Statement statement = connection.createStatement() ) {
+            TestHelper.checkResultSet( statement.executeQuery( QUERY ), expected );
+        }
+        return counter.get() - before;
+    }
+
+
+    @Test
+    public void hitAndMissTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            Assert.assertEquals( 1, query( connection, ROWS, ResultCache.INSTANCE.getMissesCounter() ) );
+            Assert.assertEquals( 1, query( connection, ROWS, ResultCache.INSTANCE.getHitsCounter() ) );
+            Assert.assertEquals( 1, query( connection, ROWS, ResultCache.INSTANCE.getHitsCounter() ) );
+        }
+    }
+
+
+    @Test
+    public void commitTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            query( connection, ROWS, ResultCache.INSTANCE.getMissesCounter() );
+            connection.commit();
+
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "INSERT INTO resultcachetest VALUES (3, 'c')" );
+            }
+            connection.commit();
+
+            // The commit has evicted the cached result
+            final List<Object[]> rows = ImmutableList.of( ROWS.get( 0 ), ROWS.get( 1 ), new Object[]{ 3, "c" } );
+            Assert.assertEquals( 1, query( connection, rows, ResultCache.INSTANCE.getMissesCounter() ) );
+            Assert.assertEquals( 1, query( connection, rows, ResultCache.INSTANCE.getHitsCounter() ) );
+            connection.commit();
+        }
+    }
+
+
+    @Test
+    public void uncommittedWriteTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            query( connection, ROWS, ResultCache.INSTANCE.getMissesCounter() );
+            connection.commit();
+
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "INSERT INTO resultcachetest VALUES (3, 'c')" );
+            }
+            // The transaction sees its own changes instead of the cached result
+            final List<Object[]> rows = ImmutableList.of( ROWS.get( 0 ), ROWS.get( 1 ), new Object[]{ 3, "c" } );
+            Assert.assertEquals( 1, query( connection, rows, ResultCache.INSTANCE.getBypassedCounter() ) );
+            connection.rollback();
+
+            // The rollback keeps the cached result
+            Assert.assertEquals( 1, query( connection, ROWS, ResultCache.INSTANCE.getHitsCounter() ) );
+            connection.commit();
+        }
+    }
+
+
+    @Test
+    public void truncateTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            query( connection, ROWS, ResultCache.INSTANCE.getMissesCounter() );
+            connection.commit();
+
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "TRUNCATE TABLE resultcachetest" );
+            }
+            connection.commit();
+
+            Assert.assertEquals( 1, query( connection, ImmutableList.of(), ResultCache.INSTANCE.getMissesCounter() ) );
+            connection.commit();
+        }
+    }
+
+
+    @Test
+    public void maxRowsTest() throws SQLException {
+        RuntimeConfig.RESULT_CACHING_MAX_ROWS.setInteger( 1 );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            Assert.assertEquals( 1, query( connection, ROWS, ResultCache.INSTANCE.getDiscardedCounter() ) );
+            Assert.assertEquals( 1, query( connection, ROWS, ResultCache.INSTANCE.getMissesCounter() ) );
+        }
+    }
+
+
+    @Test
+    public void weightLimitTest() throws SQLException {
+        // The estimated size of the result exceeds the configured memory of the cache
+        final long bytes = RuntimeConfig.RESULT_CACHING_SIZE.getInteger() * 1024L * 1024L;
+        final String value = "x".repeat( 4000 );
+        final int count = (int) (bytes / (2 * value.length())) + 10;
+        RuntimeConfig.RESULT_CACHING_MAX_ROWS.setInteger( count + 10 );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            PreparedStatement preparedInsert = connection.prepareStatement( "INSERT INTO resultcachetest VALUES (?, ?)" );
+            for ( int i = 10; i < count + 10; i++ ) {
+                preparedInsert.setInt( 1, i );
+                preparedInsert.setString( 2, value );
+                preparedInsert.addBatch();
+            }
+            preparedInsert.executeBatch();
+            connection.commit();
+
+            try ( Statement statement = connection.createStatement() ) {
+                for ( int i = 0; i < 2; i++ ) {
+                    // The result is discarded, so the second execution is a miss as well
+                    final long discarded = ResultCache.INSTANCE.getDiscardedCounter().get();
+                    final long misses = ResultCache.INSTANCE.getMissesCounter().get();
+                    int rows = 0;
+                    try ( ResultSet resultSet = statement.executeQuery( "SELECT id, val FROM resultcachetest" ) ) {
+                        while ( resultSet.next() ) {
+                            rows++;
+                        }
+                    }
+                    Assert.assertEquals( count + ROWS.size(), rows );
+                    Assert.assertEquals( 1, ResultCache.INSTANCE.getDiscardedCounter().get() - discarded );
+                    Assert.assertEquals( 1, ResultCache.INSTANCE.getMissesCounter().get() - misses );
+                }
+            }
+            connection.commit();
+        }
+    }
+
+}
@@ -23,10 +23,25 @@
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.polypheny.db.TestHelper;
 import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.catalog.Catalog.NamespaceType;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.languages.QueryLanguage;
+import org.polypheny.db.languages.QueryParameters;
+import org.polypheny.db.nodes.Node;
+import org.polypheny.db.processing.Processor;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.transaction.TransactionException;
+import org.polypheny.db.util.Util;
+import org.polypheny.db.view.MaterializedViewManager;
+import org.polypheny.db.view.MaterializedViewManagerImpl;
+import org.polypheny.db.view.MaterializedViewRewriter;
 
 
 @SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
@@ -84,6 +99,35 @@ public void dropTables( Statement statement ) throws SQLException {
     }
 
 
+    /**
+     * Translates a query, applies the materialized view rewrite and checks whether the resulting plan scans the given
+     * materialized view.
+     */
+    private static boolean isAnsweredByView( String query, String viewName ) throws TransactionException {
+        Transaction transaction = TestHelper.getInstance().getTransaction();
+        try {
+            org.polypheny.db.transaction.Statement statement = transaction.createStatement();
+            Processor sqlProcessor = transaction.getProcessor( QueryLanguage.from( "sql" ) );
+            Node sqlNode = sqlProcessor.parse( query ).get( 0 );
+            AlgRoot logicalRoot = sqlProcessor.translate(
+                    statement,
+                    sqlProcessor.validate( transaction, sqlNode, RuntimeConfig.ADD_DEFAULT_VALUES_IN_INSERTS.getBoolean() ).left,
+                    new QueryParameters( query, NamespaceType.RELATIONAL ) );
+            return scans( MaterializedViewRewriter.rewrite( logicalRoot, statement ).alg, viewName );
+        } finally {
+            transaction.rollback();
+        }
+    }
+
+
+    private static boolean scans( AlgNode node, String entityName ) {
+        if ( node.getTable() != null && Util.last( node.getTable().getQualifiedName() ).equalsIgnoreCase( entityName ) ) {
+            return true;
+        }
+        return node.getInputs().stream().anyMatch( input -> scans( input, entityName ) );
+    }
+
+
     @BeforeClass
     public static void start() {
         // Ensures that Polypheny-DB is running
@@ -1249,4 +1293,125 @@ public void testMaterializedViewFromView() throws SQLException {
         }
     }
 
+
+    @Test
+    public void testQueryRewrite() throws SQLException, TransactionException {
+        final boolean previous = RuntimeConfig.MATERIALIZED_VIEW_REWRITE.getBoolean();
+        RuntimeConfig.MATERIALIZED_VIEW_REWRITE.setBoolean( true );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( VIEW_TEST_EMP_TABLE_SQL );
+                statement.executeUpdate( VIEW_TEST_EMP_TABLE_DATA_SQL );
+                statement.executeUpdate( VIEW_TEST_DEP_TABLE_SQL );
+                statement.executeUpdate( VIEW_TEST_DEP_TABLE_DATA_SQL );
+
+                try {
+                    statement.executeUpdate( "CREATE MATERIALIZED VIEW viewTestEmpDep AS SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId FRESHNESS MANUAL" );
+                    connection.commit();
+
+                    // Exact match and containment with an additional filter
+                    Assert.assertTrue( isAnsweredByView( "SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId", "viewTestEmpDep" ) );
+                    Assert.assertTrue( isAnsweredByView( "SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId WHERE viewTestDepTable.depName = 'IT'", "viewTestEmpDep" ) );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId" ),
+                            ImmutableList.of(
+                                    new Object[]{ "Max", "IT" },
+                                    new Object[]{ "Ernst", "Sales" },
+                                    new Object[]{ "Elsa", "HR" }
+                            ),
+                            true
+                    );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId WHERE viewTestDepTable.depName = 'IT'" ),
+                            ImmutableList.of(
+                                    new Object[]{ "Max", "IT" }
+                            )
+                    );
+
+                    // The materialized view is outdated after the change and must not be used anymore
+                    statement.executeUpdate( "INSERT INTO viewTestEmpTable VALUES ( 4, 'Hans', 'Meier', 1 )" );
+                    connection.commit();
+                    Assert.assertFalse( isAnsweredByView( "SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId WHERE viewTestDepTable.depName = 'IT'", "viewTestEmpDep" ) );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId WHERE viewTestDepTable.depName = 'IT'" ),
+                            ImmutableList.of(
+                                    new Object[]{ "Max", "IT" },
+                                    new Object[]{ "Hans", "IT" }
+                            ),
+                            true
+                    );
+                    connection.commit();
+                } finally {
+                    statement.executeUpdate( "DROP MATERIALIZED VIEW viewTestEmpDep" );
+                    dropTables( statement );
+                }
+            }
+        } finally {
+            RuntimeConfig.MATERIALIZED_VIEW_REWRITE.setBoolean( previous );
+        }
+    }
+
+
+    @Test
+    public void testIncrementalMaintenance() throws SQLException {
+        final boolean previous = RuntimeConfig.MATERIALIZED_VIEW_INCREMENTAL.getBoolean();
+        RuntimeConfig.MATERIALIZED_VIEW_INCREMENTAL.setBoolean( true );
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( VIEW_TEST_EMP_TABLE_SQL );
+                statement.executeUpdate( VIEW_TEST_EMP_TABLE_DATA_SQL );
+                statement.executeUpdate( VIEW_TEST_DEP_TABLE_SQL );
+                statement.executeUpdate( VIEW_TEST_DEP_TABLE_DATA_SQL );
+
+                try {
+                    statement.executeUpdate( "CREATE MATERIALIZED VIEW viewTestEmpDep AS SELECT viewTestEmpTable.firstName, viewTestDepTable.depName FROM viewTestEmpTable INNER JOIN viewTestDepTable ON viewTestEmpTable.depId = viewTestDepTable.depId FRESHNESS UPDATE 1" );
+                    statement.executeUpdate( "CREATE MATERIALIZED VIEW viewTestDepCount AS SELECT depId, COUNT(*) AS employees, MIN(empId) AS firstEmp FROM viewTestEmpTable GROUP BY depId FRESHNESS UPDATE 1" );
+                    connection.commit();
+                    final MaterializedViewManagerImpl manager = (MaterializedViewManagerImpl) MaterializedViewManager.getInstance();
+                    final long fullRefreshes = manager.getFullRefreshes().get();
+                    final long incrementalRefreshes = manager.getIncrementalRefreshes().get();
+
+                    statement.executeUpdate( "INSERT INTO viewTestEmpTable VALUES ( 4, 'Hans', 'Meier', 1 )" );
+                    connection.commit();
+                    statement.executeUpdate( "DELETE FROM viewTestEmpTable WHERE empId = 1" );
+                    statement.executeUpdate( "UPDATE viewTestEmpTable SET depId = 1 WHERE empId = 3" );
+                    connection.commit();
+                    statement.executeUpdate( "UPDATE viewTestDepTable SET depName = 'Marketing' WHERE depId = 2" );
+                    connection.commit();
+
+                    // Both views are updated after the changes of the employees, only the join view after the change of the departments
+                    Assert.assertEquals( fullRefreshes, manager.getFullRefreshes().get() );
+                    Assert.assertEquals( incrementalRefreshes + 5, manager.getIncrementalRefreshes().get() );
+
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT firstName, depName FROM viewTestEmpDep" ),
+                            ImmutableList.of(
+                                    new Object[]{ "Hans", "IT" },
+                                    new Object[]{ "Ernst", "Marketing" },
+                                    new Object[]{ "Elsa", "IT" }
+                            ),
+                            true
+                    );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT depId, employees, firstEmp FROM viewTestDepCount" ),
+                            ImmutableList.of(
+                                    new Object[]{ 1, 2L, 3 },
+                                    new Object[]{ 2, 1L, 2 }
+                            ),
+                            true
+                    );
+                    connection.commit();
+                } finally {
+                    statement.executeUpdate( "DROP MATERIALIZED VIEW viewTestEmpDep" );
+                    statement.executeUpdate( "DROP MATERIALIZED VIEW viewTestDepCount" );
+                    dropTables( statement );
+                }
+            }
+        } finally {
+            RuntimeConfig.MATERIALIZED_VIEW_INCREMENTAL.setBoolean( previous );
+        }
+    }
+
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019-2022 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.transaction;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.adapter.Adapter;
+import org.polypheny.db.adapter.Adapter.AdapterProperties;
+import org.polypheny.db.adapter.DeployMode;
+import org.polypheny.db.catalog.entity.CatalogColumnPlacement;
+import org.polypheny.db.catalog.entity.CatalogPartitionPlacement;
+import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.prepare.Context;
+import org.polypheny.db.schema.Schema;
+import org.polypheny.db.schema.SchemaPlus;
+import org.polypheny.db.schema.Table;
+import org.polypheny.db.transaction.PUID.Type;
+
+
+public class CommitCoordinatorTest {
+
+    private static final int WINDOW = 200_000;
+
+    private boolean parallelCommit;
+    private int groupCommitWindow;
+
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Before
+    public void saveConfig() {
+        parallelCommit = RuntimeConfig.PARALLEL_COMMIT.getBoolean();
+        groupCommitWindow = RuntimeConfig.GROUP_COMMIT_WINDOW.getInteger();
+    }
+
+
+    @After
+    public void restoreConfig() {
+        RuntimeConfig.PARALLEL_COMMIT.setBoolean( parallelCommit );
+        RuntimeConfig.GROUP_COMMIT_WINDOW.setInteger( groupCommitWindow );
+    }
+
+
+    private static PolyXid newXid() {
+        return PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+    }
+
+
+    @Test
+    public void testPrepareNotReady() {
+        for ( boolean parallel : new boolean[]{ false, true } ) {
+            RuntimeConfig.PARALLEL_COMMIT.setBoolean( parallel );
+            final CommitTestAdapter ready = new CommitTestAdapter( "ready", true, false );
+            final CommitTestAdapter notReady = new CommitTestAdapter( "notReady", false, false );
+
+            assertFalse( CommitCoordinator.INSTANCE.prepare( newXid(), Arrays.asList( ready, notReady ) ) );
+            assertEquals( 1, ready.prepared.get() );
+            assertEquals( 1, notReady.prepared.get() );
+            assertTrue( CommitCoordinator.INSTANCE.prepare( newXid(), Arrays.asList( ready, ready ) ) );
+        }
+    }
+
+
+    @Test
+    public void testCommitFailure() {
+        for ( boolean parallel : new boolean[]{ false, true } ) {
+            RuntimeConfig.PARALLEL_COMMIT.setBoolean( parallel );
+            RuntimeConfig.GROUP_COMMIT_WINDOW.setInteger( 0 );
+            final CommitTestAdapter committing = new CommitTestAdapter( "committing", true, false );
+            final CommitTestAdapter failing = new CommitTestAdapter( "failing", true, true );
+
+            try {
+                CommitCoordinator.INSTANCE.commit( newXid(), Arrays.asList( committing, failing ) );
+                fail( "Expected the commit to fail" );
+            } catch ( RuntimeException e ) {
+                // The exception of the adapter is rethrown as is
+                assertSame( failing.failure, e );
+            }
+            // The other adapter has been committed, the failure is only reported once all adapters are done
+            assertEquals( 1, committing.committed.get() );
+            assertEquals( 1, failing.committed.get() );
+        }
+    }
+
+
+    @Test(timeout = 10_000)
+    public void testGroupCommit() throws Exception {
+        RuntimeConfig.GROUP_COMMIT_WINDOW.setInteger( WINDOW );
+        final CommitTestAdapter leader = new CommitTestAdapter( "leader", true, false );
+        final CommitTestAdapter member = new CommitTestAdapter( "member", true, false );
+        final CommitTestAdapter late = new CommitTestAdapter( "late", true, false );
+        final long window = TimeUnit.MICROSECONDS.toNanos( WINDOW );
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try {
+            final long start = System.nanoTime();
+            final Future<?> leaderCommit = executor.submit( () -> CommitCoordinator.INSTANCE.commit( newXid(), List.of( leader ) ) );
+            // Join the group of the leader while its window is open
+            TimeUnit.NANOSECONDS.sleep( window / 2 );
+            final Future<?> memberCommit = executor.submit( () -> CommitCoordinator.INSTANCE.commit( newXid(), List.of( member ) ) );
+            leaderCommit.get();
+            memberCommit.get();
+
+            // Both commits are dispatched once the window of the leader has closed
+            assertTrue( leader.commitTime.get() - start >= window );
+            assertTrue( Math.abs( member.commitTime.get() - leader.commitTime.get() ) < window / 4 );
+
+            // A transaction which commits after the window has closed starts a new group and is not left waiting
+            final long lateStart = System.nanoTime();
+            executor.submit( () -> CommitCoordinator.INSTANCE.commit( newXid(), List.of( late ) ) ).get();
+            assertEquals( 1, late.committed.get() );
+            assertTrue( late.commitTime.get() - lateStart >= window );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @AdapterProperties(
+            name = "CommitTest",
+            description = "Records the phases of the commits.",
+            usedModes = DeployMode.EMBEDDED)
+    private static class CommitTestAdapter extends Adapter {
+
+        private static final AtomicInteger ids = new AtomicInteger( -1 );
+
+        private final boolean ready;
+        private final RuntimeException failure;
+
+        private final AtomicInteger prepared = new AtomicInteger();
+        private final AtomicInteger committed = new AtomicInteger();
+        private final AtomicLong commitTime = new AtomicLong();
+
+
+        CommitTestAdapter( String name, boolean ready, boolean fail ) {
+            super( ids.getAndDecrement(), "commitTest_" + name, Map.of( "mode", "embedded" ) );
+            this.ready = ready;
+            this.failure = fail ? new RuntimeException( "Commit of " + name + " failed" ) : null;
+        }
+
+
+        @Override
+        public boolean prepare( PolyXid xid ) {
+            prepared.incrementAndGet();
+            return ready;
+        }
+
+
+        @Override
+        public void commit( PolyXid xid ) {
+            committed.incrementAndGet();
+            commitTime.set( System.nanoTime() );
+            if ( failure != null ) {
+                throw failure;
+            }
+        }
+
+
+        @Override
+        public void rollback( PolyXid xid ) {
+        }
+
+
+        @Override
+        public void createNewSchema( SchemaPlus rootSchema, String name ) {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public Table createTableSchema( CatalogTable combinedTable, List<CatalogColumnPlacement> columnPlacementsOnStore, CatalogPartitionPlacement partitionPlacement ) {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public Schema getCurrentSchema() {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void truncate( Context context, CatalogTable table ) {
+            throw new UnsupportedOperationException();
+        }
+
+
+        @Override
+        public void shutdown() {
+        }
+
+
+        @Override
+        protected void reloadSettings( List<String> updatedSettings ) {
+        }
+
+    }
+
+}
@@ -68,6 +68,7 @@ public void insert( List<T> values ) {
 
     @Override
     public void insert( T val ) {
+        addToSketches( val );
         if ( uniqueValues.size() < RuntimeConfig.STATISTIC_BUFFER.getInteger() ) {
             if ( !uniqueValues.contains( val ) ) {
                 if ( !uniqueValues.isEmpty() ) {
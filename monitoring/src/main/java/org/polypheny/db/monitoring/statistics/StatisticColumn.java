@@ -24,7 +24,10 @@
 import lombok.Getter;
 import lombok.Setter;
 import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.schema.ColumnStatistic;
 import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.EquiDepthHistogram;
+import org.polypheny.db.util.HyperLogLog;
 
 
 /**
@@ -77,6 +80,22 @@
     @Setter
     protected Integer count;
 
+    @Getter
+    @Setter
+    protected HyperLogLog distinctSketch = new HyperLogLog();
+
+    /**
+     * Factor by which the number of distinct values in the sketch is extrapolated, if the sketch has been built from a
+     * sample of the table.
+     */
+    @Getter
+    @Setter
+    protected double distinctScale = 1;
+
+    @Getter
+    @Setter
+    protected EquiDepthHistogram histogram;
+
 
     public StatisticColumn( long schemaId, long tableId, long columnId, PolyType type, StatisticType columnType ) {
         this.schemaId = schemaId;
@@ -107,6 +126,33 @@ public String getQualifiedTableName() {
 
     public abstract void insert( T val );
 
+    /**
+     * Adds an inserted value to the count, the distinct value sketch and the histogram of the column.
+     */
+    protected void addToSketches( T val ) {
+        if ( val == null ) {
+            return;
+        }
+        if ( count != null ) {
+            count++;
+        }
+        distinctSketch.add( val );
+        if ( histogram != null && val instanceof Number ) {
+            histogram.add( ((Number) val).doubleValue() );
+        }
+    }
+
+
+    /**
+     * Returns the statistics used by the optimizer or {@code null} if no values have been added to the sketch yet.
+     */
+    public ColumnStatistic getColumnStatistic() {
+        if ( distinctSketch.isEmpty() ) {
+            return null;
+        }
+        return new ColumnStatistic( distinctSketch.estimate() * distinctScale, histogram );
+    }
+
     public abstract void insert( List<T> values );
 
     public abstract String toString();
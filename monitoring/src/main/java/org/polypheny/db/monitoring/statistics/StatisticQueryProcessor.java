@@ -75,7 +75,17 @@ public StatisticQueryProcessor( TransactionManager transactionManager, Authentic
      * @return result of the query
      */
     public StatisticQueryResult selectOneColumnStat( AlgNode node, Transaction transaction, Statement statement, QueryResult queryResult ) {
-        StatisticResult res = this.executeColStat( node, transaction, statement, queryResult );
+        return selectOneColumnStat( node, transaction, statement, queryResult, getPageSize() );
+    }
+
+
+    /**
+     * Handles the request for one columns stats, returning at most the given number of rows
+     *
+     * @return result of the query
+     */
+    public StatisticQueryResult selectOneColumnStat( AlgNode node, Transaction transaction, Statement statement, QueryResult queryResult, int maxRows ) {
+        StatisticResult res = this.executeColStat( node, transaction, statement, queryResult, maxRows );
         if ( res.getColumns() != null && res.getColumns().length == 1 ) {
             return res.getColumns()[0];
         }
@@ -83,6 +93,16 @@ public StatisticQueryResult selectOneColumnStat( AlgNode node, Transaction trans
     }
 
 
+    /**
+     * Handles the request for the stats of multiple columns of a table, returning at most the given number of rows
+     *
+     * @return result of the query with the values of each column in the order of the row type of the node
+     */
+    public StatisticResult selectTableStat( AlgNode node, Transaction transaction, Statement statement, QueryResult queryResult, int maxRows ) {
+        return this.executeColStat( node, transaction, statement, queryResult, maxRows );
+    }
+
+
     /**
      * Method to get all schemas, tables, and their columns in a database
      */
@@ -190,11 +210,11 @@ public void commitTransaction( Transaction transaction, Statement statement ) {
     }
 
 
-    private StatisticResult executeColStat( AlgNode node, Transaction transaction, Statement statement, QueryResult queryResult ) {
+    private StatisticResult executeColStat( AlgNode node, Transaction transaction, Statement statement, QueryResult queryResult, int maxRows ) {
         StatisticResult result = new StatisticResult();
 
         try {
-            result = executeColStat( statement, node, queryResult );
+            result = executeColStat( statement, node, queryResult, maxRows );
         } catch ( QueryExecutionException e ) {
             log.error( "Caught exception while executing a query from the console", e );
         }
@@ -215,13 +235,13 @@ private Transaction getTransaction() {
     // -----------------------------------------------------------------------
 
 
-    private StatisticResult executeColStat( Statement statement, AlgNode node, QueryResult queryResult ) throws QueryExecutionException {
+    private StatisticResult executeColStat( Statement statement, AlgNode node, QueryResult queryResult, int maxRows ) throws QueryExecutionException {
         PolyImplementation result;
         List<List<Object>> rows;
 
         try {
             result = statement.getQueryProcessor().prepareQuery( AlgRoot.of( node, Kind.SELECT ), node.getRowType(), false );
-            rows = result.getRows( statement, getPageSize() );
+            rows = result.getRows( statement, maxRows );
         } catch ( Throwable t ) {
             throw new QueryExecutionException( t );
         }
@@ -109,6 +109,10 @@ private void updateQueryStatistics( QueryDataPointImpl dataPoint, StatisticsMana
     }
 
 
+    /**
+     * Only the changes of committed transactions are applied to the statistics, so rolled back changes never have to be
+     * removed from them.
+     */
     private void updateDmlStatistics( DmlDataPoint dataPoint, StatisticsManager statisticsManager ) {
         if ( dataPoint.getChangedValues() != null ) {
             Set<Long> values = new HashSet<>( dataPoint.getAvailableColumnsWithTable().values() );
@@ -119,7 +123,7 @@ private void updateDmlStatistics( DmlDataPoint dataPoint, StatisticsManager stat
                 long tableId = values.stream().findFirst().get();
                 statisticsManager.setTableCalls( tableId, dataPoint.getMonitoringType() );
 
-                if ( catalog.checkIfExistsEntity( tableId ) ) {
+                if ( catalog.checkIfExistsEntity( tableId ) && dataPoint.isCommitted() ) {
                     if ( dataPoint.getMonitoringType().equals( "INSERT" ) ) {
                         int added = dataPoint.getRowCount();
                         statisticsManager.tablesToUpdate(
@@ -131,8 +135,10 @@ private void updateDmlStatistics( DmlDataPoint dataPoint, StatisticsManager stat
                     } else if ( dataPoint.getMonitoringType().equals( "DELETE" ) ) {
                         int deleted = dataPoint.getRowCount();
                         statisticsManager.updateRowCountPerTable( tableId, deleted, dataPoint.getMonitoringType() );
-                        // After a delete, it is not clear what exactly was deleted, so the statistics of the table are updated
-                        statisticsManager.tablesToUpdate( tableId );
+                        // After a delete, it is not clear what exactly was deleted, so the statistics of the table are updated once enough rows have been changed
+                        statisticsManager.addModifiedRows( tableId, deleted );
+                    } else if ( dataPoint.getMonitoringType().equals( "UPDATE" ) ) {
+                        statisticsManager.addModifiedRows( tableId, dataPoint.getRowCount() );
                     }
                 }
             } else {
@@ -27,14 +27,25 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import lombok.Getter;
@@ -44,8 +55,8 @@
 import org.polypheny.db.algebra.AlgCollations;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.AggregateCall;
+import org.polypheny.db.algebra.core.Sample;
 import org.polypheny.db.algebra.core.Scan;
-import org.polypheny.db.algebra.fun.AggFunction;
 import org.polypheny.db.algebra.logical.relational.LogicalAggregate;
 import org.polypheny.db.algebra.logical.relational.LogicalProject;
 import org.polypheny.db.algebra.logical.relational.LogicalScan;
@@ -54,10 +65,12 @@
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.Catalog.EntityType;
+import org.polypheny.db.catalog.Catalog.NamespaceType;
 import org.polypheny.db.catalog.entity.CatalogColumn;
 import org.polypheny.db.catalog.entity.CatalogSchema;
 import org.polypheny.db.catalog.entity.CatalogTable;
 import org.polypheny.db.catalog.exceptions.GenericCatalogException;
+import org.polypheny.db.catalog.exceptions.UnknownColumnException;
 import org.polypheny.db.catalog.exceptions.UnknownDatabaseException;
 import org.polypheny.db.catalog.exceptions.UnknownSchemaException;
 import org.polypheny.db.catalog.exceptions.UnknownUserException;
@@ -72,17 +85,22 @@
 import org.polypheny.db.information.InformationTable;
 import org.polypheny.db.languages.OperatorRegistry;
 import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptSamplingParameters;
 import org.polypheny.db.plan.AlgOptTable;
 import org.polypheny.db.prepare.PolyphenyDbCatalogReader;
 import org.polypheny.db.prepare.Prepare.CatalogReader;
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.schema.ColumnStatistic;
 import org.polypheny.db.tools.AlgBuilder;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.PolyTypeFamily;
 import org.polypheny.db.util.DateTimeStringUtils;
+import org.polypheny.db.util.EquiDepthHistogram;
+import org.polypheny.db.util.HyperLogLog;
 import org.polypheny.db.util.ImmutableBitSet;
 import org.polypheny.db.util.Pair;
 import org.polypheny.db.util.background.BackgroundTask.TaskPriority;
@@ -97,10 +115,20 @@
 @Slf4j
 public class StatisticsManagerImpl<T extends Comparable<T>> extends StatisticsManager {
 
+    /**
+     * Minimal number of modified rows which trigger the reevaluation of the statistics of a table.
+     */
+    private static final int MIN_MODIFIED_ROWS = 50;
+
     private static StatisticQueryProcessor statisticQueryInterface;
 
     private final ExecutorService threadPool = Executors.newSingleThreadExecutor();
 
+    /**
+     * Executes the reevaluation of the statistics of single tables, see {@link RuntimeConfig#STATISTIC_REEVALUATION_THREADS}.
+     */
+    private final ThreadPoolExecutor tablePool;
+
     protected final PropertyChangeSupport listeners = new PropertyChangeSupport( this );
 
     private int buffer = RuntimeConfig.STATISTIC_BUFFER.getInteger();
@@ -119,8 +147,10 @@
 
     private final Queue<Long> tablesToUpdate = new ConcurrentLinkedQueue<>();
 
-    private Transaction transaction;
-    private Statement statement;
+    /**
+     * Number of rows per table which have been modified since the statistics of the table have been reevaluated.
+     */
+    private final Map<Long, Long> modifiedRows = new ConcurrentHashMap<>();
 
 
     public StatisticsManagerImpl( StatisticQueryProcessor statisticQueryProcessor ) {
@@ -128,6 +158,10 @@ public StatisticsManagerImpl( StatisticQueryProcessor statisticQueryProcessor )
         this.statisticSchemaMap = new ConcurrentHashMap<>();
         this.tableStatistic = new ConcurrentHashMap<>();
 
+        int threads = Math.max( 1, RuntimeConfig.STATISTIC_REEVALUATION_THREADS.getInteger() );
+        this.tablePool = new ThreadPoolExecutor( threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>() );
+        this.tablePool.allowCoreThreadTimeOut( true );
+
         this.listeners.addPropertyChangeListener( this );
     }
 
@@ -138,6 +172,7 @@ public void initializeStatisticSettings() {
         displayInformation();
         registerTaskTracking();
         registerIsFullTracking();
+        registerReevaluationThreads();
 
         if ( RuntimeConfig.STATISTICS_ON_STARTUP.getBoolean() ) {
             this.asyncReevaluateAllStatistics();
@@ -239,36 +274,71 @@ public void restart( Config c ) {
     }
 
 
+    /**
+     * Registers the adjustment of the number of tables which are reevaluated concurrently on config change.
+     */
+    private void registerReevaluationThreads() {
+        ConfigListener listener = new ConfigListener() {
+            @Override
+            public void onConfigChange( Config c ) {
+                setReevaluationThreads( c.getInt() );
+            }
+
+
+            @Override
+            public void restart( Config c ) {
+                setReevaluationThreads( c.getInt() );
+            }
+        };
+        RuntimeConfig.STATISTIC_REEVALUATION_THREADS.addObserver( listener );
+    }
+
+
+    private void setReevaluationThreads( int threads ) {
+        threads = Math.max( 1, threads );
+        if ( threads > tablePool.getMaximumPoolSize() ) {
+            tablePool.setMaximumPoolSize( threads );
+            tablePool.setCorePoolSize( threads );
+        } else {
+            tablePool.setCorePoolSize( threads );
+            tablePool.setMaximumPoolSize( threads );
+        }
+    }
+
+
     private void resetAllIsFull() {
-        this.statisticSchemaMap.values().forEach( s -> s.values().forEach( t -> t.values().forEach( c -> {
-            assignUnique( c, this.prepareNode( new QueryResult( c.getSchemaId(), c.getTableId(), c.getColumnId(), c.getType() ), NodeType.UNIQUE_VALUE ) );
-        } ) ) );
+        Transaction transaction = getTransaction();
+        Statement statement = transaction.createStatement();
+        statement.getQueryProcessor().lock( statement );
+        try {
+            this.statisticSchemaMap.values().forEach( s -> s.values().forEach( t -> t.values().forEach( c -> {
+                assignUnique( c, this.prepareNode( new QueryResult( c.getSchemaId(), c.getTableId(), c.getColumnId(), c.getType() ), NodeType.UNIQUE_VALUE, transaction, statement ) );
+            } ) ) );
+        } finally {
+            statisticQueryInterface.commitTransaction( transaction, statement );
+        }
     }
 
 
     /**
-     * Reset all statistics and reevaluate them.
+     * Reset all statistics and reevaluate them. The tables are reevaluated concurrently, at most
+     * {@link RuntimeConfig#STATISTIC_REEVALUATION_THREADS} at a time.
      */
     private void reevaluateAllStatistics() {
         if ( statisticQueryInterface == null ) {
             return;
         }
         log.debug( "Resetting StatisticManager." );
+        modifiedRows.clear();
         Map<Long, Map<Long, Map<Long, StatisticColumn<T>>>> statisticSchemaMapCopy = new ConcurrentHashMap<>();
-        transaction = getTransaction();
-        statement = transaction.createStatement();
-        statement.getQueryProcessor().lock( statement );
 
-        for ( QueryResult column : statisticQueryInterface.getAllColumns() ) {
-            StatisticColumn<T> col = reevaluateColumn( column );
-            if ( col != null ) {
-                put( statisticSchemaMapCopy, column, col );
-            }
+        List<Future<?>> tasks = new ArrayList<>();
+        for ( CatalogTable table : statisticQueryInterface.getAllTable() ) {
+            tasks.add( tablePool.submit( () -> reevaluateTable( table, statisticSchemaMapCopy ) ) );
         }
-        reevaluateRowCount();
+        awaitTasks( tasks );
         replaceStatistics( statisticSchemaMapCopy );
         log.debug( "Finished resetting StatisticManager." );
-        statisticQueryInterface.commitTransaction( transaction, statement );
     }
 
 
@@ -281,10 +351,34 @@ private void reevaluateRowCount() {
         }
         log.debug( "Reevaluate Row Count." );
 
-        statisticQueryInterface.getAllTable().forEach( table -> {
-            int rowCount = getNumberColumnCount( this.prepareNode( new QueryResult( table.namespaceId, table.id, null, null ), NodeType.ROW_COUNT_TABLE ) );
-            updateRowCountPerTable( table.id, rowCount, "SET-ROW-COUNT" );
-        } );
+        Transaction transaction = getTransaction();
+        Statement statement = transaction.createStatement();
+        statement.getQueryProcessor().lock( statement );
+        try {
+            statisticQueryInterface.getAllTable().forEach( table -> {
+                int rowCount = getNumberColumnCount( this.prepareNode( new QueryResult( table.namespaceId, table.id, null, null ), NodeType.ROW_COUNT_TABLE, transaction, statement ) );
+                updateRowCountPerTable( table.id, rowCount, "SET-ROW-COUNT" );
+            } );
+        } finally {
+            statisticQueryInterface.commitTransaction( transaction, statement );
+        }
+    }
+
+
+    /**
+     * Waits until the reevaluation of all given tables has finished.
+     */
+    private void awaitTasks( List<Future<?>> tasks ) {
+        for ( Future<?> task : tasks ) {
+            try {
+                task.get();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch ( ExecutionException e ) {
+                log.error( "Error while reevaluating the statistics of a table.", e.getCause() );
+            }
+        }
     }
 
 
@@ -295,26 +389,46 @@ private void reevaluateRowCount() {
      */
     @Override
     public void reevaluateTable( long tableId ) {
-        transaction = getTransaction();
-        statement = transaction.createStatement();
-        statement.getQueryProcessor().lock( statement );
-
         if ( statisticQueryInterface == null ) {
             return;
         }
+        modifiedRows.remove( tableId );
         if ( Catalog.getInstance().checkIfExistsEntity( tableId ) ) {
-            deleteTable( Catalog.getInstance().getTable( tableId ).namespaceId, tableId );
+            CatalogTable table = Catalog.getInstance().getTable( tableId );
+            // The statistics are built separately and then replaced at once, so that they are never missing in between
+            Map<Long, Map<Long, Map<Long, StatisticColumn<T>>>> map = new ConcurrentHashMap<>();
+            reevaluateTable( table, map );
+            replaceTable( table.namespaceId, tableId, map );
+        }
+    }
 
-            List<QueryResult> res = statisticQueryInterface.getAllColumns( tableId );
 
-            for ( QueryResult column : res ) {
-                StatisticColumn<T> col = reevaluateColumn( column );
-                if ( col != null ) {
-                    put( column, col );
+    /**
+     * Reevaluates the row count and the statistics of all columns of a table within its own transaction.
+     * The statistics of all columns are built from a single scan of the table (see {@link #reevaluateColumns}).
+     *
+     * @param table the table to reevaluate
+     * @param map the map to which the statistics of the columns are added
+     */
+    private void reevaluateTable( CatalogTable table, Map<Long, Map<Long, Map<Long, StatisticColumn<T>>>> map ) {
+        Transaction transaction = getTransaction();
+        Statement statement = transaction.createStatement();
+        statement.getQueryProcessor().lock( statement );
+        try {
+            if ( !Catalog.getInstance().checkIfExistsEntity( table.id ) ) {
+                return;
+            }
+            int rowCount = getNumberColumnCount( this.prepareNode( new QueryResult( table.namespaceId, table.id, null, null ), NodeType.ROW_COUNT_TABLE, transaction, statement ) );
+            if ( table.getNamespaceType() == NamespaceType.RELATIONAL ) {
+                List<QueryResult> columns = statisticQueryInterface.getAllColumns( table.id );
+                for ( Pair<QueryResult, StatisticColumn<T>> column : reevaluateColumns( columns, rowCount, transaction, statement ) ) {
+                    put( map, column.left, column.right );
                 }
             }
+            updateRowCountPerTable( table.id, rowCount, "SET-ROW-COUNT" );
+        } finally {
+            statisticQueryInterface.commitTransaction( transaction, statement );
         }
-        statisticQueryInterface.commitTransaction( transaction, statement );
     }
 
 
@@ -325,6 +439,19 @@ private void deleteTable( long schemaId, long tableId ) {
     }
 
 
+    /**
+     * Replace the tracked statistics of a table with new statistics.
+     */
+    private synchronized void replaceTable( long schemaId, long tableId, Map<Long, Map<Long, Map<Long, StatisticColumn<T>>>> map ) {
+        Map<Long, StatisticColumn<T>> columns = map.containsKey( schemaId ) ? map.get( schemaId ).get( tableId ) : null;
+        if ( columns == null ) {
+            deleteTable( schemaId, tableId );
+        } else {
+            this.statisticSchemaMap.computeIfAbsent( schemaId, k -> new ConcurrentHashMap<>() ).put( tableId, columns );
+        }
+    }
+
+
     /**
      * Replace the tracked statistics with new statistics.
      */
@@ -334,92 +461,231 @@ private synchronized void replaceStatistics( Map<Long, Map<Long, Map<Long, Stati
 
 
     /**
-     * Method to sort a column into the different kinds of column types and hands it to the specific reevaluation
+     * Builds the statistics of the numerical, alphabetical and temporal columns of a table with a single query. If the
+     * table has more than {@link RuntimeConfig#STATISTIC_SKETCH_ROWS} rows, only a random sample of the rows is processed
+     * and the counts are extrapolated. The unique values of a sampled column are therefore only those found in the
+     * sample. The min and max values of sampled columns are determined exactly by an additional aggregation query.
+     *
+     * @param columns the columns of the table
+     * @param rowCount the number of rows of the table
+     * @return the columns with their new statistics
      */
-    private StatisticColumn<T> reevaluateColumn( QueryResult column ) {
-        if ( !Catalog.getInstance().checkIfExistsEntity( column.getTableId() )
-                && !Catalog.getInstance().checkIfExistsColumn( column.getTableId(), column.getColumn() ) ) {
-            return null;
+    private List<Pair<QueryResult, StatisticColumn<T>>> reevaluateColumns( List<QueryResult> columns, int rowCount, Transaction transaction, Statement statement ) {
+        List<Pair<QueryResult, StatisticColumn<T>>> statisticColumns = new ArrayList<>();
+        for ( QueryResult column : columns ) {
+            StatisticColumn<T> statisticColumn = createNewStatisticColumns( column.getType(), column );
+            if ( statisticColumn != null && column.getColumn() != null ) {
+                statisticColumns.add( Pair.of( column, statisticColumn ) );
+            }
+        }
+        if ( statisticColumns.isEmpty() ) {
+            return statisticColumns;
         }
 
-        if ( column.getType().getFamily() == PolyTypeFamily.NUMERIC ) {
-            return this.reevaluateNumericalColumn( column );
-        } else if ( column.getType().getFamily() == PolyTypeFamily.CHARACTER ) {
-            return this.reevaluateAlphabeticalColumn( column );
-        } else if ( PolyType.DATETIME_TYPES.contains( column.getType() ) ) {
-            return this.reevaluateTemporalColumn( column );
+        int sampleRows = Math.max( 1, RuntimeConfig.STATISTIC_SKETCH_ROWS.getInteger() );
+        float rate = rowCount > sampleRows ? (float) sampleRows / rowCount : 1;
+        AlgNode queryNode = getSampleNode( Pair.left( statisticColumns ), rate, statement );
+        QueryResult table = statisticColumns.get( 0 ).left;
+        // The size of the sample varies, the rows are therefore not limited, which would prefer the first rows of the table
+        StatisticResult result = statisticQueryInterface.selectTableStat(
+                queryNode,
+                transaction,
+                statement,
+                new QueryResult( table.getSchemaId(), table.getTableId(), null, null ),
+                -1 );
+
+        int[] selected = null;
+        if ( result.getColumns() != null && result.getColumns().length > 0 && result.getColumns()[0].getData().length > sampleRows ) {
+            // Reduce a larger sample to a random subset of the configured size
+            int sampled = result.getColumns()[0].getData().length;
+            selected = randomSubset( sampled, sampleRows );
+            rate = rate * sampleRows / sampled;
         }
-        return null;
+        for ( int i = 0; i < statisticColumns.size(); i++ ) {
+            Comparable<?>[] values = result.getColumns() != null && i < result.getColumns().length
+                    ? result.getColumns()[i].getData()
+                    : new Comparable<?>[0];
+            if ( selected != null ) {
+                Comparable<?>[] subset = new Comparable<?>[selected.length];
+                for ( int j = 0; j < selected.length; j++ ) {
+                    subset[j] = values[selected[j]];
+                }
+                values = subset;
+            }
+            assignSample( statisticColumns.get( i ).right, values, rate );
+        }
+        if ( rate < 1 ) {
+            assignMinMax( statisticColumns, transaction, statement );
+        }
+        return statisticColumns;
     }
 
 
     /**
-     * Reevaluates a numerical column, with the configured statistics.
+     * Assigns the exact min and max values of the numerical and temporal columns of a table, which are computed by a
+     * single aggregation query.
      */
-    private StatisticColumn<T> reevaluateNumericalColumn( QueryResult column ) {
-        StatisticQueryResult min = this.prepareNode( column, NodeType.MIN );
-        StatisticQueryResult max = this.prepareNode( column, NodeType.MAX );
-        Integer count = getNumberColumnCount( this.prepareNode( column, NodeType.ROW_COUNT_COLUMN ) );
-        NumericalStatisticColumn<T> statisticColumn = new NumericalStatisticColumn<>( column );
-        if ( min != null ) {
-            //noinspection unchecked
-            statisticColumn.setMin( (T) min.getData()[0] );
+    private void assignMinMax( List<Pair<QueryResult, StatisticColumn<T>>> statisticColumns, Transaction transaction, Statement statement ) {
+        List<Pair<QueryResult, StatisticColumn<T>>> minMaxColumns = statisticColumns.stream()
+                .filter( c -> c.right instanceof NumericalStatisticColumn || c.right instanceof TemporalStatisticColumn )
+                .collect( Collectors.toList() );
+        if ( minMaxColumns.isEmpty() ) {
+            return;
         }
-        if ( max != null ) {
-            //noinspection unchecked
-            statisticColumn.setMax( (T) max.getData()[0] );
+        QueryResult table = minMaxColumns.get( 0 ).left;
+        StatisticResult result = statisticQueryInterface.selectTableStat(
+                getMinMaxNode( Pair.left( minMaxColumns ), statement ),
+                transaction,
+                statement,
+                new QueryResult( table.getSchemaId(), table.getTableId(), null, null ),
+                1 );
+        if ( result.getColumns() == null || result.getColumns().length != 2 * minMaxColumns.size() ) {
+            return;
         }
+        for ( int i = 0; i < minMaxColumns.size(); i++ ) {
+            Comparable<?>[] min = result.getColumns()[2 * i].getData();
+            Comparable<?>[] max = result.getColumns()[2 * i + 1].getData();
+            if ( min.length == 0 || max.length == 0 ) {
+                continue;
+            }
+            StatisticColumn<T> column = minMaxColumns.get( i ).right;
+            if ( column instanceof NumericalStatisticColumn ) {
+                ((NumericalStatisticColumn<T>) column).setMin( (T) min[0] );
+                ((NumericalStatisticColumn<T>) column).setMax( (T) max[0] );
+            } else {
+                ((TemporalStatisticColumn<T>) column).setMin( toTemporal( min[0] ) );
+                ((TemporalStatisticColumn<T>) column).setMax( toTemporal( max[0] ) );
+            }
+        }
+    }
 
-        StatisticQueryResult unique = this.prepareNode( column, NodeType.UNIQUE_VALUE );
-        assignUnique( statisticColumn, unique );
-
-        statisticColumn.setCount( count );
 
-        return statisticColumn;
+    /**
+     * Selects a uniformly distributed random subset of the given size from the indexes {@code 0} to {@code n - 1}.
+     *
+     * @return the selected indexes in ascending order
+     */
+    private static int[] randomSubset( int n, int size ) {
+        int[] indexes = new int[n];
+        for ( int i = 0; i < n; i++ ) {
+            indexes[i] = i;
+        }
+        Random random = ThreadLocalRandom.current();
+        for ( int i = 0; i < size; i++ ) {
+            int j = i + random.nextInt( n - i );
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        int[] subset = Arrays.copyOf( indexes, size );
+        Arrays.sort( subset );
+        return subset;
     }
 
 
     /**
-     * Reevaluates a temporal column.
+     * Assigns the min and max values, the unique values, the count and the sketches of a column from the values read
+     * by {@link #reevaluateColumns}.
+     *
+     * @param column the column to which the statistics are assigned
+     * @param values the values of the column in the sample
+     * @param rate the fraction of the rows of the table which is contained in the sample
      */
-    private StatisticColumn<T> reevaluateTemporalColumn( QueryResult column ) {
-        StatisticQueryResult min = this.prepareNode( column, NodeType.MIN );
-        StatisticQueryResult max = this.prepareNode( column, NodeType.MAX );
-        Integer count = getNumberColumnCount( this.prepareNode( column, NodeType.ROW_COUNT_COLUMN ) );
-
-        TemporalStatisticColumn<T> statisticColumn = new TemporalStatisticColumn<>( column );
-        if ( min != null ) {
-            if ( max.getData()[0] instanceof Integer ) {
-                statisticColumn.setMin( (T) new Date( (Integer) min.getData()[0] ) );
-            } else if ( max.getData()[0] instanceof Long ) {
-                statisticColumn.setMin( (T) new Timestamp( (Long) min.getData()[0] ) );
-            } else {
-                statisticColumn.setMin( (T) min.getData()[0] );
+    private void assignSample( StatisticColumn<T> column, Comparable<?>[] values, float rate ) {
+        Comparable<?> min = null;
+        Comparable<?> max = null;
+        int count = 0;
+        Set<Comparable<?>> unique = new LinkedHashSet<>();
+        Map<Comparable<?>, Integer> frequencies = rate < 1 ? new HashMap<>() : null;
+        HyperLogLog sketch = new HyperLogLog();
+        double[] numbers = new double[values.length];
+        int numberCount = 0;
+        for ( Comparable<?> value : values ) {
+            if ( value == null ) {
+                continue;
+            }
+            count++;
+            if ( min == null || compare( value, min ) < 0 ) {
+                min = value;
+            }
+            if ( max == null || compare( value, max ) > 0 ) {
+                max = value;
+            }
+            if ( unique.size() <= buffer ) {
+                unique.add( value );
+            }
+            sketch.add( value );
+            if ( frequencies != null ) {
+                frequencies.merge( value, 1, Integer::sum );
+            }
+            if ( value instanceof Number ) {
+                numbers[numberCount++] = ((Number) value).doubleValue();
             }
         }
 
-        if ( max != null ) {
-            if ( max.getData()[0] instanceof Integer ) {
-                statisticColumn.setMax( (T) new Date( (Integer) max.getData()[0] ) );
-            } else if ( max.getData()[0] instanceof Long ) {
-                statisticColumn.setMax( (T) new Timestamp( (Long) max.getData()[0] ) );
-            } else {
-                statisticColumn.setMax( (T) max.getData()[0] );
+        if ( column instanceof NumericalStatisticColumn ) {
+            ((NumericalStatisticColumn<T>) column).setMin( (T) min );
+            ((NumericalStatisticColumn<T>) column).setMax( (T) max );
+        } else if ( column instanceof TemporalStatisticColumn ) {
+            ((TemporalStatisticColumn<T>) column).setMin( toTemporal( min ) );
+            ((TemporalStatisticColumn<T>) column).setMax( toTemporal( max ) );
+        }
+
+        if ( unique.size() > buffer ) {
+            column.setFull( true );
+        } else {
+            List<T> uniqueValues = new ArrayList<>();
+            for ( Comparable<?> value : unique ) {
+                if ( column instanceof TemporalStatisticColumn && value instanceof Number ) {
+                    uniqueValues.add( (T) DateTimeStringUtils.longToAdjustedString( (Number) value, column.getType() ) );
+                } else {
+                    uniqueValues.add( (T) value );
+                }
             }
+            column.setUniqueValues( uniqueValues );
         }
 
-        StatisticQueryResult unique = this.prepareNode( column, NodeType.UNIQUE_VALUE );
-        if ( unique != null ) {
-            for ( int idx = 0; idx < unique.getData().length; idx++ ) {
-                unique.getData()[idx] = DateTimeStringUtils.longToAdjustedString( (Number) unique.getData()[idx], column.getType() );
+        column.setCount( Math.round( count / rate ) );
 
+        if ( RuntimeConfig.STATISTIC_COLUMN_SKETCHES.getBoolean() ) {
+            column.setDistinctSketch( sketch );
+            if ( frequencies != null && !frequencies.isEmpty() ) {
+                column.setDistinctScale( estimateDistinct( frequencies, rate ) / frequencies.size() );
+            }
+            if ( column.getType().getFamily() != PolyTypeFamily.CHARACTER ) {
+                column.setHistogram( EquiDepthHistogram.create( Arrays.copyOf( numbers, numberCount ), RuntimeConfig.STATISTIC_HISTOGRAM_BUCKETS.getInteger() ) );
             }
         }
+    }
 
-        assignUnique( statisticColumn, unique );
-        statisticColumn.setCount( count );
 
-        return statisticColumn;
+    /**
+     * Estimates the number of distinct values of a column from the frequencies of the values in a sample using the
+     * guaranteed-error estimator (GEE): values found once in the sample stand for {@code sqrt(1 / rate)} values of
+     * the table, values found multiple times are assumed to be all values of their kind.
+     */
+    static double estimateDistinct( Map<Comparable<?>, Integer> frequencies, float rate ) {
+        long singletons = frequencies.values().stream().filter( frequency -> frequency == 1 ).count();
+        return Math.sqrt( 1 / rate ) * singletons + (frequencies.size() - singletons);
+    }
+
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compare( Comparable a, Comparable b ) {
+        return a.compareTo( b );
+    }
+
+
+    /**
+     * Converts the numerical representation of a date or timestamp.
+     */
+    private T toTemporal( Comparable<?> value ) {
+        if ( value instanceof Integer ) {
+            return (T) new Date( (Integer) value );
+        } else if ( value instanceof Long ) {
+            return (T) new Timestamp( (Long) value );
+        }
+        return (T) value;
     }
 
 
@@ -440,21 +706,6 @@ private void assignUnique( StatisticColumn<T> column, StatisticQueryResult uniqu
     }
 
 
-    /**
-     * Reevaluates an alphabetical column, with the configured statistics
-     */
-    private StatisticColumn<T> reevaluateAlphabeticalColumn( QueryResult column ) {
-        StatisticQueryResult unique = this.prepareNode( column, NodeType.UNIQUE_VALUE );
-        Integer count = getNumberColumnCount( this.prepareNode( column, NodeType.ROW_COUNT_COLUMN ) );
-
-        AlphabeticStatisticColumn<T> statisticColumn = new AlphabeticStatisticColumn<>( column );
-        assignUnique( statisticColumn, unique );
-        statisticColumn.setCount( count );
-
-        return statisticColumn;
-    }
-
-
     private Integer getNumberColumnCount( StatisticQueryResult countColumn ) {
         if ( countColumn != null && countColumn.getData() != null && countColumn.getData().length != 0 ) {
             Object value = countColumn.getData()[0];
@@ -506,26 +757,18 @@ private void put(
             long tableId,
             long columnId,
             StatisticColumn<T> statisticColumn ) {
-        if ( !map.containsKey( schemaId ) ) {
-            map.put( schemaId, new HashMap<>() );
-        }
-        Map<Long, Map<Long, StatisticColumn<T>>> mapMap = map.get( schemaId );
-        if ( !mapMap.containsKey( tableId ) ) {
-            mapMap.put( tableId, new HashMap<>() );
-        }
-        mapMap.get( tableId ).put( columnId, statisticColumn );
+        map.computeIfAbsent( schemaId, k -> new ConcurrentHashMap<>() )
+                .computeIfAbsent( tableId, k -> new ConcurrentHashMap<>() )
+                .put( columnId, statisticColumn );
 
-        if ( !tableStatistic.containsKey( tableId ) ) {
-            tableStatistic.put( tableId, new StatisticTable<>( tableId ) );
-        }
+        tableStatistic.computeIfAbsent( tableId, k -> new StatisticTable<>( tableId ) );
     }
 
 
-    private StatisticQueryResult prepareNode( QueryResult queryResult, NodeType nodeType ) {
+    private StatisticQueryResult prepareNode( QueryResult queryResult, NodeType nodeType, Transaction transaction, Statement statement ) {
         StatisticQueryResult statisticQueryColumn = null;
         if ( Catalog.getInstance().checkIfExistsEntity( queryResult.getTableId() ) ) {
-            AlgNode queryNode = getQueryNode( queryResult, nodeType );
-            //queryNode = getQueryNode( queryResult, nodeType );
+            AlgNode queryNode = getQueryNode( queryResult, nodeType, statement );
             statisticQueryColumn = statisticQueryInterface.selectOneColumnStat( queryNode, transaction, statement, queryResult );
         }
         return statisticQueryColumn;
@@ -533,7 +776,7 @@ private StatisticQueryResult prepareNode( QueryResult queryResult, NodeType node
 
 
     @Nullable
-    private AlgNode getQueryNode( QueryResult queryResult, NodeType nodeType ) {
+    private AlgNode getQueryNode( QueryResult queryResult, NodeType nodeType, Statement statement ) {
         PolyphenyDbCatalogReader reader = statement.getTransaction().getCatalogReader();
         AlgBuilder relBuilder = AlgBuilder.create( statement );
         final RexBuilder rexBuilder = relBuilder.getRexBuilder();
@@ -542,16 +785,9 @@ private AlgNode getQueryNode( QueryResult queryResult, NodeType nodeType ) {
         AlgNode queryNode;
         LogicalScan tableScan = getLogicalScan( queryResult.getSchema(), queryResult.getTable(), reader, cluster );
         switch ( nodeType ) {
-            case MIN:
-            case MAX:
-                queryNode = getAggregateColumn( queryResult, nodeType, tableScan, rexBuilder, cluster );
-                break;
             case UNIQUE_VALUE:
                 queryNode = getUniqueValues( queryResult, tableScan, rexBuilder );
                 break;
-            case ROW_COUNT_COLUMN:
-                queryNode = getColumnCount( queryResult, tableScan, rexBuilder, cluster );
-                break;
             case ROW_COUNT_TABLE:
                 queryNode = getTableCount( tableScan, cluster );
                 break;
@@ -563,64 +799,96 @@ private AlgNode getQueryNode( QueryResult queryResult, NodeType nodeType ) {
 
 
     /**
-     * Gets a tableScan for a given table.
+     * Builds a node which reads the given columns of a table. If the rate is smaller than one, only a sample of the rows
+     * is returned. Depending on {@link RuntimeConfig#STATISTIC_BLOCK_SAMPLING}, either every row is sampled independently
+     * (Bernoulli sampling) or blocks of consecutive rows are sampled. The sample is drawn after the rows have been read
+     * from the store, it therefore reduces the number of rows transferred and processed, but not the rows read.
+     *
+     * @param columns the columns to read, all of the same table
+     * @param rate the fraction of the rows to read
      */
-    private LogicalScan getLogicalScan( String schema, String table, CatalogReader reader, AlgOptCluster cluster ) {
-        AlgOptTable relOptTable = reader.getTable( Arrays.asList( schema, table ) );
-        return LogicalScan.create( cluster, relOptTable );
+    private AlgNode getSampleNode( List<QueryResult> columns, float rate, Statement statement ) {
+        PolyphenyDbCatalogReader reader = statement.getTransaction().getCatalogReader();
+        AlgBuilder relBuilder = AlgBuilder.create( statement );
+        final RexBuilder rexBuilder = relBuilder.getRexBuilder();
+        final AlgOptCluster cluster = AlgOptCluster.create( statement.getQueryProcessor().getPlanner(), rexBuilder );
+
+        LogicalScan tableScan = getLogicalScan( columns.get( 0 ).getSchema(), columns.get( 0 ).getTable(), reader, cluster );
+        List<String> fieldNames = tableScan.getRowType().getFieldNames();
+        List<RexNode> projects = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for ( QueryResult column : columns ) {
+            int index = fieldNames.indexOf( column.getColumn() );
+            if ( index < 0 ) {
+                throw new RuntimeException( "Column " + column.getColumn() + " is not part of table " + column.getTable() + "." );
+            }
+            projects.add( rexBuilder.makeInputRef( tableScan, index ) );
+            names.add( column.getColumn() );
+        }
+        AlgNode queryNode = LogicalProject.create( tableScan, projects, names );
+        if ( rate < 1 ) {
+            queryNode = new Sample( cluster, queryNode, new AlgOptSamplingParameters( !RuntimeConfig.STATISTIC_BLOCK_SAMPLING.getBoolean(), rate, false, 0 ) );
+        }
+        return queryNode;
     }
 
 
     /**
-     * Queries the database with an aggregate query, to get the min value or max value.
+     * Builds an aggregation which computes the min and the max value of each of the given columns of a table.
+     *
+     * @param columns the columns, all of the same table
      */
-    private AlgNode getAggregateColumn( QueryResult queryResult, NodeType nodeType, Scan tableScan, RexBuilder rexBuilder, AlgOptCluster cluster ) {
-        for ( int i = 0; i < tableScan.getRowType().getFieldNames().size(); i++ ) {
-            if ( queryResult.getColumn() != null && tableScan.getRowType().getFieldNames().get( i ).equals( queryResult.getColumn() ) ) {
-                LogicalProject logicalProject = LogicalProject.create(
-                        tableScan,
-                        Collections.singletonList( rexBuilder.makeInputRef( tableScan, i ) ),
-                        Collections.singletonList( tableScan.getRowType().getFieldNames().get( i ) ) );
-
-                AggFunction operator;
-                if ( nodeType == NodeType.MAX ) {
-                    operator = OperatorRegistry.getAgg( OperatorName.MAX );
-                } else if ( nodeType == NodeType.MIN ) {
-                    operator = OperatorRegistry.getAgg( OperatorName.MIN );
-                } else {
-                    throw new RuntimeException( "Unknown aggregate is used in Statistic Manager." );
-                }
-
-                AlgDataType relDataType = logicalProject.getRowType().getFieldList().get( 0 ).getType();
-                AlgDataType dataType;
-                if ( relDataType.getPolyType() == PolyType.DECIMAL ) {
-                    dataType = cluster.getTypeFactory().createTypeWithNullability(
-                            cluster.getTypeFactory().createPolyType( relDataType.getPolyType(), relDataType.getPrecision(), relDataType.getScale() ),
-                            true );
-                } else {
-                    dataType = cluster.getTypeFactory().createTypeWithNullability(
-                            cluster.getTypeFactory().createPolyType( relDataType.getPolyType() ),
-                            true );
-                }
+    private AlgNode getMinMaxNode( List<QueryResult> columns, Statement statement ) {
+        PolyphenyDbCatalogReader reader = statement.getTransaction().getCatalogReader();
+        AlgBuilder relBuilder = AlgBuilder.create( statement );
+        final RexBuilder rexBuilder = relBuilder.getRexBuilder();
+        final AlgOptCluster cluster = AlgOptCluster.create( statement.getQueryProcessor().getPlanner(), rexBuilder );
 
-                AggregateCall aggregateCall = AggregateCall.create(
-                        operator,
+        LogicalScan tableScan = getLogicalScan( columns.get( 0 ).getSchema(), columns.get( 0 ).getTable(), reader, cluster );
+        List<String> fieldNames = tableScan.getRowType().getFieldNames();
+        List<RexNode> projects = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<AggregateCall> aggregateCalls = new ArrayList<>();
+        for ( QueryResult column : columns ) {
+            int index = fieldNames.indexOf( column.getColumn() );
+            if ( index < 0 ) {
+                throw new RuntimeException( "Column " + column.getColumn() + " is not part of table " + column.getTable() + "." );
+            }
+            projects.add( rexBuilder.makeInputRef( tableScan, index ) );
+            names.add( column.getColumn() );
+
+            AlgDataType type = tableScan.getRowType().getFieldList().get( index ).getType();
+            AlgDataType dataType = cluster.getTypeFactory().createTypeWithNullability(
+                    type.getPolyType() == PolyType.DECIMAL
+                            ? cluster.getTypeFactory().createPolyType( type.getPolyType(), type.getPrecision(), type.getScale() )
+                            : cluster.getTypeFactory().createPolyType( type.getPolyType() ),
+                    true );
+            for ( OperatorName operatorName : Arrays.asList( OperatorName.MIN, OperatorName.MAX ) ) {
+                aggregateCalls.add( AggregateCall.create(
+                        OperatorRegistry.getAgg( operatorName ),
                         false,
                         false,
-                        Collections.singletonList( 0 ),
+                        Collections.singletonList( projects.size() - 1 ),
                         -1,
                         AlgCollations.EMPTY,
                         dataType,
-                        "min-max" );
-
-                return LogicalAggregate.create(
-                        logicalProject,
-                        ImmutableBitSet.of(),
-                        Collections.singletonList( ImmutableBitSet.of() ),
-                        Collections.singletonList( aggregateCall ) );
+                        "min-max" ) );
             }
         }
-        return null;
+        return LogicalAggregate.create(
+                LogicalProject.create( tableScan, projects, names ),
+                ImmutableBitSet.of(),
+                Collections.singletonList( ImmutableBitSet.of() ),
+                aggregateCalls );
+    }
+
+
+    /**
+     * Gets a tableScan for a given table.
+     */
+    private LogicalScan getLogicalScan( String schema, String table, CatalogReader reader, AlgOptCluster cluster ) {
+        AlgOptTable relOptTable = reader.getTable( Arrays.asList( schema, table ) );
+        return LogicalScan.create( cluster, relOptTable );
     }
 
 
@@ -650,30 +918,6 @@ private AlgNode getUniqueValues( QueryResult queryResult, Scan tableScan, RexBui
     }
 
 
-    /**
-     * Gets the amount of entries for a column
-     */
-    private AlgNode getColumnCount( QueryResult queryResult, Scan tableScan, RexBuilder rexBuilder, AlgOptCluster cluster ) {
-        for ( int i = 0; i < tableScan.getRowType().getFieldNames().size(); i++ ) {
-            if ( queryResult.getColumn() != null && tableScan.getRowType().getFieldNames().get( i ).equals( queryResult.getColumn() ) ) {
-                LogicalProject logicalProject = LogicalProject.create(
-                        tableScan,
-                        Collections.singletonList( rexBuilder.makeInputRef( tableScan, i ) ),
-                        Collections.singletonList( tableScan.getRowType().getFieldNames().get( i ) ) );
-
-                AggregateCall aggregateCall = getRowCountAggregateCall( cluster );
-
-                return LogicalAggregate.create(
-                        logicalProject,
-                        ImmutableBitSet.of(),
-                        Collections.singletonList( ImmutableBitSet.of() ),
-                        Collections.singletonList( aggregateCall ) );
-            }
-        }
-        return null;
-    }
-
-
     /**
      * Gets the amount of entries for a table.
      */
@@ -841,16 +1085,19 @@ public void propertyChange( PropertyChangeEvent evt ) {
 
     /**
      * All tables that need to be updated (for example after a demolition in a table)
-     * are reevaluated with this method.
+     * are reevaluated concurrently with this method.
      */
     private void workQueue() {
+        List<Future<?>> tasks = new ArrayList<>();
         while ( !this.tablesToUpdate.isEmpty() ) {
             long tableId = this.tablesToUpdate.poll();
             if ( Catalog.getInstance().checkIfExistsEntity( tableId ) ) {
-                reevaluateTable( tableId );
+                tasks.add( tablePool.submit( () -> reevaluateTable( tableId ) ) );
+            } else {
+                tableStatistic.remove( tableId );
             }
-            tableStatistic.remove( tableId );
         }
+        awaitTasks( tasks );
     }
 
 
@@ -869,10 +1116,10 @@ public void tablesToUpdate( long tableId ) {
 
 
     /**
-     * Updates the StatisticColumn (min, max, uniqueValues and temporalStatistics).
-     * After an insert the inserted values are added to the Statistics if necessary.
-     * After a truncate all values are deleted.
-     * Method is not used if rows are deleted because it wouldn't be accurate anymore.
+     * Updates the StatisticColumn (min, max, uniqueValues, temporalStatistics and sketches) with the changes of a
+     * committed transaction. After an insert the inserted values are added to the Statistics if necessary.
+     * After a truncate all values are deleted. Deleted and updated rows cannot be removed from the statistics, they are
+     * only counted (see {@link #addModifiedRows(long, int)}).
      *
      * @param tableId of tables
      * @param changedValues of the table
@@ -886,8 +1133,10 @@ public void tablesToUpdate( long tableId, Map<Long, List<Object>> changedValues,
             switch ( type ) {
                 case "INSERT":
                     handleInsert( tableId, changedValues, schemaId, catalog );
+                    addModifiedRows( tableId, changedValues.values().stream().filter( Objects::nonNull ).mapToInt( List::size ).max().orElse( 0 ) );
                     break;
                 case "TRUNCATE":
+                    modifiedRows.remove( tableId );
                     handleTruncate( tableId, schemaId, catalog );
                     break;
                 case "DROP_COLUMN":
@@ -898,6 +1147,25 @@ public void tablesToUpdate( long tableId, Map<Long, List<Object>> changedValues,
     }
 
 
+    /**
+     * Counts the modified rows of a table and schedules the reevaluation of its statistics if the incrementally
+     * maintained statistics have become too inaccurate.
+     *
+     * @param tableId of the table
+     * @param rows number of inserted, deleted or updated rows
+     */
+    @Override
+    public void addModifiedRows( long tableId, int rows ) {
+        long modified = modifiedRows.merge( tableId, (long) rows, Long::sum );
+        Integer rowCount = rowCountPerTable( tableId );
+        double threshold = RuntimeConfig.STATISTIC_REEVALUATION_THRESHOLD.getInteger() / 100.0 * (rowCount == null ? 0 : rowCount);
+        if ( modified > Math.max( MIN_MODIFIED_ROWS, threshold ) ) {
+            modifiedRows.remove( tableId );
+            tablesToUpdate( tableId );
+        }
+    }
+
+
     private void handleDrop( long tableId, Map<Long, List<Object>> changedValues, long schemaId ) {
         Map<Long, Map<Long, StatisticColumn<T>>> schema = this.statisticSchemaMap.get( schemaId );
         if ( schema != null ) {
@@ -1230,6 +1498,42 @@ public synchronized Integer rowCountPerTable( long tableId ) {
     }
 
 
+    /**
+     * Returns the distinct value estimate and the histogram of a column, which are used in
+     * {@link org.polypheny.db.schema.impl.AbstractTable#getStatistic()} for the cardinality estimation of the optimizer.
+     *
+     * @param tableId of the table
+     * @param columnName of the column
+     * @return the statistics of the column or null if they are not available
+     */
+    @Override
+    public ColumnStatistic getColumnStatistic( long tableId, String columnName ) {
+        if ( !RuntimeConfig.STATISTIC_COLUMN_SKETCHES.getBoolean() ) {
+            return null;
+        }
+        CatalogColumn catalogColumn;
+        try {
+            catalogColumn = Catalog.getInstance().getColumn( tableId, columnName );
+        } catch ( UnknownColumnException e ) {
+            return null;
+        }
+        // The map may be replaced concurrently by a reevaluation, the lookup therefore uses a single snapshot of it
+        Map<Long, Map<Long, StatisticColumn<T>>> tables = statisticSchemaMap.get( catalogColumn.schemaId );
+        Map<Long, StatisticColumn<T>> columns = tables == null ? null : tables.get( tableId );
+        StatisticColumn<T> column = columns == null ? null : columns.get( catalogColumn.id );
+        if ( column == null ) {
+            return null;
+        }
+        ColumnStatistic statistic = column.getColumnStatistic();
+        Integer rowCount = rowCountPerTable( tableId );
+        if ( statistic != null && rowCount != null && rowCount < statistic.getDistinctCount() ) {
+            // Deleted values cannot be removed from the sketch
+            return new ColumnStatistic( rowCount, statistic.getHistogram() );
+        }
+        return statistic;
+    }
+
+
     /**
      * This class reevaluates if background tracking should be stopped or restarted depending on the state of
      * the {@link org.polypheny.db.config.ConfigManager}.
@@ -1268,9 +1572,6 @@ private void registerTrackingToggle() {
 
     private enum NodeType {
         ROW_COUNT_TABLE,
-        ROW_COUNT_COLUMN,
-        MIN,
-        MAX,
         UNIQUE_VALUE
     }
 
@@ -63,6 +63,7 @@ public TemporalStatisticColumn( QueryResult column ) {
 
     @Override
     public void insert( T val ) {
+        addToSketches( val );
         if ( uniqueValues.size() < RuntimeConfig.STATISTIC_BUFFER.getInteger() ) {
             if ( !uniqueValues.contains( val ) ) {
                 uniqueValues.add( val );
@@ -103,6 +103,7 @@
 import org.polypheny.db.languages.QueryParameters;
 import org.polypheny.db.nodes.Node;
 import org.polypheny.db.processing.Processor;
+import org.polypheny.db.processing.caching.TranslationCache;
 import org.polypheny.db.routing.ExecutionTimeMonitor;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.transaction.TransactionException;
@@ -1239,7 +1240,21 @@ private List<Object> convertList( List<Object> list ) {
 
     private void prepare( StatementHandle h, String sql ) throws NoSuchStatementException {
         PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
-        Processor sqlProcessor = statementHandle.getStatement().getTransaction().getProcessor( QueryLanguage.from( "sql" ) );
+        QueryLanguage language = QueryLanguage.from( "sql" );
+        String namespace = statementHandle.getStatement().getPrepareContext().getDefaultSchemaName();
+        boolean useTranslationCache = TranslationCache.INSTANCE.isActive( statementHandle.getStatement() );
+
+        if ( useTranslationCache ) {
+            Pair<AlgRoot, AlgDataType> cached = TranslationCache.INSTANCE.getIfPresent( statementHandle.getStatement(), language, namespace, sql );
+            if ( cached != null ) {
+                PolyphenyDbSignature<?> signature = PolyphenyDbSignature.from( statementHandle.getStatement().getQueryProcessor().prepareQuery( cached.left, cached.right, true ) );
+                h.signature = signature;
+                statementHandle.setSignature( signature );
+                return;
+            }
+        }
+
+        Processor sqlProcessor = statementHandle.getStatement().getTransaction().getProcessor( language );
 
         Node parsed = sqlProcessor.parse( sql ).get( 0 );
 
@@ -1254,6 +1269,10 @@ private void prepare( StatementHandle h, String sql ) throws NoSuchStatementExce
             AlgRoot logicalRoot = sqlProcessor.translate( statementHandle.getStatement(), validated.left, null );
             AlgDataType parameterRowType = sqlProcessor.getParameterRowType( validated.left );
 
+            if ( useTranslationCache ) {
+                TranslationCache.INSTANCE.put( language, namespace, sql, logicalRoot, parameterRowType );
+            }
+
             // Prepare
             signature = PolyphenyDbSignature.from( statementHandle.getStatement().getQueryProcessor().prepareQuery( logicalRoot, parameterRowType, true ) );
         }
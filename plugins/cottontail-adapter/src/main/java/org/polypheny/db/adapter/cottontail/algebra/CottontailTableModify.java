@@ -33,6 +33,7 @@
 import org.polypheny.db.algebra.AbstractAlgNode;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Modify;
+import org.polypheny.db.algebra.core.common.BulkModify;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.plan.AlgOptCluster;
@@ -50,7 +51,7 @@
 import org.polypheny.db.util.BuiltInMethod;
 
 
-public class CottontailTableModify extends Modify implements CottontailAlg {
+public class CottontailTableModify extends Modify implements CottontailAlg, BulkModify {
 
     public final CottontailTable cottontailTable;
 
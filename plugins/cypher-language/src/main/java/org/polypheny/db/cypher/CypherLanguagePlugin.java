@@ -23,6 +23,7 @@
 import org.pf4j.PluginWrapper;
 import org.polypheny.db.PolyImplementation;
 import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.Catalog.NamespaceType;
 import org.polypheny.db.cypher.parser.CypherParserImpl;
 import org.polypheny.db.information.InformationManager;
@@ -32,9 +33,11 @@
 import org.polypheny.db.plugins.PolyPluginManager;
 import org.polypheny.db.processing.AutomaticDdlProcessor;
 import org.polypheny.db.processing.ExtendedQueryParameters;
+import org.polypheny.db.processing.caching.TranslationCache;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.transaction.TransactionManager;
+import org.polypheny.db.util.Pair;
 import org.polypheny.db.webui.Crud;
 import org.polypheny.db.webui.crud.LanguageCrud;
 import org.polypheny.db.webui.models.Result;
@@ -135,7 +138,20 @@ public static List<Result> anyCypherQuery(
                     if ( transaction.isAnalyze() ) {
                         statement.getOverviewDuration().start( "Translation" );
                     }
-                    AlgRoot logicalRoot = cypherProcessor.translate( statement, stmt, parameters );
+                    AlgRoot logicalRoot;
+                    // Only single statement queries can be identified by their query text
+                    boolean useTranslationCache = statements.size() == 1 && TranslationCache.INSTANCE.isActive( statement );
+                    Pair<AlgRoot, AlgDataType> cached = useTranslationCache
+                            ? TranslationCache.INSTANCE.getIfPresent( statement, QueryLanguage.from( NAME ), request.database, query )
+                            : null;
+                    if ( cached != null ) {
+                        logicalRoot = cached.left;
+                    } else {
+                        logicalRoot = cypherProcessor.translate( statement, stmt, parameters );
+                        if ( useTranslationCache ) {
+                            TranslationCache.INSTANCE.put( QueryLanguage.from( NAME ), request.database, query, logicalRoot, null );
+                        }
+                    }
                     if ( transaction.isAnalyze() ) {
                         statement.getOverviewDuration().stop( "Translation" );
                     }
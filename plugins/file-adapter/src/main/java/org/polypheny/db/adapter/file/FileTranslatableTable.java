@@ -66,8 +66,6 @@ public class FileTranslatableTable extends AbstractQueryableTable implements Tra
     @Getter
     private final List<Long> pkIds; // Ids of the columns that are part of the primary key
     @Getter
-    private final int adapterId;
-    @Getter
     private final FileSchema fileSchema;
     private final AlgProtoDataType protoRowType;
 
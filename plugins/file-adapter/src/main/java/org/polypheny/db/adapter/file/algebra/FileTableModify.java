@@ -25,6 +25,7 @@
 import org.polypheny.db.algebra.AbstractAlgNode;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Modify;
+import org.polypheny.db.algebra.core.common.BulkModify;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptCost;
@@ -39,7 +40,7 @@
 import org.polypheny.db.type.PolyType;
 
 
-public class FileTableModify extends Modify implements FileAlg {
+public class FileTableModify extends Modify implements FileAlg, BulkModify {
 
     public FileTableModify( AlgOptCluster cluster, AlgTraitSet traits, AlgOptTable table, CatalogReader catalogReader, AlgNode child, Operation operation, List<String> updateColumnList, List<RexNode> sourceExpressionList, boolean flattened ) {
         super( cluster, traits, table, catalogReader, child, operation, updateColumnList, sourceExpressionList, flattened );
@@ -67,6 +68,15 @@ public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
     }
 
 
+    /**
+     * Only inserts write the rows of all parameter sets at once, updates and deletes are executed per parameter set.
+     */
+    @Override
+    public boolean isBulk() {
+        return getOperation() == Operation.INSERT;
+    }
+
+
     @Override
     public void register( AlgOptPlanner planner ) {
         getConvention().register( planner );
@@ -119,7 +119,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                     Expressions.call(
                             enumeratorMethod,
                             Expressions.constant( fileImplementor.getOperation() ),
-                            Expressions.constant( fileImplementor.getFileTable().getAdapterId() ),
+                            Expressions.constant( fileImplementor.getFileTable().getFileSchema().getAdapterId() ),
                             Expressions.constant( fileImplementor.getFileTable().getPartitionId() ),
                             DataContext.ROOT,
                             Expressions.constant( fileSchema.getRootDir().getAbsolutePath() ),
@@ -136,7 +136,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                     Expressions.call(
                             FileMethod.EXECUTE_MODIFY.method,
                             Expressions.constant( fileImplementor.getOperation() ),
-                            Expressions.constant( fileImplementor.getFileTable().getAdapterId() ),
+                            Expressions.constant( fileImplementor.getFileTable().getFileSchema().getAdapterId() ),
                             Expressions.constant( fileImplementor.getFileTable().getPartitionId() ),
                             DataContext.ROOT,
                             Expressions.constant( fileSchema.getRootDir().getAbsolutePath() ),
@@ -41,6 +41,7 @@
 import org.polypheny.db.algebra.*;
 import org.polypheny.db.algebra.convert.ConverterRule;
 import org.polypheny.db.algebra.core.*;
+import org.polypheny.db.algebra.core.common.BulkModify;
 import org.polypheny.db.algebra.metadata.AlgMdUtil;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
 import org.polypheny.db.algebra.type.AlgDataType;
@@ -1009,7 +1010,7 @@ public AlgNode convert( AlgNode alg ) {
     /**
      * Table-modification operator implemented in JDBC convention.
      */
-    public static class JdbcTableModify extends Modify implements JdbcAlg {
+    public static class JdbcTableModify extends Modify implements JdbcAlg, BulkModify {
 
         private final Expression expression;
 
@@ -208,7 +208,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                                     DataContext.ROOT ) );
 
             enumerable = builder0.append(
-                    "enumerable" + System.nanoTime(),
+                    builder0.newName( "enumerable" ),
                     Expressions.call(
                             RESULT_SET_ENUMERABLE_OF_PREPARED_METHOD,
                             Expressions.call(
@@ -220,7 +220,7 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                             preparedStatementConsumer_ ) );
         } else {
             enumerable = builder0.append(
-                    "enumerable" + System.nanoTime(),
+                    builder0.newName( "enumerable" ),
                     Expressions.call(
                             RESULT_SET_ENUMERABLE_OF_METHOD,
                             Expressions.call(
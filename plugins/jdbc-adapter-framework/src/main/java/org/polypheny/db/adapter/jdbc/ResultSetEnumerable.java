@@ -462,9 +462,12 @@ private Enumerator<T> enumeratorBasedOnPreparedStatement() {
             setTimeoutIfPossible( preparedStatement );
             if ( preparedStatementEnricher.enrich( preparedStatement, connectionHandler ) ) {
                 // batch
-                preparedStatement.executeBatch();
-                Integer updateCount = preparedStatement.getUpdateCount();
-                return Linq4j.singletonEnumerator( (T) updateCount );
+                int updateCount = 0;
+                for ( int count : preparedStatement.executeBatch() ) {
+                    // Drivers may not report the number of rows of a statement of the batch
+                    updateCount += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                }
+                return Linq4j.singletonEnumerator( (T) Integer.valueOf( updateCount ) );
             } else {
                 if ( preparedStatement.execute() ) {
                     final ResultSet resultSet = preparedStatement.getResultSet();
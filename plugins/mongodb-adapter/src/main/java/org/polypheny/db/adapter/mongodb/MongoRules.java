@@ -50,6 +50,7 @@
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.convert.ConverterRule;
 import org.polypheny.db.algebra.core.*;
+import org.polypheny.db.algebra.core.common.BulkModify;
 import org.polypheny.db.algebra.core.document.DocumentModify;
 import org.polypheny.db.algebra.core.document.DocumentSort;
 import org.polypheny.db.algebra.core.document.DocumentValues;
@@ -944,7 +945,7 @@ public AlgNode convert( AlgNode alg ) {
     }
 
 
-    private static class MongoEntityModify extends Modify implements MongoAlg {
+    private static class MongoEntityModify extends Modify implements MongoAlg, BulkModify {
 
 
         private final GridFSBucket bucket;
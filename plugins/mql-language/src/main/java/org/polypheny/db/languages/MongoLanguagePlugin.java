@@ -27,6 +27,7 @@
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.operators.OperatorName;
+import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.catalog.Catalog.NamespaceType;
 import org.polypheny.db.information.InformationManager;
 import org.polypheny.db.languages.mql.Mql.Family;
@@ -39,9 +40,11 @@
 import org.polypheny.db.nodes.Operator;
 import org.polypheny.db.plugins.PolyPluginManager;
 import org.polypheny.db.processing.AutomaticDdlProcessor;
+import org.polypheny.db.processing.caching.TranslationCache;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
 import org.polypheny.db.transaction.TransactionManager;
+import org.polypheny.db.util.Pair;
 import org.polypheny.db.webui.Crud;
 import org.polypheny.db.webui.crud.LanguageCrud;
 import org.polypheny.db.webui.models.Result;
@@ -147,7 +150,17 @@ public static List<Result> anyMongoQuery(
                     if ( transaction.isAnalyze() ) {
                         statement.getOverviewDuration().start( "Translation" );
                     }
-                    AlgRoot logicalRoot = mqlProcessor.translate( statement, parsed, parameters );
+                    AlgRoot logicalRoot;
+                    boolean useTranslationCache = TranslationCache.INSTANCE.isActive( statement );
+                    Pair<AlgRoot, AlgDataType> cached = useTranslationCache ? TranslationCache.INSTANCE.getIfPresent( statement, language, database, query ) : null;
+                    if ( cached != null ) {
+                        logicalRoot = cached.left;
+                    } else {
+                        logicalRoot = mqlProcessor.translate( statement, parsed, parameters );
+                        if ( useTranslationCache ) {
+                            TranslationCache.INSTANCE.put( language, database, query, logicalRoot, null );
+                        }
+                    }
                     if ( transaction.isAnalyze() ) {
                         statement.getOverviewDuration().stop( "Translation" );
                     }
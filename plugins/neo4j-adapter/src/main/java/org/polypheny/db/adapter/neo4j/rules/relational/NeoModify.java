@@ -21,13 +21,14 @@
 import org.polypheny.db.adapter.neo4j.rules.NeoRelAlg;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Modify;
+import org.polypheny.db.algebra.core.common.BulkModify;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptTable;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.prepare.Prepare.CatalogReader;
 import org.polypheny.db.rex.RexNode;
 
-public class NeoModify extends Modify implements NeoRelAlg {
+public class NeoModify extends Modify implements NeoRelAlg, BulkModify {
 
     /**
      * Creates a {@code Modify}.
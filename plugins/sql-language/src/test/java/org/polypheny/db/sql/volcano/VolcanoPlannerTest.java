@@ -54,6 +54,7 @@
 import org.polypheny.db.plan.ConventionTraitDef;
 import org.polypheny.db.plan.volcano.AlgSubset;
 import org.polypheny.db.plan.volcano.VolcanoPlanner;
+import org.polypheny.db.plan.volcano.VolcanoPlanner.PlanningOutcome;
 import org.polypheny.db.sql.volcano.PlannerTests.GoodSingleRule;
 import org.polypheny.db.sql.volcano.PlannerTests.NoneLeafAlg;
 import org.polypheny.db.sql.volcano.PlannerTests.NoneSingleAlg;
@@ -114,6 +115,33 @@ public void testTransformSingleGood() {
     }
 
 
+    /**
+     * Tests that a planner whose deadline has passed still returns an implementable plan.
+     */
+    @Test
+    public void testDeadline() {
+        VolcanoPlanner planner = new VolcanoPlanner();
+        planner.addAlgTraitDef( ConventionTraitDef.INSTANCE );
+
+        planner.addRule( new PhysLeafRule() );
+        planner.addRule( new GoodSingleRule() );
+
+        AlgOptCluster cluster = PlannerTests.newCluster( planner );
+        NoneLeafAlg leafRel = new NoneLeafAlg( cluster, "a" );
+        NoneSingleAlg singleRel = new NoneSingleAlg( cluster, leafRel );
+        AlgNode convertedRel = planner.changeTraits( singleRel, cluster.traitSetOf( PlannerTests.PHYS_CALLING_CONVENTION ) );
+        planner.setRoot( convertedRel );
+        planner.setDeadline( System.nanoTime() - 1 );
+        AlgNode result = planner.chooseDelegate().findBestExp();
+        assertTrue( result instanceof PhysSingleAlg );
+        assertEquals( PlanningOutcome.JOIN_ORDER_FALLBACK, planner.getOutcome() );
+
+        planner.setDeadline( VolcanoPlanner.NO_DEADLINE );
+        planner.chooseDelegate().findBestExp();
+        assertEquals( PlanningOutcome.COMPLETED, planner.getOutcome() );
+    }
+
+
     /**
      * Tests a rule that is fired once per subset (whereas most rules are fired once per alg in a set or alg in a subset)
      */
@@ -153,6 +153,7 @@
 import org.polypheny.db.plugins.PolyPluginManager.PluginStatus;
 import org.polypheny.db.processing.ExtendedQueryParameters;
 import org.polypheny.db.processing.Processor;
+import org.polypheny.db.processing.caching.TranslationCache;
 import org.polypheny.db.schema.graph.GraphObject;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.Transaction;
@@ -3363,10 +3364,19 @@ public static ArrayList<String[]> computeResultData( final List<List<Object>> ro
 
     private PolyImplementation processQuery( Statement statement, String sql, boolean isAnalyze ) {
         PolyImplementation result;
+        QueryLanguage language = QueryLanguage.from( "sql" );
+        String namespace = statement.getPrepareContext().getDefaultSchemaName();
+        boolean useTranslationCache = TranslationCache.INSTANCE.isActive( statement );
+        if ( useTranslationCache ) {
+            Pair<AlgRoot, AlgDataType> cached = TranslationCache.INSTANCE.getIfPresent( statement, language, namespace, sql );
+            if ( cached != null ) {
+                return statement.getQueryProcessor().prepareQuery( cached.left, true );
+            }
+        }
         if ( isAnalyze ) {
             statement.getOverviewDuration().start( "Parsing" );
         }
-        Processor sqlProcessor = statement.getTransaction().getProcessor( QueryLanguage.from( "sql" ) );
+        Processor sqlProcessor = statement.getTransaction().getProcessor( language );
         Node parsed = sqlProcessor.parse( sql ).get( 0 );
         if ( isAnalyze ) {
             statement.getOverviewDuration().stop( "Parsing" );
@@ -3388,6 +3398,9 @@ private PolyImplementation processQuery( Statement statement, String sql, boolea
             if ( isAnalyze ) {
                 statement.getOverviewDuration().stop( "Translation" );
             }
+            if ( useTranslationCache ) {
+                TranslationCache.INSTANCE.put( language, namespace, sql, logicalRoot, null );
+            }
             result = statement.getQueryProcessor().prepareQuery( logicalRoot, true );
         }
         return result;